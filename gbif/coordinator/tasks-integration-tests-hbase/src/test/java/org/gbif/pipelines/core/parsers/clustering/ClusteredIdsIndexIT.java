@@ -0,0 +1,133 @@
+package org.gbif.pipelines.core.parsers.clustering;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.gbif.pipelines.core.config.model.ClusteringRelationshipConfig;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ClusteredIdsIndexIT {
+
+  private static final String TABLE_NAME = "test_relationship";
+  private static final byte[] TABLE = Bytes.toBytes(TABLE_NAME);
+  private static final byte[] CF = Bytes.toBytes("o");
+  private static final int SALT = 10;
+
+  private static final HBaseTestingUtility TEST_UTIL = new HBaseTestingUtility();
+  private static Connection connection = null;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    TEST_UTIL.getConfiguration().setInt("hbase.master.port", HBaseTestingUtility.randomFreePort());
+    TEST_UTIL
+        .getConfiguration()
+        .setInt("hbase.master.info.port", HBaseTestingUtility.randomFreePort());
+    TEST_UTIL
+        .getConfiguration()
+        .setInt("hbase.regionserver.port", HBaseTestingUtility.randomFreePort());
+    TEST_UTIL
+        .getConfiguration()
+        .setInt("hbase.regionserver.info.port", HBaseTestingUtility.randomFreePort());
+    TEST_UTIL.startMiniCluster(1);
+    TEST_UTIL.createTable(TABLE, CF);
+    connection = ConnectionFactory.createConnection(TEST_UTIL.getConfiguration());
+  }
+
+  @AfterClass
+  public static void afterClass() throws Exception {
+    if (connection != null) {
+      connection.close();
+    }
+    TEST_UTIL.shutdownMiniCluster();
+  }
+
+  @Before
+  public void before() throws IOException {
+    TEST_UTIL.truncateTable(TABLE);
+  }
+
+  @Test
+  public void containsTest() throws IOException {
+
+    // State
+    putRelationship(1L, 2L);
+    putRelationship(2L, 1L);
+    putRelationship(3L, 4L);
+    ClusteredIdsIndex index = ClusteredIdsIndex.create(connection, config(0L));
+
+    // Should
+    assertTrue(index.contains(1L));
+    assertTrue(index.contains(2L));
+    assertTrue(index.contains(3L));
+    assertFalse(index.contains(4L));
+    assertFalse(index.contains(5L));
+  }
+
+  @Test
+  public void refreshTest() throws IOException {
+
+    // State
+    putRelationship(1L, 2L);
+    ClusteredIdsIndex index = ClusteredIdsIndex.create(connection, config(0L));
+    assertTrue(index.contains(1L));
+    assertFalse(index.contains(11L));
+
+    // When
+    putRelationship(11L, 12L);
+
+    // Should
+    assertFalse(index.contains(11L));
+
+    // When
+    index.refresh(ClusteringService.getSalt(11L, SALT));
+
+    // Should
+    assertTrue(index.contains(1L));
+    assertTrue(index.contains(11L));
+  }
+
+  @Test
+  public void clusteringServiceTest() throws IOException {
+
+    // State
+    putRelationship(21L, 22L);
+    ClusteringService bulk = ClusteringService.createBulk(connection, config(0L));
+    ClusteringService scan = ClusteringService.create(connection, config(0L));
+
+    // Should
+    assertTrue(bulk.isClustered(21L));
+    assertTrue(scan.isClustered(21L));
+    assertFalse(bulk.isClustered(22L));
+    assertFalse(scan.isClustered(22L));
+  }
+
+  private static ClusteringRelationshipConfig config(long refreshMinutes) {
+    ClusteringRelationshipConfig config = new ClusteringRelationshipConfig();
+    config.setRelationshipTableName(TABLE_NAME);
+    config.setRelationshipTableSalt(SALT);
+    config.setBulkLoad(true);
+    config.setBulkLoadRefreshMinutes(refreshMinutes);
+    return config;
+  }
+
+  /** Row keys of the relationship table are salt:gbifId:otherGbifId */
+  private static void putRelationship(long gbifId, long otherGbifId) throws IOException {
+    int salt = ClusteringService.getSalt(gbifId, SALT);
+    Put put = new Put(Bytes.toBytes(salt + ":" + gbifId + ":" + otherGbifId));
+    put.addColumn(CF, Bytes.toBytes("id1"), Bytes.toBytes(String.valueOf(gbifId)));
+    try (Table table = connection.getTable(TableName.valueOf(TABLE_NAME))) {
+      table.put(put);
+    }
+  }
+}
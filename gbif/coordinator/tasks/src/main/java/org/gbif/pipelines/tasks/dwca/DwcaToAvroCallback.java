@@ -110,6 +110,7 @@ public class DwcaToAvroCallback extends AbstractMessageCallback<PipelinesDwcaMes
 
       // Run main conversion process
       DwcaToAvroConverter.create()
+          .parallelism(config.dwcaReaderParallelism)
           .codecFactory(CodecFactory.fromString(config.avroConfig.compressionType))
           .syncInterval(config.avroConfig.syncInterval)
           .hdfsSiteConfig(config.stepConfig.hdfsSiteConfig)
@@ -41,6 +41,9 @@ public class DwcaToAvroConfiguration implements BaseConfiguration {
   @Parameter(names = "--validator-only")
   public boolean validatorOnly = false;
 
+  @Parameter(names = "--dwca-reader-parallelism")
+  public int dwcaReaderParallelism = 1;
+
   @Override
   public String getHdfsSiteConfig() {
     return stepConfig.hdfsSiteConfig;
@@ -102,6 +102,7 @@ public class FragmenterCallback extends AbstractMessageCallback<PipelinesInterpr
               .useSyncMode(useSync)
               .backPressure(config.backPressure)
               .batchSize(config.batchSize)
+              .preloadKeys(config.preloadKeys)
               .build()
               .persist();
 
@@ -60,6 +60,9 @@ public class FragmenterConfiguration implements BaseConfiguration {
   @Parameter(names = "--back-pressure")
   public Integer backPressure;
 
+  @Parameter(names = "--preload-keys")
+  public boolean preloadKeys = false;
+
   @Override
   public String getHdfsSiteConfig() {
     return stepConfig.hdfsSiteConfig;
@@ -89,7 +89,6 @@ public class DwcaMetricsCollector implements MetricsCollector {
             .fileInfos(fileInfos)
             .key(message.getDatasetUuid())
             .index(config.indexName)
-            .corePrefix(config.corePrefix)
             .extensionsPrefix(config.extensionsPrefix)
             .esHost(config.esConfig.hosts)
             .build()
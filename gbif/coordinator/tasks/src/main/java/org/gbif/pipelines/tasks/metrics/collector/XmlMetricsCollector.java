@@ -61,7 +61,6 @@ public class XmlMetricsCollector implements MetricsCollector {
             .fileInfos(fileInfos)
             .key(message.getDatasetUuid())
             .index(config.indexName)
-            .corePrefix(config.corePrefix)
             .extensionsPrefix(config.extensionsPrefix)
             .esHost(config.esConfig.hosts)
             .build()
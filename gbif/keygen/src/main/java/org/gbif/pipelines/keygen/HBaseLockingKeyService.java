@@ -6,14 +6,20 @@ import com.google.common.annotations.VisibleForTesting;
 import java.io.Serializable;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import lombok.SneakyThrows;
@@ -28,6 +34,8 @@ import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.filter.CompareFilter;
 import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
 import org.apache.hadoop.hbase.filter.PrefixFilter;
 import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
 import org.apache.hadoop.hbase.util.Bytes;
@@ -67,6 +75,10 @@ public class HBaseLockingKeyService implements Serializable {
   private long maxReservedKeyInclusive;
 
   private static final int HBASE_CLIENT_CACHING = 200;
+  private static final int PRELOAD_CLIENT_CACHING = 10_000;
+
+  // lookup keys of preloaded scopes by lookup table and scope, shared by all services of the JVM
+  private static final Map<String, LookupKeyCache> SCOPE_CACHES = new ConcurrentHashMap<>();
 
   private final Connection connection;
   private final TableName lookupTableName;
@@ -101,26 +113,171 @@ public class HBaseLockingKeyService implements Serializable {
 
   /** */
   public KeyLookupResult generateKey(Set<String> uniqueStrings, String scope) {
-    Map<String, KeyStatus> statusMap =
-        new TreeMap<>(); // required: predictable sorting for e.g. testing
-    Map<String, Long> existingKeyMap =
-        new TreeMap<>(); // required: predictable sorting for e.g. testing
-    byte[] lockId = Bytes.toBytes(UUID.randomUUID().toString());
+    return generateKeys(Collections.singletonList(uniqueStrings), scope).get(0);
+  }
+
+  /**
+   * Retrieves or creates the keys of many records at once, with the same locking as {@link
+   * #generateKey(Set, String)} but reading all lookup rows of a round with one multi get, writing
+   * the allocated keys with one batched put and releasing the locks with one batched delete. Locks
+   * are still taken with a checkAndPut per lookup key, HBase has no multi row check and mutate.
+   *
+   * <p>Records sharing a lookup key with a record earlier in the batch are handled in the next
+   * round, so they see the key allocated to the earlier one. Records which hit a lock of another
+   * party release their own locks and are retried in the next round, after a short wait.
+   *
+   * @param uniqueStringSets the unique strings of every record
+   * @param scope the scope of the lookup, usually the datasetKey
+   * @return the key of every record, in the same order
+   */
+  public List<KeyLookupResult> generateKeys(List<Set<String>> uniqueStringSets, String scope) {
+    checkNotNull(uniqueStringSets, "uniqueStringSets can't be null");
+
+    List<Set<String>> lookupKeySets = new ArrayList<>(uniqueStringSets.size());
+    for (Set<String> uniqueStrings : uniqueStringSets) {
+      lookupKeySets.add(new TreeSet<>(OccurrenceKeyBuilder.buildKeys(uniqueStrings, scope)));
+    }
+
+    KeyLookupResult[] results = new KeyLookupResult[uniqueStringSets.size()];
+    RpcCounts counts = new RpcCounts();
+    List<Integer> pending = new ArrayList<>(results.length);
+    for (int i = 0; i < results.length; i++) {
+      pending.add(i);
+    }
+
+    while (!pending.isEmpty()) {
+      counts.rounds++;
+
+      // a lookup key can be locked only once per round
+      Set<String> claimed = new HashSet<>();
+      List<Integer> round = new ArrayList<>(pending.size());
+      List<Integer> next = new ArrayList<>();
+      for (Integer i : pending) {
+        if (Collections.disjoint(claimed, lookupKeySets.get(i))) {
+          claimed.addAll(lookupKeySets.get(i));
+          round.add(i);
+        } else {
+          next.add(i);
+        }
+      }
+
+      boolean contention = allocateKeys(round, lookupKeySets, results, next, counts);
+      if (contention) {
+        log.debug("Failed to get all locks. Trying [{}] records again.", next.size());
+        try {
+          TimeUnit.MILLISECONDS.sleep(
+              WAIT_BEFORE_RETRY_MS + random.nextInt(WAIT_SKEW) - random.nextInt(WAIT_SKEW));
+        } catch (InterruptedException e) {
+          // do nothing
+        }
+      }
+      pending = next;
+    }
+
+    log.debug("<< generateKeys for [{}] records, {}", results.length, counts);
+    return Arrays.asList(results);
+  }
+
+  /**
+   * One round of {@link #generateKeys}, records which didn't get all locks are added to retry.
+   *
+   * @return true if any record hit a lock of another party
+   */
+  private boolean allocateKeys(
+      List<Integer> round,
+      List<Set<String>> lookupKeySets,
+      KeyLookupResult[] results,
+      List<Integer> retry,
+      RpcCounts counts) {
 
     // lookupTable schema: lookupKey | status | lock | key
+    Set<String> lookupKeys = new HashSet<>();
+    round.forEach(i -> lookupKeys.addAll(lookupKeySets.get(i)));
+    Map<String, Result> rows = lookupTableStore.getRows(lookupKeys);
+    counts.multiGets++;
 
+    byte[] lockId = Bytes.toBytes(UUID.randomUUID().toString());
     // all of our locks will have the same timestamp
     long now = System.currentTimeMillis();
 
-    Set<String> lookupKeys = OccurrenceKeyBuilder.buildKeys(uniqueStrings, scope);
-    boolean failed = false;
-    Long key = null;
+    boolean contention = false;
+    Map<String, Long> allocations = new HashMap<>();
+    List<String> locks = new ArrayList<>();
+    try {
+      for (Integer i : round) {
+        Map<String, KeyStatus> statusMap =
+            new TreeMap<>(); // required: predictable sorting for e.g. testing
+        Long foundKey = lockLookupKeys(lookupKeySets.get(i), rows, lockId, now, statusMap, counts);
+
+        statusMap.entrySet().stream()
+            .filter(entry -> entry.getValue() == KeyStatus.ALLOCATING)
+            .forEach(entry -> locks.add(entry.getKey()));
+
+        if (statusMap.size() < lookupKeySets.get(i).size()) {
+          log.debug("Failed to get lock. Releasing held locks and trying again.");
+          contention = true;
+          retry.add(i);
+          continue;
+        }
+
+        // now we have map of every lookupKey to either ALLOCATED or ALLOCATING, and locks on all
+        // ALLOCATING
+        long key;
+        if (foundKey == null) {
+          key = getNextKey();
+          results[i] = new KeyLookupResult(key, true);
+          log.debug("Now assigning new key [{}]", key);
+        } else {
+          key = foundKey;
+          results[i] = new KeyLookupResult(key, false);
+          log.debug("Using found key [{}]", key);
+        }
+
+        statusMap.entrySet().stream()
+            .filter(entry -> entry.getValue() == KeyStatus.ALLOCATING)
+            .forEach(entry -> allocations.put(entry.getKey(), key));
+      }
+
+      // write the keys and update status to ALLOCATED
+      if (!allocations.isEmpty()) {
+        lookupTableStore.putLongStrings(
+            allocations,
+            Columns.LOOKUP_KEY_COLUMN,
+            Columns.LOOKUP_STATUS_COLUMN,
+            KeyStatus.ALLOCATED.toString());
+        counts.batchPuts++;
+      }
+    } finally {
+      if (!locks.isEmpty()) {
+        lookupTableStore.delete(locks, Columns.LOOKUP_LOCK_COLUMN);
+        counts.batchDeletes++;
+      }
+    }
+    return contention;
+  }
+
+  /**
+   * Takes the locks of the lookup keys of one record, stopping at the first one held by another
+   * party, so the status map has fewer entries than lookup keys when the record has to be retried.
+   *
+   * @return the key already allocated to any of the lookup keys, or null
+   */
+  private Long lockLookupKeys(
+      Set<String> lookupKeys,
+      Map<String, Result> rows,
+      byte[] lockId,
+      long now,
+      Map<String, KeyStatus> statusMap,
+      RpcCounts counts) {
+    Map<String, Long> existingKeyMap =
+        new TreeMap<>(); // required: predictable sorting for e.g. testing
     Long foundKey = null;
     for (String lookupKey : lookupKeys) {
-      Result row = lookupTableStore.getRow(lookupKey);
+      Result row = rows.get(lookupKey);
       log.debug("Lookup for [{}] produced [{}]", lookupKey, row);
       KeyStatus status = null;
       byte[] existingLock = null;
+      Long key = null;
       if (row != null) {
         String rawStatus =
             ResultReader.getString(
@@ -138,7 +295,6 @@ public class HBaseLockingKeyService implements Serializable {
       }
 
       if (status == KeyStatus.ALLOCATED) {
-        log.debug("Status ALLOCATED, using found key [{}]", key);
         // even if existingLock is != null, ALLOCATED means the key exists and is final
         statusMap.put(lookupKey, KeyStatus.ALLOCATED);
         existingKeyMap.put(lookupKey, key);
@@ -153,6 +309,7 @@ public class HBaseLockingKeyService implements Serializable {
         log.debug("Status ALLOCATED, using found key [{}]", foundKey);
       } else if (existingLock == null) {
         // lock is ours for the taking - checkAndPut lockId, expecting null for lockId
+        counts.checkAndPuts++;
         boolean gotLock =
             lookupTableStore.checkAndPut(
                 lookupKey,
@@ -165,7 +322,6 @@ public class HBaseLockingKeyService implements Serializable {
           statusMap.put(lookupKey, KeyStatus.ALLOCATING);
           log.debug("Grabbed free lock, now ALLOCATING [{}]", lookupKey);
         } else {
-          failed = true;
           log.debug("Failed to grab free lock for [{}], breaking", lookupKey);
           break;
         }
@@ -182,6 +338,7 @@ public class HBaseLockingKeyService implements Serializable {
           // key, but then
           // died before releasing lock.
           // checkandPut our lockId, expecting lock to match the existing lock
+          counts.checkAndPuts++;
           boolean gotLock =
               lookupTableStore.checkAndPut(
                   lookupKey,
@@ -199,62 +356,17 @@ public class HBaseLockingKeyService implements Serializable {
             // id is final
             // 2) they grabbed lock so status is a newer lock uuid with recent timestamp
             // in either case we're toast - abort and try again
-            failed = true;
             log.debug("Failed to reset stale lock for [{}], breaking", lookupKey);
             break;
           }
         } else {
           // someone has a current lock, we need to give up and try again
-          failed = true;
           log.debug("Hit valid, current lock for [{}], breaking", lookupKey);
           break;
         }
       }
     }
-
-    if (failed) {
-      log.debug("Failed to get lock. Releasing held locks and trying again.");
-      releaseLocks(statusMap);
-      try {
-        TimeUnit.MILLISECONDS.sleep(
-            WAIT_BEFORE_RETRY_MS + random.nextInt(WAIT_SKEW) - random.nextInt(WAIT_SKEW));
-      } catch (InterruptedException e) {
-        // do nothing
-      }
-      // recurse
-      return generateKey(uniqueStrings, scope);
-    }
-
-    // now we have map of every lookupKey to either ALLOCATED or ALLOCATING, and locks on all
-    // ALLOCATING
-    KeyLookupResult lookupResult;
-    if (foundKey == null) {
-      key = getNextKey();
-      lookupResult = new KeyLookupResult(key, true);
-      log.debug("Now assigning new key [{}]", key);
-    } else {
-      key = foundKey;
-      lookupResult = new KeyLookupResult(key, false);
-      log.debug("Using found key [{}]", key);
-    }
-
-    // write the key and update status to ALLOCATED
-    for (Map.Entry<String, KeyStatus> entry : statusMap.entrySet()) {
-      if (entry.getValue() == KeyStatus.ALLOCATING) {
-        lookupTableStore.putLongString(
-            entry.getKey(),
-            Columns.LOOKUP_KEY_COLUMN,
-            key,
-            Columns.LOOKUP_STATUS_COLUMN,
-            KeyStatus.ALLOCATED.toString());
-      }
-    }
-
-    releaseLocks(statusMap);
-
-    log.debug("<< generateKey (generated? [{}] key [{}])", !key.equals(foundKey), key);
-
-    return lookupResult;
+    return foundKey;
   }
 
   /** Retrieves or creates the key for the given record identifiers. */
@@ -262,6 +374,11 @@ public class HBaseLockingKeyService implements Serializable {
     return generateKey(uniqueStrings, datasetId);
   }
 
+  /** Retrieves or creates the keys of many records, see {@link #generateKeys(List, String)} */
+  public List<KeyLookupResult> generateKeys(List<Set<String>> uniqueStringSets) {
+    return generateKeys(uniqueStringSets, datasetId);
+  }
+
   /**
    * Provides the next available key. Because throughput of an incrementColumnValue is limited by
    * HBase to a few thousand calls per second, this implementation reserves a batch of IDs at a
@@ -288,23 +405,85 @@ public class HBaseLockingKeyService implements Serializable {
   /** */
   public KeyLookupResult findKey(Set<String> uniqueStrings, String scope) {
     checkNotNull(uniqueStrings, "uniqueStrings can't be null");
+    return findKeys(Collections.singletonList(uniqueStrings), scope).get(0);
+  }
+
+  /**
+   * Finds the keys of many records at once, reading the lookup rows of all records with one multi
+   * get and filling the missing lookup keys of found records with one batched put.
+   *
+   * @param uniqueStringSets the unique strings of every record
+   * @param scope the scope of the lookup, usually the datasetKey
+   * @return the key of every record in the same order, null if the record has no key yet
+   */
+  public List<KeyLookupResult> findKeys(List<Set<String>> uniqueStringSets, String scope) {
+    checkNotNull(uniqueStringSets, "uniqueStringSets can't be null");
     checkNotNull(scope, "scope can't be null");
-    if (uniqueStrings.isEmpty()) {
-      return null;
+
+    RpcCounts counts = new RpcCounts();
+    LookupKeyCache cache = SCOPE_CACHES.get(cacheKey(scope));
+    boolean useCache = cache != null;
+
+    List<KeyLookupResult> results = new ArrayList<>(uniqueStringSets.size());
+    List<Set<String>> lookupKeySets = new ArrayList<>(uniqueStringSets.size());
+    List<Integer> uncached = new ArrayList<>();
+    Set<String> allLookupKeys = new HashSet<>();
+    for (Set<String> uniqueStrings : uniqueStringSets) {
+      checkNotNull(uniqueStrings, "uniqueStrings can't be null");
+      Set<String> lookupKeys = OccurrenceKeyBuilder.buildKeys(uniqueStrings, scope);
+      Long cachedKey = useCache ? getCachedKey(cache, lookupKeys) : null;
+      if (cachedKey != null) {
+        counts.cacheHits++;
+        results.add(new KeyLookupResult(cachedKey, false));
+      } else {
+        uncached.add(results.size());
+        allLookupKeys.addAll(lookupKeys);
+        results.add(null);
+      }
+      lookupKeySets.add(lookupKeys);
+    }
+
+    Map<String, Result> rows = Collections.emptyMap();
+    if (!allLookupKeys.isEmpty()) {
+      rows = lookupTableStore.getRows(allLookupKeys, Columns.LOOKUP_KEY_COLUMN);
+      counts.multiGets++;
+    }
+
+    Map<String, Long> missingKeys = new HashMap<>();
+    for (Integer i : uncached) {
+      Long resultKey = findKey(lookupKeySets.get(i), rows, missingKeys);
+      if (resultKey != null) {
+        results.set(i, new KeyLookupResult(resultKey, false));
+      }
+    }
+
+    // if we got an occurrenceKey as well as nulls, then we need to fill in the lookup table with
+    // the missing entries
+    if (!missingKeys.isEmpty()) {
+      lookupTableStore.putLongs(missingKeys, Columns.LOOKUP_KEY_COLUMN);
+      counts.batchPuts++;
     }
 
-    Set<String> lookupKeys = OccurrenceKeyBuilder.buildKeys(uniqueStrings, scope);
+    log.debug("<< findKeys for [{}] records, {}", results.size(), counts);
+    return results;
+  }
+
+  /** The key of the lookup keys of one record, its missing lookup keys are added to missingKeys */
+  private static Long findKey(
+      Set<String> lookupKeys, Map<String, Result> rows, Map<String, Long> missingKeys) {
     Map<String, Long> foundOccurrenceKeys =
         new TreeMap<>(); // required: predictable sorting for e.g. testing
 
-    // get the occurrenceKey for each lookupKey, and set a flag if we find any null
-    boolean gotNulls = false;
-    for (String uniqueString : lookupKeys) {
-      Long occurrenceKey = lookupTableStore.getLong(uniqueString, Columns.LOOKUP_KEY_COLUMN);
-      if (occurrenceKey == null) {
-        gotNulls = true;
-      } else {
-        foundOccurrenceKeys.put(uniqueString, occurrenceKey);
+    // get the occurrenceKey for each lookupKey
+    for (String lookupKey : lookupKeys) {
+      Result row = rows.get(lookupKey);
+      Long occurrenceKey =
+          row == null
+              ? null
+              : ResultReader.getLong(
+                  row, Columns.OCCURRENCE_COLUMN_FAMILY, Columns.LOOKUP_KEY_COLUMN, null);
+      if (occurrenceKey != null) {
+        foundOccurrenceKeys.put(lookupKey, occurrenceKey);
       }
     }
 
@@ -312,29 +491,22 @@ public class HBaseLockingKeyService implements Serializable {
     // (this means
     // an inconsistency in the db that we can't resolve here)
     Long resultKey = null;
-    for (String uniqueString : lookupKeys) {
-      Long occurrenceKey = foundOccurrenceKeys.get(uniqueString);
-      if (occurrenceKey != null) {
-        if (resultKey == null) {
-          resultKey = occurrenceKey;
-        } else if (resultKey.longValue() != occurrenceKey.longValue()) {
-          failWithConflictingLookup(foundOccurrenceKeys);
-        }
+    for (Long occurrenceKey : foundOccurrenceKeys.values()) {
+      if (resultKey == null) {
+        resultKey = occurrenceKey;
+      } else if (resultKey.longValue() != occurrenceKey.longValue()) {
+        failWithConflictingLookup(foundOccurrenceKeys);
       }
     }
 
-    // if we got an occurrenceKey as well as nulls, then we need to fill in the lookup table with
-    // the missing entries
-    if (resultKey != null && gotNulls) {
-      fillMissingKeys(lookupKeys, foundOccurrenceKeys, resultKey);
-    }
-
-    KeyLookupResult result = null;
     if (resultKey != null) {
-      result = new KeyLookupResult(resultKey, false);
+      for (String lookupKey : lookupKeys) {
+        if (!foundOccurrenceKeys.containsKey(lookupKey)) {
+          missingKeys.put(lookupKey, resultKey);
+        }
+      }
     }
-
-    return result;
+    return resultKey;
   }
 
   /** */
@@ -342,25 +514,142 @@ public class HBaseLockingKeyService implements Serializable {
     return findKey(uniqueStrings, datasetId);
   }
 
-  @SneakyThrows
+  /** Finds the keys of many records, see {@link #findKeys(List, String)} */
+  public List<KeyLookupResult> findKeys(List<Set<String>> uniqueStringSets) {
+    return findKeys(uniqueStringSets, datasetId);
+  }
+
+  /**
+   * The key cached for all lookup keys of one record, null if any lookup key isn't cached or the
+   * cached keys differ, such records are looked up in HBase
+   */
+  private static Long getCachedKey(LookupKeyCache cache, Set<String> lookupKeys) {
+    Long cachedKey = null;
+    for (String lookupKey : lookupKeys) {
+      Long key = cache.get(lookupKey);
+      if (key == null || (cachedKey != null && cachedKey.longValue() != key.longValue())) {
+        return null;
+      }
+      cachedKey = key;
+    }
+    return cachedKey;
+  }
+
+  /**
+   * Reads the keys of all ALLOCATED lookup keys of the scope with one scan, {@link #findKeys} then
+   * answers the records of the scope with only cached lookup keys without calling HBase. Meant for
+   * re-crawls, where most records already have keys. Lookup keys allocated later are read from
+   * HBase, deleting keys drops the cache.
+   *
+   * <p>The cache is shared by all services of the JVM using the same lookup table, the scope is
+   * scanned once however many services preload it. Call {@link #releaseScope(String)} once the
+   * scope is done to free the cache.
+   *
+   * @param scope the scope of the lookups, usually the datasetKey
+   * @return the number of cached lookup keys
+   */
+  public long preloadScope(String scope) {
+    checkNotNull(scope, "scope can't be null");
+    return SCOPE_CACHES.computeIfAbsent(cacheKey(scope), k -> loadScope(scope)).getSize();
+  }
+
+  /** Preloads the lookup keys of the dataset, see {@link #preloadScope(String)} */
+  public long preloadScope() {
+    return preloadScope(datasetId);
+  }
+
+  /** Drops the preloaded lookup keys of the scope for all services of the JVM */
+  public void releaseScope(String scope) {
+    checkNotNull(scope, "scope can't be null");
+    SCOPE_CACHES.remove(cacheKey(scope));
+  }
+
+  /** Drops the preloaded lookup keys of the dataset, see {@link #releaseScope(String)} */
+  public void releaseScope() {
+    releaseScope(datasetId);
+  }
+
+  private LookupKeyCache loadScope(String scope) {
+    byte[] statusColumn = Bytes.toBytes(Columns.LOOKUP_STATUS_COLUMN);
+    byte[] keyColumn = Bytes.toBytes(Columns.LOOKUP_KEY_COLUMN);
+    byte[] allocated = Bytes.toBytes(KeyStatus.ALLOCATED.toString());
+
+    long start = System.currentTimeMillis();
+    LookupKeyCache cache = new LookupKeyCache(scope);
+    scanScope(
+        scope,
+        PRELOAD_CLIENT_CACHING,
+        result -> {
+          byte[] rawKey = result.getValue(Columns.CF, keyColumn);
+          byte[] rawStatus = result.getValue(Columns.CF, statusColumn);
+          if (rawKey != null && Bytes.equals(allocated, rawStatus)) {
+            // the lookup key is the row key without its salt
+            byte[] row = result.getRow();
+            int offset = Bytes.indexOf(row, (byte) ':') + 1;
+            cache.put(row, offset, row.length - offset, Bytes.toLong(rawKey));
+          }
+        },
+        statusColumn,
+        keyColumn);
+
+    log.info(
+        "Preloaded [{}] lookup keys of scope [{}] in [{}] ms",
+        cache.getSize(),
+        scope,
+        System.currentTimeMillis() - start);
+    return cache;
+  }
+
+  private String cacheKey(String scope) {
+    return lookupTableName.getNameAsString() + "|" + scope;
+  }
+
   public Set<Long> findKeysByScope(String scope) {
     Set<Long> keys = new HashSet<>();
+    byte[] keyColumn = Bytes.toBytes(Columns.LOOKUP_KEY_COLUMN);
+    scanScope(
+        scope,
+        HBASE_CLIENT_CACHING,
+        result -> {
+          byte[] rawKey = result.getValue(Columns.CF, keyColumn);
+          if (rawKey != null) {
+            keys.add(Bytes.toLong(rawKey));
+          }
+        },
+        keyColumn);
+    return keys;
+  }
+
+  /**
+   * Scans the rows of all lookup keys of the scope with one scan, as the lookup table is salted
+   * the scan has a row range of the scope prefix in every salt bucket.
+   */
+  @SneakyThrows
+  private void scanScope(String scope, int caching, Consumer<Result> consumer, byte[]... columns) {
+    List<RowRange> ranges = new ArrayList<>(NUMBER_OF_BUCKETS);
+    for (byte[] prefix :
+        HBaseStore.saltedPrefixes(OccurrenceKeyBuilder.buildKeyPrefix(scope), NUMBER_OF_BUCKETS)) {
+      // the prefix ends with the '|' delimiter, incrementing it gives the end of the range
+      byte[] stop = Arrays.copyOf(prefix, prefix.length);
+      stop[stop.length - 1]++;
+      ranges.add(new RowRange(prefix, true, stop, false));
+    }
+
     // note HTableStore isn't capable of ad hoc scans
     Scan scan = new Scan();
     scan.setCacheBlocks(false);
-    scan.setCaching(HBASE_CLIENT_CACHING);
-    scan.setFilter(new PrefixFilter(Bytes.toBytes(scope)));
+    scan.setCaching(caching);
+    for (byte[] column : columns) {
+      scan.addColumn(Columns.CF, column);
+    }
+    scan.setFilter(new MultiRowRangeFilter(ranges));
 
-    try (Table table = connection.getTable(lookupTableName)) {
-      ResultScanner results = table.getScanner(scan);
+    try (Table table = connection.getTable(lookupTableName);
+        ResultScanner results = table.getScanner(scan)) {
       for (Result result : results) {
-        byte[] rawKey = result.getValue(Columns.CF, Bytes.toBytes(Columns.LOOKUP_KEY_COLUMN));
-        if (rawKey != null) {
-          keys.add(Bytes.toLong(rawKey));
-        }
+        consumer.accept(result);
       }
     }
-    return keys;
   }
 
   /** */
@@ -388,6 +677,11 @@ public class HBaseLockingKeyService implements Serializable {
       rawDatasetKey =
           occurrenceTableStore.getString(occurrenceKey, Columns.column(GbifTerm.datasetKey));
     }
+    if (rawDatasetKey == null) {
+      SCOPE_CACHES.clear();
+    } else {
+      releaseScope(rawDatasetKey);
+    }
 
     // scan the lookup table for all rows where the key matches our dataset prefix and the cell
     // value is our
@@ -434,6 +728,7 @@ public class HBaseLockingKeyService implements Serializable {
   public void deleteKeyByUniques(Set<String> uniqueStrings, String scope) {
     checkNotNull(uniqueStrings, "uniqueStrings can't be null");
     checkNotNull(scope, "scope can't be null");
+    releaseScope(scope);
 
     // craft a delete for every uniqueString
     List<Delete> keysToDelete =
@@ -470,23 +765,35 @@ public class HBaseLockingKeyService implements Serializable {
     throw new IllegalStateException(sb.toString());
   }
 
-  private void fillMissingKeys(
-      Set<String> lookupKeys, Map<String, Long> foundOccurrenceKeys, Long occurrenceKey) {
-    lookupKeys.stream()
-        .filter(lookupKey -> !foundOccurrenceKeys.containsKey(lookupKey))
-        .forEach(
-            lookupKey ->
-                lookupTableStore.putLong(lookupKey, Columns.LOOKUP_KEY_COLUMN, occurrenceKey));
-  }
-
-  private void releaseLocks(Map<String, KeyStatus> statusMap) {
-    statusMap.entrySet().stream()
-        .filter(entry -> entry.getValue() == KeyStatus.ALLOCATING)
-        .forEach(entry -> lookupTableStore.delete(entry.getKey(), Columns.LOOKUP_LOCK_COLUMN));
-  }
-
   public enum KeyStatus {
     ALLOCATING,
     ALLOCATED
   }
+
+  /** HBase calls made by one batch call, for the debug logs */
+  private static class RpcCounts {
+    private int rounds;
+    private int multiGets;
+    private int checkAndPuts;
+    private int batchPuts;
+    private int batchDeletes;
+    private int cacheHits;
+
+    @Override
+    public String toString() {
+      return "rounds ["
+          + rounds
+          + "] multi gets ["
+          + multiGets
+          + "] checkAndPuts ["
+          + checkAndPuts
+          + "] batch puts ["
+          + batchPuts
+          + "] batch deletes ["
+          + batchDeletes
+          + "] cache hits ["
+          + cacheHits
+          + "]";
+    }
+  }
 }
@@ -0,0 +1,160 @@
+package org.gbif.pipelines.keygen;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import lombok.Getter;
+
+/**
+ * Keys of the lookup keys of one scope, stored as 128 bit murmur3 hashes of the lookup keys in an
+ * open addressing table of three longs per slot: the low 64 bits address the slot, the high 64 bits
+ * are stored next to them and checked on every lookup. Small tables live on the heap, a table
+ * growing above {@link #OFF_HEAP_SLOTS} slots moves to direct memory in segments of {@link
+ * #SEGMENT_SLOTS} slots, so a dataset with tens of millions of records doesn't weigh on the heap.
+ *
+ * <p>The lookup keys themselves aren't stored, an unseen lookup key with the same 128 bit hash as
+ * a cached one gets the key of the cached one. For n cached lookup keys the chance of that is
+ * about n / 2^128 per lookup, below 10^-30 for 100M lookup keys. Cached lookup keys with the same
+ * low 64 bits and different keys are marked ambiguous and never answered, they are looked up in
+ * HBase. The cache is filled by one thread and is read only afterwards.
+ */
+class LookupKeyCache {
+
+  private static final int SLOT_BYTES = 3 * Long.BYTES;
+  private static final int SEGMENT_SLOTS = 1 << 23;
+  private static final long OFF_HEAP_SLOTS = 1 << 20;
+  private static final int INITIAL_SLOTS = 1 << 10;
+  private static final long EMPTY = 0L;
+  private static final long AMBIGUOUS = Long.MIN_VALUE;
+  private static final HashFunction HASH_FN = Hashing.murmur3_128();
+
+  @Getter private final String scope;
+  @Getter private long size;
+
+  private ByteBuffer[] segments;
+  private long capacity;
+
+  LookupKeyCache(String scope) {
+    this.scope = scope;
+    allocate(INITIAL_SLOTS);
+  }
+
+  /** Adds the key of the lookup key found in the bytes, usually a row key without its salt */
+  void put(byte[] lookupKey, int offset, int length, long key) {
+    HashCode hashCode = HASH_FN.hashBytes(lookupKey, offset, length);
+    long hash = hash(hashCode);
+    long check = check(hashCode);
+    long slot = hash & (capacity - 1);
+    while (true) {
+      long slotHash = getHash(slot);
+      if (slotHash == EMPTY) {
+        set(slot, hash, check, key);
+        size++;
+        if (size * 4 > capacity * 3) {
+          resize();
+        }
+        return;
+      }
+      if (slotHash == hash) {
+        if (getCheck(slot) != check || getKey(slot) != key) {
+          set(slot, hash, check, AMBIGUOUS);
+        }
+        return;
+      }
+      slot = (slot + 1) & (capacity - 1);
+    }
+  }
+
+  /** @return the key of the lookup key, null if it isn't cached */
+  Long get(String lookupKey) {
+    HashCode hashCode = HASH_FN.hashBytes(lookupKey.getBytes(StandardCharsets.UTF_8));
+    long hash = hash(hashCode);
+    long slot = hash & (capacity - 1);
+    while (true) {
+      long slotHash = getHash(slot);
+      if (slotHash == EMPTY) {
+        return null;
+      }
+      if (slotHash == hash) {
+        long key = getKey(slot);
+        return key == AMBIGUOUS || getCheck(slot) != check(hashCode) ? null : key;
+      }
+      slot = (slot + 1) & (capacity - 1);
+    }
+  }
+
+  /** Low 64 bits of the hash, zero marks empty slots */
+  private static long hash(HashCode hashCode) {
+    long hash = hashCode.asLong();
+    return hash == EMPTY ? 1L : hash;
+  }
+
+  /** High 64 bits of the hash */
+  private static long check(HashCode hashCode) {
+    return ByteBuffer.wrap(hashCode.asBytes()).getLong(Long.BYTES);
+  }
+
+  private void allocate(long slots) {
+    capacity = slots;
+    int segmentSlots = (int) Math.min(slots, SEGMENT_SLOTS);
+    segments = new ByteBuffer[(int) (slots / segmentSlots)];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] =
+          slots > OFF_HEAP_SLOTS
+              ? ByteBuffer.allocateDirect(segmentSlots * SLOT_BYTES)
+              : ByteBuffer.allocate(segmentSlots * SLOT_BYTES);
+    }
+  }
+
+  /** Doubles the table, hashes are distinct so the slots are copied without the key checks */
+  private void resize() {
+    ByteBuffer[] oldSegments = segments;
+    allocate(capacity * 2);
+    for (ByteBuffer segment : oldSegments) {
+      for (int position = 0; position < segment.capacity(); position += SLOT_BYTES) {
+        long hash = segment.getLong(position);
+        if (hash != EMPTY) {
+          long slot = hash & (capacity - 1);
+          while (getHash(slot) != EMPTY) {
+            slot = (slot + 1) & (capacity - 1);
+          }
+          set(
+              slot,
+              hash,
+              segment.getLong(position + Long.BYTES),
+              segment.getLong(position + 2 * Long.BYTES));
+        }
+      }
+    }
+  }
+
+  private long getHash(long slot) {
+    return segment(slot).getLong(position(slot));
+  }
+
+  private long getCheck(long slot) {
+    return segment(slot).getLong(position(slot) + Long.BYTES);
+  }
+
+  private long getKey(long slot) {
+    return segment(slot).getLong(position(slot) + 2 * Long.BYTES);
+  }
+
+  private void set(long slot, long hash, long check, long key) {
+    ByteBuffer segment = segment(slot);
+    int position = position(slot);
+    segment.putLong(position, hash);
+    segment.putLong(position + Long.BYTES, check);
+    segment.putLong(position + 2 * Long.BYTES, key);
+  }
+
+  private ByteBuffer segment(long slot) {
+    return segments[(int) (slot / SEGMENT_SLOTS)];
+  }
+
+  private static int position(long slot) {
+    return (int) (slot % SEGMENT_SLOTS) * SLOT_BYTES;
+  }
+}
@@ -5,6 +5,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
@@ -29,6 +34,8 @@ public class HBaseStore<T> {
 
   private static final String KEY_CANT_BE_NULL_MSG = "key can't be null";
   private static final String HBASE_READ_ERROR_MSG = "Could not read from HBase";
+  private static final String HBASE_WRITE_ERROR_MSG = "Could not write to HBase";
+  private static final String HBASE_DELETE_ERROR_MSG = "Could not delete from HBase";
 
   private final TableName tableName;
   private final String cf;
@@ -123,6 +130,111 @@ public class HBaseStore<T> {
     }
   }
 
+  /**
+   * Writes the long values of many rows to the same column with a single batched put.
+   *
+   * @param values the values by primary key of the row
+   * @param columnName the column where the values will be stored
+   * @throws ServiceUnavailableException if there are errors when communicating with HBase
+   */
+  public void putLongs(Map<T, Long> values, String columnName) {
+    checkNotNull(values, "values can't be null");
+    checkNotNull(columnName, "columnName can't be null");
+
+    List<Put> puts = new ArrayList<>(values.size());
+    for (Map.Entry<T, Long> entry : values.entrySet()) {
+      byte[] byteKey = convertKey(checkNotNull(entry.getKey(), KEY_CANT_BE_NULL_MSG));
+      if (byteKey != null) {
+        Put put = new Put(byteKey);
+        put.addColumn(cfBytes, Bytes.toBytes(columnName), Bytes.toBytes(entry.getValue()));
+        puts.add(put);
+      }
+    }
+    put(puts);
+  }
+
+  /**
+   * Same as {@link #putLongString} for many rows sharing the string value, with a single batched
+   * put.
+   *
+   * @param values the long values by primary key of the row
+   * @param columnName the column where the long values will be stored
+   * @param columnName2 the column where the string value will be stored
+   * @param value2 the string value written to every row
+   * @throws ServiceUnavailableException if there are errors when communicating with HBase
+   */
+  public void putLongStrings(
+      Map<T, Long> values, String columnName, String columnName2, String value2) {
+    checkNotNull(values, "values can't be null");
+
+    List<Put> puts = new ArrayList<>(values.size());
+    for (Map.Entry<T, Long> entry : values.entrySet()) {
+      byte[] byteKey = convertKey(checkNotNull(entry.getKey(), KEY_CANT_BE_NULL_MSG));
+      if (byteKey != null) {
+        Put put = new Put(byteKey);
+        put.addColumn(cfBytes, Bytes.toBytes(columnName), Bytes.toBytes(entry.getValue()));
+        put.addColumn(cfBytes, Bytes.toBytes(columnName2), Bytes.toBytes(value2));
+        puts.add(put);
+      }
+    }
+    put(puts);
+  }
+
+  private void put(List<Put> puts) {
+    if (puts.isEmpty()) {
+      return;
+    }
+    try (Table table = connection.getTable(tableName)) {
+      table.put(puts);
+    } catch (IOException e) {
+      throw new ServiceUnavailableException(HBASE_WRITE_ERROR_MSG, e);
+    }
+  }
+
+  /**
+   * Returns the rows of many keys with a single multi get. Keys without a row are not in the
+   * returned map.
+   *
+   * @param keys the primary keys of the requested rows
+   * @param columnNames the column values to return, all columns if none are given
+   * @return HBase Results by key
+   * @throws ServiceUnavailableException if there are errors when communicating with HBase
+   */
+  public Map<T, Result> getRows(Collection<T> keys, String... columnNames) {
+    checkNotNull(keys, "keys can't be null");
+
+    List<T> requested = new ArrayList<>(keys.size());
+    List<Get> gets = new ArrayList<>(keys.size());
+    for (T key : keys) {
+      byte[] byteKey = convertKey(checkNotNull(key, KEY_CANT_BE_NULL_MSG));
+      if (byteKey != null) {
+        Get get = new Get(byteKey);
+        for (String columnName : columnNames) {
+          get.addColumn(cfBytes, Bytes.toBytes(columnName));
+        }
+        requested.add(key);
+        gets.add(get);
+      }
+    }
+
+    Map<T, Result> rows = new HashMap<>(gets.size() * 2);
+    if (gets.isEmpty()) {
+      return rows;
+    }
+    try (Table table = connection.getTable(tableName)) {
+      Result[] results = table.get(gets);
+      for (int i = 0; i < results.length; i++) {
+        if (results[i] != null && !results[i].isEmpty()) {
+          rows.put(requested.get(i), results[i]);
+        }
+      }
+    } catch (IOException e) {
+      throw new ServiceUnavailableException(HBASE_READ_ERROR_MSG, e);
+    }
+
+    return rows;
+  }
+
   /**
    * Returns an HBase Result object matching the given key and column name.
    *
@@ -238,6 +350,32 @@ public class HBaseStore<T> {
     }
   }
 
+  /** Same as {@link #delete(Object, String...)} for many rows, with a single batched delete */
+  public void delete(Collection<T> keys, String... columns) {
+    checkNotNull(keys, "keys can't be null");
+    checkArgument(columns.length > 0, "columns can't be empty");
+
+    List<Delete> deletes = new ArrayList<>(keys.size());
+    for (T key : keys) {
+      byte[] byteKey = convertKey(checkNotNull(key, KEY_CANT_BE_NULL_MSG));
+      if (byteKey != null) {
+        Delete delete = new Delete(byteKey);
+        for (String column : columns) {
+          delete.addColumn(cfBytes, Bytes.toBytes(column));
+        }
+        deletes.add(delete);
+      }
+    }
+    if (deletes.isEmpty()) {
+      return;
+    }
+    try (Table table = connection.getTable(tableName)) {
+      table.delete(deletes);
+    } catch (IOException e) {
+      throw new ServiceUnavailableException(HBASE_DELETE_ERROR_MSG, e);
+    }
+  }
+
   public byte[] convertKey(T key) {
     if (salted) {
       return saltKey(String.valueOf(key), numberOfBuckets);
@@ -274,6 +412,23 @@ public class HBaseStore<T> {
     return Bytes.toBytes(saltedKey);
   }
 
+  /**
+   * Returns the salted prefixes of all buckets, for scanning the salted keys starting with the
+   * unsalted prefix.
+   *
+   * @param unsalted Prefix of the keys, e.g. a dataset UUID and delimiter
+   * @param numberOfBuckets To use in salting
+   * @return The prefix of every bucket, in bucket order
+   */
+  public static List<byte[]> saltedPrefixes(String unsalted, int numberOfBuckets) {
+    int digitCount = digitCount(numberOfBuckets - 1);
+    List<byte[]> prefixes = new ArrayList<>(numberOfBuckets);
+    for (int salt = 0; salt < numberOfBuckets; salt++) {
+      prefixes.add(Bytes.toBytes(leftPadZeros(salt, digitCount) + ":" + unsalted));
+    }
+    return prefixes;
+  }
+
   /**
    * Pads with 0s to desired length.
    *
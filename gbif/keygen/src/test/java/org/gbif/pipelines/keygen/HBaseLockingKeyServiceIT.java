@@ -3,6 +3,7 @@ package org.gbif.pipelines.keygen;
 import static org.gbif.pipelines.keygen.HBaseLockingKeyService.NUMBER_OF_BUCKETS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -18,6 +19,7 @@ import org.apache.hadoop.hbase.HBaseTestingUtility;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.util.Bytes;
@@ -271,6 +273,121 @@ public class HBaseLockingKeyServiceIT {
     assertEquals(5001, result.getKey());
   }
 
+  @Test
+  public void testBatchSharedLookupKeys() {
+    // setup: the second and the third record share the triplet, the fourth has no lookup keys yet
+    List<Set<String>> uniqueIds =
+        Arrays.asList(
+            Collections.singleton(A),
+            new HashSet<>(Arrays.asList(B, "IC|CC|CN|null")),
+            new HashSet<>(Arrays.asList(C, "IC|CC|CN|null")),
+            Collections.singleton(A));
+
+    // test: records sharing a lookup key get the same key, created by the first of them
+    List<KeyLookupResult> results = keyService.generateKeys(uniqueIds, "boo");
+    assertEquals(4, results.size());
+    assertEquals(1, results.get(0).getKey());
+    assertTrue(results.get(0).isCreated());
+    assertEquals(2, results.get(1).getKey());
+    assertTrue(results.get(1).isCreated());
+    assertEquals(2, results.get(2).getKey());
+    assertFalse(results.get(2).isCreated());
+    assertEquals(1, results.get(3).getKey());
+    assertFalse(results.get(3).isCreated());
+
+    // test: the batch find sees the same keys, records without keys or lookup keys get null
+    List<KeyLookupResult> found =
+        keyService.findKeys(
+            Arrays.asList(
+                Collections.singleton(C), Collections.singleton("D"), Collections.emptySet()),
+            "boo");
+    assertEquals(2, found.get(0).getKey());
+    assertFalse(found.get(0).isCreated());
+    assertNull(found.get(1));
+    assertNull(found.get(2));
+    assertEquals(2, keyService.findKey(Collections.singleton(C), "boo").getKey());
+  }
+
+  @Test
+  public void testBatchSameAsSingle() {
+    // setup: one record already has a key
+    KeyLookupResult existing = keyService.generateKey(Collections.singleton(B), "boo");
+
+    List<String> uniqueIds = Arrays.asList(A, B, C);
+    List<Set<String>> uniqueIdSets = new ArrayList<>();
+    uniqueIds.forEach(id -> uniqueIdSets.add(Collections.singleton(id)));
+
+    // test: the batch keeps the existing key and generates keys for the others in order
+    List<KeyLookupResult> results = keyService.generateKeys(uniqueIdSets, "boo");
+    assertEquals(existing.getKey(), results.get(1).getKey());
+    assertFalse(results.get(1).isCreated());
+    assertEquals(2, results.get(0).getKey());
+    assertEquals(3, results.get(2).getKey());
+    for (int i = 0; i < uniqueIds.size(); i++) {
+      KeyLookupResult single = keyService.generateKey(uniqueIdSets.get(i), "boo");
+      assertEquals(results.get(i).getKey(), single.getKey());
+    }
+  }
+
+  @Test
+  public void testPreloadScope() throws IOException {
+    // setup: 2 allocated records and a lookup key with a key but still locked
+    String datasetKey = UUID.randomUUID().toString();
+    keyService.generateKey(new HashSet<>(Arrays.asList("ABCD", "IC|CC|CN|null")), datasetKey);
+    keyService.generateKey(Collections.singleton("EFGH"), datasetKey);
+    keyService.generateKey(Collections.singleton("ABCD"), "otherDataset");
+
+    byte[] lookupKey = HBaseStore.saltKey(datasetKey + "|IJKL", NUMBER_OF_BUCKETS);
+    Put put = new Put(lookupKey);
+    put.addColumn(CF, Bytes.toBytes(Columns.LOOKUP_LOCK_COLUMN), Bytes.toBytes("lock"));
+    put.addColumn(CF, Bytes.toBytes(Columns.LOOKUP_KEY_COLUMN), Bytes.toBytes(9L));
+    try (Table lookupTable = connection.getTable(TableName.valueOf(LOOKUP_TABLE))) {
+      lookupTable.put(put);
+    }
+
+    // test: only ALLOCATED lookup keys of the scope are preloaded
+    assertEquals(3, keyService.preloadScope(datasetKey));
+    assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 9L)), keyService.findKeysByScope(datasetKey));
+
+    // test: cached, partly cached and uncached records get the same keys as without the cache
+    List<KeyLookupResult> results =
+        keyService.findKeys(
+            Arrays.asList(
+                Collections.singleton("IC|CC|CN|null"),
+                new HashSet<>(Arrays.asList("EFGH", "MNOP")),
+                Collections.singleton("IJKL"),
+                Collections.singleton("QRST")),
+            datasetKey);
+    assertEquals(1, results.get(0).getKey());
+    assertEquals(2, results.get(1).getKey());
+    assertEquals(9, results.get(2).getKey());
+    assertNull(results.get(3));
+    assertEquals(2, keyService.findKey(Collections.singleton("MNOP"), datasetKey).getKey());
+    keyService.releaseScope(datasetKey);
+  }
+
+  @Test
+  public void testPreloadScopeShared() throws IOException {
+    // setup: a preloaded record whose lookup key is then removed from HBase behind the cache
+    String datasetKey = UUID.randomUUID().toString();
+    keyService.generateKey(Collections.singleton("ABCD"), datasetKey);
+    assertEquals(1, keyService.preloadScope(datasetKey));
+    try (Table lookupTable = connection.getTable(TableName.valueOf(LOOKUP_TABLE))) {
+      lookupTable.delete(new Delete(HBaseStore.saltKey(datasetKey + "|ABCD", NUMBER_OF_BUCKETS)));
+    }
+
+    // test: another service of the JVM reuses the cache instead of scanning again
+    HBaseLockingKeyService otherService = new HBaseLockingKeyService(CFG, connection);
+    assertEquals(1, otherService.preloadScope(datasetKey));
+    assertEquals(1, otherService.findKey(Collections.singleton("ABCD"), datasetKey).getKey());
+
+    // test: releasing the scope drops the cache of all services
+    otherService.releaseScope(datasetKey);
+    assertNull(keyService.findKey(Collections.singleton("ABCD"), datasetKey));
+    assertEquals(0, keyService.preloadScope(datasetKey));
+    keyService.releaseScope(datasetKey);
+  }
+
   private static class KeyRequester implements Runnable {
 
     private final int keyCount;
@@ -0,0 +1,51 @@
+package org.gbif.pipelines.keygen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class LookupKeyCacheTest {
+
+  @Test
+  public void testGetPreloadedKeys() {
+    // State
+    int count = 2_000_000;
+    LookupKeyCache cache = new LookupKeyCache("ds");
+
+    // When
+    for (int i = 0; i < count; i++) {
+      put(cache, "07:ds|occ" + i, i + 1L);
+    }
+    put(cache, "42:ds|occ5", 6L);
+
+    // Should
+    assertEquals(count, cache.getSize());
+    for (int i = 0; i < count; i++) {
+      assertEquals(Long.valueOf(i + 1L), cache.get("ds|occ" + i));
+    }
+    assertNull(cache.get("ds|unknown"));
+  }
+
+  @Test
+  public void testConflictingKeysNotAnswered() {
+    // State
+    LookupKeyCache cache = new LookupKeyCache("ds");
+
+    // When
+    put(cache, "01:ds|ABCD", 1L);
+    put(cache, "01:ds|ABCD", 2L);
+    put(cache, "02:ds|EFGH", 3L);
+
+    // Should
+    assertNull(cache.get("ds|ABCD"));
+    assertEquals(Long.valueOf(3L), cache.get("ds|EFGH"));
+  }
+
+  private static void put(LookupKeyCache cache, String row, long key) {
+    byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+    int offset = row.indexOf(':') + 1;
+    cache.put(bytes, offset, bytes.length - offset, key);
+  }
+}
@@ -12,7 +12,7 @@ import org.apache.spark.Partitioner
 import org.apache.spark.sql.catalyst.encoders.RowEncoder
 import org.apache.spark.sql.types.{LongType, StringType, StructField, StructType}
 import org.apache.spark.sql.{Row, SparkSession}
-import org.gbif.pipelines.core.parsers.clustering.{OccurrenceRelationships, RelationshipAssertion}
+import org.gbif.pipelines.core.parsers.clustering.{CompiledOccurrenceFeatures, OccurrenceRelationships, RelationshipAssertion}
 
 import scala.collection.JavaConversions._
 
@@ -32,6 +32,30 @@ object Cluster {
     override def numPartitions: Int = partitionCount
   }
 
+  // Number of compiled records kept per partition when generating relationships
+  val compiledCacheSize = 100000
+
+  /**
+   * Compiled features of the records by gbifId, least recently used are evicted first.
+   */
+  class CompiledFeaturesCache(maxSize: Int)
+    extends java.util.LinkedHashMap[java.lang.Long, CompiledOccurrenceFeatures[RowOccurrenceFeatures]](16, 0.75f, true) {
+
+    def compile(o: RowOccurrenceFeatures): CompiledOccurrenceFeatures[RowOccurrenceFeatures] = {
+      val id = o.getLong("gbifId")
+      var c = get(id)
+      if (c == null) {
+        c = CompiledOccurrenceFeatures.compile(o)
+        put(id, c)
+      }
+      c
+    }
+
+    override def removeEldestEntry(
+      eldest: java.util.Map.Entry[java.lang.Long, CompiledOccurrenceFeatures[RowOccurrenceFeatures]]): Boolean =
+      size() > maxSize
+  }
+
   // To aid running in Oozie, all properties are supplied as main arguments
   val usage = """
     Usage: Cluster \
@@ -235,40 +259,48 @@ object Cluster {
     )
     val relationshipEncoder = RowEncoder(relationshipSchema)
 
-    val relationships = pairs.flatMap(row => {
-      val records = scala.collection.mutable.ListBuffer[Row]()
-
-      val o1 = new RowOccurrenceFeatures(row, "t1_", "t1_media")
-      val o2 = new RowOccurrenceFeatures(row, "t2_", "t2_media")
-
-      val relationships: Option[RelationshipAssertion[RowOccurrenceFeatures]] = Option(OccurrenceRelationships.generate(o1,o2))
-      relationships match {
-        case Some(r) => {
-          // store both ways
-          records.append(Row(
-            String.valueOf(r.getOcc1.getLong("gbifId")),
-            String.valueOf(r.getOcc2.getLong("gbifId")),
-            r.getJustificationAsDelimited,
-            r.getOcc1.get("datasetKey"),
-            r.getOcc2.get("datasetKey"),
-            r.getOcc1.asJson(),
-            r.getOcc2.asJson()))
-
-          records.append(Row(
-            String.valueOf(r.getOcc2.getLong("gbifId")),
-            String.valueOf(r.getOcc1.getLong("gbifId")),
-            r.getJustificationAsDelimited,
-            r.getOcc2.get("datasetKey"),
-            r.getOcc1.get("datasetKey"),
-            r.getOcc2.asJson(),
-            r.getOcc1.asJson()))
-        }
-        case None => // skip
-      }
-
-      records
+    // Pairs are grouped by the first record and features are compiled once per record of a partition
+    // instead of once per pair, keeping a bounded number of compiled records
+    val relationships = pairs
+      .repartition(pairs("t1_gbifId"))
+      .sortWithinPartitions("t1_gbifId")
+      .mapPartitions(rows => {
+        val compiled = new CompiledFeaturesCache(compiledCacheSize)
+
+        rows.flatMap(row => {
+          val records = scala.collection.mutable.ListBuffer[Row]()
+
+          val o1 = compiled.compile(new RowOccurrenceFeatures(row, "t1_", "t1_media"))
+          val o2 = compiled.compile(new RowOccurrenceFeatures(row, "t2_", "t2_media"))
+
+          val relationships: Option[RelationshipAssertion[RowOccurrenceFeatures]] = Option(OccurrenceRelationships.generate(o1,o2))
+          relationships match {
+            case Some(r) => {
+              // store both ways
+              records.append(Row(
+                String.valueOf(r.getOcc1.getLong("gbifId")),
+                String.valueOf(r.getOcc2.getLong("gbifId")),
+                r.getJustificationAsDelimited,
+                r.getOcc1.get("datasetKey"),
+                r.getOcc2.get("datasetKey"),
+                r.getOcc1.asJson(),
+                r.getOcc2.asJson()))
+
+              records.append(Row(
+                String.valueOf(r.getOcc2.getLong("gbifId")),
+                String.valueOf(r.getOcc1.getLong("gbifId")),
+                r.getJustificationAsDelimited,
+                r.getOcc2.get("datasetKey"),
+                r.getOcc1.get("datasetKey"),
+                r.getOcc2.asJson(),
+                r.getOcc1.asJson()))
+            }
+            case None => // skip
+          }
 
-    })(relationshipEncoder).toDF().dropDuplicates()
+          records
+        })
+      })(relationshipEncoder).toDF().dropDuplicates()
 
     relationships.write.saveAsTable(hiveTableRelationships) // for diagnostics in hive
 
@@ -35,6 +35,7 @@ import org.gbif.pipelines.io.avro.TaxonRecord;
 import org.gbif.pipelines.io.avro.TemporalRecord;
 import org.gbif.pipelines.io.avro.grscicoll.GrscicollRecord;
 import org.gbif.pipelines.transforms.converters.OccurrenceJsonTransform;
+import org.gbif.pipelines.transforms.common.BucketedAvroJoin;
 import org.gbif.pipelines.transforms.core.BasicTransform;
 import org.gbif.pipelines.transforms.core.GrscicollTransform;
 import org.gbif.pipelines.transforms.core.LocationTransform;
@@ -111,6 +112,7 @@ public class InterpretedToEsIndexPipeline {
     MDC.put("step", StepType.INTERPRETED_TO_INDEX.name());
 
     String esDocumentId = options.getEsDocumentId();
+    Integer numberOfBuckets = options.getNumberOfBuckets();
 
     log.info("Adding step 1: Options");
     UnaryOperator<String> pathFn =
@@ -138,41 +140,82 @@ public class InterpretedToEsIndexPipeline {
         p.apply("Read Metadata", metadataTransform.read(pathFn))
             .apply("Convert to view", View.asSingleton());
 
-    PCollection<KV<String, ExtendedRecord>> verbatimCollection =
-        p.apply("Read Verbatim", verbatimTransform.read(pathFn))
-            .apply("Map Verbatim to KV", verbatimTransform.toKv());
+    PCollection<KV<String, CoGbkResult>> groupedCollection;
+    if (numberOfBuckets != null && numberOfBuckets > 0) {
+      // Co-partitioned avro files are merged bucket by bucket, the join doesn't shuffle records
+      UnaryOperator<String> bucketPathFn =
+          t -> PathBuilder.buildPathInterpretUsingTargetPath(options, t, "*");
 
-    PCollection<KV<String, BasicRecord>> basicCollection =
-        p.apply("Read Basic", basicTransform.read(pathFn))
-            .apply("Map Basic to KV", basicTransform.toKv());
+      groupedCollection =
+          p.apply(
+              "Join buckets",
+              BucketedAvroJoin.create(numberOfBuckets)
+                  // Core
+                  .and(basicTransform, bucketPathFn)
+                  .and(temporalTransform, bucketPathFn)
+                  .and(locationTransform, bucketPathFn)
+                  .and(taxonomyTransform, bucketPathFn)
+                  .and(grscicollTransform, bucketPathFn)
+                  // Extension
+                  .and(multimediaTransform, bucketPathFn)
+                  .and(imageTransform, bucketPathFn)
+                  .and(audubonTransform, bucketPathFn)
+                  // Raw
+                  .and(verbatimTransform, bucketPathFn));
+    } else {
+      PCollection<KV<String, ExtendedRecord>> verbatimCollection =
+          p.apply("Read Verbatim", verbatimTransform.read(pathFn))
+              .apply("Map Verbatim to KV", verbatimTransform.toKv());
 
-    PCollection<KV<String, TemporalRecord>> temporalCollection =
-        p.apply("Read Temporal", temporalTransform.read(pathFn))
-            .apply("Map Temporal to KV", temporalTransform.toKv());
+      PCollection<KV<String, BasicRecord>> basicCollection =
+          p.apply("Read Basic", basicTransform.read(pathFn))
+              .apply("Map Basic to KV", basicTransform.toKv());
 
-    PCollection<KV<String, LocationRecord>> locationCollection =
-        p.apply("Read Location", locationTransform.read(pathFn))
-            .apply("Map Location to KV", locationTransform.toKv());
+      PCollection<KV<String, TemporalRecord>> temporalCollection =
+          p.apply("Read Temporal", temporalTransform.read(pathFn))
+              .apply("Map Temporal to KV", temporalTransform.toKv());
 
-    PCollection<KV<String, TaxonRecord>> taxonCollection =
-        p.apply("Read Taxon", taxonomyTransform.read(pathFn))
-            .apply("Map Taxon to KV", taxonomyTransform.toKv());
+      PCollection<KV<String, LocationRecord>> locationCollection =
+          p.apply("Read Location", locationTransform.read(pathFn))
+              .apply("Map Location to KV", locationTransform.toKv());
 
-    PCollection<KV<String, GrscicollRecord>> grscicollCollection =
-        p.apply("Read Grscicoll", grscicollTransform.read(pathFn))
-            .apply("Map Grscicoll to KV", grscicollTransform.toKv());
+      PCollection<KV<String, TaxonRecord>> taxonCollection =
+          p.apply("Read Taxon", taxonomyTransform.read(pathFn))
+              .apply("Map Taxon to KV", taxonomyTransform.toKv());
 
-    PCollection<KV<String, MultimediaRecord>> multimediaCollection =
-        p.apply("Read Multimedia", multimediaTransform.read(pathFn))
-            .apply("Map Multimedia to KV", multimediaTransform.toKv());
+      PCollection<KV<String, GrscicollRecord>> grscicollCollection =
+          p.apply("Read Grscicoll", grscicollTransform.read(pathFn))
+              .apply("Map Grscicoll to KV", grscicollTransform.toKv());
 
-    PCollection<KV<String, ImageRecord>> imageCollection =
-        p.apply("Read Image", imageTransform.read(pathFn))
-            .apply("Map Image to KV", imageTransform.toKv());
+      PCollection<KV<String, MultimediaRecord>> multimediaCollection =
+          p.apply("Read Multimedia", multimediaTransform.read(pathFn))
+              .apply("Map Multimedia to KV", multimediaTransform.toKv());
 
-    PCollection<KV<String, AudubonRecord>> audubonCollection =
-        p.apply("Read Audubon", audubonTransform.read(pathFn))
-            .apply("Map Audubon to KV", audubonTransform.toKv());
+      PCollection<KV<String, ImageRecord>> imageCollection =
+          p.apply("Read Image", imageTransform.read(pathFn))
+              .apply("Map Image to KV", imageTransform.toKv());
+
+      PCollection<KV<String, AudubonRecord>> audubonCollection =
+          p.apply("Read Audubon", audubonTransform.read(pathFn))
+              .apply("Map Audubon to KV", audubonTransform.toKv());
+
+      groupedCollection =
+          KeyedPCollectionTuple
+              // Core
+              .of(basicTransform.getTag(), basicCollection)
+              .and(temporalTransform.getTag(), temporalCollection)
+              .and(locationTransform.getTag(), locationCollection)
+              .and(taxonomyTransform.getTag(), taxonCollection)
+              .and(grscicollTransform.getTag(), grscicollCollection)
+              // Extension
+              .and(multimediaTransform.getTag(), multimediaCollection)
+              .and(imageTransform.getTag(), imageCollection)
+              .and(audubonTransform.getTag(), audubonCollection)
+              // Raw
+              .and(verbatimTransform.getTag(), verbatimCollection)
+              // Apply
+              .apply("Grouping objects", CoGroupByKey.create());
+    }
 
     log.info("Adding step 3: Converting into a json object");
     SingleOutput<KV<String, CoGbkResult>, String> occurrenceJsonDoFn =
@@ -191,22 +234,7 @@ public class InterpretedToEsIndexPipeline {
             .converter();
 
     PCollection<String> jsonCollection =
-        KeyedPCollectionTuple
-            // Core
-            .of(basicTransform.getTag(), basicCollection)
-            .and(temporalTransform.getTag(), temporalCollection)
-            .and(locationTransform.getTag(), locationCollection)
-            .and(taxonomyTransform.getTag(), taxonCollection)
-            .and(grscicollTransform.getTag(), grscicollCollection)
-            // Extension
-            .and(multimediaTransform.getTag(), multimediaCollection)
-            .and(imageTransform.getTag(), imageCollection)
-            .and(audubonTransform.getTag(), audubonCollection)
-            // Raw
-            .and(verbatimTransform.getTag(), verbatimCollection)
-            // Apply
-            .apply("Grouping objects", CoGroupByKey.create())
-            .apply("Merging to json", occurrenceJsonDoFn);
+        groupedCollection.apply("Merging to json", occurrenceJsonDoFn);
 
     log.info("Adding step 4: Elasticsearch indexing");
     ElasticsearchIO.ConnectionConfiguration esConfig =
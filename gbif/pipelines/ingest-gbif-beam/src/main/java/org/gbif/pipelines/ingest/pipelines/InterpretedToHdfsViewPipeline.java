@@ -4,6 +4,8 @@ import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSI
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType.*;
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType.getAllTables;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
@@ -42,6 +44,7 @@ import org.gbif.pipelines.io.avro.OccurrenceHdfsRecord;
 import org.gbif.pipelines.io.avro.TaxonRecord;
 import org.gbif.pipelines.io.avro.TemporalRecord;
 import org.gbif.pipelines.io.avro.grscicoll.GrscicollRecord;
+import org.gbif.pipelines.transforms.common.BucketedAvroJoin;
 import org.gbif.pipelines.transforms.core.BasicTransform;
 import org.gbif.pipelines.transforms.core.GrscicollTransform;
 import org.gbif.pipelines.transforms.core.LocationTransform;
@@ -56,6 +59,7 @@ import org.gbif.pipelines.transforms.table.AmplificationTableTransform;
 import org.gbif.pipelines.transforms.table.ChronometricAgeTableTransform;
 import org.gbif.pipelines.transforms.table.CloningTableTransform;
 import org.gbif.pipelines.transforms.table.ExtendedMeasurementOrFactTableTransform;
+import org.gbif.pipelines.transforms.table.ExtensionTablesTransform;
 import org.gbif.pipelines.transforms.table.GelImageTableTransform;
 import org.gbif.pipelines.transforms.table.GermplasmAccessionTableTransform;
 import org.gbif.pipelines.transforms.table.GermplasmMeasurementScoreTableTransform;
@@ -72,6 +76,7 @@ import org.gbif.pipelines.transforms.table.PreparationTableTransform;
 import org.gbif.pipelines.transforms.table.PreservationTableTransform;
 import org.gbif.pipelines.transforms.table.ReferenceTableTransform;
 import org.gbif.pipelines.transforms.table.ResourceRelationshipTableTransform;
+import org.gbif.pipelines.transforms.table.TableTransform;
 import org.gbif.wrangler.lock.Mutex;
 import org.slf4j.MDC;
 
@@ -135,6 +140,7 @@ public class InterpretedToHdfsViewPipeline {
     String datasetId = options.getDatasetId();
     Integer attempt = options.getAttempt();
     Integer numberOfShards = options.getNumberOfShards();
+    Integer numberOfBuckets = options.getNumberOfBuckets();
     Set<String> types = options.getInterpretationTypes();
 
     SerializableFunction<InterpretationType, String> pathFn =
@@ -177,41 +183,95 @@ public class InterpretedToHdfsViewPipeline {
         p.apply("Read Metadata", metadataTransform.read(interpretPathFn))
             .apply("Convert to view", View.asSingleton());
 
-    PCollection<KV<String, ExtendedRecord>> verbatimCollection =
-        p.apply("Read Verbatim", verbatimTransform.read(interpretPathFn))
-            .apply("Map Verbatim to KV", verbatimTransform.toKv());
-
-    PCollection<KV<String, BasicRecord>> basicCollection =
-        p.apply("Read Basic", basicTransform.read(interpretPathFn))
-            .apply("Map Basic to KV", basicTransform.toKv());
-
-    PCollection<KV<String, TemporalRecord>> temporalCollection =
-        p.apply("Read Temporal", temporalTransform.read(interpretPathFn))
-            .apply("Map Temporal to KV", temporalTransform.toKv());
-
-    PCollection<KV<String, LocationRecord>> locationCollection =
-        p.apply("Read Location", locationTransform.read(interpretPathFn))
-            .apply("Map Location to KV", locationTransform.toKv());
-
-    PCollection<KV<String, TaxonRecord>> taxonCollection =
-        p.apply("Read Taxon", taxonomyTransform.read(interpretPathFn))
-            .apply("Map Taxon to KV", taxonomyTransform.toKv());
-
-    PCollection<KV<String, GrscicollRecord>> grscicollCollection =
-        p.apply("Read Grscicoll", grscicollTransform.read(interpretPathFn))
-            .apply("Map Grscicoll to KV", grscicollTransform.toKv());
-
-    PCollection<KV<String, MultimediaRecord>> multimediaCollection =
-        p.apply("Read Multimedia", multimediaTransform.read(interpretPathFn))
-            .apply("Map Multimedia to KV", multimediaTransform.toKv());
-
-    PCollection<KV<String, ImageRecord>> imageCollection =
-        p.apply("Read Image", imageTransform.read(interpretPathFn))
-            .apply("Map Image to KV", imageTransform.toKv());
-
-    PCollection<KV<String, AudubonRecord>> audubonCollection =
-        p.apply("Read Audubon", audubonTransform.read(interpretPathFn))
-            .apply("Map Audubon to KV", audubonTransform.toKv());
+    PCollection<KV<String, CoGbkResult>> hdfsCollection;
+    PCollection<KV<String, CoGbkResult>> tableCollection;
+    if (numberOfBuckets != null && numberOfBuckets > 0) {
+      // Co-partitioned avro files are merged bucket by bucket, the join doesn't shuffle records
+      UnaryOperator<String> bucketPathFn =
+          t -> PathBuilder.buildPathInterpretUsingInputPath(options, t, "*");
+
+      hdfsCollection =
+          p.apply(
+              "Join buckets",
+              BucketedAvroJoin.create(numberOfBuckets)
+                  // Core
+                  .and(basicTransform, bucketPathFn)
+                  .and(temporalTransform, bucketPathFn)
+                  .and(locationTransform, bucketPathFn)
+                  .and(taxonomyTransform, bucketPathFn)
+                  .and(grscicollTransform, bucketPathFn)
+                  // Extension
+                  .and(multimediaTransform, bucketPathFn)
+                  .and(imageTransform, bucketPathFn)
+                  .and(audubonTransform, bucketPathFn)
+                  // Raw
+                  .and(verbatimTransform, bucketPathFn));
+
+      // Table transforms use basic and verbatim records of the same result
+      tableCollection = hdfsCollection;
+    } else {
+      PCollection<KV<String, ExtendedRecord>> verbatimCollection =
+          p.apply("Read Verbatim", verbatimTransform.read(interpretPathFn))
+              .apply("Map Verbatim to KV", verbatimTransform.toKv());
+
+      PCollection<KV<String, BasicRecord>> basicCollection =
+          p.apply("Read Basic", basicTransform.read(interpretPathFn))
+              .apply("Map Basic to KV", basicTransform.toKv());
+
+      PCollection<KV<String, TemporalRecord>> temporalCollection =
+          p.apply("Read Temporal", temporalTransform.read(interpretPathFn))
+              .apply("Map Temporal to KV", temporalTransform.toKv());
+
+      PCollection<KV<String, LocationRecord>> locationCollection =
+          p.apply("Read Location", locationTransform.read(interpretPathFn))
+              .apply("Map Location to KV", locationTransform.toKv());
+
+      PCollection<KV<String, TaxonRecord>> taxonCollection =
+          p.apply("Read Taxon", taxonomyTransform.read(interpretPathFn))
+              .apply("Map Taxon to KV", taxonomyTransform.toKv());
+
+      PCollection<KV<String, GrscicollRecord>> grscicollCollection =
+          p.apply("Read Grscicoll", grscicollTransform.read(interpretPathFn))
+              .apply("Map Grscicoll to KV", grscicollTransform.toKv());
+
+      PCollection<KV<String, MultimediaRecord>> multimediaCollection =
+          p.apply("Read Multimedia", multimediaTransform.read(interpretPathFn))
+              .apply("Map Multimedia to KV", multimediaTransform.toKv());
+
+      PCollection<KV<String, ImageRecord>> imageCollection =
+          p.apply("Read Image", imageTransform.read(interpretPathFn))
+              .apply("Map Image to KV", imageTransform.toKv());
+
+      PCollection<KV<String, AudubonRecord>> audubonCollection =
+          p.apply("Read Audubon", audubonTransform.read(interpretPathFn))
+              .apply("Map Audubon to KV", audubonTransform.toKv());
+
+      hdfsCollection =
+          KeyedPCollectionTuple
+              // Core
+              .of(basicTransform.getTag(), basicCollection)
+              .and(temporalTransform.getTag(), temporalCollection)
+              .and(locationTransform.getTag(), locationCollection)
+              .and(taxonomyTransform.getTag(), taxonCollection)
+              .and(grscicollTransform.getTag(), grscicollCollection)
+              // Extension
+              .and(multimediaTransform.getTag(), multimediaCollection)
+              .and(imageTransform.getTag(), imageCollection)
+              .and(audubonTransform.getTag(), audubonCollection)
+              // Raw
+              .and(verbatimTransform.getTag(), verbatimCollection)
+              // Apply
+              .apply("Group hdfs objects", CoGroupByKey.create());
+
+      // Table records
+      tableCollection =
+          KeyedPCollectionTuple
+              // Join
+              .of(basicTransform.getTag(), basicCollection)
+              .and(verbatimTransform.getTag(), verbatimCollection)
+              // Apply
+              .apply("Group table objects", CoGroupByKey.create());
+    }
 
     // OccurrenceHdfsRecord
     log.info("Adding step 3: Converting into a OccurrenceHdfsRecord object");
@@ -229,201 +289,113 @@ public class InterpretedToHdfsViewPipeline {
             .metadataView(metadataView)
             .build();
 
-    KeyedPCollectionTuple
-        // Core
-        .of(basicTransform.getTag(), basicCollection)
-        .and(temporalTransform.getTag(), temporalCollection)
-        .and(locationTransform.getTag(), locationCollection)
-        .and(taxonomyTransform.getTag(), taxonCollection)
-        .and(grscicollTransform.getTag(), grscicollCollection)
-        // Extension
-        .and(multimediaTransform.getTag(), multimediaCollection)
-        .and(imageTransform.getTag(), imageCollection)
-        .and(audubonTransform.getTag(), audubonCollection)
-        // Raw
-        .and(verbatimTransform.getTag(), verbatimCollection)
-        // Apply
-        .apply("Group hdfs objects", CoGroupByKey.create())
+    hdfsCollection
         .apply("Merge to HdfsRecord", hdfsRecordTransform.converter())
         .apply(hdfsRecordTransform.write(pathFn.apply(OCCURRENCE), numberOfShards));
 
-    // Table records
-    PCollection<KV<String, CoGbkResult>> tableCollection =
-        KeyedPCollectionTuple
-            // Join
-            .of(basicTransform.getTag(), basicCollection)
-            .and(verbatimTransform.getTag(), verbatimCollection)
-            // Apply
-            .apply("Group table objects", CoGroupByKey.create());
-
-    AmplificationTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(AMPLIFICATION_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    IdentificationTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(IDENTIFICATION_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    MeasurementOrFactTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(MEASUREMENT_OR_FACT_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    ResourceRelationshipTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(RESOURCE_RELATIONSHIP_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    CloningTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(CLONING_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    GelImageTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(GEL_IMAGE_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    LoanTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(LOAN_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    MaterialSampleTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(MATERIAL_SAMPLE_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    PermitTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(PERMIT_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    PreparationTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(PREPARATION_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    PreservationTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(PRESERVATION_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    GermplasmMeasurementScoreTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(GERMPLASM_MEASUREMENT_SCORE_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    GermplasmMeasurementTraitTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(GERMPLASM_MEASUREMENT_TRAIT_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    GermplasmMeasurementTrialTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(GERMPLASM_MEASUREMENT_TRIAL_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    GermplasmAccessionTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(GERMPLASM_ACCESSION_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    ExtendedMeasurementOrFactTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(EXTENDED_MEASUREMENT_OR_FACT_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    ChronometricAgeTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(CHRONOMETRIC_AGE_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    ReferenceTableTransform.builder()
-        .extendedRecordTag(verbatimTransform.getTag())
-        .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(REFERENCE_TABLE))
-        .types(types)
-        .build()
-        .write(tableCollection);
-
-    IdentifierTableTransform.builder()
+    // Extension tables, every record is converted into all tables in one pass
+    List<TableTransform<?>> tableTransforms =
+        Arrays.asList(
+            AmplificationTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(AMPLIFICATION_TABLE))
+                .types(types)
+                .build(),
+            IdentificationTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(IDENTIFICATION_TABLE))
+                .types(types)
+                .build(),
+            MeasurementOrFactTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(MEASUREMENT_OR_FACT_TABLE))
+                .types(types)
+                .build(),
+            ResourceRelationshipTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(RESOURCE_RELATIONSHIP_TABLE))
+                .types(types)
+                .build(),
+            CloningTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(CLONING_TABLE))
+                .types(types)
+                .build(),
+            GelImageTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(GEL_IMAGE_TABLE))
+                .types(types)
+                .build(),
+            LoanTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(LOAN_TABLE))
+                .types(types)
+                .build(),
+            MaterialSampleTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(MATERIAL_SAMPLE_TABLE))
+                .types(types)
+                .build(),
+            PermitTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(PERMIT_TABLE))
+                .types(types)
+                .build(),
+            PreparationTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(PREPARATION_TABLE))
+                .types(types)
+                .build(),
+            PreservationTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(PRESERVATION_TABLE))
+                .types(types)
+                .build(),
+            GermplasmMeasurementScoreTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(GERMPLASM_MEASUREMENT_SCORE_TABLE))
+                .types(types)
+                .build(),
+            GermplasmMeasurementTraitTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(GERMPLASM_MEASUREMENT_TRAIT_TABLE))
+                .types(types)
+                .build(),
+            GermplasmMeasurementTrialTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(GERMPLASM_MEASUREMENT_TRIAL_TABLE))
+                .types(types)
+                .build(),
+            GermplasmAccessionTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(GERMPLASM_ACCESSION_TABLE))
+                .types(types)
+                .build(),
+            ExtendedMeasurementOrFactTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(EXTENDED_MEASUREMENT_OR_FACT_TABLE))
+                .types(types)
+                .build(),
+            ChronometricAgeTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(CHRONOMETRIC_AGE_TABLE))
+                .types(types)
+                .build(),
+            ReferenceTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(REFERENCE_TABLE))
+                .types(types)
+                .build(),
+            IdentifierTableTransform.builder()
+                .numShards(numberOfShards)
+                .path(pathFn.apply(IDENTIFIER_TABLE))
+                .types(types)
+                .build());
+
+    ExtensionTablesTransform.builder()
         .extendedRecordTag(verbatimTransform.getTag())
         .basicRecordTag(basicTransform.getTag())
-        .numShards(numberOfShards)
-        .path(pathFn.apply(IDENTIFIER_TABLE))
-        .types(types)
+        .tables(tableTransforms)
         .build()
         .write(tableCollection);
 
@@ -35,6 +35,7 @@ import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
 import org.gbif.pipelines.common.beam.utils.PathBuilder;
 import org.gbif.pipelines.core.config.model.PipelinesConfig;
 import org.gbif.pipelines.core.functions.SerializableSupplier;
+import org.gbif.pipelines.core.kvs.AsyncKeyValueStore;
 import org.gbif.pipelines.core.pojo.ErBrContainer;
 import org.gbif.pipelines.core.utils.FsUtils;
 import org.gbif.pipelines.core.ws.metadata.MetadataServiceClient;
@@ -175,6 +176,10 @@ public class VerbatimToInterpretedPipeline {
         grscicollServiceSupplier = GrscicollLookupKvStoreFactory.createSupplier(config);
     SerializableSupplier<KeyValueStore<LatLng, GeocodeResponse>> geocodeServiceSupplier =
         GeocodeKvStoreFactory.createSupplier(config);
+    if (options.getLookupConcurrency() > 0) {
+      nameUsageMatchServiceSupplier =
+          AsyncKeyValueStore.wrap(nameUsageMatchServiceSupplier, options.getLookupConcurrency());
+    }
     if (options.getTestMode()) {
       metadataServiceClientSupplier = null;
       nameUsageMatchServiceSupplier = null;
@@ -200,6 +205,7 @@ public class VerbatimToInterpretedPipeline {
             .occStatusKvStoreSupplier(OccurrenceStatusKvStoreFactory.createSupplier(config))
             .clusteringServiceSupplier(ClusteringServiceFactory.createSupplier(config))
             .keygenServiceSupplier(keyServiceSupplier)
+            .keygenBatchSize(config.getKeygen() == null ? null : config.getKeygen().getBatchSize())
             .vocabularyServiceSupplier(
                 FileVocabularyFactory.builder()
                     .config(config)
@@ -237,6 +243,11 @@ public class VerbatimToInterpretedPipeline {
     UniqueGbifIdTransform gbifIdTransform =
         UniqueGbifIdTransform.create(options.isUseExtendedRecordId());
 
+    // Interpreted avro files can be bucketed by id for the join pipelines
+    Integer numberOfBuckets = options.getNumberOfBuckets();
+    String codec = options.getAvroCompressionType();
+    int syncInterval = options.getAvroSyncInterval();
+
     log.info("Creating beam pipeline");
 
     // Create and write metadata
@@ -295,7 +306,9 @@ public class VerbatimToInterpretedPipeline {
       // Interpret and write all record types
       basicCollection
           .get(gbifIdTransform.getTag())
-          .apply("Write basic to avro", basicTransform.write(pathFn));
+          .apply(
+              "Write basic to avro",
+              basicTransform.write(pathFn, numberOfBuckets, codec, syncInterval));
 
       basicCollection
           .get(gbifIdTransform.getInvalidTag())
@@ -324,44 +337,65 @@ public class VerbatimToInterpretedPipeline {
 
     filteredUniqueRecords
         .apply("Check verbatim transform condition", verbatimTransform.check(types))
-        .apply("Write verbatim to avro", verbatimTransform.write(pathFn));
+        .apply(
+            "Write verbatim to avro",
+            verbatimTransform.write(pathFn, numberOfBuckets, codec, syncInterval));
 
     filteredUniqueRecords
         .apply("Check temporal transform condition", temporalTransform.check(types))
         .apply("Interpret temporal", temporalTransform.interpret())
-        .apply("Write temporal to avro", temporalTransform.write(pathFn));
+        .apply(
+            "Write temporal to avro",
+            temporalTransform.write(pathFn, numberOfBuckets, codec, syncInterval));
 
     filteredUniqueRecords
         .apply("Check multimedia transform condition", multimediaTransform.check(types))
         .apply("Interpret multimedia", multimediaTransform.interpret())
-        .apply("Write multimedia to avro", multimediaTransform.write(pathFn));
+        .apply(
+            "Write multimedia to avro",
+            multimediaTransform.write(pathFn, numberOfBuckets, codec, syncInterval));
 
     filteredUniqueRecords
         .apply("Check image transform condition", imageTransform.check(types))
         .apply("Interpret image", imageTransform.interpret())
-        .apply("Write image to avro", imageTransform.write(pathFn));
+        .apply(
+            "Write image to avro",
+            imageTransform.write(pathFn, numberOfBuckets, codec, syncInterval));
 
     filteredUniqueRecords
         .apply("Check audubon transform condition", audubonTransform.check(types))
         .apply("Interpret audubon", audubonTransform.interpret())
-        .apply("Write audubon to avro", audubonTransform.write(pathFn));
+        .apply(
+            "Write audubon to avro",
+            audubonTransform.write(pathFn, numberOfBuckets, codec, syncInterval));
+
+    if (options.isUseTaxonomyPrefetch() && taxonomyTransform.checkType(types)) {
+      taxonomyTransform.setPrefetchView(
+          filteredUniqueRecords.apply("Prefetch species matches", taxonomyTransform.prefetch()));
+    }
 
     filteredUniqueRecords
         .apply("Check taxonomy transform condition", taxonomyTransform.check(types))
         .apply("Interpret taxonomy", taxonomyTransform.interpret())
-        .apply("Write taxon to avro", taxonomyTransform.write(pathFn));
+        .apply(
+            "Write taxon to avro",
+            taxonomyTransform.write(pathFn, numberOfBuckets, codec, syncInterval));
 
     filteredErBr
         .apply(
             "Check grscicoll transform condition",
             grscicollTransform.check(types, ErBrContainer.class))
         .apply("Interpret grscicoll", grscicollTransform.interpret())
-        .apply("Write grscicoll to avro", grscicollTransform.write(pathFn));
+        .apply(
+            "Write grscicoll to avro",
+            grscicollTransform.write(pathFn, numberOfBuckets, codec, syncInterval));
 
     filteredUniqueRecords
         .apply("Check location transform condition", locationTransform.check(types))
         .apply("Interpret location", locationTransform.interpret())
-        .apply("Write location to avro", locationTransform.write(pathFn));
+        .apply(
+            "Write location to avro",
+            locationTransform.write(pathFn, numberOfBuckets, codec, syncInterval));
 
     log.info("Running the pipeline");
     PipelineResult result = p.run();
@@ -84,6 +84,8 @@ public class FragmentPersister {
 
   @Builder.Default private boolean useSyncMode = true;
 
+  @Builder.Default private boolean preloadKeys = false;
+
   @Builder.Default private ExecutorService executor = Executors.newSingleThreadExecutor();
 
   private Integer backPressure;
@@ -114,6 +116,9 @@ public class FragmentPersister {
                     .getConnection());
     final HBaseLockingKeyService keygenService =
         new HBaseLockingKeyService(keygenConfig, connection, datasetKey);
+    if (preloadKeys) {
+      keygenService.preloadScope();
+    }
 
     rows.add(new ArrayList<>(batchSize));
 
@@ -170,6 +175,10 @@ public class FragmentPersister {
 
       // Wait for all async jobs
       phaser.arriveAndAwaitAdvance();
+    } finally {
+      if (preloadKeys) {
+        keygenService.releaseScope();
+      }
     }
 
     return occurrenceCounter.get();
@@ -1,7 +1,10 @@
 package org.gbif.pipelines.fragmenter.common;
 
 import com.google.common.base.Strings;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import lombok.AccessLevel;
@@ -25,23 +28,7 @@ public class Keygen {
       boolean useOccurrenceId,
       OccurrenceRecord record) {
 
-    Set<String> uniqueStrings = new HashSet<>(2);
-
-    // Adds occurrenceId
-    if (useOccurrenceId) {
-      String occurrenceId = record.getOccurrenceId();
-      if (!Strings.isNullOrEmpty(occurrenceId)) {
-        uniqueStrings.add(occurrenceId);
-      }
-    }
-
-    // Adds triplet
-    if (useTriplet) {
-      String ic = record.getInstitutionCode();
-      String cc = record.getCollectionCode();
-      String cn = record.getCatalogNumber();
-      OccurrenceKeyBuilder.buildKey(ic, cc, cn).ifPresent(uniqueStrings::add);
-    }
+    Set<String> uniqueStrings = getUniqueStrings(useTriplet, useOccurrenceId, record);
 
     if (uniqueStrings.isEmpty()) {
       return ERROR_KEY;
@@ -62,6 +49,82 @@ public class Keygen {
     return Optional.ofNullable(keyResult).map(KeyLookupResult::getKey).orElse(ERROR_KEY);
   }
 
+  /**
+   * Get or generate GBIF ID keys of many records with one batch call of the keygen service for the
+   * finds and one for the missing keys. If a batch call fails, every record gets its key by {@link
+   * #getKey}
+   *
+   * @return keys in the same order as the records
+   */
+  public static List<Long> getKeys(
+      HBaseLockingKeyService keygenService,
+      boolean useTriplet,
+      boolean useOccurrenceId,
+      List<OccurrenceRecord> records) {
+
+    List<Long> keys = new ArrayList<>(Collections.nCopies(records.size(), ERROR_KEY));
+    List<Integer> indexes = new ArrayList<>(records.size());
+    List<Set<String>> uniqueStringSets = new ArrayList<>(records.size());
+    for (int i = 0; i < records.size(); i++) {
+      Set<String> uniqueStrings = getUniqueStrings(useTriplet, useOccurrenceId, records.get(i));
+      if (!uniqueStrings.isEmpty()) {
+        indexes.add(i);
+        uniqueStringSets.add(uniqueStrings);
+      }
+    }
+
+    try {
+      // Finds or generates keys
+      List<KeyLookupResult> found = keygenService.findKeys(uniqueStringSets);
+      List<Integer> missing = new ArrayList<>();
+      for (int i = 0; i < found.size(); i++) {
+        if (found.get(i) == null) {
+          missing.add(i);
+        } else {
+          keys.set(indexes.get(i), found.get(i).getKey());
+        }
+      }
+
+      if (!missing.isEmpty()) {
+        log.error("{} GBIF IDs weren't found, generating new keys.", missing.size());
+        List<Set<String>> missingSets = new ArrayList<>(missing.size());
+        missing.forEach(i -> missingSets.add(uniqueStringSets.get(i)));
+        List<KeyLookupResult> generated = keygenService.generateKeys(missingSets);
+        for (int i = 0; i < missing.size(); i++) {
+          keys.set(indexes.get(missing.get(i)), generated.get(i).getKey());
+        }
+      }
+    } catch (RuntimeException ex) {
+      log.error("Batch key lookup failed, getting keys one by one. {}", ex.getMessage(), ex);
+      for (int i = 0; i < records.size(); i++) {
+        keys.set(i, getKey(keygenService, useTriplet, useOccurrenceId, records.get(i)));
+      }
+    }
+    return keys;
+  }
+
+  private static Set<String> getUniqueStrings(
+      boolean useTriplet, boolean useOccurrenceId, OccurrenceRecord record) {
+    Set<String> uniqueStrings = new HashSet<>(2);
+
+    // Adds occurrenceId
+    if (useOccurrenceId) {
+      String occurrenceId = record.getOccurrenceId();
+      if (!Strings.isNullOrEmpty(occurrenceId)) {
+        uniqueStrings.add(occurrenceId);
+      }
+    }
+
+    // Adds triplet
+    if (useTriplet) {
+      String ic = record.getInstitutionCode();
+      String cc = record.getCollectionCode();
+      String cn = record.getCatalogNumber();
+      OccurrenceKeyBuilder.buildKey(ic, cc, cn).ifPresent(uniqueStrings::add);
+    }
+    return uniqueStrings;
+  }
+
   public static String getSaltedKey(Long key) {
     long salt = key % 100;
     String result = salt + ":" + key;
@@ -1,17 +1,14 @@
 package org.gbif.pipelines.fragmenter.record;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.gbif.converters.parser.xml.parsing.validators.UniquenessValidator;
 import org.gbif.pipelines.fragmenter.common.Keygen;
 import org.gbif.pipelines.keygen.HBaseLockingKeyService;
 
-@Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class OccurrenceRecordConverter {
 
@@ -22,24 +19,17 @@ public class OccurrenceRecordConverter {
       boolean useOccurrenceId,
       List<OccurrenceRecord> recordUnitList) {
 
-    Function<OccurrenceRecord, String> keyFn =
-        ru -> {
-          Long key = Keygen.getErrorKey();
-          try {
-            key = Keygen.getKey(keygenService, useTriplet, useOccurrenceId, ru);
-          } catch (RuntimeException ex) {
-            log.error(ex.getMessage(), ex);
-          }
-          if (Keygen.getErrorKey().equals(key) || !validator.isUnique(key.toString())) {
-            return Keygen.getErrorKey().toString();
-          }
-          return Keygen.getSaltedKey(key);
-        };
+    List<Long> keys = Keygen.getKeys(keygenService, useTriplet, useOccurrenceId, recordUnitList);
 
-    Function<OccurrenceRecord, String> valueFn = OccurrenceRecord::toStringRecord;
-
-    Map<String, String> result =
-        recordUnitList.stream().collect(Collectors.toMap(keyFn, valueFn, (s, s2) -> s));
+    Map<String, String> result = new HashMap<>(recordUnitList.size() * 2);
+    for (int i = 0; i < recordUnitList.size(); i++) {
+      Long key = keys.get(i);
+      String resultKey =
+          Keygen.getErrorKey().equals(key) || !validator.isUnique(key.toString())
+              ? Keygen.getErrorKey().toString()
+              : Keygen.getSaltedKey(key);
+      result.putIfAbsent(resultKey, recordUnitList.get(i).toStringRecord());
+    }
 
     result.remove(Keygen.getErrorKey().toString());
     return result;
@@ -3,10 +3,16 @@ package org.gbif.pipelines.fragmenter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.Executors;
 import org.gbif.api.vocabulary.EndpointType;
 import org.gbif.pipelines.fragmenter.common.HbaseServer;
+import org.gbif.pipelines.fragmenter.common.Keygen;
 import org.gbif.pipelines.fragmenter.common.TableAssert;
+import org.gbif.pipelines.fragmenter.record.OccurrenceRecord;
+import org.gbif.pipelines.keygen.HBaseLockingKeyService;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.ClassRule;
@@ -495,4 +501,62 @@ public class FragmentPersisterIT {
     TableAssert.assertTableDateUpdated(
         HBASE_SERVER.getConnection(), expSize, datasetKey, attemptSecond, endpointType);
   }
+
+  @Test
+  public void keygenBatchTest() {
+    // State
+    String datasetKey = UUID.randomUUID().toString();
+    HBaseLockingKeyService keygenService =
+        new HBaseLockingKeyService(HbaseServer.CFG, HBASE_SERVER.getConnection(), datasetKey);
+    List<OccurrenceRecord> records =
+        Arrays.asList(
+            record(null, null, null, "occ-1"),
+            record("ic", "cc", "cn-1", null),
+            record(null, null, null, null),
+            record(null, null, null, "occ-1"));
+
+    // When
+    List<Long> keys = Keygen.getKeys(keygenService, true, true, records);
+
+    // Should
+    Assert.assertEquals(4, keys.size());
+    Assert.assertTrue(keys.get(0) > 0);
+    Assert.assertTrue(keys.get(1) > 0);
+    Assert.assertNotEquals(keys.get(0), keys.get(1));
+    Assert.assertEquals(Keygen.getErrorKey(), keys.get(2));
+    Assert.assertEquals(keys.get(0), keys.get(3));
+
+    // Post
+    Assert.assertEquals(keys, Keygen.getKeys(keygenService, true, true, records));
+    Assert.assertEquals(keys.get(1), Keygen.getKey(keygenService, true, true, records.get(1)));
+  }
+
+  private static OccurrenceRecord record(String ic, String cc, String cn, String occurrenceId) {
+    return new OccurrenceRecord() {
+      @Override
+      public String toStringRecord() {
+        return occurrenceId;
+      }
+
+      @Override
+      public String getInstitutionCode() {
+        return ic;
+      }
+
+      @Override
+      public String getCollectionCode() {
+        return cc;
+      }
+
+      @Override
+      public String getCatalogNumber() {
+        return cn;
+      }
+
+      @Override
+      public String getOccurrenceId() {
+        return occurrenceId;
+      }
+    };
+  }
 }
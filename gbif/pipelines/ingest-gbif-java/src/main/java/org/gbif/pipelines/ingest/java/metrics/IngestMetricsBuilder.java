@@ -5,13 +5,26 @@ import static org.gbif.pipelines.common.PipelinesVariables.Metrics.AUDUBON_RECOR
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.AVRO_TO_HDFS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.AVRO_TO_JSON_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.BASIC_RECORDS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.BATCHES_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.BATCH_QUEUE_FULL_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.BATCH_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.CHRONOMETRIC_AGE_TABLE_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.CLONING_TABLE_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.DUPLICATE_GBIF_IDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.DUPLICATE_IDS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_BACK_PRESSURE_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_BULK_REQUESTS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_INDEXED_DOCUMENTS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_RETRIED_DOCUMENTS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.EXTENDED_MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.FILTER_ER_BASED_ON_GBIF_ID;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEL_IMAGE_TABLE_RECORDS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_BITMAP_HIT_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_BITMAP_MISS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_DISK_HIT_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_DISK_MISS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_MEMORY_HIT_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_MEMORY_MISS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GERMPLASM_ACCESSION_TABLE_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GRSCICOLL_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.IDENTICAL_GBIF_OBJECTS_COUNT;
@@ -36,6 +49,7 @@ import static org.gbif.pipelines.common.PipelinesVariables.Metrics.PREPARATION_T
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.PRESERVATION_TABLE_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.REFERENCE_TABLE_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.RESOURCE_RELATIONSHIP_TABLE_RECORDS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.TAXON_DISTINCT_MATCH_REQUESTS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.TAXON_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.TEMPORAL_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.UNIQUE_GBIF_IDS_COUNT;
@@ -45,6 +59,8 @@ import static org.gbif.pipelines.common.PipelinesVariables.Metrics.VERBATIM_RECO
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.gbif.pipelines.common.beam.metrics.IngestMetrics;
+import org.gbif.pipelines.core.io.PipelinedElasticsearchWriter;
+import org.gbif.pipelines.core.parsers.location.GeocodeKvStore;
 import org.gbif.pipelines.transforms.common.FilterRecordsTransform;
 import org.gbif.pipelines.transforms.common.UniqueGbifIdTransform;
 import org.gbif.pipelines.transforms.common.UniqueIdTransform;
@@ -60,6 +76,7 @@ import org.gbif.pipelines.transforms.extension.AudubonTransform;
 import org.gbif.pipelines.transforms.extension.ImageTransform;
 import org.gbif.pipelines.transforms.extension.MeasurementOrFactTransform;
 import org.gbif.pipelines.transforms.extension.MultimediaTransform;
+import org.gbif.pipelines.transforms.java.BatchExecutor;
 import org.gbif.pipelines.transforms.metadata.MetadataTransform;
 import org.gbif.pipelines.transforms.table.AmplificationTableTransform;
 import org.gbif.pipelines.transforms.table.ChronometricAgeTableTransform;
@@ -95,6 +112,7 @@ public class IngestMetricsBuilder {
         .addMetric(LocationTransform.class, LOCATION_RECORDS_COUNT)
         .addMetric(MetadataTransform.class, METADATA_RECORDS_COUNT)
         .addMetric(TaxonomyTransform.class, TAXON_RECORDS_COUNT)
+        .addMetric(TaxonomyTransform.class, TAXON_DISTINCT_MATCH_REQUESTS_COUNT)
         .addMetric(GrscicollTransform.class, GRSCICOLL_RECORDS_COUNT)
         .addMetric(TemporalTransform.class, TEMPORAL_RECORDS_COUNT)
         .addMetric(VerbatimTransform.class, VERBATIM_RECORDS_COUNT)
@@ -110,7 +128,16 @@ public class IngestMetricsBuilder {
         .addMetric(UniqueIdTransform.class, UNIQUE_IDS_COUNT)
         .addMetric(UniqueIdTransform.class, DUPLICATE_IDS_COUNT)
         .addMetric(UniqueIdTransform.class, IDENTICAL_OBJECTS_COUNT)
-        .addMetric(OccurrenceExtensionTransform.class, OCCURRENCE_EXT_COUNT);
+        .addMetric(OccurrenceExtensionTransform.class, OCCURRENCE_EXT_COUNT)
+        .addMetric(BatchExecutor.class, BATCH_RECORDS_COUNT)
+        .addMetric(BatchExecutor.class, BATCHES_COUNT)
+        .addMetric(BatchExecutor.class, BATCH_QUEUE_FULL_COUNT)
+        .addMetric(GeocodeKvStore.class, GEOCODE_BITMAP_HIT_COUNT)
+        .addMetric(GeocodeKvStore.class, GEOCODE_BITMAP_MISS_COUNT)
+        .addMetric(GeocodeKvStore.class, GEOCODE_MEMORY_HIT_COUNT)
+        .addMetric(GeocodeKvStore.class, GEOCODE_MEMORY_MISS_COUNT)
+        .addMetric(GeocodeKvStore.class, GEOCODE_DISK_HIT_COUNT)
+        .addMetric(GeocodeKvStore.class, GEOCODE_DISK_MISS_COUNT);
   }
 
   /**
@@ -118,7 +145,12 @@ public class IngestMetricsBuilder {
    * org.gbif.pipelines.ingest.java.pipelines.InterpretedToEsIndexExtendedPipeline}
    */
   public static IngestMetrics createInterpretedToEsIndexMetrics() {
-    return IngestMetrics.create().addMetric(OccurrenceJsonTransform.class, AVRO_TO_JSON_COUNT);
+    return IngestMetrics.create()
+        .addMetric(OccurrenceJsonTransform.class, AVRO_TO_JSON_COUNT)
+        .addMetric(PipelinedElasticsearchWriter.class, ES_INDEXED_DOCUMENTS_COUNT)
+        .addMetric(PipelinedElasticsearchWriter.class, ES_BULK_REQUESTS_COUNT)
+        .addMetric(PipelinedElasticsearchWriter.class, ES_RETRIED_DOCUMENTS_COUNT)
+        .addMetric(PipelinedElasticsearchWriter.class, ES_BACK_PRESSURE_COUNT);
   }
 
   /** {@link IngestMetrics} for hdfs tables */
@@ -149,6 +181,9 @@ public class IngestMetricsBuilder {
             EXTENDED_MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT)
         .addMetric(ChronometricAgeTableTransform.class, CHRONOMETRIC_AGE_TABLE_RECORDS_COUNT)
         .addMetric(ReferenceTableTransform.class, REFERENCE_TABLE_RECORDS_COUNT)
-        .addMetric(IdentifierTableTransform.class, IDENTIFIER_TABLE_RECORDS_COUNT);
+        .addMetric(IdentifierTableTransform.class, IDENTIFIER_TABLE_RECORDS_COUNT)
+        .addMetric(BatchExecutor.class, BATCH_RECORDS_COUNT)
+        .addMetric(BatchExecutor.class, BATCHES_COUNT)
+        .addMetric(BatchExecutor.class, BATCH_QUEUE_FULL_COUNT);
   }
 }
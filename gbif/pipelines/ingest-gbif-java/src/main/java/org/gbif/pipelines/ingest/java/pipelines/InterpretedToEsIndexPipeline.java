@@ -1,13 +1,17 @@
 package org.gbif.pipelines.ingest.java.pipelines;
 
+import static java.util.Spliterator.ORDERED;
 import static org.gbif.pipelines.ingest.java.transforms.InterpretedAvroReader.readAvroAsFuture;
 
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Spliterators;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
@@ -18,9 +22,11 @@ import org.gbif.pipelines.common.beam.metrics.IngestMetrics;
 import org.gbif.pipelines.common.beam.metrics.MetricsHandler;
 import org.gbif.pipelines.common.beam.options.EsIndexingPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
-import org.gbif.pipelines.core.io.ElasticsearchWriter;
+import org.gbif.pipelines.core.io.PipelinedElasticsearchWriter;
 import org.gbif.pipelines.ingest.java.metrics.IngestMetricsBuilder;
 import org.gbif.pipelines.ingest.java.transforms.IndexRequestConverter;
+import org.gbif.pipelines.ingest.java.transforms.JoinedRecords;
+import org.gbif.pipelines.ingest.java.transforms.SortedMergeJoin;
 import org.gbif.pipelines.io.avro.AudubonRecord;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
@@ -124,69 +130,133 @@ public class InterpretedToEsIndexPipeline {
     IngestMetrics metrics = IngestMetricsBuilder.createInterpretedToEsIndexMetrics();
 
     log.info("Creating pipeline");
-    log.info("Reading avro files...");
-    // Reading all avro files in parallel
     CompletableFuture<Map<String, MetadataRecord>> metadataMapFeature =
         readAvroAsFuture(options, executor, MetadataTransform.builder().create());
 
-    CompletableFuture<Map<String, ExtendedRecord>> verbatimMapFeature =
-        readAvroAsFuture(options, executor, VerbatimTransform.create());
+    if (options.getUseSortedAvroRuns()) {
+      MetadataRecord metadata = metadataMapFeature.get().values().iterator().next();
 
-    CompletableFuture<Map<String, BasicRecord>> basicMapFeature =
-        readAvroAsFuture(options, executor, BasicTransform.builder().create());
+      log.info("Pushing data into Elasticsearch, joining id sorted avro runs batch by batch");
+      try (SortedMergeJoin join = createSortedMergeJoin(options)) {
+        Stream<IndexRequest> requests =
+            StreamSupport.stream(Spliterators.spliteratorUnknownSize(join, ORDERED), false)
+                .flatMap(
+                    records ->
+                        records.getBasicRecords().stream()
+                            .map(createIndexRequestFn(options, metrics, metadata, records)));
+        write(options, metrics, Function.identity(), requests::iterator);
+      }
+    } else {
+      log.info("Reading avro files...");
+      // Reading all avro files in parallel
+      CompletableFuture<Map<String, ExtendedRecord>> verbatimMapFeature =
+          readAvroAsFuture(options, executor, VerbatimTransform.create());
 
-    CompletableFuture<Map<String, TemporalRecord>> temporalMapFeature =
-        readAvroAsFuture(options, executor, TemporalTransform.builder().create());
+      CompletableFuture<Map<String, BasicRecord>> basicMapFeature =
+          readAvroAsFuture(options, executor, BasicTransform.builder().create());
 
-    CompletableFuture<Map<String, LocationRecord>> locationMapFeature =
-        readAvroAsFuture(options, executor, LocationTransform.builder().create());
+      CompletableFuture<Map<String, TemporalRecord>> temporalMapFeature =
+          readAvroAsFuture(options, executor, TemporalTransform.builder().create());
 
-    CompletableFuture<Map<String, TaxonRecord>> taxonMapFeature =
-        readAvroAsFuture(options, executor, TaxonomyTransform.builder().create());
+      CompletableFuture<Map<String, LocationRecord>> locationMapFeature =
+          readAvroAsFuture(options, executor, LocationTransform.builder().create());
 
-    CompletableFuture<Map<String, GrscicollRecord>> grscicollMapFeature =
-        readAvroAsFuture(options, executor, GrscicollTransform.builder().create());
+      CompletableFuture<Map<String, TaxonRecord>> taxonMapFeature =
+          readAvroAsFuture(options, executor, TaxonomyTransform.builder().create());
 
-    CompletableFuture<Map<String, MultimediaRecord>> multimediaMapFeature =
-        readAvroAsFuture(options, executor, MultimediaTransform.builder().create());
+      CompletableFuture<Map<String, GrscicollRecord>> grscicollMapFeature =
+          readAvroAsFuture(options, executor, GrscicollTransform.builder().create());
 
-    CompletableFuture<Map<String, ImageRecord>> imageMapFeature =
-        readAvroAsFuture(options, executor, ImageTransform.builder().create());
+      CompletableFuture<Map<String, MultimediaRecord>> multimediaMapFeature =
+          readAvroAsFuture(options, executor, MultimediaTransform.builder().create());
 
-    CompletableFuture<Map<String, AudubonRecord>> audubonMapFeature =
-        readAvroAsFuture(options, executor, AudubonTransform.builder().create());
+      CompletableFuture<Map<String, ImageRecord>> imageMapFeature =
+          readAvroAsFuture(options, executor, ImageTransform.builder().create());
 
-    Function<BasicRecord, IndexRequest> indexRequestFn =
-        IndexRequestConverter.builder()
-            .metrics(metrics)
-            .esIndexName(options.getEsIndexName())
-            .esDocumentId(options.getEsDocumentId())
-            .metadata(metadataMapFeature.get().values().iterator().next())
-            .verbatimMap(verbatimMapFeature.get())
-            .temporalMap(temporalMapFeature.get())
-            .locationMap(locationMapFeature.get())
-            .taxonMap(taxonMapFeature.get())
-            .grscicollMap(grscicollMapFeature.get())
-            .multimediaMap(multimediaMapFeature.get())
-            .imageMap(imageMapFeature.get())
-            .audubonMap(audubonMapFeature.get())
-            .build()
-            .getFn();
+      CompletableFuture<Map<String, AudubonRecord>> audubonMapFeature =
+          readAvroAsFuture(options, executor, AudubonTransform.builder().create());
 
-    log.info("Pushing data into Elasticsearch");
-    ElasticsearchWriter.<BasicRecord>builder()
+      JoinedRecords records =
+          new JoinedRecords(basicMapFeature.get().values())
+              .put(ExtendedRecord.class, verbatimMapFeature.get())
+              .put(TemporalRecord.class, temporalMapFeature.get())
+              .put(LocationRecord.class, locationMapFeature.get())
+              .put(TaxonRecord.class, taxonMapFeature.get())
+              .put(GrscicollRecord.class, grscicollMapFeature.get())
+              .put(MultimediaRecord.class, multimediaMapFeature.get())
+              .put(ImageRecord.class, imageMapFeature.get())
+              .put(AudubonRecord.class, audubonMapFeature.get());
+
+      MetadataRecord metadata = metadataMapFeature.get().values().iterator().next();
+
+      log.info("Pushing data into Elasticsearch");
+      write(
+          options,
+          metrics,
+          createIndexRequestFn(options, metrics, metadata, records),
+          records.getBasicRecords());
+    }
+
+    MetricsHandler.saveCountersToTargetPathFile(options, metrics.getMetricsResult());
+    log.info("Pipeline has been finished - {}", LocalDateTime.now());
+  }
+
+  private static SortedMergeJoin createSortedMergeJoin(EsIndexingPipelineOptions options) {
+    return SortedMergeJoin.create(options, options.getBatchSize())
+        .join(VerbatimTransform.create())
+        .join(TemporalTransform.builder().create())
+        .join(LocationTransform.builder().create())
+        .join(TaxonomyTransform.builder().create())
+        .join(GrscicollTransform.builder().create())
+        .join(MultimediaTransform.builder().create())
+        .join(ImageTransform.builder().create())
+        .join(AudubonTransform.builder().create());
+  }
+
+  private static Function<BasicRecord, IndexRequest> createIndexRequestFn(
+      EsIndexingPipelineOptions options,
+      IngestMetrics metrics,
+      MetadataRecord metadata,
+      JoinedRecords records) {
+    return IndexRequestConverter.builder()
+        .metrics(metrics)
+        .esIndexName(options.getEsIndexName())
+        .esDocumentId(options.getEsDocumentId())
+        .metadata(metadata)
+        .verbatimMap(records.get(ExtendedRecord.class))
+        .temporalMap(records.get(TemporalRecord.class))
+        .locationMap(records.get(LocationRecord.class))
+        .taxonMap(records.get(TaxonRecord.class))
+        .grscicollMap(records.get(GrscicollRecord.class))
+        .multimediaMap(records.get(MultimediaRecord.class))
+        .imageMap(records.get(ImageRecord.class))
+        .audubonMap(records.get(AudubonRecord.class))
+        .build()
+        .getFn();
+  }
+
+  private static <T> void write(
+      EsIndexingPipelineOptions options,
+      IngestMetrics metrics,
+      Function<T, IndexRequest> indexRequestFn,
+      Iterable<T> records) {
+    // Two bulk requests per host in flight, unless back pressure is set
+    Integer backPressure = options.getBackPressure();
+    int maxInFlightBulks =
+        backPressure != null && backPressure > 0 ? backPressure : options.getEsHosts().length * 2;
+
+    PipelinedElasticsearchWriter.<T>builder()
         .esHosts(options.getEsHosts())
         .esMaxBatchSize(options.getEsMaxBatchSize())
         .esMaxBatchSizeBytes(options.getEsMaxBatchSizeBytes())
-        .executor(executor)
+        .maxInFlightBulks(maxInFlightBulks)
         .syncModeThreshold(options.getSyncThreshold())
+        .targetLatencyMs(options.getEsBulkTargetLatencyMs())
+        .maxRetries(options.getEsBulkMaxRetries())
         .indexRequestFn(indexRequestFn)
-        .records(basicMapFeature.get().values())
-        .backPressure(options.getBackPressure())
+        .records(records)
+        .counterFn(metrics::incMetric)
         .build()
         .write();
-
-    MetricsHandler.saveCountersToTargetPathFile(options, metrics.getMetricsResult());
-    log.info("Pipeline has been finished - {}", LocalDateTime.now());
   }
 }
@@ -24,6 +24,7 @@ import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretati
 import static org.gbif.pipelines.ingest.java.transforms.InterpretedAvroReader.readAvroAsFuture;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
@@ -66,9 +67,12 @@ import org.gbif.pipelines.core.converters.ReferenceTableConverter;
 import org.gbif.pipelines.core.converters.ResourceRelationshipTableConverter;
 import org.gbif.pipelines.core.utils.FsUtils;
 import org.gbif.pipelines.ingest.java.metrics.IngestMetricsBuilder;
+import org.gbif.pipelines.ingest.java.transforms.JoinedRecords;
 import org.gbif.pipelines.ingest.java.transforms.OccurrenceHdfsRecordConverter;
+import org.gbif.pipelines.ingest.java.transforms.SortedMergeJoin;
 import org.gbif.pipelines.ingest.java.transforms.TableConverter;
 import org.gbif.pipelines.ingest.java.transforms.TableRecordWriter;
+import org.gbif.pipelines.ingest.java.transforms.TableWriters;
 import org.gbif.pipelines.ingest.utils.HdfsViewAvroUtils;
 import org.gbif.pipelines.ingest.utils.SharedLockUtils;
 import org.gbif.pipelines.io.avro.AudubonRecord;
@@ -189,7 +193,6 @@ public class InterpretedToHdfsViewPipeline {
     String coreSiteConfig = options.getCoreSiteConfig();
     String datasetId = options.getDatasetId();
     Integer attempt = options.getAttempt();
-    Set<String> types = options.getInterpretationTypes();
 
     Set<String> deleteTypes =
         RecordType.getAllTables().stream().map(RecordType::name).collect(Collectors.toSet());
@@ -209,61 +212,134 @@ public class InterpretedToHdfsViewPipeline {
 
     log.info("Creating pipeline");
 
-    // Reading all avro files in parallel
     CompletableFuture<Map<String, MetadataRecord>> metadataMapFeature =
         readAvroAsFuture(options, executor, MetadataTransform.builder().create());
 
-    CompletableFuture<Map<String, ExtendedRecord>> verbatimMapFeature =
-        readAvroAsFuture(options, executor, VerbatimTransform.create());
-
-    CompletableFuture<Map<String, BasicRecord>> basicMapFeature =
-        readAvroAsFuture(options, executor, BasicTransform.builder().create());
-
-    CompletableFuture<Map<String, TemporalRecord>> temporalMapFeature =
-        readAvroAsFuture(options, executor, TemporalTransform.builder().create());
-
-    CompletableFuture<Map<String, LocationRecord>> locationMapFeature =
-        readAvroAsFuture(options, executor, LocationTransform.builder().create());
+    try (TableWriters writers = new TableWriters(options, pathFn)) {
+      if (options.getUseSortedAvroRuns()) {
+        MetadataRecord metadata = metadataMapFeature.get().values().iterator().next();
+
+        // Joining id sorted avro runs batch by batch
+        try (SortedMergeJoin join = createSortedMergeJoin(options)) {
+          if (!join.hasNext()) {
+            // Creates empty tables, the same as the map based join
+            writeTables(options, executor, metrics, pathFn, writers, metadata, emptyRecords());
+          }
+          while (join.hasNext()) {
+            writeTables(options, executor, metrics, pathFn, writers, metadata, join.next());
+          }
+        }
+      } else {
+        // Reading all avro files in parallel
+        CompletableFuture<Map<String, ExtendedRecord>> verbatimMapFeature =
+            readAvroAsFuture(options, executor, VerbatimTransform.create());
+
+        CompletableFuture<Map<String, BasicRecord>> basicMapFeature =
+            readAvroAsFuture(options, executor, BasicTransform.builder().create());
+
+        CompletableFuture<Map<String, TemporalRecord>> temporalMapFeature =
+            readAvroAsFuture(options, executor, TemporalTransform.builder().create());
+
+        CompletableFuture<Map<String, LocationRecord>> locationMapFeature =
+            readAvroAsFuture(options, executor, LocationTransform.builder().create());
+
+        CompletableFuture<Map<String, TaxonRecord>> taxonMapFeature =
+            readAvroAsFuture(options, executor, TaxonomyTransform.builder().create());
+
+        CompletableFuture<Map<String, GrscicollRecord>> grscicollMapFeature =
+            readAvroAsFuture(options, executor, GrscicollTransform.builder().create());
+
+        CompletableFuture<Map<String, MultimediaRecord>> multimediaMapFeature =
+            readAvroAsFuture(options, executor, MultimediaTransform.builder().create());
+
+        CompletableFuture<Map<String, ImageRecord>> imageMapFeature =
+            readAvroAsFuture(options, executor, ImageTransform.builder().create());
+
+        CompletableFuture<Map<String, AudubonRecord>> audubonMapFeature =
+            readAvroAsFuture(options, executor, AudubonTransform.builder().create());
+
+        JoinedRecords records =
+            new JoinedRecords(basicMapFeature.get().values())
+                .put(ExtendedRecord.class, verbatimMapFeature.get())
+                .put(TemporalRecord.class, temporalMapFeature.get())
+                .put(LocationRecord.class, locationMapFeature.get())
+                .put(TaxonRecord.class, taxonMapFeature.get())
+                .put(GrscicollRecord.class, grscicollMapFeature.get())
+                .put(MultimediaRecord.class, multimediaMapFeature.get())
+                .put(ImageRecord.class, imageMapFeature.get())
+                .put(AudubonRecord.class, audubonMapFeature.get());
+
+        MetadataRecord metadata = metadataMapFeature.get().values().iterator().next();
+        writeTables(options, executor, metrics, pathFn, writers, metadata, records);
+      }
+    }
 
-    CompletableFuture<Map<String, TaxonRecord>> taxonMapFeature =
-        readAvroAsFuture(options, executor, TaxonomyTransform.builder().create());
+    // Move files
+    Mutex.Action action = () -> HdfsViewAvroUtils.move(options);
+    if (options.getTestMode()) {
+      action.execute();
+    } else {
+      SharedLockUtils.doHdfsPrefixLock(options, action);
+    }
 
-    CompletableFuture<Map<String, GrscicollRecord>> grscicollMapFeature =
-        readAvroAsFuture(options, executor, GrscicollTransform.builder().create());
+    MetricsHandler.saveCountersToInputPathFile(options, metrics.getMetricsResult());
+    log.info("Pipeline has been finished - {}", LocalDateTime.now());
+  }
 
-    CompletableFuture<Map<String, MultimediaRecord>> multimediaMapFeature =
-        readAvroAsFuture(options, executor, MultimediaTransform.builder().create());
+  private static SortedMergeJoin createSortedMergeJoin(InterpretationPipelineOptions options) {
+    return SortedMergeJoin.create(options, options.getBatchSize())
+        .join(VerbatimTransform.create())
+        .join(TemporalTransform.builder().create())
+        .join(LocationTransform.builder().create())
+        .join(TaxonomyTransform.builder().create())
+        .join(GrscicollTransform.builder().create())
+        .join(MultimediaTransform.builder().create())
+        .join(ImageTransform.builder().create())
+        .join(AudubonTransform.builder().create());
+  }
 
-    CompletableFuture<Map<String, ImageRecord>> imageMapFeature =
-        readAvroAsFuture(options, executor, ImageTransform.builder().create());
+  private static JoinedRecords emptyRecords() {
+    return new JoinedRecords(Collections.emptyList());
+  }
 
-    CompletableFuture<Map<String, AudubonRecord>> audubonMapFeature =
-        readAvroAsFuture(options, executor, AudubonTransform.builder().create());
+  /** Converts and writes the occurrence and extension tables of the joined records */
+  private static void writeTables(
+      InterpretationPipelineOptions options,
+      ExecutorService executor,
+      IngestMetrics metrics,
+      Function<InterpretationType, String> pathFn,
+      TableWriters writers,
+      MetadataRecord metadata,
+      JoinedRecords records) {
 
-    Map<String, BasicRecord> basicRecordMap = basicMapFeature.get();
+    Set<String> types = options.getInterpretationTypes();
+    Collection<BasicRecord> basicRecords = records.getBasicRecords();
+    Map<String, ExtendedRecord> verbatimMap = records.get(ExtendedRecord.class);
 
     // OccurrenceHdfsRecord
     Function<BasicRecord, Optional<OccurrenceHdfsRecord>> occurrenceHdfsRecordFn =
         OccurrenceHdfsRecordConverter.builder()
             .metrics(metrics)
-            .metadata(metadataMapFeature.get().values().iterator().next())
-            .verbatimMap(verbatimMapFeature.get())
-            .temporalMap(temporalMapFeature.get())
-            .locationMap(locationMapFeature.get())
-            .taxonMap(taxonMapFeature.get())
-            .grscicollMap(grscicollMapFeature.get())
-            .multimediaMap(multimediaMapFeature.get())
-            .imageMap(imageMapFeature.get())
-            .audubonMap(audubonMapFeature.get())
+            .metadata(metadata)
+            .verbatimMap(verbatimMap)
+            .temporalMap(records.get(TemporalRecord.class))
+            .locationMap(records.get(LocationRecord.class))
+            .taxonMap(records.get(TaxonRecord.class))
+            .grscicollMap(records.get(GrscicollRecord.class))
+            .multimediaMap(records.get(MultimediaRecord.class))
+            .imageMap(records.get(ImageRecord.class))
+            .audubonMap(records.get(AudubonRecord.class))
             .build()
             .getFn();
 
     TableRecordWriter.<OccurrenceHdfsRecord>builder()
         .recordFunction(occurrenceHdfsRecordFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(OccurrenceHdfsRecord.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .types(Collections.singleton(OCCURRENCE.name()))
         .recordType(OCCURRENCE)
@@ -276,16 +352,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(MeasurementOrFactTableConverter::convert)
             .counterName(MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<MeasurementOrFactTable>builder()
         .recordFunction(measurementOrFactFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(MeasurementOrFactTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(MEASUREMENT_OR_FACT_TABLE)
         .types(types)
@@ -298,16 +376,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(IdentificationTableConverter::convert)
             .counterName(IDENTIFICATION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<IdentificationTable>builder()
         .recordFunction(identificationFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(IdentificationTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(IDENTIFICATION_TABLE)
         .types(types)
@@ -320,16 +400,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(ResourceRelationshipTableConverter::convert)
             .counterName(RESOURCE_RELATIONSHIP_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<ResourceRelationshipTable>builder()
         .recordFunction(resourceRelationFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(ResourceRelationshipTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(RESOURCE_RELATIONSHIP_TABLE)
         .types(types)
@@ -342,16 +424,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(AmplificationTableConverter::convert)
             .counterName(AMPLIFICATION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<AmplificationTable>builder()
         .recordFunction(amplificationFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(AmplificationTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(AMPLIFICATION_TABLE)
         .types(types)
@@ -364,16 +448,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(CloningTableConverter::convert)
             .counterName(CLONING_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<CloningTable>builder()
         .recordFunction(cloningFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(CloningTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(CLONING_TABLE)
         .types(types)
@@ -386,16 +472,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(GelImageTableConverter::convert)
             .counterName(GEL_IMAGE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<GelImageTable>builder()
         .recordFunction(gelImageFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(GelImageTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(GEL_IMAGE_TABLE)
         .types(types)
@@ -408,16 +496,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(LoanTableConverter::convert)
             .counterName(LOAN_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<LoanTable>builder()
         .recordFunction(loanFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(LoanTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(LOAN_TABLE)
         .types(types)
@@ -430,16 +520,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(MaterialSampleTableConverter::convert)
             .counterName(MATERIAL_SAMPLE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<MaterialSampleTable>builder()
         .recordFunction(materialSampleFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(MaterialSampleTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(MATERIAL_SAMPLE_TABLE)
         .types(types)
@@ -452,16 +544,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(PermitTableConverter::convert)
             .counterName(PERMIT_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<PermitTable>builder()
         .recordFunction(permitFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(PermitTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(PERMIT_TABLE)
         .types(types)
@@ -474,16 +568,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(PreparationTableConverter::convert)
             .counterName(PREPARATION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<PreparationTable>builder()
         .recordFunction(preparationFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(PreparationTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(PREPARATION_TABLE)
         .types(types)
@@ -496,16 +592,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(PreservationTableConverter::convert)
             .counterName(PRESERVATION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<PreservationTable>builder()
         .recordFunction(preservationFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(PreservationTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(PRESERVATION_TABLE)
         .types(types)
@@ -518,16 +616,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(GermplasmMeasurementScoreTableConverter::convert)
             .counterName(MEASUREMENT_SCORE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<GermplasmMeasurementScoreTable>builder()
         .recordFunction(measurementScoreFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(GermplasmMeasurementScoreTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(GERMPLASM_MEASUREMENT_SCORE_TABLE)
         .types(types)
@@ -540,16 +640,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(GermplasmMeasurementTraitTableConverter::convert)
             .counterName(MEASUREMENT_TRAIT_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<GermplasmMeasurementTraitTable>builder()
         .recordFunction(measurementTraitFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(GermplasmMeasurementTraitTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(GERMPLASM_MEASUREMENT_TRAIT_TABLE)
         .types(types)
@@ -562,16 +664,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(GermplasmMeasurementTrialTableConverter::convert)
             .counterName(MEASUREMENT_TRIAL_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<GermplasmMeasurementTrialTable>builder()
         .recordFunction(measurementTrialFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(GermplasmMeasurementTrialTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(GERMPLASM_MEASUREMENT_TRIAL_TABLE)
         .types(types)
@@ -584,16 +688,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(GermplasmAccessionTableConverter::convert)
             .counterName(GERMPLASM_ACCESSION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<GermplasmAccessionTable>builder()
         .recordFunction(germplasmAccessionFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(GermplasmAccessionTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(GERMPLASM_ACCESSION_TABLE)
         .types(types)
@@ -606,16 +712,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(ExtendedMeasurementOrFactTableConverter::convert)
             .counterName(EXTENDED_MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<ExtendedMeasurementOrFactTable>builder()
         .recordFunction(extendedMeasurementOrFactFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(ExtendedMeasurementOrFactTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(EXTENDED_MEASUREMENT_OR_FACT_TABLE)
         .types(types)
@@ -628,16 +736,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(ChronometricAgeTableConverter::convert)
             .counterName(CHRONOMETRIC_AGE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<ChronometricAgeTable>builder()
         .recordFunction(chronometricAgeFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(ChronometricAgeTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(CHRONOMETRIC_AGE_TABLE)
         .types(types)
@@ -650,16 +760,18 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(ReferenceTableConverter::convert)
             .counterName(REFERENCE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<ReferenceTable>builder()
         .recordFunction(referencesFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(ReferenceTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(REFERENCE_TABLE)
         .types(types)
@@ -672,31 +784,22 @@ public class InterpretedToHdfsViewPipeline {
             .metrics(metrics)
             .converterFn(IdentifierTableConverter::convert)
             .counterName(IDENTIFIER_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .build()
             .getFn();
 
     TableRecordWriter.<IdentifierTable>builder()
         .recordFunction(identifierFn)
-        .basicRecords(basicRecordMap.values())
+        .basicRecords(basicRecords)
         .targetPathFn(pathFn)
+        .tableWriters(writers)
         .schema(IdentifierTable.getClassSchema())
         .executor(executor)
+        .counterFn(metrics::incMetric)
         .options(options)
         .recordType(IDENTIFIER_TABLE)
         .types(types)
         .build()
         .write();
-
-    // Move files
-    Mutex.Action action = () -> HdfsViewAvroUtils.move(options);
-    if (options.getTestMode()) {
-      action.execute();
-    } else {
-      SharedLockUtils.doHdfsPrefixLock(options, action);
-    }
-
-    MetricsHandler.saveCountersToInputPathFile(options, metrics.getMetricsResult());
-    log.info("Pipeline has been finished - {}", LocalDateTime.now());
   }
 }
@@ -1,24 +1,33 @@
 package org.gbif.pipelines.ingest.java.pipelines;
 
+import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
 import static org.gbif.pipelines.ingest.java.transforms.InterpretedAvroWriter.createAvroWriter;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Stream;
+import java.util.function.UnaryOperator;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.beam.sdk.values.KV;
 import org.gbif.api.model.pipelines.StepType;
 import org.gbif.common.parsers.date.DateComponentOrdering;
 import org.gbif.kvs.KeyValueStore;
@@ -35,8 +44,8 @@ import org.gbif.pipelines.core.config.model.PipelinesConfig;
 import org.gbif.pipelines.core.factory.ConfigFactory;
 import org.gbif.pipelines.core.functions.SerializableConsumer;
 import org.gbif.pipelines.core.functions.SerializableSupplier;
+import org.gbif.pipelines.core.io.AvroFileWriter;
 import org.gbif.pipelines.core.io.AvroReader;
-import org.gbif.pipelines.core.io.SyncDataFileWriter;
 import org.gbif.pipelines.core.utils.FsUtils;
 import org.gbif.pipelines.core.ws.metadata.MetadataServiceClient;
 import org.gbif.pipelines.factory.ClusteringServiceFactory;
@@ -71,8 +80,11 @@ import org.gbif.pipelines.transforms.core.VerbatimTransform;
 import org.gbif.pipelines.transforms.extension.AudubonTransform;
 import org.gbif.pipelines.transforms.extension.ImageTransform;
 import org.gbif.pipelines.transforms.extension.MultimediaTransform;
+import org.gbif.pipelines.transforms.java.BatchExecutor;
 import org.gbif.pipelines.transforms.java.DefaultValuesTransform;
 import org.gbif.pipelines.transforms.java.OccurrenceExtensionTransform;
+import org.gbif.pipelines.transforms.java.StreamingUniqueGbifIdTransform;
+import org.gbif.pipelines.transforms.java.StreamingUniqueRecordsTransform;
 import org.gbif.pipelines.transforms.java.UniqueGbifIdTransform;
 import org.gbif.pipelines.transforms.metadata.MetadataTransform;
 import org.gbif.rest.client.geocode.GeocodeResponse;
@@ -125,6 +137,9 @@ import org.slf4j.MDC;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class VerbatimToInterpretedPipeline {
 
+  // Species match calls are slow, small batches spread distinct requests over all threads
+  private static final int PREFETCH_BATCH_SIZE = 100;
+
   public static void main(String[] args) {
     run(args);
   }
@@ -198,7 +213,7 @@ public class VerbatimToInterpretedPipeline {
     SerializableSupplier<KeyValueStore<GrscicollLookupRequest, GrscicollLookupResponse>>
         grscicollServiceSupplier = GrscicollLookupKvStoreFactory.getInstanceSupplier(config);
     SerializableSupplier<KeyValueStore<LatLng, GeocodeResponse>> geocodeServiceSupplier =
-        GeocodeKvStoreFactory.getInstanceSupplier(config);
+        GeocodeKvStoreFactory.getInstanceSupplier(config, incMetricFn);
     if (options.getTestMode()) {
       metadataServiceClientSupplier = null;
       nameUsageMatchServiceSupplier = null;
@@ -303,27 +318,27 @@ public class VerbatimToInterpretedPipeline {
             .create()
             .init();
 
-    try (SyncDataFileWriter<ExtendedRecord> verbatimWriter =
+    try (AvroFileWriter<ExtendedRecord> verbatimWriter =
             createAvroWriter(options, verbatimTransform, id);
-        SyncDataFileWriter<MetadataRecord> metadataWriter =
+        AvroFileWriter<MetadataRecord> metadataWriter =
             createAvroWriter(options, metadataTransform, id);
-        SyncDataFileWriter<BasicRecord> basicWriter =
+        AvroFileWriter<BasicRecord> basicWriter =
             createAvroWriter(options, basicTransform, id);
-        SyncDataFileWriter<BasicRecord> basicInvalidWriter =
+        AvroFileWriter<BasicRecord> basicInvalidWriter =
             createAvroWriter(options, basicTransform, id, true);
-        SyncDataFileWriter<TemporalRecord> temporalWriter =
+        AvroFileWriter<TemporalRecord> temporalWriter =
             createAvroWriter(options, temporalTransform, id);
-        SyncDataFileWriter<MultimediaRecord> multimediaWriter =
+        AvroFileWriter<MultimediaRecord> multimediaWriter =
             createAvroWriter(options, multimediaTransform, id);
-        SyncDataFileWriter<ImageRecord> imageWriter =
+        AvroFileWriter<ImageRecord> imageWriter =
             createAvroWriter(options, imageTransform, id);
-        SyncDataFileWriter<AudubonRecord> audubonWriter =
+        AvroFileWriter<AudubonRecord> audubonWriter =
             createAvroWriter(options, audubonTransform, id);
-        SyncDataFileWriter<TaxonRecord> taxonWriter =
+        AvroFileWriter<TaxonRecord> taxonWriter =
             createAvroWriter(options, taxonomyTransform, id);
-        SyncDataFileWriter<GrscicollRecord> grscicollWriter =
+        AvroFileWriter<GrscicollRecord> grscicollWriter =
             createAvroWriter(options, grscicollTransform, id);
-        SyncDataFileWriter<LocationRecord> locationWriter =
+        AvroFileWriter<LocationRecord> locationWriter =
             createAvroWriter(options, locationTransform, id)) {
 
       // Create or read MetadataRecord
@@ -342,114 +357,130 @@ public class VerbatimToInterpretedPipeline {
                 .get(options.getDatasetId());
       }
 
-      // Read DWCA and replace default values
-      Map<String, ExtendedRecord> erMap =
-          AvroReader.readUniqueRecords(
-              hdfsSiteConfig, coreSiteConfig, ExtendedRecord.class, options.getInputPath());
-      Map<String, ExtendedRecord> erExtMap = occExtensionTransform.transform(erMap);
-      erExtMap = extensionFilterTransform.transform(erExtMap);
-      defaultValuesTransform.replaceDefaultValues(erExtMap);
-
-      boolean useSyncMode = options.getSyncThreshold() > erExtMap.size();
-
-      // Skip interpretation and use avro reader when partial intepretation is activated
-      Function<ExtendedRecord, Optional<BasicRecord>> brFn;
-      if (useBasicRecordWriteIO(types)) {
-        log.info("Interpreting BASIC records...");
-        brFn = basicTransform::processElement;
+      // Interpretation of a valid record, BasicRecord can be null
+      BiConsumer<ExtendedRecord, BasicRecord> interpretValidFn =
+          (er, br) -> {
+            if (verbatimTransform.checkType(types)) {
+              verbatimWriter.append(er);
+            }
+            if (temporalTransform.checkType(types)) {
+              temporalTransform.processElement(er).ifPresent(temporalWriter::append);
+            }
+            if (multimediaTransform.checkType(types)) {
+              multimediaTransform.processElement(er).ifPresent(multimediaWriter::append);
+            }
+            if (imageTransform.checkType(types)) {
+              imageTransform.processElement(er).ifPresent(imageWriter::append);
+            }
+            if (audubonTransform.checkType(types)) {
+              audubonTransform.processElement(er).ifPresent(audubonWriter::append);
+            }
+            if (taxonomyTransform.checkType(types)) {
+              taxonomyTransform.processElement(er).ifPresent(taxonWriter::append);
+            }
+            if (grscicollTransform.checkType(types)) {
+              grscicollTransform.processElement(er, br, mdr).ifPresent(grscicollWriter::append);
+            }
+            if (locationTransform.checkType(types)) {
+              locationTransform.processElement(er, mdr).ifPresent(locationWriter::append);
+            }
+          };
+
+      if (options.getUseStreamingMode() && useBasicRecordWriteIO(types)) {
+        log.info("Interpreting records in streaming mode, batch size - {}", options.getBatchSize());
+        UnaryOperator<ExtendedRecord> prepareFn =
+            er ->
+                defaultValuesTransform.replaceDefaultValues(extensionFilterTransform.transform(er));
+        runStreaming(
+            options,
+            executor,
+            prepareFn,
+            basicTransform::processElement,
+            interpretValidFn,
+            basicWriter,
+            basicInvalidWriter,
+            incMetricFn);
       } else {
-        log.info("Skip BASIC interpretation and reading BASIC records from avro files...");
-        basicWriter.close();
-        basicInvalidWriter.close();
-        Map<String, BasicRecord> basicRecordMap =
-            InterpretedAvroReader.readAvroUseTargetPath(options, basicTransform);
-        brFn = er -> Optional.ofNullable(basicRecordMap.get(er.getId()));
-      }
+        // Read DWCA and replace default values
+        Map<String, ExtendedRecord> erMap =
+            AvroReader.readUniqueRecords(
+                hdfsSiteConfig, coreSiteConfig, ExtendedRecord.class, options.getInputPath());
+        Map<String, ExtendedRecord> erExtMap = occExtensionTransform.transform(erMap);
+        erExtMap = extensionFilterTransform.transform(erExtMap);
+        defaultValuesTransform.replaceDefaultValues(erExtMap);
+
+        boolean useSyncMode = options.getSyncThreshold() > erExtMap.size();
+
+        // Skip interpretation and use avro reader when partial intepretation is activated
+        Function<ExtendedRecord, Optional<BasicRecord>> brFn;
+        if (useBasicRecordWriteIO(types)) {
+          log.info("Interpreting BASIC records...");
+          brFn = basicTransform::processElement;
+        } else {
+          log.info("Skip BASIC interpretation and reading BASIC records from avro files...");
+          basicWriter.close();
+          basicInvalidWriter.close();
+          Map<String, BasicRecord> basicRecordMap =
+              InterpretedAvroReader.readAvroUseTargetPath(options, basicTransform);
+          brFn = er -> Optional.ofNullable(basicRecordMap.get(er.getId()));
+        }
 
-      log.info("Аiltering GBIF id duplicates");
-      // Filter GBIF id duplicates
-      UniqueGbifIdTransform gbifIdTransform =
-          UniqueGbifIdTransform.builder()
-              .executor(executor)
-              .erMap(erExtMap)
-              .basicTransformFn(brFn)
-              .useSyncMode(useSyncMode)
-              .skipTransform(useErdId)
-              .counterFn(incMetricFn)
-              .build()
-              .run();
-
-      // Create interpretation function
-      Consumer<ExtendedRecord> interpretAllFn =
-          er -> {
-            BasicRecord brInvalid = gbifIdTransform.getBrInvalidMap().get(er.getId());
-            if (brInvalid == null) {
-              BasicRecord br = gbifIdTransform.getErBrMap().get(er.getId());
-
-              if (verbatimTransform.checkType(types)) {
-                verbatimWriter.append(er);
-              }
-              if (temporalTransform.checkType(types)) {
-                temporalTransform.processElement(er).ifPresent(temporalWriter::append);
-              }
-              if (multimediaTransform.checkType(types)) {
-                multimediaTransform.processElement(er).ifPresent(multimediaWriter::append);
-              }
-              if (imageTransform.checkType(types)) {
-                imageTransform.processElement(er).ifPresent(imageWriter::append);
-              }
-              if (audubonTransform.checkType(types)) {
-                audubonTransform.processElement(er).ifPresent(audubonWriter::append);
+        log.info("Аiltering GBIF id duplicates");
+        // Filter GBIF id duplicates
+        UniqueGbifIdTransform gbifIdTransform =
+            UniqueGbifIdTransform.builder()
+                .executor(executor)
+                .batchSize(options.getBatchSize())
+                .parallelism(options.getBatchParallelism())
+                .erMap(erExtMap)
+                .basicTransformFn(brFn)
+                .useSyncMode(useSyncMode)
+                .skipTransform(useErdId)
+                .counterFn(incMetricFn)
+                .build()
+                .run();
+
+        // Create interpretation function
+        Consumer<ExtendedRecord> interpretAllFn =
+            er -> {
+              BasicRecord brInvalid = gbifIdTransform.getBrInvalidMap().get(er.getId());
+              if (brInvalid == null) {
+                interpretValidFn.accept(er, gbifIdTransform.getErBrMap().get(er.getId()));
+              } else {
+                basicInvalidWriter.append(brInvalid);
               }
-              if (taxonomyTransform.checkType(types)) {
-                taxonomyTransform.processElement(er).ifPresent(taxonWriter::append);
-              }
-              if (grscicollTransform.checkType(types)) {
-                grscicollTransform.processElement(er, br, mdr).ifPresent(grscicollWriter::append);
-              }
-              if (locationTransform.checkType(types)) {
-                locationTransform.processElement(er, mdr).ifPresent(locationWriter::append);
-              }
-            } else {
-              basicInvalidWriter.append(brInvalid);
-            }
-          };
+            };
+
+        if (options.isUseTaxonomyPrefetch() && taxonomyTransform.checkType(types)) {
+          log.info("Prefetching species matches...");
+          taxonomyTransform.prefetch(
+              erExtMap.values(),
+              BatchExecutor.builder()
+                  .executor(executor)
+                  .batchSize(PREFETCH_BATCH_SIZE)
+                  .parallelism(options.getBatchParallelism())
+                  .counterFn(incMetricFn)
+                  .create());
+        }
 
-      log.info("Starting rest of interpretations...");
-      // Run async writing for BasicRecords
-      Stream<CompletableFuture<Void>> streamBr = Stream.empty();
-      if (useBasicRecordWriteIO(types)) {
+        log.info("Starting rest of interpretations...");
         Collection<BasicRecord> brCollection = gbifIdTransform.getBrMap().values();
+        Collection<ExtendedRecord> erCollection = erExtMap.values();
         if (useSyncMode) {
-          streamBr =
-              Stream.of(
-                  CompletableFuture.runAsync(
-                      () -> brCollection.forEach(basicWriter::append), executor));
+          if (useBasicRecordWriteIO(types)) {
+            brCollection.forEach(basicWriter::append);
+          }
+          erCollection.forEach(interpretAllFn);
         } else {
-          streamBr =
-              brCollection.stream()
-                  .map(v -> CompletableFuture.runAsync(() -> basicWriter.append(v), executor));
+          BatchExecutor batchExecutor = createBatchExecutor(options, executor, incMetricFn);
+          // Run async writing for BasicRecords
+          if (useBasicRecordWriteIO(types)) {
+            batchExecutor.forEach(brCollection.iterator(), basicWriter::append);
+          }
+          // Run async interpretation and writing for all records
+          batchExecutor.forEach(erCollection.iterator(), interpretAllFn);
         }
       }
-
-      // Run async interpretation and writing for all records
-      Stream<CompletableFuture<Void>> streamAll;
-      Collection<ExtendedRecord> erCollection = erExtMap.values();
-      if (useSyncMode) {
-        streamAll =
-            Stream.of(
-                CompletableFuture.runAsync(() -> erCollection.forEach(interpretAllFn), executor));
-      } else {
-        streamAll =
-            erCollection.stream()
-                .map(v -> CompletableFuture.runAsync(() -> interpretAllFn.accept(v), executor));
-      }
-
-      // Wait for all features
-      CompletableFuture<?>[] futures =
-          Stream.concat(streamBr, streamAll).toArray(CompletableFuture[]::new);
-      CompletableFuture.allOf(futures).get();
-
     } catch (Exception e) {
       log.error("Failed performing conversion on {}", e.getMessage());
       throw new IllegalStateException("Failed performing conversion on ", e);
@@ -469,6 +500,137 @@ public class VerbatimToInterpretedPipeline {
     log.info("Pipeline has been finished - {}", LocalDateTime.now());
   }
 
+  /**
+   * Bounded memory interpretation, records are read block by block and only indexes of ids are
+   * kept:
+   *
+   * <pre>
+   *    1) Indexes ExtendedRecord ids to skip duplicates
+   *    2) Interprets BasicRecords in batches, filters GBIF id duplicates using an off-heap index
+   *    and spills BasicRecords into a local avro file, keeping the order of ExtendedRecords
+   *    3) Reads ExtendedRecords and spilled BasicRecords side by side and runs the rest of
+   *    interpretations in batches
+   * </pre>
+   */
+  @SneakyThrows
+  private static void runStreaming(
+      InterpretationPipelineOptions options,
+      ExecutorService executor,
+      UnaryOperator<ExtendedRecord> prepareFn,
+      Function<ExtendedRecord, Optional<BasicRecord>> brFn,
+      BiConsumer<ExtendedRecord, BasicRecord> interpretValidFn,
+      AvroFileWriter<BasicRecord> basicWriter,
+      AvroFileWriter<BasicRecord> basicInvalidWriter,
+      SerializableConsumer<String> incMetricFn) {
+
+    BatchExecutor batchExecutor = createBatchExecutor(options, executor, incMetricFn);
+
+    Path spillPath = Files.createTempFile("basic-", AVRO_EXTENSION);
+
+    try (StreamingUniqueRecordsTransform erTransform =
+            StreamingUniqueRecordsTransform.builder()
+                .sourceSupplier(
+                    () ->
+                        AvroReader.readStream(
+                            options.getHdfsSiteConfig(),
+                            options.getCoreSiteConfig(),
+                            ExtendedRecord.class,
+                            options.getInputPath()))
+                .counterFn(incMetricFn)
+                .create();
+        StreamingUniqueGbifIdTransform gbifIdTransform =
+            StreamingUniqueGbifIdTransform.builder()
+                .skipTransform(options.isUseExtendedRecordId())
+                .counterFn(incMetricFn)
+                .create()) {
+
+      log.info("Indexing unique records...");
+      erTransform.index();
+      log.info("Number of unique records - {}", erTransform.size());
+
+      log.info("Interpreting BASIC records and filtering GBIF id duplicates...");
+      try (DataFileWriter<BasicRecord> spillWriter =
+              new DataFileWriter<>(new SpecificDatumWriter<BasicRecord>(BasicRecord.class));
+          StreamingUniqueRecordsTransform.UniqueRecordIterator erIterator =
+              erTransform.iterator()) {
+        spillWriter.create(BasicRecord.getClassSchema(), spillPath.toFile());
+        batchExecutor.map(
+            erIterator,
+            er -> brFn.apply(prepareFn.apply(er)),
+            brOpt ->
+                brOpt.ifPresent(
+                    br -> {
+                      gbifIdTransform.filter(br);
+                      appendSpill(spillWriter, br);
+                    }));
+      }
+
+      log.info("Starting rest of interpretations...");
+      try (DataFileReader<BasicRecord> spillReader =
+              new DataFileReader<>(
+                  spillPath.toFile(), new SpecificDatumReader<>(BasicRecord.class));
+          StreamingUniqueRecordsTransform.UniqueRecordIterator erIterator =
+              erTransform.iterator()) {
+
+        // BasicRecords were spilled in the order of ExtendedRecords, some can be absent
+        Iterator<KV<ExtendedRecord, BasicRecord>> pairIterator =
+            new Iterator<KV<ExtendedRecord, BasicRecord>>() {
+              private BasicRecord nextBr = spillReader.hasNext() ? spillReader.next() : null;
+
+              @Override
+              public boolean hasNext() {
+                return erIterator.hasNext();
+              }
+
+              @Override
+              public KV<ExtendedRecord, BasicRecord> next() {
+                ExtendedRecord er = erIterator.next();
+                BasicRecord br = null;
+                if (nextBr != null && nextBr.getId().equals(er.getId())) {
+                  br = nextBr;
+                  nextBr = spillReader.hasNext() ? spillReader.next() : null;
+                }
+                return KV.of(er, br);
+              }
+            };
+
+        batchExecutor.forEach(
+            pairIterator,
+            pair -> {
+              ExtendedRecord er = prepareFn.apply(pair.getKey());
+              BasicRecord br = pair.getValue();
+              if (br == null) {
+                interpretValidFn.accept(er, null);
+              } else if (gbifIdTransform.isValid(br)) {
+                basicWriter.append(br);
+                interpretValidFn.accept(er, br);
+              } else {
+                basicInvalidWriter.append(br);
+              }
+            });
+      }
+    } finally {
+      Files.deleteIfExists(spillPath);
+    }
+  }
+
+  @SneakyThrows
+  private static void appendSpill(DataFileWriter<BasicRecord> writer, BasicRecord br) {
+    writer.append(br);
+  }
+
+  private static BatchExecutor createBatchExecutor(
+      InterpretationPipelineOptions options,
+      ExecutorService executor,
+      SerializableConsumer<String> incMetricFn) {
+    return BatchExecutor.builder()
+        .executor(executor)
+        .batchSize(options.getBatchSize())
+        .parallelism(options.getBatchParallelism())
+        .counterFn(incMetricFn)
+        .create();
+  }
+
   private static boolean useBasicRecordWriteIO(Set<String> types) {
     return types.contains(RecordType.BASIC.name()) || types.contains(RecordType.ALL.name());
   }
@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.utils.PathBuilder;
+import org.gbif.pipelines.core.io.AvroMergeReader;
 import org.gbif.pipelines.core.io.AvroReader;
 import org.gbif.pipelines.io.avro.Record;
 import org.gbif.pipelines.transforms.Transform;
@@ -45,4 +46,17 @@ public class InterpretedAvroReader {
     return AvroReader.readRecords(
         options.getHdfsSiteConfig(), options.getCoreSiteConfig(), transform.getReturnClazz(), path);
   }
+
+  /**
+   * Read avro files written as id sorted runs and return one stream sorted by id, the caller must
+   * close the returned reader
+   */
+  public static <T extends SpecificRecordBase & Record> AvroMergeReader<T> readSortedAvro(
+      InterpretationPipelineOptions options, Transform<?, T> transform) {
+    String path =
+        PathBuilder.buildPathInterpretUsingInputPath(
+            options, transform.getBaseName(), "*" + AVRO_EXTENSION);
+    return AvroReader.readSortedStream(
+        options.getHdfsSiteConfig(), options.getCoreSiteConfig(), transform.getReturnClazz(), path);
+  }
 }
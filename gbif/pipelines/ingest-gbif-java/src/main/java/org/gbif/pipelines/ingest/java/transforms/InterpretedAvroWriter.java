@@ -3,6 +3,7 @@ package org.gbif.pipelines.ingest.java.transforms;
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
 import static org.gbif.pipelines.core.utils.FsUtils.createParentDirectories;
 
+import java.io.OutputStream;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
@@ -11,7 +12,9 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.utils.PathBuilder;
-import org.gbif.pipelines.core.io.SyncDataFileWriter;
+import org.gbif.pipelines.core.io.AvroFileWriter;
+import org.gbif.pipelines.core.io.ShardedDataFileWriter;
+import org.gbif.pipelines.core.io.SortedRunFileWriter;
 import org.gbif.pipelines.core.io.SyncDataFileWriterBuilder;
 import org.gbif.pipelines.io.avro.Record;
 import org.gbif.pipelines.transforms.Transform;
@@ -19,30 +22,57 @@ import org.gbif.pipelines.transforms.Transform;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class InterpretedAvroWriter {
 
-  /** Create an AVRO file writer */
+  /**
+   * Create an AVRO file writer, one file per writing thread ({@link ShardedDataFileWriter}) if the
+   * useShardedAvroWriters option is enabled, or id sorted run files ({@link SortedRunFileWriter})
+   * if the useSortedAvroRuns option is enabled
+   */
   @SneakyThrows
-  public static <T extends SpecificRecordBase & Record> SyncDataFileWriter<T> createAvroWriter(
+  public static <T extends SpecificRecordBase & Record> AvroFileWriter<T> createAvroWriter(
       InterpretationPipelineOptions options,
       Transform<?, T> transform,
       String id,
       boolean useInvalidName) {
     String baseName = useInvalidName ? transform.getBaseInvalidName() : transform.getBaseName();
-    String pathString =
-        PathBuilder.buildPathInterpretUsingTargetPath(options, baseName, id + AVRO_EXTENSION);
-    Path path = new Path(pathString);
-    FileSystem fs =
-        createParentDirectories(options.getHdfsSiteConfig(), options.getCoreSiteConfig(), path);
+    if (options.getUseSortedAvroRuns()) {
+      return SortedRunFileWriter.<T>builder()
+          .schema(transform.getAvroSchema())
+          .codec(options.getAvroCompressionType())
+          .syncInterval(options.getAvroSyncInterval())
+          .runSize(options.getSortedAvroRunSize())
+          .outputStreamFn(run -> createOutputStream(options, baseName, id + "-" + run))
+          .build();
+    }
+    if (options.getUseShardedAvroWriters()) {
+      return ShardedDataFileWriter.<T>builder()
+          .schema(transform.getAvroSchema())
+          .codec(options.getAvroCompressionType())
+          .syncInterval(options.getAvroSyncInterval())
+          .outputStreamFn(shard -> createOutputStream(options, baseName, id + "-" + shard))
+          .build();
+    }
     return SyncDataFileWriterBuilder.builder()
         .schema(transform.getAvroSchema())
         .codec(options.getAvroCompressionType())
-        .outputStream(fs.create(path))
+        .outputStream(createOutputStream(options, baseName, id))
         .syncInterval(options.getAvroSyncInterval())
         .build()
         .createSyncDataFileWriter();
   }
 
-  public static <T extends SpecificRecordBase & Record> SyncDataFileWriter<T> createAvroWriter(
+  public static <T extends SpecificRecordBase & Record> AvroFileWriter<T> createAvroWriter(
       InterpretationPipelineOptions options, Transform<?, T> transform, String id) {
     return createAvroWriter(options, transform, id, false);
   }
+
+  @SneakyThrows
+  private static OutputStream createOutputStream(
+      InterpretationPipelineOptions options, String baseName, String id) {
+    String pathString =
+        PathBuilder.buildPathInterpretUsingTargetPath(options, baseName, id + AVRO_EXTENSION);
+    Path path = new Path(pathString);
+    FileSystem fs =
+        createParentDirectories(options.getHdfsSiteConfig(), options.getCoreSiteConfig(), path);
+    return fs.create(path);
+  }
 }
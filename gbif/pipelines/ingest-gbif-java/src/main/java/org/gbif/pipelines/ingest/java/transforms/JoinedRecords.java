@@ -0,0 +1,33 @@
+package org.gbif.pipelines.ingest.java.transforms;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.NonNull;
+import org.gbif.pipelines.io.avro.BasicRecord;
+
+/**
+ * Basic records with the records of other types to join by id, the records of every type are kept
+ * as Map<ID, Clazz>. A missing type is an empty map.
+ */
+public class JoinedRecords {
+
+  @Getter private final Collection<BasicRecord> basicRecords;
+  private final Map<Class<?>, Map<String, ?>> maps = new HashMap<>();
+
+  public JoinedRecords(@NonNull Collection<BasicRecord> basicRecords) {
+    this.basicRecords = basicRecords;
+  }
+
+  public <T> JoinedRecords put(Class<T> clazz, @NonNull Map<String, T> map) {
+    maps.put(clazz, map);
+    return this;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> Map<String, T> get(Class<T> clazz) {
+    return (Map<String, T>) maps.getOrDefault(clazz, Collections.emptyMap());
+  }
+}
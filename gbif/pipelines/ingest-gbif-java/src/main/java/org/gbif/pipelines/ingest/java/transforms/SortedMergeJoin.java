@@ -0,0 +1,122 @@
+package org.gbif.pipelines.ingest.java.transforms;
+
+import static org.gbif.pipelines.ingest.java.transforms.InterpretedAvroReader.readSortedAvro;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
+import org.gbif.pipelines.core.io.AvroMergeReader;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.gbif.pipelines.io.avro.Record;
+import org.gbif.pipelines.transforms.Transform;
+import org.gbif.pipelines.transforms.core.BasicTransform;
+
+/**
+ * Streaming join of interpreted avro files written as id sorted runs (useSortedAvroRuns option).
+ * Reads basic records batch by batch in ascending id order and moves every joined record type
+ * forward to the last id of the batch, so only one batch of every type is kept in memory. Records
+ * without a basic record are skipped, the same as by the Map<ID, Clazz> based join.
+ *
+ * <pre>{@code
+ * try (SortedMergeJoin join =
+ *     SortedMergeJoin.create(options, options.getBatchSize())
+ *         .join(VerbatimTransform.create())
+ *         .join(TemporalTransform.builder().create())) {
+ *   join.forEachRemaining(records -> ...);
+ * }
+ * }</pre>
+ */
+public class SortedMergeJoin implements Iterator<JoinedRecords>, Closeable {
+
+  private final InterpretationPipelineOptions options;
+  private final int batchSize;
+  private final AvroMergeReader<BasicRecord> basicReader;
+  private final List<Side<?>> sides = new ArrayList<>();
+
+  private SortedMergeJoin(InterpretationPipelineOptions options, int batchSize) {
+    this.options = options;
+    this.batchSize = batchSize;
+    this.basicReader = readSortedAvro(options, BasicTransform.builder().create());
+  }
+
+  public static SortedMergeJoin create(InterpretationPipelineOptions options, int batchSize) {
+    return new SortedMergeJoin(options, batchSize);
+  }
+
+  /** Adds the records of the transform to every batch */
+  public <T extends SpecificRecordBase & Record> SortedMergeJoin join(Transform<?, T> transform) {
+    sides.add(new Side<>(transform.getReturnClazz(), readSortedAvro(options, transform)));
+    return this;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return basicReader.hasNext();
+  }
+
+  @Override
+  public JoinedRecords next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    List<BasicRecord> basicRecords = new ArrayList<>(batchSize);
+    Set<String> ids = new HashSet<>();
+    while (basicRecords.size() < batchSize && basicReader.hasNext()) {
+      BasicRecord br = basicReader.next();
+      basicRecords.add(br);
+      ids.add(br.getId());
+    }
+    String lastId = basicRecords.get(basicRecords.size() - 1).getId();
+
+    JoinedRecords records = new JoinedRecords(basicRecords);
+    sides.forEach(side -> side.putNext(records, lastId, ids));
+    return records;
+  }
+
+  @Override
+  public void close() throws IOException {
+    basicReader.close();
+    for (Side<?> side : sides) {
+      side.reader.close();
+    }
+  }
+
+  private static class Side<T extends SpecificRecordBase & Record> {
+
+    private final Class<T> clazz;
+    private final AvroMergeReader<T> reader;
+    private T head;
+
+    private Side(Class<T> clazz, AvroMergeReader<T> reader) {
+      this.clazz = clazz;
+      this.reader = reader;
+    }
+
+    /** Reads records up to the last id of the batch, keeps the ones with ids of the batch */
+    private void putNext(JoinedRecords records, String lastId, Set<String> ids) {
+      Map<String, T> map = new HashMap<>();
+      while (head != null || reader.hasNext()) {
+        if (head == null) {
+          head = reader.next();
+        }
+        if (head.getId().compareTo(lastId) > 0) {
+          break;
+        }
+        if (ids.contains(head.getId())) {
+          map.put(head.getId(), head);
+        }
+        head = null;
+      }
+      records.put(clazz, map);
+    }
+  }
+}
@@ -1,26 +1,21 @@
 package org.gbif.pipelines.ingest.java.transforms;
 
-import static org.gbif.pipelines.core.utils.FsUtils.createParentDirectories;
-
 import java.util.Collection;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import org.apache.avro.Schema;
-import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.Path;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.InterpretationType;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
+import org.gbif.pipelines.core.functions.SerializableConsumer;
 import org.gbif.pipelines.core.io.SyncDataFileWriter;
-import org.gbif.pipelines.core.io.SyncDataFileWriterBuilder;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.transforms.common.CheckTransforms;
+import org.gbif.pipelines.transforms.java.BatchExecutor;
 
 @Builder
 public class TableRecordWriter<T> {
@@ -33,35 +28,41 @@ public class TableRecordWriter<T> {
   @NonNull private final ExecutorService executor;
   @NonNull private final Set<String> types;
   @NonNull private final InterpretationType recordType;
+  private final SerializableConsumer<String> counterFn;
+  /** Writes into the shared table writer instead of creating and closing a file */
+  private final TableWriters tableWriters;
 
   @SneakyThrows
   public void write() {
     if (CheckTransforms.checkRecordType(types, recordType)) {
-      try (SyncDataFileWriter<T> writer = createWriter(options)) {
-        boolean useSyncMode = options.getSyncThreshold() > basicRecords.size();
-        if (useSyncMode) {
-          syncWrite(writer);
-        } else {
-          CompletableFuture<?>[] futures = asyncWrite(writer);
-          CompletableFuture.allOf(futures).get();
+      if (tableWriters != null) {
+        write(tableWriters.get(recordType, schema));
+      } else {
+        try (SyncDataFileWriter<T> writer =
+            TableWriters.createWriter(options, targetPathFn, recordType, schema)) {
+          write(writer);
         }
       }
     }
   }
 
-  private CompletableFuture<?>[] asyncWrite(SyncDataFileWriter<T> writer) {
-    return basicRecords.stream()
-        .map(
-            br -> {
-              Optional<T> t = recordFunction.apply(br);
-              if (t.isPresent()) {
-                Runnable runnable = () -> writer.append(t.get());
-                return CompletableFuture.runAsync(runnable, executor);
-              }
-              return null;
-            })
-        .filter(Objects::nonNull)
-        .toArray(CompletableFuture[]::new);
+  private void write(SyncDataFileWriter<T> writer) {
+    boolean useSyncMode = options.getSyncThreshold() > basicRecords.size();
+    if (useSyncMode) {
+      syncWrite(writer);
+    } else {
+      asyncWrite(writer);
+    }
+  }
+
+  private void asyncWrite(SyncDataFileWriter<T> writer) {
+    BatchExecutor.builder()
+        .executor(executor)
+        .batchSize(options.getBatchSize())
+        .parallelism(options.getBatchParallelism())
+        .counterFn(counterFn)
+        .create()
+        .forEach(basicRecords.iterator(), br -> recordFunction.apply(br).ifPresent(writer::append));
   }
 
   private void syncWrite(SyncDataFileWriter<T> writer) {
@@ -71,19 +72,4 @@ public class TableRecordWriter<T> {
         .map(Optional::get)
         .forEach(writer::append);
   }
-
-  /** Create an AVRO file writer */
-  @SneakyThrows
-  private SyncDataFileWriter<T> createWriter(InterpretationPipelineOptions options) {
-    Path path = new Path(targetPathFn.apply(recordType));
-    FileSystem verbatimFs =
-        createParentDirectories(options.getHdfsSiteConfig(), options.getCoreSiteConfig(), path);
-    return SyncDataFileWriterBuilder.builder()
-        .schema(schema)
-        .codec(options.getAvroCompressionType())
-        .outputStream(verbatimFs.create(path))
-        .syncInterval(options.getAvroSyncInterval())
-        .build()
-        .createSyncDataFileWriter();
-  }
 }
@@ -0,0 +1,69 @@
+package org.gbif.pipelines.ingest.java.transforms;
+
+import static org.gbif.pipelines.core.utils.FsUtils.createParentDirectories;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import org.apache.avro.Schema;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.InterpretationType;
+import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
+import org.gbif.pipelines.core.io.SyncDataFileWriter;
+import org.gbif.pipelines.core.io.SyncDataFileWriterBuilder;
+
+/**
+ * Table avro writers kept open across several {@link TableRecordWriter#write()} calls, lets a
+ * pipeline write a table batch by batch. A file is created on the first use of the table.
+ */
+public class TableWriters implements Closeable {
+
+  private final InterpretationPipelineOptions options;
+  private final Function<InterpretationType, String> targetPathFn;
+  private final Map<InterpretationType, SyncDataFileWriter<?>> writers = new HashMap<>();
+
+  public TableWriters(
+      @NonNull InterpretationPipelineOptions options,
+      @NonNull Function<InterpretationType, String> targetPathFn) {
+    this.options = options;
+    this.targetPathFn = targetPathFn;
+  }
+
+  @SuppressWarnings("unchecked")
+  public synchronized <T> SyncDataFileWriter<T> get(InterpretationType recordType, Schema schema) {
+    return (SyncDataFileWriter<T>)
+        writers.computeIfAbsent(recordType, t -> createWriter(options, targetPathFn, t, schema));
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    for (SyncDataFileWriter<?> writer : writers.values()) {
+      writer.close();
+    }
+    writers.clear();
+  }
+
+  /** Create an AVRO file writer */
+  @SneakyThrows
+  static <T> SyncDataFileWriter<T> createWriter(
+      InterpretationPipelineOptions options,
+      Function<InterpretationType, String> targetPathFn,
+      InterpretationType recordType,
+      Schema schema) {
+    Path path = new Path(targetPathFn.apply(recordType));
+    FileSystem verbatimFs =
+        createParentDirectories(options.getHdfsSiteConfig(), options.getCoreSiteConfig(), path);
+    return SyncDataFileWriterBuilder.builder()
+        .schema(schema)
+        .codec(options.getAvroCompressionType())
+        .outputStream(verbatimFs.create(path))
+        .syncInterval(options.getAvroSyncInterval())
+        .build()
+        .createSyncDataFileWriter();
+  }
+}
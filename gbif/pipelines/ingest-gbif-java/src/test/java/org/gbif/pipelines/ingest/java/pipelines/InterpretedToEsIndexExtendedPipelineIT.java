@@ -12,7 +12,7 @@ import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.pipelines.common.beam.options.EsIndexingPipelineOptions;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
-import org.gbif.pipelines.core.io.SyncDataFileWriter;
+import org.gbif.pipelines.core.io.AvroFileWriter;
 import org.gbif.pipelines.estools.service.EsService;
 import org.gbif.pipelines.ingest.java.transforms.InterpretedAvroWriter;
 import org.gbif.pipelines.io.avro.AudubonRecord;
@@ -76,7 +76,7 @@ public class InterpretedToEsIndexExtendedPipelineIT {
     InterpretationPipelineOptions optionsWriter =
         PipelinesOptionsFactory.createInterpretation(argsWriter);
 
-    try (SyncDataFileWriter<ExtendedRecord> writer =
+    try (AvroFileWriter<ExtendedRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, VerbatimTransform.create(), postfix)) {
       Map<String, String> ext1 = new HashMap<>();
@@ -97,55 +97,55 @@ public class InterpretedToEsIndexExtendedPipelineIT {
           ExtendedRecord.newBuilder().setId(ID).setExtensions(ext).build();
       writer.append(extendedRecord);
     }
-    try (SyncDataFileWriter<BasicRecord> writer =
+    try (AvroFileWriter<BasicRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, BasicTransform.builder().create(), postfix)) {
       BasicRecord basicRecord = BasicRecord.newBuilder().setId(ID).setGbifId(1L).build();
       writer.append(basicRecord);
     }
-    try (SyncDataFileWriter<MetadataRecord> writer =
+    try (AvroFileWriter<MetadataRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, MetadataTransform.builder().create(), postfix)) {
       MetadataRecord metadataRecord = MetadataRecord.newBuilder().setId(ID).build();
       writer.append(metadataRecord);
     }
-    try (SyncDataFileWriter<TemporalRecord> writer =
+    try (AvroFileWriter<TemporalRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, TemporalTransform.builder().create(), postfix)) {
       TemporalRecord temporalRecord = TemporalRecord.newBuilder().setId(ID).build();
       writer.append(temporalRecord);
     }
-    try (SyncDataFileWriter<LocationRecord> writer =
+    try (AvroFileWriter<LocationRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, LocationTransform.builder().create(), postfix)) {
       LocationRecord locationRecord = LocationRecord.newBuilder().setId(ID).build();
       writer.append(locationRecord);
     }
-    try (SyncDataFileWriter<TaxonRecord> writer =
+    try (AvroFileWriter<TaxonRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, TaxonomyTransform.builder().create(), postfix)) {
       TaxonRecord taxonRecord = TaxonRecord.newBuilder().setId(ID).build();
       writer.append(taxonRecord);
     }
-    try (SyncDataFileWriter<GrscicollRecord> writer =
+    try (AvroFileWriter<GrscicollRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, GrscicollTransform.builder().create(), postfix)) {
       GrscicollRecord grscicollRecord = GrscicollRecord.newBuilder().setId(ID).build();
       writer.append(grscicollRecord);
     }
-    try (SyncDataFileWriter<MultimediaRecord> writer =
+    try (AvroFileWriter<MultimediaRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, MultimediaTransform.builder().create(), postfix)) {
       MultimediaRecord multimediaRecord = MultimediaRecord.newBuilder().setId(ID).build();
       writer.append(multimediaRecord);
     }
-    try (SyncDataFileWriter<ImageRecord> writer =
+    try (AvroFileWriter<ImageRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, ImageTransform.builder().create(), postfix)) {
       ImageRecord imageRecord = ImageRecord.newBuilder().setId(ID).build();
       writer.append(imageRecord);
     }
-    try (SyncDataFileWriter<AudubonRecord> writer =
+    try (AvroFileWriter<AudubonRecord> writer =
         InterpretedAvroWriter.createAvroWriter(
             optionsWriter, AudubonTransform.builder().create(), postfix)) {
       AudubonRecord audubonRecord = AudubonRecord.newBuilder().setId(ID).build();
@@ -20,7 +20,7 @@ import org.gbif.api.vocabulary.Extension;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
-import org.gbif.pipelines.core.io.SyncDataFileWriter;
+import org.gbif.pipelines.core.io.AvroFileWriter;
 import org.gbif.pipelines.ingest.java.transforms.InterpretedAvroWriter;
 import org.gbif.pipelines.io.avro.AudubonRecord;
 import org.gbif.pipelines.io.avro.BasicRecord;
@@ -135,7 +135,7 @@ public class VerbatimToInterpretedPipelineIT {
     InterpretationPipelineOptions options = PipelinesOptionsFactory.createInterpretation(args);
 
     // Create varbatim.avro
-    try (SyncDataFileWriter<ExtendedRecord> writer =
+    try (AvroFileWriter<ExtendedRecord> writer =
         InterpretedAvroWriter.createAvroWriter(options, VerbatimTransform.create(), ID)) {
       Map<String, String> ext1 = new HashMap<>();
       ext1.put(DwcTerm.measurementID.qualifiedName(), "Id1");
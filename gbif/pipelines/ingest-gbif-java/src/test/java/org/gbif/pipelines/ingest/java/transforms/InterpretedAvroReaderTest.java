@@ -5,7 +5,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
-import org.gbif.pipelines.core.io.SyncDataFileWriter;
+import org.gbif.pipelines.core.io.AvroFileWriter;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.transforms.core.BasicTransform;
 import org.junit.Assert;
@@ -29,13 +29,13 @@ public class InterpretedAvroReaderTest {
     };
     InterpretationPipelineOptions options = PipelinesOptionsFactory.createInterpretation(args);
 
-    try (SyncDataFileWriter<BasicRecord> writer =
+    try (AvroFileWriter<BasicRecord> writer =
         InterpretedAvroWriter.createAvroWriter(options, BasicTransform.builder().create(), "1")) {
       BasicRecord basicRecord = BasicRecord.newBuilder().setId("777").setGbifId(1L).build();
       writer.append(basicRecord);
     }
 
-    try (SyncDataFileWriter<BasicRecord> writer =
+    try (AvroFileWriter<BasicRecord> writer =
         InterpretedAvroWriter.createAvroWriter(options, BasicTransform.builder().create(), "2")) {
       BasicRecord basicRecord = BasicRecord.newBuilder().setId("888").setGbifId(2L).build();
       writer.append(basicRecord);
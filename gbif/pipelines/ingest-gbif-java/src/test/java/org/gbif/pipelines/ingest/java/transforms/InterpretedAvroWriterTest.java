@@ -10,7 +10,7 @@ import org.apache.avro.io.DatumReader;
 import org.apache.avro.specific.SpecificDatumReader;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
-import org.gbif.pipelines.core.io.SyncDataFileWriter;
+import org.gbif.pipelines.core.io.AvroFileWriter;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.transforms.core.BasicTransform;
 import org.junit.Assert;
@@ -41,7 +41,7 @@ public class InterpretedAvroWriterTest {
     InterpretationPipelineOptions options = PipelinesOptionsFactory.createInterpretation(args);
 
     // When
-    try (SyncDataFileWriter<BasicRecord> writer =
+    try (AvroFileWriter<BasicRecord> writer =
         InterpretedAvroWriter.createAvroWriter(options, basicTransform, id)) {
       writer.append(basicRecord);
     }
@@ -0,0 +1,88 @@
+package org.gbif.pipelines.ingest.java.transforms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
+import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
+import org.gbif.pipelines.core.io.AvroFileWriter;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.gbif.pipelines.io.avro.TemporalRecord;
+import org.gbif.pipelines.transforms.core.BasicTransform;
+import org.gbif.pipelines.transforms.core.TemporalTransform;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SortedMergeJoinTest {
+
+  @Test
+  public void joinTest() throws Exception {
+
+    // State
+    String outputFile = getClass().getResource("/").getFile() + "sorted";
+
+    String[] args = {
+      "--datasetId=d596fccb-2319-42eb-b13b-986c932780ad",
+      "--attempt=146",
+      "--interpretationTypes=ALL",
+      "--runner=SparkRunner",
+      "--inputPath=" + outputFile,
+      "--targetPath=" + outputFile,
+      "--useSortedAvroRuns=true",
+      "--sortedAvroRunSize=3"
+    };
+    InterpretationPipelineOptions options = PipelinesOptionsFactory.createInterpretation(args);
+
+    try (AvroFileWriter<BasicRecord> writer =
+        InterpretedAvroWriter.createAvroWriter(options, BasicTransform.builder().create(), "1")) {
+      for (int i = 9; i >= 0; i--) {
+        writer.append(BasicRecord.newBuilder().setId("id" + i).setGbifId((long) i).build());
+      }
+    }
+
+    try (AvroFileWriter<TemporalRecord> writer =
+        InterpretedAvroWriter.createAvroWriter(
+            options, TemporalTransform.builder().create(), "1")) {
+      // Every second record and one record without a basic record
+      for (String id : new String[] {"id8", "id0", "id6", "idX", "id2", "id4"}) {
+        writer.append(TemporalRecord.newBuilder().setId(id).setYear(2000).build());
+      }
+    }
+
+    // When
+    List<JoinedRecords> batches = new ArrayList<>();
+    try (SortedMergeJoin join =
+        SortedMergeJoin.create(options, 4).join(TemporalTransform.builder().create())) {
+      join.forEachRemaining(batches::add);
+    }
+
+    // Should
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Map<String, TemporalRecord> temporalMap;
+    try {
+      temporalMap =
+          InterpretedAvroReader.readAvroAsFuture(
+                  options, executor, TemporalTransform.builder().create())
+              .get();
+    } finally {
+      executor.shutdown();
+    }
+
+    Assert.assertEquals(3, batches.size());
+    String previousId = "";
+    int count = 0;
+    for (JoinedRecords batch : batches) {
+      Map<String, TemporalRecord> batchMap = batch.get(TemporalRecord.class);
+      for (BasicRecord br : batch.getBasicRecords()) {
+        Assert.assertTrue(br.getId().compareTo(previousId) > 0);
+        Assert.assertEquals(temporalMap.get(br.getId()), batchMap.get(br.getId()));
+        previousId = br.getId();
+        count++;
+      }
+      Assert.assertFalse(batchMap.containsKey("idX"));
+    }
+    Assert.assertEquals(10, count);
+  }
+}
@@ -0,0 +1,398 @@
+package org.gbif.pipelines.validator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.dwc.Archive;
+import org.gbif.dwc.ArchiveField;
+import org.gbif.dwc.ArchiveFile;
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.Term;
+import org.gbif.utils.file.ClosableIterator;
+import org.gbif.validator.api.DwcFileType;
+import org.gbif.validator.api.Metrics.FileInfo;
+import org.gbif.validator.api.Metrics.FileInfo.FileInfoBuilder;
+import org.gbif.validator.api.Metrics.TermInfo;
+
+/**
+ * Profiles the core and extension files of an archive concurrently, each file in a single pass:
+ * the number of records and the number of records with a value per term.
+ *
+ * <p>Files in UTF-8 or a single byte ASCII based encoding are scanned byte by byte through memory
+ * mapped regions, without decoding strings or creating records. A value is counted when it is not
+ * blank, "null" or "\N", the same values the dwca-io record replaces with null, and a term without
+ * a value counts when it has a default value. Blank lines and header lines are not records. Other
+ * encodings are read with the dwca-io record iterator.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class DwcaFileProfiler {
+
+  private static final long REGION_SIZE = 256L * 1024L * 1024L;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  // Out of the unsigned byte range, for files without a quote char
+  private static final int NO_QUOTE = -1;
+
+  private static final Set<String> LINE_ENDS = new HashSet<>(Arrays.asList("\n", "\r\n", "\r"));
+
+  private static final int NULL_VALUE = ('n' << 24) | ('u' << 16) | ('l' << 8) | 'l';
+  private static final int NULL_ESCAPED_VALUE = ('\\' << 8) | 'n';
+
+  public static List<FileInfo> process(Archive archive) {
+    List<ArchiveFile> files = new ArrayList<>();
+    files.add(archive.getCore());
+    files.addAll(archive.getExtensions());
+
+    int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<CompletableFuture<FileInfo>> futures = new ArrayList<>(files.size());
+      for (int i = 0; i < files.size(); i++) {
+        ArchiveFile file = files.get(i);
+        DwcFileType fileType = i == 0 ? DwcFileType.CORE : DwcFileType.EXTENSION;
+        futures.add(CompletableFuture.supplyAsync(() -> process(file, fileType), executor));
+      }
+      return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /** Counts lines terminated by \n, \r or \r\n, the same as {@link java.io.BufferedReader} */
+  public static long countLines(File file) throws IOException {
+    LineScanner scanner = new LineScanner();
+    read(file, scanner);
+    return scanner.lastLineEnded ? scanner.lines : scanner.lines + 1;
+  }
+
+  static FileInfo process(ArchiveFile archiveFile, DwcFileType fileType) {
+    TermCounts counts = new TermCounts(archiveFile);
+    try {
+      if (isScannable(archiveFile)) {
+        scan(archiveFile, counts);
+      } else {
+        iterate(archiveFile, counts);
+      }
+    } catch (Exception ex) {
+      log.error(ex.getMessage());
+    }
+
+    FileInfoBuilder fileInfoBuilder =
+        FileInfo.builder()
+            .count(counts.records)
+            .fileName(archiveFile.getTitle())
+            .fileType(fileType)
+            .terms(counts.toTermInfo());
+
+    Optional.ofNullable(archiveFile.getRowType())
+        .ifPresent(t -> fileInfoBuilder.rowType(t.qualifiedName()));
+
+    return fileInfoBuilder.build();
+  }
+
+  /** Single byte delimiters and quotes in an encoding where they can't be part of other chars */
+  static boolean isScannable(ArchiveFile archiveFile) {
+    String delimiter = archiveFile.getFieldsTerminatedBy();
+    Character quote = archiveFile.getFieldsEnclosedBy();
+    String lines = archiveFile.getLinesTerminatedBy();
+    if (archiveFile.getLocationFile() == null
+        || !archiveFile.getLocationFile().isFile()
+        || delimiter == null
+        || delimiter.length() != 1
+        || delimiter.charAt(0) > 0x7F
+        || (quote != null && quote > 0x7F)
+        || (lines != null && !LINE_ENDS.contains(lines))) {
+      return false;
+    }
+    String encoding = archiveFile.getEncoding();
+    if (encoding == null) {
+      return false;
+    }
+    String name = Charset.forName(encoding).name();
+    return name.equals("UTF-8")
+        || name.equals("US-ASCII")
+        || name.startsWith("ISO-8859-")
+        || name.startsWith("windows-125");
+  }
+
+  static void scan(ArchiveFile archiveFile, TermCounts counts) throws IOException {
+    Character quote = archiveFile.getFieldsEnclosedBy();
+    RecordScanner scanner =
+        new RecordScanner(
+            counts,
+            (byte) archiveFile.getFieldsTerminatedBy().charAt(0),
+            quote == null ? NO_QUOTE : quote.charValue(),
+            "\r".equals(archiveFile.getLinesTerminatedBy()) ? (byte) '\r' : (byte) '\n',
+            Optional.ofNullable(archiveFile.getIgnoreHeaderLines()).orElse(0));
+
+    read(archiveFile.getLocationFile(), scanner);
+    scanner.finish();
+  }
+
+  /** Passes the bytes of the file to the consumer, reading memory mapped regions of the file */
+  private static void read(File file, BytesConsumer consumer) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long size = channel.size();
+      for (long position = 0; position < size; position += REGION_SIZE) {
+        MappedByteBuffer region =
+            channel.map(
+                FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, size - position));
+        while (region.hasRemaining()) {
+          int length = Math.min(buffer.length, region.remaining());
+          region.get(buffer, 0, length);
+          consumer.accept(buffer, length);
+        }
+      }
+    }
+  }
+
+  static void iterate(ArchiveFile archiveFile, TermCounts counts) throws Exception {
+    try (ClosableIterator<Record> iterator = archiveFile.iterator()) {
+      while (iterator.hasNext()) {
+        Record record = iterator.next();
+        counts.records++;
+        for (int i = 0; i < counts.terms.length; i++) {
+          String value = record.value(counts.terms[i]);
+          if (value != null && !value.trim().isEmpty()) {
+            counts.filled[i]++;
+          }
+        }
+      }
+    }
+  }
+
+  /** Record and value counts of the terms of a file, indexed the same as the terms array */
+  static class TermCounts {
+
+    private final Term[] terms;
+    private final int[] columns;
+    private final boolean[] defaults;
+    private final long[] filled;
+    private final int columnsCount;
+    private long records;
+
+    TermCounts(ArchiveFile archiveFile) {
+      Map<Term, ArchiveField> fields = archiveFile.getFields();
+      terms = new Term[fields.size()];
+      columns = new int[fields.size()];
+      defaults = new boolean[fields.size()];
+      filled = new long[fields.size()];
+
+      int i = 0;
+      int maxColumn = -1;
+      for (Map.Entry<Term, ArchiveField> entry : fields.entrySet()) {
+        ArchiveField field = entry.getValue();
+        terms[i] = entry.getKey();
+        columns[i] = field.getIndex() == null ? -1 : field.getIndex();
+        defaults[i] = field.getDefaultValue() != null && !field.getDefaultValue().trim().isEmpty();
+        maxColumn = Math.max(maxColumn, columns[i]);
+        i++;
+      }
+      columnsCount = maxColumn + 1;
+    }
+
+    private void addRecord(boolean[] columnValues) {
+      records++;
+      for (int i = 0; i < terms.length; i++) {
+        if (defaults[i] || (columns[i] >= 0 && columnValues[columns[i]])) {
+          filled[i]++;
+        }
+      }
+    }
+
+    long getRecords() {
+      return records;
+    }
+
+    long getFilled(Term term) {
+      int i = Arrays.asList(terms).indexOf(term);
+      return i < 0 ? 0L : filled[i];
+    }
+
+    /** Like the record iterator, terms are present once the file has records */
+    private List<TermInfo> toTermInfo() {
+      List<TermInfo> termInfoList = new ArrayList<>(records == 0 ? 0 : terms.length);
+      for (int i = 0; records > 0 && i < terms.length; i++) {
+        termInfoList.add(
+            TermInfo.builder().term(terms[i].qualifiedName()).rawIndexed(filled[i]).build());
+      }
+      return termInfoList;
+    }
+  }
+
+  /**
+   * Delimited text state machine, values enclosed by the quote char can contain delimiters and
+   * line ends, and a doubled quote inside of them is a quote.
+   */
+  private static class RecordScanner implements BytesConsumer {
+
+    private final TermCounts counts;
+    private final byte delimiter;
+    private final int quote;
+    private final byte lineEnd;
+    private final boolean[] columnValues;
+
+    private int headerLines;
+    private int column;
+    private boolean recordContent;
+
+    private boolean quoted;
+    private boolean quoteClosed;
+    private int fieldBytes;
+    private int valueLength;
+    private int trailingSpaces;
+    private int valueHead;
+
+    private RecordScanner(
+        TermCounts counts, byte delimiter, int quote, byte lineEnd, int headerLines) {
+      this.counts = counts;
+      this.delimiter = delimiter;
+      this.quote = quote;
+      this.lineEnd = lineEnd;
+      this.headerLines = headerLines;
+      this.columnValues = new boolean[counts.columnsCount];
+    }
+
+    @Override
+    public void accept(byte[] buffer, int length) {
+      for (int i = 0; i < length; i++) {
+        byte b = buffer[i];
+        // Unsigned, so no byte matches NO_QUOTE
+        int u = b & 0xFF;
+        if (quoted) {
+          if (u == quote) {
+            quoted = false;
+            quoteClosed = true;
+          } else {
+            value(b);
+          }
+        } else if (quoteClosed && u == quote) {
+          // Doubled quote inside of a quoted value
+          quoted = true;
+          quoteClosed = false;
+          value(b);
+        } else {
+          quoteClosed = false;
+          if (b == delimiter) {
+            endField();
+          } else if (b == lineEnd) {
+            endField();
+            endRecord();
+          } else if (u == quote && fieldBytes == 0) {
+            quoted = true;
+            fieldBytes++;
+          } else {
+            value(b);
+          }
+        }
+      }
+    }
+
+    private void finish() {
+      if (column > 0 || fieldBytes > 0) {
+        endField();
+        endRecord();
+      }
+    }
+
+    /** Keeps the trimmed length and the first 4 lower case bytes of the value */
+    private void value(byte b) {
+      fieldBytes++;
+      if ((b & 0xFF) <= ' ') {
+        if (valueLength > 0) {
+          trailingSpaces++;
+        }
+        return;
+      }
+      recordContent = true;
+      for (; trailingSpaces > 0; trailingSpaces--) {
+        append(' ');
+      }
+      append(b);
+    }
+
+    private void append(int b) {
+      if (valueLength < 4) {
+        valueHead = (valueHead << 8) | (b >= 'A' && b <= 'Z' ? b | 0x20 : b);
+      }
+      valueLength++;
+    }
+
+    private void endField() {
+      if (column < columnValues.length) {
+        columnValues[column] =
+            valueLength > 0
+                && !(valueLength == 4 && valueHead == NULL_VALUE)
+                && !(valueLength == 2 && valueHead == NULL_ESCAPED_VALUE);
+      }
+      column++;
+      fieldBytes = 0;
+      valueLength = 0;
+      trailingSpaces = 0;
+      valueHead = 0;
+      quoteClosed = false;
+    }
+
+    private void endRecord() {
+      if (recordContent) {
+        if (headerLines > 0) {
+          headerLines--;
+        } else {
+          counts.addRecord(columnValues);
+        }
+      }
+      Arrays.fill(columnValues, false);
+      column = 0;
+      recordContent = false;
+    }
+  }
+
+  private static class LineScanner implements BytesConsumer {
+
+    private long lines;
+    private boolean previousCr;
+    private boolean lastLineEnded = true;
+
+    @Override
+    public void accept(byte[] buffer, int length) {
+      for (int i = 0; i < length; i++) {
+        byte b = buffer[i];
+        if (b == '\n') {
+          if (!previousCr) {
+            lines++;
+          }
+          previousCr = false;
+        } else if (b == '\r') {
+          lines++;
+          previousCr = true;
+        } else {
+          previousCr = false;
+        }
+      }
+      lastLineEnded = buffer[length - 1] == '\n' || buffer[length - 1] == '\r';
+    }
+  }
+
+  private interface BytesConsumer {
+    void accept(byte[] buffer, int length);
+  }
+}
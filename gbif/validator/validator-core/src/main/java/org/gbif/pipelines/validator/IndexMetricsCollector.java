@@ -10,31 +10,31 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse.Item;
 import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RequestOptions;
-import org.elasticsearch.client.core.CountRequest;
 import org.elasticsearch.search.SearchHit;
-import org.elasticsearch.search.aggregations.Aggregation;
-import org.elasticsearch.search.aggregations.bucket.terms.ParsedStringTerms;
+import org.elasticsearch.search.aggregations.bucket.filter.Filters;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms.Bucket;
 import org.elasticsearch.search.aggregations.metrics.ParsedTopHits;
-import org.elasticsearch.search.aggregations.metrics.ParsedValueCount;
+import org.elasticsearch.search.aggregations.metrics.ValueCount;
 import org.gbif.api.vocabulary.OccurrenceIssue;
 import org.gbif.dwc.terms.Term;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Indexing;
 import org.gbif.pipelines.validator.factory.ElasticsearchClientFactory;
 import org.gbif.pipelines.validator.metircs.request.ExtensionTermCountRequestBuilder;
-import org.gbif.pipelines.validator.metircs.request.ExtensionTermCountRequestBuilder.ExtTermCountRequest;
 import org.gbif.pipelines.validator.metircs.request.OccurrenceIssuesRequestBuilder;
 import org.gbif.pipelines.validator.metircs.request.TermCountRequestBuilder;
-import org.gbif.pipelines.validator.metircs.request.TermCountRequestBuilder.TermCountRequest;
 import org.gbif.validator.api.DwcFileType;
 import org.gbif.validator.api.EvaluationCategory;
 import org.gbif.validator.api.Metrics;
@@ -44,13 +44,14 @@ import org.gbif.validator.api.Metrics.IssueSample;
 import org.gbif.validator.api.Metrics.TermInfo;
 
 /**
- * The class collects all necessary metrics using ES API, there are 4 main queries. such as:
+ * The class collects all necessary metrics using ES API, one search per file and all searches are
+ * sent in a single multi search request, ES runs them concurrently. Searches by file type:
  *
  * <pre>
- * 1) Query total documents count
- * 2) Query core terms and return term, counts of raw and indexed terms
- * 3) Query extensions terms and return term, and raw terms count
- * 4) Query all issues and return issue value, and 5 terms samples
+ * 1) Occurrence files: total documents count, counts of interpreted terms as a filters aggregation
+ * and all issues with samples of terms
+ * 2) Event core: total documents count and counts of interpreted terms
+ * 3) Extensions: raw terms count, one value count aggregation per term
  * </pre>
  */
 @Slf4j
@@ -61,85 +62,117 @@ public class IndexMetricsCollector {
   private final List<FileInfo> fileInfos;
   private final UUID key;
   private final String index;
-  private final String corePrefix;
   private final String extensionsPrefix;
+  @Builder.Default private final int maxConcurrentSearches = 4;
 
   /** Collect all metrics using ES API */
+  @SneakyThrows
   public Metrics collect() {
 
+    MultiSearchRequest multiSearchRequest =
+        new MultiSearchRequest().maxConcurrentSearchRequests(maxConcurrentSearches);
+    List<Consumer<SearchResponse>> collectors = new ArrayList<>(fileInfos.size());
+
     fileInfos.stream()
         .filter(f -> f.getRowType() != null)
         .forEach(
             fileInfo -> {
               if (fileInfo.getRowType().equals(Occurrence.qualifiedName())) {
-                collectOccurrnceInfo(fileInfo);
+                multiSearchRequest.add(occurrenceRequest(fileInfo, true));
+                collectors.add(response -> collectOccurrnceInfo(fileInfo, response));
               } else if (fileInfo.getRowType().equals(Event.qualifiedName())
                   && fileInfo.getFileType() == DwcFileType.CORE) {
-                collectEventInfo(fileInfo);
+                multiSearchRequest.add(occurrenceRequest(fileInfo, false));
+                collectors.add(response -> collectEventInfo(fileInfo, response));
               } else if (!fileInfo.getRowType().equals(Occurrence.qualifiedName())
                   && fileInfo.getFileType() == DwcFileType.EXTENSION) {
-                collectExtensionInfo(fileInfo);
+                multiSearchRequest.add(extensionRequest(fileInfo));
+                collectors.add(response -> collectExtensionInfo(fileInfo, response));
               }
             });
 
-    return Metrics.builder().fileInfos(fileInfos).build();
-  }
-
-  private void collectOccurrnceInfo(FileInfo fileInfo) {
-    fileInfo.setIndexedCount(queryOccurrenceDocCount());
-    fileInfo.setIssues(queryOccurrenceIssuesCount());
-    for (TermInfo ti : fileInfo.getTerms()) {
-      queryOccurrenceCoreTermsCount(ti.getTerm()).ifPresent(ti::setInterpretedIndexed);
-    }
-  }
-
-  private void collectEventInfo(FileInfo fileInfo) {
-    fileInfo.setIndexedCount(queryOccurrenceDocCount());
-    for (TermInfo ti : fileInfo.getTerms()) {
-      queryOccurrenceCoreTermsCount(ti.getTerm()).ifPresent(ti::setInterpretedIndexed);
+    if (!collectors.isEmpty()) {
+      Item[] items =
+          ElasticsearchClientFactory.getInstance(esHost)
+              .msearch(multiSearchRequest, RequestOptions.DEFAULT)
+              .getResponses();
+      for (int i = 0; i < items.length; i++) {
+        if (items[i].isFailure()) {
+          throw items[i].getFailure();
+        }
+        collectors.get(i).accept(items[i].getResponse());
+      }
     }
-  }
 
-  private void collectExtensionInfo(FileInfo fileInfo) {
-    String extPrefix = extensionsPrefix + "." + fileInfo.getRowType();
-    for (TermInfo ti : fileInfo.getTerms()) {
-      ti.setInterpretedIndexed(queryExtensionTermsCount(extPrefix, ti.getTerm()));
-    }
+    return Metrics.builder().fileInfos(fileInfos).build();
   }
 
-  /** Query indexed document count by datasetKey */
-  @SneakyThrows
-  private Long queryOccurrenceDocCount() {
-    TermCountRequest request =
+  /** Documents count and interpreted terms count, and issues with samples if required */
+  private SearchRequest occurrenceRequest(FileInfo fileInfo, boolean withIssues) {
+    SearchRequest request =
         TermCountRequestBuilder.builder()
             .termValue(key.toString())
             .indexName(index)
+            .terms(getTerms(fileInfo))
             .build()
             .getRequest();
 
-    return ElasticsearchClientFactory.getInstance(esHost)
-        .count(request.getRawCountRequest(), RequestOptions.DEFAULT)
-        .getCount();
+    if (withIssues) {
+      request
+          .source()
+          .aggregation(
+              OccurrenceIssuesRequestBuilder.builder()
+                  .termValue(key.toString())
+                  .indexName(index)
+                  .build()
+                  .getAggregation());
+    }
+    return request;
   }
 
-  /** Aggregate all issues and return 5 samples per issue */
-  @SneakyThrows
-  private List<IssueInfo> queryOccurrenceIssuesCount() {
-    SearchRequest request =
-        OccurrenceIssuesRequestBuilder.builder()
-            .termValue(key.toString())
-            .indexName(index)
-            .build()
-            .getRequest();
+  private SearchRequest extensionRequest(FileInfo fileInfo) {
+    return ExtensionTermCountRequestBuilder.builder()
+        .prefix(extensionsPrefix + "." + fileInfo.getRowType())
+        .termValue(key.toString())
+        .indexName(index)
+        .terms(getTerms(fileInfo))
+        .build()
+        .getRequest();
+  }
+
+  private void collectOccurrnceInfo(FileInfo fileInfo, SearchResponse response) {
+    collectEventInfo(fileInfo, response);
+    fileInfo.setIssues(collectIssuesInfo(response));
+  }
 
-    Aggregation aggregation =
-        ElasticsearchClientFactory.getInstance(esHost)
-            .search(request, RequestOptions.DEFAULT)
-            .getAggregations()
-            .get(ISSUES_AGGREGATION);
+  private void collectEventInfo(FileInfo fileInfo, SearchResponse response) {
+    fileInfo.setIndexedCount(response.getHits().getTotalHits().value);
+    Filters filters =
+        response.getAggregations() == null
+            ? null
+            : response.getAggregations().get(TermCountRequestBuilder.AGGREGATION);
+    for (TermInfo ti : fileInfo.getTerms()) {
+      if (filters != null && filters.getBucketByKey(ti.getTerm()) != null) {
+        ti.setInterpretedIndexed(filters.getBucketByKey(ti.getTerm()).getDocCount());
+      }
+    }
+  }
+
+  private void collectExtensionInfo(FileInfo fileInfo, SearchResponse response) {
+    List<TermInfo> terms = fileInfo.getTerms();
+    for (int i = 0; i < terms.size(); i++) {
+      ValueCount count =
+          response.getAggregations().get(ExtensionTermCountRequestBuilder.getAggregationName(i));
+      terms.get(i).setInterpretedIndexed(count.getValue());
+    }
+  }
 
-    return ((ParsedStringTerms) aggregation)
-        .getBuckets().stream().map(this::collectIssueInfo).collect(Collectors.toList());
+  /** All issues with samples */
+  private List<IssueInfo> collectIssuesInfo(SearchResponse response) {
+    Terms aggregation = response.getAggregations().get(ISSUES_AGGREGATION);
+    return aggregation.getBuckets().stream()
+        .map(this::collectIssueInfo)
+        .collect(Collectors.toList());
   }
 
   /** Process one issue bucket, get issue value, count and 5 samples of related data */
@@ -188,49 +221,7 @@ public class IndexMetricsCollector {
         .build();
   }
 
-  /** Aggregate occurrence terms and return term count */
-  @SneakyThrows
-  private Optional<Long> queryOccurrenceCoreTermsCount(String term) {
-
-    TermCountRequest tcr =
-        TermCountRequestBuilder.builder()
-            .termValue(key.toString())
-            .prefix(corePrefix)
-            .indexName(index)
-            .term(term)
-            .build()
-            .getRequest();
-
-    Optional<CountRequest> countRequest = tcr.getInterpretedCountRequest();
-    Long interpretedCount = null;
-    if (countRequest.isPresent()) {
-      interpretedCount =
-          ElasticsearchClientFactory.getInstance(esHost)
-              .count(countRequest.get(), RequestOptions.DEFAULT)
-              .getCount();
-    }
-
-    return Optional.ofNullable(interpretedCount);
-  }
-
-  /** Aggregate extensions term and return term count */
-  @SneakyThrows
-  private Long queryExtensionTermsCount(String prefix, String term) {
-    ExtTermCountRequest etcr =
-        ExtensionTermCountRequestBuilder.builder()
-            .prefix(prefix)
-            .termValue(key.toString())
-            .indexName(index)
-            .term(term)
-            .build()
-            .getRequest();
-
-    Aggregation aggregation =
-        ElasticsearchClientFactory.getInstance(esHost)
-            .search(etcr.getSearchRequest(), RequestOptions.DEFAULT)
-            .getAggregations()
-            .get(ExtensionTermCountRequestBuilder.AGGREGATION);
-
-    return ((ParsedValueCount) aggregation).getValue();
+  private static List<String> getTerms(FileInfo fileInfo) {
+    return fileInfo.getTerms().stream().map(TermInfo::getTerm).collect(Collectors.toList());
   }
 }
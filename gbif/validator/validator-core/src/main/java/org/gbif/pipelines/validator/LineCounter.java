@@ -1,11 +1,7 @@
 package org.gbif.pipelines.validator;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,13 +20,11 @@ public class LineCounter {
     return arhiveFile.getIgnoreHeaderLines() != null && arhiveFile.getIgnoreHeaderLines() > 0;
   }
 
-  /** Efficient way of counting lines */
+  /** Efficient way of counting lines, see {@link DwcaFileProfiler#countLines(File)} */
   private static long countLines(File file, boolean areHeaderLinesIncluded) {
     long lines = areHeaderLinesIncluded ? -1 : 0;
-    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), UTF_8)) {
-      while (reader.readLine() != null) {
-        lines++;
-      }
+    try {
+      lines += DwcaFileProfiler.countLines(file);
     } catch (IOException ex) {
       log.error(ex.getMessage(), ex);
     }
@@ -1,8 +1,8 @@
 package org.gbif.pipelines.validator.metircs.request;
 
-import lombok.AllArgsConstructor;
+import java.util.Collections;
+import java.util.List;
 import lombok.Builder;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -10,10 +10,11 @@ import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 
 /**
- * Similir to _search API call
+ * Similir to _search API call, one value_count aggregation per term, named by the index of the
+ * term because term names can contain chars which are not allowed in aggregation names
  *
  * <p>{ "size": 0, "query": { "term": { "datasetKey": "675a1bfd-9bcc-46ea-a417-1f68f23a10f6" } },
- * "aggs": { "types_count": { "value_count": { "field":
+ * "aggs": { "types_count_0": { "value_count": { "field":
  * "verbatim.extensions.http://rs.tdwg.org/dwc/terms/MeasurementOrFact.http://rs.tdwg.org/dwc/terms/measurementType"
  * } } } }
  */
@@ -21,34 +22,30 @@ import org.elasticsearch.search.builder.SearchSourceBuilder;
 @Builder
 public class ExtensionTermCountRequestBuilder {
 
-  public static final String AGGREGATION = "types_count";
+  public static final String AGGREGATION = "types_count_";
 
   @Builder.Default private final String termName = "datasetKey";
   private final String termValue;
   private final String prefix;
   private final String indexName;
-  private final String term;
+  @Builder.Default private final List<String> terms = Collections.emptyList();
 
-  public ExtTermCountRequest getRequest() {
+  public SearchRequest getRequest() {
 
-    String aggsField = prefix == null || prefix.isEmpty() ? term : prefix + "." + term;
+    SearchSourceBuilder source =
+        new SearchSourceBuilder().size(0).query(QueryBuilders.termQuery(termName, termValue));
 
-    SearchRequest request =
-        new SearchRequest()
-            .source(
-                new SearchSourceBuilder()
-                    .size(0)
-                    .query(QueryBuilders.termQuery(termName, termValue))
-                    .aggregation(AggregationBuilders.count(AGGREGATION).field(aggsField)))
-            .indices(indexName);
+    for (int i = 0; i < terms.size(); i++) {
+      String term = terms.get(i);
+      String aggsField = prefix == null || prefix.isEmpty() ? term : prefix + "." + term;
+      source.aggregation(AggregationBuilders.count(getAggregationName(i)).field(aggsField));
+    }
 
-    return ExtTermCountRequest.create(term, request);
+    return new SearchRequest().source(source).indices(indexName);
   }
 
-  @Getter
-  @AllArgsConstructor(staticName = "create")
-  public static class ExtTermCountRequest {
-    private final String term;
-    private final SearchRequest searchRequest;
+  /** @param index index of the term in the list of terms */
+  public static String getAggregationName(int index) {
+    return AGGREGATION + index;
   }
 }
@@ -38,23 +38,26 @@ public class OccurrenceIssuesRequestBuilder {
 
     TermQueryBuilder filterByDatasetKey = QueryBuilders.termQuery(termName, termValue);
 
-    TopHitsAggregationBuilder aggregateHits =
-        AggregationBuilders.topHits(HITS_AGGREGATION)
-            .size(subSize)
-            .fetchSource(includeFields, null);
-
-    TermsAggregationBuilder aggregateIssues =
-        AggregationBuilders.terms(ISSUES_AGGREGATION)
-            .field(aggsField)
-            .size(1_024)
-            .subAggregation(aggregateHits);
-
     return new SearchRequest()
         .source(
             new SearchSourceBuilder()
                 .size(size)
                 .query(filterByDatasetKey)
-                .aggregation(aggregateIssues))
+                .aggregation(getAggregation()))
         .indices(indexName);
   }
+
+  /** Issues aggregation only, to combine with other aggregations of the same query */
+  public TermsAggregationBuilder getAggregation() {
+
+    TopHitsAggregationBuilder aggregateHits =
+        AggregationBuilders.topHits(HITS_AGGREGATION)
+            .size(subSize)
+            .fetchSource(includeFields, null);
+
+    return AggregationBuilders.terms(ISSUES_AGGREGATION)
+        .field(aggsField)
+        .size(1_024)
+        .subAggregation(aggregateHits);
+  }
 }
@@ -1,75 +1,55 @@
 package org.gbif.pipelines.validator.metircs.request;
 
-import java.util.Optional;
-import lombok.AllArgsConstructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import lombok.Builder;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.elasticsearch.client.core.CountRequest;
-import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.filter.FiltersAggregator.KeyedFilter;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.gbif.pipelines.validator.metircs.RawToInderpreted;
 
 /**
- * Similir to _count API call
+ * Similir to _search API call, the total hits is the number of documents and the filters
+ * aggregation counts documents with the interpreted field of every term
  *
- * <p>{ "query": { "bool": { "must": [ { "term": { "datasetKey": { "value":
- * "675a1bfd-9bcc-46ea-a417-1f68f23a10f6" } } }, { "exists": { "field":
- * "verbatim.core.http://rs.tdwg.org/dwc/terms/country" } } ] } } }
+ * <p>{"size":0,"track_total_hits":true,"query":{"term":{"datasetKey":
+ * "675a1bfd-9bcc-46ea-a417-1f68f23a10f6"}},"aggs":{"interpreted_terms":{"filters":{"filters":{
+ * "http://rs.tdwg.org/dwc/terms/country":{"exists":{"field":"countryCode"}}}}}}}
  */
 @Slf4j
 @Builder
 public class TermCountRequestBuilder {
 
+  public static final String AGGREGATION = "interpreted_terms";
+
   @Builder.Default private final String termName = "datasetKey";
   private final String termValue;
-  private final String prefix;
   private final String indexName;
-  private final String term;
-
-  public TermCountRequest getRequest() {
-    CountRequest rawRequest = getRawCountRequest();
-    CountRequest interpretedRequest = getinterpretedCountRequest().orElse(null);
-
-    return TermCountRequest.create(term, rawRequest, interpretedRequest);
-  }
-
-  private Optional<CountRequest> getinterpretedCountRequest() {
-    if (term == null) {
-      return Optional.empty();
+  @Builder.Default private final List<String> terms = Collections.emptyList();
+
+  public SearchRequest getRequest() {
+    SearchSourceBuilder source =
+        new SearchSourceBuilder()
+            .size(0)
+            .trackTotalHits(true)
+            .query(QueryBuilders.termQuery(termName, termValue));
+
+    List<KeyedFilter> filters = new ArrayList<>(terms.size());
+    // Filter keys must be unique
+    for (String term : new LinkedHashSet<>(terms)) {
+      RawToInderpreted.getInterpretedField(term)
+          .ifPresent(field -> filters.add(new KeyedFilter(term, QueryBuilders.existsQuery(field))));
     }
-
-    return RawToInderpreted.getInterpretedField(term)
-        .map(
-            field ->
-                QueryBuilders.boolQuery()
-                    .must(QueryBuilders.termQuery(termName, this.termValue))
-                    .must(QueryBuilders.existsQuery(field)))
-        .map(bqb -> new CountRequest().query(bqb).indices(indexName));
-  }
-
-  private CountRequest getRawCountRequest() {
-    BoolQueryBuilder boolQueryBuilder =
-        QueryBuilders.boolQuery().must(QueryBuilders.termQuery(termName, this.termValue));
-
-    if (term != null) {
-      String exists = prefix == null || prefix.isEmpty() ? term : prefix + "." + term;
-
-      boolQueryBuilder = boolQueryBuilder.must(QueryBuilders.existsQuery(exists));
+    if (!filters.isEmpty()) {
+      source.aggregation(
+          AggregationBuilders.filters(AGGREGATION, filters.toArray(new KeyedFilter[0])));
     }
 
-    return new CountRequest().query(boolQueryBuilder).indices(indexName);
-  }
-
-  @AllArgsConstructor(staticName = "create")
-  public static class TermCountRequest {
-
-    @Getter private final String term;
-    @Getter private final CountRequest rawCountRequest;
-    private final CountRequest interpretedCountRequest;
-
-    public Optional<CountRequest> getInterpretedCountRequest() {
-      return Optional.ofNullable(interpretedCountRequest);
-    }
+    return new SearchRequest().source(source).indices(indexName);
   }
 }
@@ -0,0 +1,130 @@
+package org.gbif.pipelines.validator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gbif.dwc.Archive;
+import org.gbif.dwc.ArchiveFile;
+import org.gbif.dwc.DwcFiles;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DwcaFileProfilerTest {
+
+  private static final String META =
+      "<archive xmlns=\"http://rs.tdwg.org/dwc/text/\">\n"
+          + "  <core encoding=\"UTF-8\" fieldsTerminatedBy=\",\" linesTerminatedBy=\"\\n\""
+          + " fieldsEnclosedBy=\"&quot;\" ignoreHeaderLines=\"1\""
+          + " rowType=\"http://rs.tdwg.org/dwc/terms/Occurrence\">\n"
+          + "    <files><location>occurrence.csv</location></files>\n"
+          + "    <id index=\"0\"/>\n"
+          + "    <field index=\"0\" term=\"http://rs.tdwg.org/dwc/terms/occurrenceID\"/>\n"
+          + "    <field index=\"1\" term=\"http://rs.tdwg.org/dwc/terms/scientificName\"/>\n"
+          + "    <field index=\"2\" term=\"http://rs.tdwg.org/dwc/terms/occurrenceRemarks\"/>\n"
+          + "    <field index=\"3\" term=\"http://rs.tdwg.org/dwc/terms/country\""
+          + " default=\"Denmark\"/>\n"
+          + "    <field term=\"http://rs.tdwg.org/dwc/terms/basisOfRecord\""
+          + " default=\"PreservedSpecimen\"/>\n"
+          + "  </core>\n"
+          + "</archive>\n";
+
+  private static final String DATA =
+      "occurrenceID,scientificName,occurrenceRemarks,country\n"
+          + "1,Puma concolor,\"quoted, with a delimiter\",\n"
+          + "2,  ,\"multi\nline \"\"remark\"\"\",Spain\n"
+          + "\n"
+          + "3,NULL,\\N,\n"
+          + "4,\"\",null\n"
+          + "5,Abies alba, ,France";
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void scanSameAsRecordIteratorTest() throws Exception {
+    // State
+    ArchiveFile core = createArchive().getCore();
+
+    // When
+    DwcaFileProfiler.TermCounts scanned = new DwcaFileProfiler.TermCounts(core);
+    DwcaFileProfiler.scan(core, scanned);
+
+    DwcaFileProfiler.TermCounts iterated = new DwcaFileProfiler.TermCounts(core);
+    DwcaFileProfiler.iterate(core, iterated);
+
+    // Should
+    assertTrue(DwcaFileProfiler.isScannable(core));
+    assertEquals(5L, scanned.getRecords());
+    assertEquals(iterated.getRecords(), scanned.getRecords());
+
+    assertEquals(5L, scanned.getFilled(DwcTerm.occurrenceID));
+    assertEquals(2L, scanned.getFilled(DwcTerm.scientificName));
+    assertEquals(2L, scanned.getFilled(DwcTerm.occurrenceRemarks));
+    assertEquals(5L, scanned.getFilled(DwcTerm.country));
+    assertEquals(5L, scanned.getFilled(DwcTerm.basisOfRecord));
+    for (Term term : core.getTerms()) {
+      assertEquals(term.simpleName(), iterated.getFilled(term), scanned.getFilled(term));
+    }
+  }
+
+  @Test
+  public void unquotedHighByteTest() throws Exception {
+    // State
+    String meta =
+        "<archive xmlns=\"http://rs.tdwg.org/dwc/text/\">\n"
+            + "  <core encoding=\"ISO-8859-1\" fieldsTerminatedBy=\"\\t\""
+            + " linesTerminatedBy=\"\\n\" fieldsEnclosedBy=\"\" ignoreHeaderLines=\"1\""
+            + " rowType=\"http://rs.tdwg.org/dwc/terms/Occurrence\">\n"
+            + "    <files><location>occurrence.txt</location></files>\n"
+            + "    <id index=\"0\"/>\n"
+            + "    <field index=\"0\" term=\"http://rs.tdwg.org/dwc/terms/occurrenceID\"/>\n"
+            + "    <field index=\"1\" term=\"http://rs.tdwg.org/dwc/terms/scientificName\"/>\n"
+            + "  </core>\n"
+            + "</archive>\n";
+    // 0xFF starts a value of an unquoted file
+    String data = "occurrenceID\tscientificName\n1\t\u00ffabies\n2\tPuma concolor\n3\t\n";
+
+    File dir = folder.newFolder("unquoted");
+    Files.write(dir.toPath().resolve("meta.xml"), meta.getBytes(StandardCharsets.UTF_8));
+    Files.write(dir.toPath().resolve("occurrence.txt"), data.getBytes(StandardCharsets.ISO_8859_1));
+    ArchiveFile core = DwcFiles.fromLocation(dir.toPath()).getCore();
+
+    // When
+    DwcaFileProfiler.TermCounts scanned = new DwcaFileProfiler.TermCounts(core);
+    DwcaFileProfiler.scan(core, scanned);
+
+    // Should
+    assertTrue(DwcaFileProfiler.isScannable(core));
+    assertEquals(3L, scanned.getRecords());
+    assertEquals(3L, scanned.getFilled(DwcTerm.occurrenceID));
+    assertEquals(2L, scanned.getFilled(DwcTerm.scientificName));
+  }
+
+  @Test
+  public void countLinesTest() throws Exception {
+    // State
+    File file = folder.newFile("lines.txt");
+    Files.write(file.toPath(), "a\nb\r\nc\rd".getBytes(StandardCharsets.UTF_8));
+    File empty = folder.newFile("empty.txt");
+
+    // When
+    long lines = DwcaFileProfiler.countLines(file);
+    long emptyLines = DwcaFileProfiler.countLines(empty);
+
+    // Should
+    assertEquals(4L, lines);
+    assertEquals(0L, emptyLines);
+  }
+
+  private Archive createArchive() throws Exception {
+    File dir = folder.newFolder("archive");
+    Files.write(dir.toPath().resolve("meta.xml"), META.getBytes(StandardCharsets.UTF_8));
+    Files.write(dir.toPath().resolve("occurrence.csv"), DATA.getBytes(StandardCharsets.UTF_8));
+    return DwcFiles.fromLocation(dir.toPath());
+  }
+}
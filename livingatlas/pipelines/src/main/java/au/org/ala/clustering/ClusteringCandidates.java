@@ -17,4 +17,6 @@ public class ClusteringCandidates {
 
   @Nullable String hashKey;
   @Nullable List<HashKeyOccurrence> candidates;
+  // Typified records of a split bucket, only pairs of different species are compared
+  @Nullable Boolean crossSpecies;
 }
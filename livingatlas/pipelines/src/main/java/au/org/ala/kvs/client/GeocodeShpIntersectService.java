@@ -2,20 +2,18 @@ package au.org.ala.kvs.client;
 
 import au.org.ala.kvs.GeocodeShpConfig;
 import au.org.ala.kvs.ShapeFile;
-import au.org.ala.layers.intersect.SimpleShapeFile;
 import com.google.common.base.Strings;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.gbif.rest.client.geocode.Location;
 
 /**
- * This is a port of the functionality in geocode to using ALA's layer-store
- * (https://github.com/AtlasOfLivingAustralia/layers-store) SimpleShapeFile for intersections.
+ * This is a port of the functionality in geocode to using shape files for intersections, the
+ * polygons are kept in a spatial index.
  *
- * @see SimpleShapeFile
+ * @see ShapeIndex
  */
 @Slf4j
 public class GeocodeShpIntersectService {
@@ -27,19 +25,19 @@ public class GeocodeShpIntersectService {
 
   private static GeocodeShpIntersectService instance;
   private final GeocodeShpConfig config;
-  private final SimpleShapeFile countries;
-  private final SimpleShapeFile eez;
-  private final SimpleShapeFile states;
+  private final ShapeIndex countries;
+  private final ShapeIndex eez;
+  private final ShapeIndex states;
 
   private GeocodeShpIntersectService(GeocodeShpConfig config) {
     synchronized (this) {
       checkResourceFiles(config);
       this.config = config;
       this.countries =
-          new SimpleShapeFile(config.getCountry().getPath(), config.getCountry().getField());
-      this.eez = new SimpleShapeFile(config.getEez().getPath(), config.getEez().getField());
+          ShapeIndex.create(config.getCountry().getPath(), config.getCountry().getField());
+      this.eez = ShapeIndex.create(config.getEez().getPath(), config.getEez().getField());
       this.states =
-          new SimpleShapeFile(
+          ShapeIndex.create(
               config.getStateProvince().getPath(), config.getStateProvince().getField());
     }
   }
@@ -228,31 +226,7 @@ public class GeocodeShpIntersectService {
   }
 
   private String intersectWithBuffer(
-      SimpleShapeFile simpleShapeFile, ShapeFile config, Double latitude, Double longitude) {
-    String sw =
-        simpleShapeFile.intersect(
-            longitude - config.getIntersectBuffer(), latitude - config.getIntersectBuffer());
-    String nw =
-        simpleShapeFile.intersect(
-            longitude - config.getIntersectBuffer(), latitude + config.getIntersectBuffer());
-    String se =
-        simpleShapeFile.intersect(
-            longitude + config.getIntersectBuffer(), latitude - config.getIntersectBuffer());
-    String ne =
-        simpleShapeFile.intersect(
-            longitude + config.getIntersectBuffer(), latitude + config.getIntersectBuffer());
-    return getConsensus(Arrays.asList(sw, nw, se, ne));
-  }
-
-  private String getConsensus(List<String> survey) {
-    String consensus = null;
-    for (String s : survey) {
-      if (consensus == null) {
-        consensus = s;
-      } else if (s != null && !consensus.equals(s)) {
-        return null;
-      }
-    }
-    return consensus;
+      ShapeIndex shapeIndex, ShapeFile config, Double latitude, Double longitude) {
+    return shapeIndex.intersectWithBuffer(longitude, latitude, config.getIntersectBuffer());
   }
 }
@@ -0,0 +1,150 @@
+package au.org.ala.kvs.client;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * Point in polygon lookups over the polygons of a shape file, polygons are split into parts,
+ * prepared and packed into a {@link STRtree}, so a lookup only tests the parts whose envelope
+ * contains the point. When several polygons contain a point, the value of the first polygon in the
+ * shape file is returned, the same as {@link au.org.ala.layers.intersect.SimpleShapeFile}.
+ *
+ * <p>The index is immutable after creation and can be used by many threads.
+ */
+@Slf4j
+public class ShapeIndex {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private final STRtree tree = new STRtree();
+
+  private ShapeIndex(List<String> values, List<Geometry> geometries) {
+    for (int i = 0; i < geometries.size(); i++) {
+      Geometry geometry = geometries.get(i);
+      String value = values.get(i);
+      if (geometry == null || value == null) {
+        continue;
+      }
+      for (int p = 0; p < geometry.getNumGeometries(); p++) {
+        Geometry part = geometry.getGeometryN(p);
+        tree.insert(
+            part.getEnvelopeInternal(),
+            new Shape(i, value, PreparedGeometryFactory.prepare(part)));
+      }
+    }
+    tree.build();
+  }
+
+  /** Creates index using values and geometries in the same order */
+  public static ShapeIndex create(List<String> values, List<Geometry> geometries) {
+    return new ShapeIndex(values, geometries);
+  }
+
+  /**
+   * Reads a shape file
+   *
+   * @param path to the shape file without the extension
+   * @param field to use as a value
+   */
+  @SneakyThrows
+  public static ShapeIndex create(String path, String field) {
+    List<String> values = new ArrayList<>();
+    List<Geometry> geometries = new ArrayList<>();
+    ShapefileDataStore store = new ShapefileDataStore(new File(path + ".shp").toURI().toURL());
+    try (SimpleFeatureIterator iterator = store.getFeatureSource().getFeatures().features()) {
+      while (iterator.hasNext()) {
+        SimpleFeature feature = iterator.next();
+        Object value = feature.getAttribute(field);
+        values.add(value == null ? null : value.toString().trim());
+        geometries.add((Geometry) feature.getDefaultGeometry());
+      }
+    } finally {
+      store.dispose();
+    }
+    log.info("Shape file {} has {} features", path, geometries.size());
+    return new ShapeIndex(values, geometries);
+  }
+
+  /** @return value of the first polygon containing the point or null */
+  public String intersect(double longitude, double latitude) {
+    return intersect(query(new Envelope(new Coordinate(longitude, latitude))), longitude, latitude);
+  }
+
+  /**
+   * Intersects the four corners of a square buffer around the point using one index query.
+   *
+   * @return the value all intersected corners agree on, null if there is no value or corners
+   *     disagree
+   */
+  public String intersectWithBuffer(double longitude, double latitude, double buffer) {
+    List<Shape> candidates =
+        query(
+            new Envelope(
+                longitude - buffer, longitude + buffer, latitude - buffer, latitude + buffer));
+    if (candidates.isEmpty()) {
+      return null;
+    }
+    String consensus = null;
+    double[][] corners = {
+      {longitude - buffer, latitude - buffer},
+      {longitude - buffer, latitude + buffer},
+      {longitude + buffer, latitude - buffer},
+      {longitude + buffer, latitude + buffer}
+    };
+    for (double[] corner : corners) {
+      String value = intersect(candidates, corner[0], corner[1]);
+      if (consensus == null) {
+        consensus = value;
+      } else if (value != null && !consensus.equals(value)) {
+        return null;
+      }
+    }
+    return consensus;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Shape> query(Envelope envelope) {
+    return tree.query(envelope);
+  }
+
+  private static String intersect(List<Shape> candidates, double longitude, double latitude) {
+    Shape found = null;
+    Geometry point = null;
+    for (Shape shape : candidates) {
+      if (found != null && found.order <= shape.order) {
+        continue;
+      }
+      if (!shape.geometry.getGeometry().getEnvelopeInternal().covers(longitude, latitude)) {
+        continue;
+      }
+      if (point == null) {
+        point = GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+      }
+      if (shape.geometry.intersects(point)) {
+        found = shape;
+      }
+    }
+    return found == null ? null : found.value;
+  }
+
+  @AllArgsConstructor
+  private static class Shape {
+    private final int order;
+    private final String value;
+    private final PreparedGeometry geometry;
+  }
+}
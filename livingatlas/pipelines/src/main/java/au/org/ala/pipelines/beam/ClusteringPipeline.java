@@ -17,6 +17,8 @@ import org.apache.avro.file.CodecFactory;
 import org.apache.beam.sdk.Pipeline;
 import org.apache.beam.sdk.io.AvroIO;
 import org.apache.beam.sdk.io.TextIO;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.*;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
@@ -24,6 +26,8 @@ import org.apache.directory.api.util.Strings;
 import org.apache.hadoop.fs.FileSystem;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
+import org.gbif.pipelines.core.parsers.clustering.CandidatePairIndex;
+import org.gbif.pipelines.core.parsers.clustering.CompiledOccurrenceFeatures;
 import org.gbif.pipelines.core.parsers.clustering.OccurrenceFeatures;
 import org.gbif.pipelines.core.parsers.clustering.OccurrenceRelationships;
 import org.gbif.pipelines.core.parsers.clustering.RelationshipAssertion;
@@ -59,6 +63,10 @@ public class ClusteringPipeline {
 
   private static final CodecFactory BASE_CODEC = CodecFactory.snappyCodec();
 
+  public static final String PAIRS_COMPARED = "clusteringPairsComparedCount";
+  public static final String PAIRS_PRUNED = "clusteringPairsPrunedCount";
+  public static final String BUCKETS_SPLIT = "clusteringBucketsSplitCount";
+
   public static void main(String[] args) throws IOException {
     VersionInfo.print();
     String[] combinedArgs = new CombinedYamlConfiguration(args).toArgs("general", "clustering");
@@ -246,6 +254,10 @@ public class ClusteringPipeline {
             .apply(
                 ParDo.of(
                     new DoFn<KV<String, Iterable<HashKeyOccurrence>>, ClusteringCandidates>() {
+
+                      private final Counter bucketsSplit =
+                          Metrics.counter(ClusteringPipeline.class, BUCKETS_SPLIT);
+
                       @ProcessElement
                       public void processElement(
                           @Element KV<String, Iterable<HashKeyOccurrence>> source,
@@ -254,7 +266,20 @@ public class ClusteringPipeline {
                         List<HashKeyOccurrence> result = new ArrayList<>();
                         source.getValue().iterator().forEachRemaining(result::add);
 
-                        if (result.size() > 1) {
+                        if (result.size() >= candidatesCutoff) {
+                          // oversized bucket, only records of the same species or typified
+                          // records can be related
+                          bucketsSplit.inc();
+                          CandidatePairIndex.split(result)
+                              .forEach(
+                                  split ->
+                                      out.output(
+                                          ClusteringCandidates.builder()
+                                              .hashKey(source.getKey())
+                                              .candidates(split.getCandidates())
+                                              .crossSpecies(split.isCrossSpecies())
+                                              .build()));
+                        } else if (result.size() > 1) {
                           out.output(
                               ClusteringCandidates.builder()
                                   .hashKey(source.getKey())
@@ -269,6 +294,12 @@ public class ClusteringPipeline {
         candidates.apply(
             ParDo.of(
                 new DoFn<ClusteringCandidates, KV<String, Relationship>>() {
+
+                  private final Counter pairsCompared =
+                      Metrics.counter(ClusteringPipeline.class, PAIRS_COMPARED);
+                  private final Counter pairsPruned =
+                      Metrics.counter(ClusteringPipeline.class, PAIRS_PRUNED);
+
                   @ProcessElement
                   public void processElement(
                       @Element ClusteringCandidates source,
@@ -277,7 +308,8 @@ public class ClusteringPipeline {
                     log.info("Candidates: {}", source.getCandidates().size());
                     if (source.getCandidates().size() < candidatesCutoff) {
                       List<KV<String, Relationship>> output =
-                          createRelationships(source, candidatesCutoff);
+                          createRelationships(
+                              source, candidatesCutoff, pairsCompared, pairsPruned);
                       log.info(
                           "Candidates: {}, Relationships {}",
                           source.getCandidates().size(),
@@ -411,29 +443,25 @@ public class ClusteringPipeline {
                     if (source.getCandidates().size() < candidatesCutoff) {
 
                       List<HashKeyOccurrence> candidates = source.getCandidates();
-                      List<HashKeyOccurrence> processed = new ArrayList<>();
-
-                      for (HashKeyOccurrence o1 : candidates) {
-
-                        processed.add(o1);
+                      List<CompiledOccurrenceFeatures<HashKeyOccurrence>> compiled =
+                          compile(candidates);
 
-                        for (HashKeyOccurrence o2 : candidates) {
+                      CandidatePairIndex.create(candidates, isCrossSpecies(source))
+                          .forEachPairIndex(
+                              (i, j) -> {
+                                RelationshipAssertion<HashKeyOccurrence> assertion =
+                                    OccurrenceRelationships.generate(
+                                        compiled.get(i), compiled.get(j));
 
-                          if (!processed.contains(o2)) {
-                            RelationshipAssertion<HashKeyOccurrence> assertion =
-                                OccurrenceRelationships.generate(o1, o2);
-
-                            if (assertion != null) {
-                              out.output(
-                                  o1.getId()
-                                      + ","
-                                      + o2.getId()
-                                      + ","
-                                      + assertion.getJustificationAsDelimited());
-                            }
-                          }
-                        }
-                      }
+                                if (assertion != null) {
+                                  out.output(
+                                      candidates.get(i).getId()
+                                          + ","
+                                          + candidates.get(j).getId()
+                                          + ","
+                                          + assertion.getJustificationAsDelimited());
+                                }
+                              });
                     }
                   }
                 }))
@@ -506,29 +534,59 @@ public class ClusteringPipeline {
   @NotNull
   public static List<KV<String, Relationship>> createRelationships(
       ClusteringCandidates source, Integer candidatesCutoff) {
+    return createRelationships(source, candidatesCutoff, null, null);
+  }
+
+  /**
+   * Only the pairs found by {@link CandidatePairIndex} are compared, all other pairs can't pass any
+   * rule of {@link OccurrenceRelationships#generate}
+   *
+   * @param pairsCompared optional counter of compared pairs
+   * @param pairsPruned optional counter of pairs skipped without comparison
+   */
+  @NotNull
+  public static List<KV<String, Relationship>> createRelationships(
+      ClusteringCandidates source,
+      Integer candidatesCutoff,
+      Counter pairsCompared,
+      Counter pairsPruned) {
 
     List<KV<String, Relationship>> output = new ArrayList<>();
     if (source.getCandidates().size() < candidatesCutoff) {
 
       List<HashKeyOccurrence> candidates = source.getCandidates();
+      CandidatePairIndex<HashKeyOccurrence> index =
+          CandidatePairIndex.create(candidates, isCrossSpecies(source));
       List<ClusterPair> pairs = new ArrayList<>();
-      List<HashKeyOccurrence> processed = new ArrayList<>();
-
-      for (HashKeyOccurrence o1 : candidates) {
-
-        processed.add(o1);
 
-        for (HashKeyOccurrence o2 : candidates) {
+      // features are compiled once per candidate instead of once per pair
+      List<CompiledOccurrenceFeatures<HashKeyOccurrence>> compiled = compile(candidates);
+      Map<HashKeyOccurrence, CompiledOccurrenceFeatures<HashKeyOccurrence>> compiledByRecord =
+          new IdentityHashMap<>(candidates.size());
+      for (int i = 0; i < candidates.size(); i++) {
+        compiledByRecord.put(candidates.get(i), compiled.get(i));
+      }
 
-          if (!processed.contains(o2)) {
+      index.forEachPairIndex(
+          (i, j) -> {
             RelationshipAssertion<HashKeyOccurrence> assertion =
-                OccurrenceRelationships.generate(o1, o2);
+                OccurrenceRelationships.generate(compiled.get(i), compiled.get(j));
 
             if (assertion != null) {
-              pairs.add(ClusterPair.builder().o1(o1).o2(o2).assertion(assertion).build());
+              pairs.add(
+                  ClusterPair.builder()
+                      .o1(candidates.get(i))
+                      .o2(candidates.get(j))
+                      .assertion(assertion)
+                      .build());
             }
-          }
-        }
+          });
+
+      if (pairsCompared != null) {
+        pairsCompared.inc(index.getPairsCompared());
+      }
+      if (pairsPruned != null) {
+        pairsPruned.inc(index.getPairsPruned());
       }
 
       // cluster occurrences
@@ -554,13 +612,17 @@ public class ClusteringPipeline {
                   .setRepId(representativeRecord.getId())
                   .setRepDataset(representativeRecord.getDatasetKey());
 
-          for (OccurrenceFeatures associatedRecord : cluster) {
+          CompiledOccurrenceFeatures<HashKeyOccurrence> compiledRepresentative =
+              compiledByRecord.get(representativeRecord);
+
+          for (HashKeyOccurrence associatedRecord : cluster) {
 
             if (!associatedRecord.getId().equals(representativeRecord.getId())) {
 
               // determine representative records
-              RelationshipAssertion assertion =
-                  OccurrenceRelationships.generate(representativeRecord, associatedRecord);
+              RelationshipAssertion<HashKeyOccurrence> assertion =
+                  OccurrenceRelationships.generate(
+                      compiledRepresentative, compiledByRecord.get(associatedRecord));
 
               if (assertion != null) {
                 Relationship r =
@@ -618,6 +680,17 @@ public class ClusteringPipeline {
     return output;
   }
 
+  private static boolean isCrossSpecies(ClusteringCandidates source) {
+    return Boolean.TRUE.equals(source.getCrossSpecies());
+  }
+
+  private static List<CompiledOccurrenceFeatures<HashKeyOccurrence>> compile(
+      List<HashKeyOccurrence> candidates) {
+    return candidates.stream()
+        .map(CompiledOccurrenceFeatures::compile)
+        .collect(Collectors.toList());
+  }
+
   private static void clearPreviousClustering(ClusteringPipelineOptions options) {
 
     log.info("Clearing clustering path {}", options.getClusteringPath());
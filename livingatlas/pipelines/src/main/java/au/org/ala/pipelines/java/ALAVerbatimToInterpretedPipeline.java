@@ -32,12 +32,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
-import java.util.stream.Stream;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
@@ -71,6 +69,7 @@ import org.gbif.pipelines.io.avro.TemporalRecord;
 import org.gbif.pipelines.transforms.Transform;
 import org.gbif.pipelines.transforms.core.VerbatimTransform;
 import org.gbif.pipelines.transforms.extension.MultimediaTransform;
+import org.gbif.pipelines.transforms.java.BatchExecutor;
 import org.gbif.pipelines.transforms.java.OccurrenceExtensionTransform;
 import org.slf4j.MDC;
 
@@ -343,23 +342,18 @@ public class ALAVerbatimToInterpretedPipeline {
 
       // Run async interpretation and writing for all records
       log.info("Run async writing for all records");
-      Stream<CompletableFuture<Void>> streamAll;
       Collection<ExtendedRecord> erCollection = erExtMap.values();
       if (useSyncMode) {
-        streamAll =
-            Stream.of(
-                CompletableFuture.runAsync(() -> erCollection.forEach(interpretAllFn), executor));
+        erCollection.forEach(interpretAllFn);
       } else {
-        streamAll =
-            erCollection.stream()
-                .map(v -> CompletableFuture.runAsync(() -> interpretAllFn.accept(v), executor));
+        BatchExecutor.builder()
+            .executor(executor)
+            .batchSize(options.getBatchSize())
+            .parallelism(options.getBatchParallelism())
+            .create()
+            .forEach(erCollection.iterator(), interpretAllFn);
       }
 
-      // Wait for all features
-      log.info("Wait for all features");
-      CompletableFuture<?>[] futures = streamAll.toArray(CompletableFuture[]::new);
-      CompletableFuture.allOf(futures).get();
-
     } catch (Exception e) {
       log.error("Failed performing conversion on {}", e.getMessage());
       throw new IllegalStateException("Failed performing conversion on ", e);
@@ -0,0 +1,179 @@
+package au.org.ala.kvs.client;
+
+import au.org.ala.layers.intersect.SimpleShapeFile;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.geotools.data.FeatureWriter;
+import org.geotools.data.Transaction;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link ShapeIndex} lookups of 2 million random coordinates within the bounds of Australia, over
+ * a grid of detailed polygons, to measure the cost of point and buffer lookups. The same grid is
+ * written to a shape file for the point lookups of {@link SimpleShapeFile}, the previous engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ShapeIndexBenchmark {
+
+  private static final int POINTS = 2_000_000;
+  private static final double MIN_LNG = 112d;
+  private static final double MAX_LNG = 154d;
+  private static final double MIN_LAT = -44d;
+  private static final double MAX_LAT = -10d;
+
+  private ShapeIndex index;
+  private SimpleShapeFile simpleShapeFile;
+  private File directory;
+  private double[] longitudes;
+  private double[] latitudes;
+
+  @Setup
+  public void setup() throws IOException {
+    index = createIndex(6, 4, 2_000);
+    directory = Files.createTempDirectory("shape-index-benchmark").toFile();
+    String path = new File(directory, "grid").getPath();
+    writeShapeFile(path, 6, 4, 2_000);
+    simpleShapeFile = new SimpleShapeFile(path, "value");
+    Random random = new Random(42);
+    longitudes = new double[POINTS];
+    latitudes = new double[POINTS];
+    for (int i = 0; i < POINTS; i++) {
+      longitudes[i] = MIN_LNG + random.nextDouble() * (MAX_LNG - MIN_LNG);
+      latitudes[i] = MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT);
+    }
+  }
+
+  @Benchmark
+  public int intersect() {
+    int found = 0;
+    for (int i = 0; i < POINTS; i++) {
+      if (index.intersect(longitudes[i], latitudes[i]) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileUtils.deleteQuietly(directory);
+  }
+
+  @Benchmark
+  public int simpleShapeFileIntersect() {
+    int found = 0;
+    for (int i = 0; i < POINTS; i++) {
+      if (simpleShapeFile.intersect(longitudes[i], latitudes[i]) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int intersectWithBuffer() {
+    int found = 0;
+    for (int i = 0; i < POINTS; i++) {
+      if (index.intersectWithBuffer(longitudes[i], latitudes[i], 0.135d) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  static ShapeIndex createIndex(int columns, int rows, int vertices) {
+    List<String> values = new ArrayList<>();
+    List<Geometry> geometries = new ArrayList<>();
+    createGrid(columns, rows, vertices, values, geometries);
+    return ShapeIndex.create(values, geometries);
+  }
+
+  /** Writes the grid to a shape file, the values are in the value field */
+  static void writeShapeFile(String path, int columns, int rows, int vertices) throws IOException {
+    List<String> values = new ArrayList<>();
+    List<Geometry> geometries = new ArrayList<>();
+    createGrid(columns, rows, vertices, values, geometries);
+
+    SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName("grid");
+    typeBuilder.add("the_geom", Polygon.class);
+    typeBuilder.add("value", String.class);
+    SimpleFeatureType type = typeBuilder.buildFeatureType();
+
+    ShapefileDataStore store = new ShapefileDataStore(new File(path + ".shp").toURI().toURL());
+    try {
+      store.createSchema(type);
+      try (FeatureWriter<SimpleFeatureType, SimpleFeature> writer =
+          store.getFeatureWriterAppend(Transaction.AUTO_COMMIT)) {
+        for (int i = 0; i < geometries.size(); i++) {
+          SimpleFeature feature = writer.next();
+          feature.setAttributes(new Object[] {geometries.get(i), values.get(i)});
+          writer.write();
+        }
+      }
+    } finally {
+      store.dispose();
+    }
+  }
+
+  /** Grid of cells, every cell is a polygon with jagged edges of the given number of vertices */
+  private static void createGrid(
+      int columns, int rows, int vertices, List<String> values, List<Geometry> geometries) {
+    GeometryFactory factory = new GeometryFactory();
+    double width = (MAX_LNG - MIN_LNG) / columns;
+    double height = (MAX_LAT - MIN_LAT) / rows;
+    for (int c = 0; c < columns; c++) {
+      for (int r = 0; r < rows; r++) {
+        double cx = MIN_LNG + (c + 0.5d) * width;
+        double cy = MIN_LAT + (r + 0.5d) * height;
+        Coordinate[] ring = new Coordinate[vertices + 1];
+        for (int v = 0; v < vertices; v++) {
+          double angle = 2 * Math.PI * v / vertices;
+          double scale = v % 2 == 0 ? 0.5d : 0.48d;
+          ring[v] =
+              new Coordinate(
+                  cx + Math.cos(angle) * width * scale, cy + Math.sin(angle) * height * scale);
+        }
+        ring[vertices] = ring[0];
+        values.add(c + "-" + r);
+        geometries.add(factory.createPolygon(ring));
+      }
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(ShapeIndexBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,53 @@
+package au.org.ala.kvs.client;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+
+public class ShapeIndexTest {
+
+  private static final WKTReader READER = new WKTReader();
+
+  @Test
+  public void intersectTest() throws Exception {
+    // State
+    ShapeIndex index =
+        ShapeIndex.create(
+            Arrays.asList("A", "B", "C"),
+            Arrays.asList(
+                wkt(
+                    "MULTIPOLYGON(((0 0, 10 0, 10 10, 0 10, 0 0)),"
+                        + " ((20 0, 30 0, 30 10, 20 10, 20 0)))"),
+                wkt("POLYGON((5 5, 15 5, 15 15, 5 15, 5 5))"),
+                wkt("POLYGON((40 0, 50 0, 50 10, 40 10, 40 0))")));
+
+    // Should
+    Assert.assertEquals("A", index.intersect(1d, 1d));
+    Assert.assertEquals("A", index.intersect(25d, 5d));
+    Assert.assertEquals("A", index.intersect(7d, 7d));
+    Assert.assertEquals("B", index.intersect(12d, 12d));
+    Assert.assertNull(index.intersect(35d, 5d));
+  }
+
+  @Test
+  public void intersectWithBufferTest() throws Exception {
+    // State
+    ShapeIndex index =
+        ShapeIndex.create(
+            Arrays.asList("A", "B"),
+            Arrays.asList(
+                wkt("POLYGON((0 0, 10 0, 10 10, 0 10, 0 0))"),
+                wkt("POLYGON((10 0, 20 0, 20 10, 10 10, 10 0))")));
+
+    // Should
+    Assert.assertEquals("A", index.intersectWithBuffer(5d, 10.1d, 0.2d));
+    Assert.assertNull(index.intersectWithBuffer(10d, 5d, 0.2d));
+    Assert.assertNull(index.intersectWithBuffer(30d, 5d, 0.2d));
+  }
+
+  private static Geometry wkt(String wkt) throws Exception {
+    return READER.read(wkt);
+  }
+}
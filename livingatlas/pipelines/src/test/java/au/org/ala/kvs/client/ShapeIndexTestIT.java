@@ -0,0 +1,66 @@
+package au.org.ala.kvs.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import au.org.ala.layers.intersect.SimpleShapeFile;
+import java.io.File;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Compares {@link ShapeIndex} with {@link SimpleShapeFile} over random points on the shape files
+ * downloaded by the pre-integration-test phase.
+ */
+public class ShapeIndexTestIT {
+
+  private static final String SHAPE_FILES = "/tmp/pipelines-shp";
+  private static final int POINTS = 20_000;
+
+  @Test
+  public void politicalTest() {
+    // World
+    assertSameValues("political", "ISO_A2", -180d, 180d, -90d, 90d);
+  }
+
+  @Test
+  public void stateProvinceTest() {
+    // Australia
+    assertSameValues("cw_state_poly", "FEATURE", 112d, 154d, -44d, -10d);
+  }
+
+  private static void assertSameValues(
+      String name, String field, double minLng, double maxLng, double minLat, double maxLat) {
+    // State
+    String path = SHAPE_FILES + "/" + name;
+    assertTrue(
+        "The shapefile "
+            + path
+            + " should be loaded. If you are running this test standalone use mvn pre-integration-test",
+        new File(path + ".shp").exists());
+    SimpleShapeFile simpleShapeFile = new SimpleShapeFile(path, field);
+    ShapeIndex index = ShapeIndex.create(path, field);
+    Random random = new Random(42);
+
+    int found = 0;
+    for (int i = 0; i < POINTS; i++) {
+      double lng = minLng + random.nextDouble() * (maxLng - minLng);
+      double lat = minLat + random.nextDouble() * (maxLat - minLat);
+
+      // When
+      String expected = trim(simpleShapeFile.intersect(lng, lat));
+      String actual = index.intersect(lng, lat);
+
+      // Should
+      assertEquals(name + " at " + lng + "," + lat, expected, actual);
+      if (actual != null) {
+        found++;
+      }
+    }
+    assertTrue(found > 0);
+  }
+
+  private static String trim(String value) {
+    return value == null ? null : value.trim();
+  }
+}
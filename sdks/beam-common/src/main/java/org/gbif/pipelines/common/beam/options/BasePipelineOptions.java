@@ -62,6 +62,47 @@ public interface BasePipelineOptions extends PipelineOptions {
 
   void setSyncThreshold(int syncThreshold);
 
+  @Description(
+      "Java based pipelines read and interpret records block by block, peak memory depends on the batch size")
+  @Default.Boolean(false)
+  boolean getUseStreamingMode();
+
+  void setUseStreamingMode(boolean useStreamingMode);
+
+  @Description("Number of records in one unit of work for java based pipelines")
+  @Default.Integer(10_000)
+  int getBatchSize();
+
+  void setBatchSize(int batchSize);
+
+  @Description(
+      "Max number of batches in flight for java based pipelines, 0 - number of available processors")
+  @Default.Integer(0)
+  int getBatchParallelism();
+
+  void setBatchParallelism(int batchParallelism);
+
+  @Description(
+      "Java based pipelines write one avro part file per thread instead of one synchronized file")
+  @Default.Boolean(false)
+  boolean getUseShardedAvroWriters();
+
+  void setUseShardedAvroWriters(boolean useShardedAvroWriters);
+
+  @Description(
+      "Java based pipelines write interpreted avro files as runs sorted by id and join them with a streaming merge instead of in-memory maps")
+  @Default.Boolean(false)
+  boolean getUseSortedAvroRuns();
+
+  void setUseSortedAvroRuns(boolean useSortedAvroRuns);
+
+  @Description(
+      "Max number of records in one sorted avro run, every record type keeps the run being filled and each run being written in memory, up to two runs with one appending thread")
+  @Default.Integer(500_000)
+  int getSortedAvroRunSize();
+
+  void setSortedAvroRunSize(int sortedAvroRunSize);
+
   @Description("Turn off some services for testing")
   @Default.Boolean(false)
   boolean getTestMode();
@@ -109,4 +109,17 @@ public interface EsPipelineOptions extends PipelineOptions {
   Integer getBackPressure();
 
   void setBackPressure(Integer backPressure);
+
+  @Description(
+      "Target latency of an Elasticsearch bulk request in milliseconds, the Java pipeline grows the batch size while requests are faster and shrinks it when they are slower")
+  @Default.Long(2_000L)
+  long getEsBulkTargetLatencyMs();
+
+  void setEsBulkTargetLatencyMs(long esBulkTargetLatencyMs);
+
+  @Description("Number of retries of documents rejected by Elasticsearch, used by the Java pipeline")
+  @Default.Integer(5)
+  int getEsBulkMaxRetries();
+
+  void setEsBulkMaxRetries(int esBulkMaxRetries);
 }
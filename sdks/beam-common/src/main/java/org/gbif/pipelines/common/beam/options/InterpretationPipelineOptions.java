@@ -82,11 +82,30 @@ public interface InterpretationPipelineOptions
 
   void setUseExtendedRecordId(boolean useExtendedRecordId);
 
+  @Description("Resolves every distinct species match request of a dataset only once")
+  @Default.Boolean(true)
+  boolean isUseTaxonomyPrefetch();
+
+  void setUseTaxonomyPrefetch(boolean useTaxonomyPrefetch);
+
+  @Description("Number of concurrent lookup service calls per worker, 0 calls it once per record")
+  @Default.Integer(0)
+  int getLookupConcurrency();
+
+  void setLookupConcurrency(int lookupConcurrency);
+
   @Description("Number of file shards")
   Integer getNumberOfShards();
 
   void setNumberOfShards(Integer numberOfShards);
 
+  @Description(
+      "Number of id buckets of interpreted avro files, record types written with the same number of"
+          + " buckets are joined bucket by bucket without a shuffle")
+  Integer getNumberOfBuckets();
+
+  void setNumberOfBuckets(Integer numberOfBuckets);
+
   /**
    * Provide recommended formats to parse ambiguous dates, e.g. 2/3/2008. If the field is empty or
    * invalid, only accepts standard ISO date format. Parsing 2/3/2008 will fail . <code>DMY</code>
@@ -20,7 +20,10 @@ public class ClusteringServiceFactory {
 
   @SneakyThrows
   private ClusteringServiceFactory(Connection c, ClusteringRelationshipConfig config) {
-    this.service = ClusteringService.create(c, config);
+    this.service =
+        config.isBulkLoad()
+            ? ClusteringService.createBulk(c, config)
+            : ClusteringService.create(c, config);
   }
 
   public static ClusteringService getInstance(Connection c, ClusteringRelationshipConfig config) {
@@ -48,6 +51,7 @@ public class ClusteringServiceFactory {
     };
   }
 
+  /** In bulk mode the loaded gbifIds are shared by all instances of the JVM */
   public static SerializableSupplier<ClusteringService> createSupplier(PipelinesConfig config) {
     return () -> {
       if (config.getClusteringRelationshipConfig() == null
@@ -55,6 +59,10 @@ public class ClusteringServiceFactory {
         return null;
       }
 
+      if (config.getClusteringRelationshipConfig().isBulkLoad()) {
+        return getInstanceSupplier(config).get();
+      }
+
       String zk = getZk(config);
 
       Connection c;
@@ -3,23 +3,29 @@ package org.gbif.pipelines.factory;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import lombok.SneakyThrows;
 import org.gbif.kvs.KeyValueStore;
 import org.gbif.kvs.conf.CachedHBaseKVStoreConfiguration;
 import org.gbif.kvs.geocode.GeocodeKVStoreFactory;
 import org.gbif.kvs.geocode.LatLng;
 import org.gbif.kvs.hbase.HBaseKVStoreConfiguration;
+import org.gbif.pipelines.core.config.model.KvConfig;
 import org.gbif.pipelines.core.config.model.PipelinesConfig;
 import org.gbif.pipelines.core.config.model.WsConfig;
+import org.gbif.pipelines.core.functions.SerializableConsumer;
 import org.gbif.pipelines.core.functions.SerializableSupplier;
 import org.gbif.pipelines.core.parsers.location.GeocodeKvStore;
+import org.gbif.pipelines.core.parsers.location.cache.GeocodeDiskCache;
+import org.gbif.pipelines.core.parsers.location.cache.GeocodeMemoryCache;
+import org.gbif.pipelines.core.parsers.location.cache.TieredGeocodeCache;
 import org.gbif.rest.client.configuration.ClientConfiguration;
 import org.gbif.rest.client.geocode.GeocodeResponse;
 
 /** Factory to get singleton instance of {@link KeyValueStore} */
 public class GeocodeKvStoreFactory {
 
-  private final KeyValueStore<LatLng, GeocodeResponse> geocodeKvStore;
+  private final GeocodeKvStore geocodeKvStore;
   private static volatile GeocodeKvStoreFactory instance;
   private static final Object MUTEX = new Object();
 
@@ -27,10 +33,19 @@ public class GeocodeKvStoreFactory {
   private GeocodeKvStoreFactory(PipelinesConfig config) {
     BufferedImage image = BufferedImageFactory.getInstance(config.getImageCachePath());
     KeyValueStore<LatLng, GeocodeResponse> kvStore = creatKvStore(config);
-    geocodeKvStore = GeocodeKvStore.create(kvStore, image);
+    geocodeKvStore = GeocodeKvStore.create(kvStore, image, createTieredCache(config), null);
   }
 
   public static KeyValueStore<LatLng, GeocodeResponse> getInstance(PipelinesConfig config) {
+    return getInstance(config, null);
+  }
+
+  /**
+   * The returned store shares the singleton KV store and caches, and reports geocode cache hits
+   * and misses using the counter function of this call
+   */
+  public static KeyValueStore<LatLng, GeocodeResponse> getInstance(
+      PipelinesConfig config, SerializableConsumer<String> counterFn) {
     if (instance == null) {
       synchronized (MUTEX) {
         if (instance == null) {
@@ -38,7 +53,9 @@ public class GeocodeKvStoreFactory {
         }
       }
     }
-    return instance.geocodeKvStore;
+    return counterFn == null
+        ? instance.geocodeKvStore
+        : instance.geocodeKvStore.withCounterFn(counterFn);
   }
 
   public static SerializableSupplier<KeyValueStore<LatLng, GeocodeResponse>> createSupplier(
@@ -51,16 +68,61 @@ public class GeocodeKvStoreFactory {
     return () -> GeocodeKvStoreFactory.getInstance(config);
   }
 
+  public static SerializableSupplier<KeyValueStore<LatLng, GeocodeResponse>> getInstanceSupplier(
+      PipelinesConfig config, SerializableConsumer<String> counterFn) {
+    return () -> GeocodeKvStoreFactory.getInstance(config, counterFn);
+  }
+
+  /**
+   * Memory and disk tiers are enabled by localCacheSize and localCachePath of geocode config, the
+   * disk tier of a path is shared by all stores of the JVM. The disk file is fingerprinted by the
+   * geocode API, the precision and localCacheVersion, and is skipped when another process uses it.
+   */
+  private static TieredGeocodeCache createTieredCache(PipelinesConfig config) {
+    if (config == null) {
+      return null;
+    }
+    KvConfig geocode = config.getGeocode();
+    TieredGeocodeCache.TieredGeocodeCacheBuilder builder =
+        TieredGeocodeCache.builder().precision(geocode.getLocalCachePrecision());
+    boolean hasTiers = false;
+    if (geocode.getLocalCacheSize() > 0) {
+      builder.tier(GeocodeMemoryCache.create(geocode.getLocalCacheSize()));
+      hasTiers = true;
+    }
+    if (geocode.getLocalCachePath() != null && !geocode.getLocalCachePath().isEmpty()) {
+      String fingerprint =
+          String.join(
+              "|",
+              getApiUrl(config),
+              String.valueOf(geocode.getLocalCachePrecision()),
+              String.valueOf(geocode.getLocalCacheVersion()));
+      Optional<GeocodeDiskCache> disk =
+          GeocodeDiskCache.create(
+              geocode.getLocalCachePath(),
+              fingerprint,
+              TimeUnit.SECONDS.toMillis(geocode.getLocalCacheExpiryTimeInSeconds()));
+      if (disk.isPresent()) {
+        builder.tier(disk.get());
+        hasTiers = true;
+      }
+    }
+    return hasTiers ? builder.create() : null;
+  }
+
+  private static String getApiUrl(PipelinesConfig config) {
+    return Optional.ofNullable(config.getGeocode().getApi())
+        .map(WsConfig::getWsUrl)
+        .orElse(config.getGbifApi().getWsUrl());
+  }
+
   private static KeyValueStore<LatLng, GeocodeResponse> creatKvStore(PipelinesConfig config)
       throws IOException {
     if (config == null) {
       return null;
     }
 
-    String api =
-        Optional.ofNullable(config.getGeocode().getApi())
-            .map(WsConfig::getWsUrl)
-            .orElse(config.getGbifApi().getWsUrl());
+    String api = getApiUrl(config);
 
     ClientConfiguration clientConfig =
         ClientConfiguration.builder()
@@ -51,7 +51,11 @@ public class KeygenServiceFactory {
             .occurrenceTable(config.getKeygen().getOccurrenceTable())
             .create();
 
-    return new HBaseLockingKeyService(keygenConfig, c, datasetId);
+    HBaseLockingKeyService service = new HBaseLockingKeyService(keygenConfig, c, datasetId);
+    if (config.getKeygen().isPreloadLookupKeys() && datasetId != null) {
+      service.preloadScope();
+    }
+    return service;
   }
 
   private static String getZk(PipelinesConfig config) {
@@ -11,15 +11,18 @@ import org.apache.beam.sdk.io.AvroIO;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.transforms.ParDo.SingleOutput;
 import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PDone;
 import org.apache.beam.sdk.values.TupleTag;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.InterpretationType;
 import org.gbif.pipelines.core.functions.SerializableConsumer;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 import org.gbif.pipelines.io.avro.Record;
+import org.gbif.pipelines.transforms.common.BucketedAvroWrite;
 import org.gbif.pipelines.transforms.common.CheckTransforms;
 
 /**
@@ -123,6 +126,41 @@ public abstract class Transform<R, T extends SpecificRecordBase & Record> extend
     return write(pathFn.apply(baseName));
   }
 
+  /**
+   * Writes {@link T} *.avro files to path, data will be split into numberOfBuckets id sorted files
+   * if numberOfBuckets is set (see {@link BucketedAvroWrite}), uses Snappy compression codec by
+   * default
+   *
+   * @param pathFn function can return an output path, where in param is fixed - {@link
+   *     Transform#baseName}
+   */
+  public PTransform<PCollection<T>, PDone> write(
+      UnaryOperator<String> pathFn, Integer numberOfBuckets) {
+    if (numberOfBuckets != null && numberOfBuckets > 0) {
+      return BucketedAvroWrite.create(clazz, pathFn.apply(baseName), numberOfBuckets);
+    }
+    return write(pathFn);
+  }
+
+  /**
+   * Writes {@link T} *.avro files to path, data will be split into numberOfBuckets id sorted files
+   * if numberOfBuckets is set (see {@link BucketedAvroWrite})
+   *
+   * @param pathFn function can return an output path, where in param is fixed - {@link
+   *     Transform#baseName}
+   * @param codec avro compression codec name, like snappy
+   * @param syncInterval avro sync interval of the bucket files
+   */
+  public PTransform<PCollection<T>, PDone> write(
+      UnaryOperator<String> pathFn, Integer numberOfBuckets, String codec, int syncInterval) {
+    if (numberOfBuckets != null && numberOfBuckets > 0) {
+      return BucketedAvroWrite.create(clazz, pathFn.apply(baseName), numberOfBuckets)
+          .withCodec(codec)
+          .withSyncInterval(syncInterval);
+    }
+    return write(pathFn).withCodec(CodecFactory.fromString(codec));
+  }
+
   /**
    * Writes {@link T} *.avro files to path, data will be split into several files, uses Snappy
    * compression codec by default
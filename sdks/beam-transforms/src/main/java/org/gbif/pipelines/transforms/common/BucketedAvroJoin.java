@@ -0,0 +1,216 @@
+package org.gbif.pipelines.transforms.common;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
+import static org.gbif.pipelines.transforms.common.BucketedAvroWrite.bucketSuffix;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.beam.sdk.coders.AvroCoder;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.fs.EmptyMatchTreatment;
+import org.apache.beam.sdk.io.fs.MatchResult;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.PTransform;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.Reshuffle;
+import org.apache.beam.sdk.transforms.join.CoGbkResult;
+import org.apache.beam.sdk.transforms.join.CoGbkResult.CoGbkResultCoder;
+import org.apache.beam.sdk.transforms.join.CoGbkResultSchema;
+import org.apache.beam.sdk.transforms.join.RawUnionValue;
+import org.apache.beam.sdk.transforms.join.UnionCoder;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PBegin;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.TupleTag;
+import org.gbif.pipelines.io.avro.Record;
+import org.gbif.pipelines.transforms.Transform;
+
+/**
+ * Joins record types written by {@link BucketedAvroWrite} with the same number of buckets, reads
+ * the files of one bucket of all types together and merges them by id. Returns the same {@link
+ * KV<String, CoGbkResult>} as a {@link org.apache.beam.sdk.transforms.join.CoGroupByKey} of the
+ * types, but only the bucket numbers are shuffled.
+ *
+ * <pre>{@code
+ * Usage example:
+ *
+ * PCollection<KV<String, CoGbkResult>> result =
+ *     p.apply(
+ *         "Join buckets",
+ *         BucketedAvroJoin.create(numberOfBuckets)
+ *             .and(basicTransform, pathFn)
+ *             .and(verbatimTransform, pathFn));
+ * }</pre>
+ */
+public class BucketedAvroJoin extends PTransform<PBegin, PCollection<KV<String, CoGbkResult>>> {
+
+  private final int numberOfBuckets;
+  private final List<TupleTag<?>> tags = new ArrayList<>();
+  private final List<Class<? extends SpecificRecordBase>> classes = new ArrayList<>();
+  private final List<String> paths = new ArrayList<>();
+
+  private BucketedAvroJoin(int numberOfBuckets) {
+    this.numberOfBuckets = numberOfBuckets;
+  }
+
+  public static BucketedAvroJoin create(int numberOfBuckets) {
+    return new BucketedAvroJoin(numberOfBuckets);
+  }
+
+  /**
+   * Adds the record type of the transform
+   *
+   * @param pathFn function returns the files prefix of the transform base name, like directory/*
+   */
+  public <T extends SpecificRecordBase & Record> BucketedAvroJoin and(
+      Transform<?, T> transform, UnaryOperator<String> pathFn) {
+    tags.add(transform.getTag());
+    classes.add(transform.getReturnClazz());
+    paths.add(pathFn.apply(transform.getBaseName()));
+    return this;
+  }
+
+  @Override
+  public PCollection<KV<String, CoGbkResult>> expand(PBegin input) {
+    CoGbkResultSchema schema = CoGbkResultSchema.of(tags);
+    List<Coder<?>> coders = new ArrayList<>(classes.size());
+    classes.forEach(clazz -> coders.add(AvroCoder.of(clazz)));
+    CoGbkResultCoder resultCoder = CoGbkResultCoder.of(schema, UnionCoder.of(coders));
+
+    List<Integer> buckets =
+        IntStream.range(0, numberOfBuckets).boxed().collect(Collectors.toList());
+
+    return input
+        .apply("Create buckets", Create.of(buckets))
+        .apply("Distribute buckets", Reshuffle.viaRandomKey())
+        .apply(
+            "Merge buckets", ParDo.of(new MergeBucketFn(schema, classes, paths, numberOfBuckets)))
+        .setCoder(KvCoder.of(StringUtf8Coder.of(), resultCoder));
+  }
+
+  private static class MergeBucketFn extends DoFn<Integer, KV<String, CoGbkResult>> {
+
+    private final CoGbkResultSchema schema;
+    private final List<Class<? extends SpecificRecordBase>> classes;
+    private final List<String> paths;
+    private final int numberOfBuckets;
+
+    private MergeBucketFn(
+        CoGbkResultSchema schema,
+        List<Class<? extends SpecificRecordBase>> classes,
+        List<String> paths,
+        int numberOfBuckets) {
+      this.schema = schema;
+      this.classes = classes;
+      this.paths = paths;
+      this.numberOfBuckets = numberOfBuckets;
+    }
+
+    @ProcessElement
+    public void processElement(
+        @Element Integer bucket, OutputReceiver<KV<String, CoGbkResult>> out) throws IOException {
+      PriorityQueue<BucketFile> queue =
+          new PriorityQueue<>(
+              Comparator.<BucketFile, String>comparing(f -> f.head.getId())
+                  .thenComparingInt(f -> f.unionTag));
+      List<BucketFile> files = new ArrayList<>();
+      try {
+        for (int i = 0; i < paths.size(); i++) {
+          String glob = paths.get(i) + bucketSuffix(bucket, numberOfBuckets);
+          MatchResult match = FileSystems.match(glob, EmptyMatchTreatment.ALLOW);
+          if (match.metadata().isEmpty() && hasAvroFiles(paths.get(i))) {
+            throw new IllegalStateException(
+                "Avro files of "
+                    + paths.get(i)
+                    + " have no file "
+                    + bucketSuffix(bucket, numberOfBuckets)
+                    + ", they were written without buckets or with another number of buckets");
+          }
+          for (MatchResult.Metadata metadata : match.metadata()) {
+            BucketFile file = new BucketFile(i, metadata, classes.get(i));
+            files.add(file);
+            if (file.advance()) {
+              queue.add(file);
+            }
+          }
+        }
+        if (files.isEmpty()) {
+          throw new IllegalStateException(
+              "No files of bucket " + bucketSuffix(bucket, numberOfBuckets) + " were found");
+        }
+
+        // All records with the smallest id of the file heads make one result
+        while (!queue.isEmpty()) {
+          String id = queue.peek().head.getId();
+          List<RawUnionValue> values = new ArrayList<>();
+          while (!queue.isEmpty() && queue.peek().head.getId().equals(id)) {
+            BucketFile file = queue.poll();
+            values.add(new RawUnionValue(file.unionTag, file.head));
+            if (file.advance()) {
+              queue.add(file);
+            }
+          }
+          out.output(KV.of(id, new CoGbkResult(schema, values)));
+        }
+      } finally {
+        for (BucketFile file : files) {
+          file.stream.close();
+        }
+      }
+    }
+  }
+
+  /** A type without any avro files is empty, files of a type must all be bucket files */
+  private static boolean hasAvroFiles(String path) throws IOException {
+    return !FileSystems.match(path + AVRO_EXTENSION, EmptyMatchTreatment.ALLOW)
+        .metadata()
+        .isEmpty();
+  }
+
+  /** Sorted file of a bucket, only the current avro block is kept in memory */
+  private static class BucketFile {
+
+    private final int unionTag;
+    private final String name;
+    private final DataFileStream<? extends SpecificRecordBase> stream;
+    private Record head;
+
+    private BucketFile(
+        int unionTag, MatchResult.Metadata metadata, Class<? extends SpecificRecordBase> clazz)
+        throws IOException {
+      this.unionTag = unionTag;
+      this.name = metadata.resourceId().toString();
+      InputStream input = Channels.newInputStream(FileSystems.open(metadata.resourceId()));
+      this.stream = new DataFileStream<>(input, new SpecificDatumReader<>(clazz));
+    }
+
+    /** Moves the head to the next record of the file, false if the file is finished */
+    private boolean advance() {
+      if (!stream.hasNext()) {
+        head = null;
+        return false;
+      }
+      Record record = (Record) stream.next();
+      if (head != null && record.getId().compareTo(head.getId()) < 0) {
+        throw new IllegalStateException("Bucket file " + name + " is not sorted by id");
+      }
+      head = record;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package org.gbif.pipelines.transforms.common;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.beam.sdk.coders.AvroCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.NullableCoder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.io.FileIO;
+import org.apache.beam.sdk.io.FileIO.Write.FileNaming;
+import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.fs.ResourceId;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.Flatten;
+import org.apache.beam.sdk.transforms.PTransform;
+import org.apache.beam.sdk.transforms.WithKeys;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionList;
+import org.apache.beam.sdk.values.PDone;
+import org.apache.beam.sdk.values.TypeDescriptors;
+import org.gbif.pipelines.io.avro.Record;
+
+/**
+ * Writes {@link T} into numberOfBuckets avro files, a record goes to the bucket of a stable hash of
+ * its id and every bucket file is sorted by id. Record types written with the same number of
+ * buckets are co-partitioned, {@link BucketedAvroJoin} joins them bucket by bucket without a
+ * shuffle.
+ *
+ * <p>Every bucket file is written, an empty one too, a whole bucket is sorted in memory. Files are
+ * written by {@link FileIO}, to temporary files renamed when all buckets are written, so retried
+ * bundles don't leave partial buckets.
+ *
+ * <pre>{@code
+ * Usage example:
+ *
+ * records.apply("Write basic to avro", basicTransform.write(pathFn, numberOfBuckets));
+ * }</pre>
+ */
+public class BucketedAvroWrite<T extends SpecificRecordBase & Record>
+    extends PTransform<PCollection<T>, PDone> {
+
+  private static final String BUCKET_NAME = "-bucket-%05d-of-%05d";
+  private static final String BASE_CODEC = "snappy";
+
+  private final Class<T> clazz;
+  private final String path;
+  private final int numberOfBuckets;
+  private String codec = BASE_CODEC;
+  private Integer syncInterval;
+
+  private BucketedAvroWrite(Class<T> clazz, String path, int numberOfBuckets) {
+    if (numberOfBuckets < 1) {
+      throw new IllegalArgumentException("Number of buckets must be positive: " + numberOfBuckets);
+    }
+    this.clazz = clazz;
+    this.path = path;
+    this.numberOfBuckets = numberOfBuckets;
+  }
+
+  /**
+   * @param path path with name to output files, like - directory/name, a bucket suffix is added
+   */
+  public static <T extends SpecificRecordBase & Record> BucketedAvroWrite<T> create(
+      Class<T> clazz, String path, int numberOfBuckets) {
+    return new BucketedAvroWrite<>(clazz, path, numberOfBuckets);
+  }
+
+  /** Avro codec name, like snappy or deflate, see {@link CodecFactory#fromString(String)} */
+  public BucketedAvroWrite<T> withCodec(String codec) {
+    this.codec = codec;
+    return this;
+  }
+
+  /** Approximate number of uncompressed bytes of an avro block */
+  public BucketedAvroWrite<T> withSyncInterval(Integer syncInterval) {
+    this.syncInterval = syncInterval;
+    return this;
+  }
+
+  /** Stable bucket of the id, String#hashCode is defined by the specification */
+  public static int bucketOf(String id, int numberOfBuckets) {
+    // Murmur3 finalizer spreads similar ids over all buckets
+    int h = id.hashCode();
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return Math.floorMod(h, numberOfBuckets);
+  }
+
+  /** File name suffix of the bucket, like -bucket-00007-of-00064.avro */
+  public static String bucketSuffix(int bucket, int numberOfBuckets) {
+    return String.format(BUCKET_NAME, bucket, numberOfBuckets) + AVRO_EXTENSION;
+  }
+
+  @Override
+  public PDone expand(PCollection<T> input) {
+    int buckets = numberOfBuckets;
+    KvCoder<Integer, T> coder = KvCoder.of(VarIntCoder.of(), NullableCoder.of(AvroCoder.of(clazz)));
+
+    PCollection<KV<Integer, T>> records =
+        input
+            .apply(
+                "Key by bucket",
+                WithKeys.<Integer, T>of(r -> bucketOf(r.getId(), buckets))
+                    .withKeyType(TypeDescriptors.integers()))
+            .setCoder(coder);
+
+    // Null markers give every bucket a record, so empty buckets get a file too
+    List<KV<Integer, T>> markers =
+        IntStream.range(0, buckets)
+            .mapToObj(b -> KV.<Integer, T>of(b, null))
+            .collect(Collectors.toList());
+    PCollection<KV<Integer, T>> emptyBuckets =
+        input.getPipeline().apply("Create buckets", Create.of(markers).withCoder(coder));
+
+    ResourceId resourceId = FileSystems.matchNewResource(path, false);
+    String name = resourceId.getFilename();
+
+    // One shard per bucket, so a bucket is written by one sink
+    PCollectionList.of(records)
+        .and(emptyBuckets)
+        .apply("Flatten buckets", Flatten.pCollections())
+        .apply(
+            "Write sorted buckets",
+            FileIO.<Integer, KV<Integer, T>>writeDynamic()
+                .by(KV::getKey)
+                .withDestinationCoder(VarIntCoder.of())
+                .via(new SortedBucketSink<>(clazz, codec, syncInterval))
+                .to(resourceId.getCurrentDirectory().toString())
+                .withNaming(bucket -> bucketNaming(name, bucket, buckets))
+                .withNumShards(1));
+
+    return PDone.in(input.getPipeline());
+  }
+
+  private static FileNaming bucketNaming(String name, int bucket, int numberOfBuckets) {
+    return (window, pane, numShards, shardIndex, compression) ->
+        name + bucketSuffix(bucket, numberOfBuckets);
+  }
+
+  /** Keeps the records of a bucket and writes them sorted by id when the bucket is finished */
+  private static class SortedBucketSink<T extends SpecificRecordBase & Record>
+      implements FileIO.Sink<KV<Integer, T>> {
+
+    private final Class<T> clazz;
+    private final String codec;
+    private final Integer syncInterval;
+
+    private transient List<T> records;
+    private transient DataFileWriter<T> writer;
+
+    private SortedBucketSink(Class<T> clazz, String codec, Integer syncInterval) {
+      this.clazz = clazz;
+      this.codec = codec;
+      this.syncInterval = syncInterval;
+    }
+
+    @Override
+    public void open(WritableByteChannel channel) throws IOException {
+      records = new ArrayList<>();
+      writer = new DataFileWriter<>(new SpecificDatumWriter<>(clazz));
+      writer.setCodec(CodecFactory.fromString(codec));
+      if (syncInterval != null) {
+        writer.setSyncInterval(syncInterval);
+      }
+      writer.create(SpecificData.get().getSchema(clazz), Channels.newOutputStream(channel));
+    }
+
+    @Override
+    public void write(KV<Integer, T> element) {
+      if (element.getValue() != null) {
+        records.add(element.getValue());
+      }
+    }
+
+    /** The channel is closed by {@link FileIO} */
+    @Override
+    public void flush() throws IOException {
+      records.sort(Comparator.comparing(Record::getId));
+      for (T record : records) {
+        writer.append(record);
+      }
+      records.clear();
+      writer.flush();
+    }
+  }
+}
@@ -35,6 +35,14 @@ public class ExtensionFilterTransform
     return output;
   }
 
+  /** For Java pipelin, one record */
+  public ExtendedRecord transform(ExtendedRecord source) {
+    if (allowExtenstionsSet == null || allowExtenstionsSet.isEmpty()) {
+      return source;
+    }
+    return filter(source);
+  }
+
   /** For Beam pipelin */
   private ParDo.SingleOutput<ExtendedRecord, ExtendedRecord> createDoFn() {
     return ParDo.of(
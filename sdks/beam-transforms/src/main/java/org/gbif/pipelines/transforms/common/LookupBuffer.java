@@ -0,0 +1,72 @@
+package org.gbif.pipelines.transforms.common;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.pipelines.core.kvs.AsyncKeyValueStore;
+
+/**
+ * Micro-batch of a bundle for transforms calling a lookup service. Elements are buffered with
+ * their lookup keys, when the buffer is full or the bundle is finished all distinct keys are
+ * resolved concurrently by {@link AsyncKeyValueStore#getAll}, then every element is interpreted
+ * using a store backed by the resolved values.
+ *
+ * <p>A DoFn adds elements in its ProcessElement method and flushes the buffer when it is full, the
+ * rest is flushed in its FinishBundle method.
+ */
+public class LookupBuffer<E, K, V> {
+
+  private final AsyncKeyValueStore<K, V> kvStore;
+  private final int size;
+  private final List<E> elements;
+  private final Set<K> keys;
+
+  public LookupBuffer(AsyncKeyValueStore<K, V> kvStore, int size) {
+    this.kvStore = kvStore;
+    this.size = Math.max(1, size);
+    this.elements = new ArrayList<>(this.size);
+    this.keys = new HashSet<>(this.size);
+  }
+
+  /** @return true when the buffer is full and must be flushed */
+  public boolean add(E element, K key) {
+    elements.add(element);
+    keys.add(key);
+    return elements.size() >= size;
+  }
+
+  public boolean isEmpty() {
+    return elements.isEmpty();
+  }
+
+  /**
+   * Resolves the buffered keys and passes every element with a store of the resolved values, keys
+   * which failed to resolve are looked up again by the store
+   */
+  public void flush(BiConsumer<E, KeyValueStore<K, V>> fn) {
+    if (elements.isEmpty()) {
+      return;
+    }
+    Map<K, V> resolved = kvStore.getAll(keys);
+    KeyValueStore<K, V> resolvedStore =
+        new KeyValueStore<K, V>() {
+          @Override
+          public V get(K key) {
+            return resolved.containsKey(key) ? resolved.get(key) : kvStore.get(key);
+          }
+
+          @Override
+          public void close() {
+            // NOP, the async store is closed by the transform
+          }
+        };
+    List<E> batch = new ArrayList<>(elements);
+    elements.clear();
+    keys.clear();
+    batch.forEach(e -> fn.accept(e, resolvedStore));
+  }
+}
@@ -6,12 +6,19 @@ import static org.gbif.pipelines.core.interpreters.core.BasicInterpreter.GBIF_ID
 import static org.gbif.pipelines.core.interpreters.core.BasicInterpreter.interpretCopyGbifId;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.SneakyThrows;
 import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.TimestampedValue;
 import org.apache.beam.sdk.values.TypeDescriptor;
 import org.gbif.api.vocabulary.OccurrenceStatus;
 import org.gbif.kvs.KeyValueStore;
@@ -33,10 +40,16 @@ import org.gbif.pipelines.transforms.Transform;
  * Beam level transformations for the DWC Occurrence, reads an avro, writs an avro, maps from value
  * to keyValue and transforms form {@link ExtendedRecord} to {@link BasicRecord}.
  *
+ * <p>With a keygen service and a keygen batch size above 1, records are buffered and the GBIF ids
+ * of a buffer are looked up with one batch call of the service, see {@link
+ * BasicInterpreter#lookupGbifIds}
+ *
  * @see <a href="https://dwc.tdwg.org/terms/#occurrence</a>
  */
 public class BasicTransform extends Transform<ExtendedRecord, BasicRecord> {
 
+  private static final int DEFAULT_KEYGEN_BATCH_SIZE = 1;
+
   private final boolean isTripletValid;
   private final boolean isOccurrenceIdValid;
   private final boolean useExtendedRecordId;
@@ -46,6 +59,7 @@ public class BasicTransform extends Transform<ExtendedRecord, BasicRecord> {
       occStatusKvStoreSupplier;
   private final SerializableSupplier<ClusteringService> clusteringServiceSupplier;
   private final SerializableSupplier<VocabularyService> vocabularyServiceSupplier;
+  private final int keygenBatchSize;
 
   @Builder.Default private boolean useDynamicPropertiesInterpretation = false;
 
@@ -53,6 +67,7 @@ public class BasicTransform extends Transform<ExtendedRecord, BasicRecord> {
   private HBaseLockingKeyService keygenService;
   private ClusteringService clusteringService;
   private VocabularyService vocabularyService;
+  private transient List<TimestampedValue<ExtendedRecord>> keygenBuffer;
 
   @Builder(buildMethodName = "create")
   private BasicTransform(
@@ -64,7 +79,8 @@ public class BasicTransform extends Transform<ExtendedRecord, BasicRecord> {
       SerializableSupplier<HBaseLockingKeyService> keygenServiceSupplier,
       SerializableSupplier<VocabularyService> vocabularyServiceSupplier,
       SerializableSupplier<KeyValueStore<String, OccurrenceStatus>> occStatusKvStoreSupplier,
-      SerializableSupplier<ClusteringService> clusteringServiceSupplier) {
+      SerializableSupplier<ClusteringService> clusteringServiceSupplier,
+      Integer keygenBatchSize) {
     super(BasicRecord.class, BASIC, BasicTransform.class.getName(), BASIC_RECORDS_COUNT);
     this.isTripletValid = isTripletValid;
     this.isOccurrenceIdValid = isOccurrenceIdValid;
@@ -75,6 +91,7 @@ public class BasicTransform extends Transform<ExtendedRecord, BasicRecord> {
     this.occStatusKvStoreSupplier = occStatusKvStoreSupplier;
     this.vocabularyServiceSupplier = vocabularyServiceSupplier;
     this.clusteringServiceSupplier = clusteringServiceSupplier;
+    this.keygenBatchSize = keygenBatchSize == null ? DEFAULT_KEYGEN_BATCH_SIZE : keygenBatchSize;
   }
 
   /** Maps {@link BasicRecord} to key value, where key is {@link BasicRecord#getId} */
@@ -114,6 +131,9 @@ public class BasicTransform extends Transform<ExtendedRecord, BasicRecord> {
     if (clusteringServiceSupplier != null) {
       clusteringService = clusteringServiceSupplier.get();
     }
+    if (keygenBuffer == null && keygenService != null && !useExtendedRecordId) {
+      keygenBuffer = new ArrayList<>(keygenBatchSize);
+    }
   }
 
   /** Beam @Setup can be applied only to void method */
@@ -134,8 +154,57 @@ public class BasicTransform extends Transform<ExtendedRecord, BasicRecord> {
     }
   }
 
+  /** Records with core terms are buffered when the GBIF ids come from the keygen service */
+  @Override
+  @ProcessElement
+  public void processElement(ProcessContext c) {
+    ExtendedRecord source = c.element();
+    if (keygenBuffer == null || keygenBatchSize <= 1 || source.getCoreTerms().isEmpty()) {
+      super.processElement(c);
+      return;
+    }
+    keygenBuffer.add(TimestampedValue.of(source, c.timestamp()));
+    if (keygenBuffer.size() >= keygenBatchSize) {
+      flushKeygenBuffer(v -> c.output(v.getValue()));
+    }
+  }
+
+  /** Interpretation pipelines use the global window, buffered records keep their timestamps */
+  @FinishBundle
+  public void finishBundle(FinishBundleContext c) {
+    if (keygenBuffer != null) {
+      flushKeygenBuffer(v -> c.output(v.getValue(), v.getTimestamp(), GlobalWindow.INSTANCE));
+    }
+  }
+
+  private void flushKeygenBuffer(Consumer<TimestampedValue<BasicRecord>> outputFn) {
+    if (keygenBuffer.isEmpty()) {
+      return;
+    }
+    List<TimestampedValue<ExtendedRecord>> batch = new ArrayList<>(keygenBuffer);
+    keygenBuffer.clear();
+
+    List<ExtendedRecord> records =
+        batch.stream().map(TimestampedValue::getValue).collect(Collectors.toList());
+    Map<String, Long> gbifIds =
+        BasicInterpreter.lookupGbifIds(keygenService, records, isTripletValid, isOccurrenceIdValid);
+
+    for (TimestampedValue<ExtendedRecord> v : batch) {
+      convert(v.getValue(), gbifIds)
+          .ifPresent(
+              br -> {
+                incCounter();
+                outputFn.accept(TimestampedValue.of(br, v.getTimestamp()));
+              });
+    }
+  }
+
   @Override
   public Optional<BasicRecord> convert(ExtendedRecord source) {
+    return convert(source, null);
+  }
+
+  private Optional<BasicRecord> convert(ExtendedRecord source, Map<String, Long> gbifIds) {
 
     BasicRecord br =
         BasicRecord.newBuilder()
@@ -156,12 +225,15 @@ public class BasicTransform extends Transform<ExtendedRecord, BasicRecord> {
             .to(br)
             .when(er -> !er.getCoreTerms().isEmpty())
             .via(
-                BasicInterpreter.interpretGbifId(
-                    keygenService,
-                    isTripletValid,
-                    isOccurrenceIdValid,
-                    useExtendedRecordId,
-                    gbifIdFn))
+                gbifIds == null
+                    ? BasicInterpreter.interpretGbifId(
+                        keygenService,
+                        isTripletValid,
+                        isOccurrenceIdValid,
+                        useExtendedRecordId,
+                        gbifIdFn)
+                    : BasicInterpreter.interpretGbifId(
+                        keygenService, isTripletValid, isOccurrenceIdValid, gbifIds))
             .via(BasicInterpreter::interpretBasisOfRecord)
             .via(BasicInterpreter::interpretTypifiedName)
             .via(BasicInterpreter::interpretSex)
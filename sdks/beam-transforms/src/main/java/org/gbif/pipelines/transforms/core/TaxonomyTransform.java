@@ -1,25 +1,58 @@
 package org.gbif.pipelines.transforms.core;
 
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.TAXON_DISTINCT_MATCH_REQUESTS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.TAXON_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType.TAXONOMY;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import lombok.Builder;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.specific.SpecificData;
+import org.apache.beam.sdk.coders.AvroCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.Distinct;
+import org.apache.beam.sdk.transforms.Filter;
 import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.transforms.PTransform;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.ParDo.SingleOutput;
+import org.apache.beam.sdk.transforms.View;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.beam.sdk.values.TimestampedValue;
 import org.apache.beam.sdk.values.TypeDescriptor;
+import org.apache.beam.sdk.values.TypeDescriptors;
 import org.gbif.kvs.KeyValueStore;
 import org.gbif.kvs.species.SpeciesMatchRequest;
 import org.gbif.pipelines.core.functions.SerializableConsumer;
 import org.gbif.pipelines.core.functions.SerializableSupplier;
 import org.gbif.pipelines.core.interpreters.Interpretation;
 import org.gbif.pipelines.core.interpreters.core.TaxonomyInterpreter;
+import org.gbif.pipelines.core.kvs.AsyncKeyValueStore;
+import org.gbif.pipelines.core.parsers.taxonomy.SpeciesMatchKeys;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 import org.gbif.pipelines.io.avro.TaxonRecord;
 import org.gbif.pipelines.transforms.Transform;
+import org.gbif.pipelines.transforms.common.LookupBuffer;
+import org.gbif.pipelines.transforms.java.BatchExecutor;
 import org.gbif.rest.client.species.NameUsageMatch;
 
 /**
@@ -29,20 +62,37 @@ import org.gbif.rest.client.species.NameUsageMatch;
  * <p>ParDo runs sequence of interpretations for {@link TaxonRecord} using {@link ExtendedRecord} as
  * a source and {@link TaxonomyInterpreter} as interpretation steps
  *
+ * <p>Most datasets repeat the same taxonomic fields in many records, {@link
+ * #prefetch(Collection, BatchExecutor)} for java pipelines and {@link #prefetch()} with {@link
+ * #setPrefetchView(PCollectionView)} for beam pipelines resolve every distinct species match
+ * request once, records copy the prefetched result
+ *
  * @see <a href="https://dwc.tdwg.org/terms/#taxon</a>
  */
 @Slf4j
 public class TaxonomyTransform extends Transform<ExtendedRecord, TaxonRecord> {
 
+  private static final int DEFAULT_LOOKUP_BATCH_SIZE = 100;
+
   private final SerializableSupplier<KeyValueStore<SpeciesMatchRequest, NameUsageMatch>>
       kvStoreSupplier;
   private KeyValueStore<SpeciesMatchRequest, NameUsageMatch> kvStore;
+  private final int lookupBatchSize;
+  private transient LookupBuffer<
+          TimestampedValue<ExtendedRecord>, SpeciesMatchRequest, NameUsageMatch>
+      lookupBuffer;
+
+  @Setter private PCollectionView<Map<String, TaxonRecord>> prefetchView;
+  private transient Map<String, TaxonRecord> prefetched;
+  private SerializableConsumer<String> counterFn;
 
   @Builder(buildMethodName = "create")
   private TaxonomyTransform(
-      SerializableSupplier<KeyValueStore<SpeciesMatchRequest, NameUsageMatch>> kvStoreSupplier) {
+      SerializableSupplier<KeyValueStore<SpeciesMatchRequest, NameUsageMatch>> kvStoreSupplier,
+      Integer lookupBatchSize) {
     super(TaxonRecord.class, TAXONOMY, TaxonomyTransform.class.getName(), TAXON_RECORDS_COUNT);
     this.kvStoreSupplier = kvStoreSupplier;
+    this.lookupBatchSize = lookupBatchSize == null ? DEFAULT_LOOKUP_BATCH_SIZE : lookupBatchSize;
   }
 
   /** Maps {@link TaxonRecord} to key value, where key is {@link TaxonRecord#getId} */
@@ -53,9 +103,15 @@ public class TaxonomyTransform extends Transform<ExtendedRecord, TaxonRecord> {
 
   public TaxonomyTransform counterFn(SerializableConsumer<String> counterFn) {
     setCounterFn(counterFn);
+    this.counterFn = counterFn;
     return this;
   }
 
+  @Override
+  public SingleOutput<ExtendedRecord, TaxonRecord> interpret() {
+    return prefetchView == null ? ParDo.of(this) : ParDo.of(this).withSideInputs(prefetchView);
+  }
+
   /** Beam @Setup initializes resources */
   @Setup
   public void setup() {
@@ -63,6 +119,9 @@ public class TaxonomyTransform extends Transform<ExtendedRecord, TaxonRecord> {
       log.info("Initialize NameUsageMatchKvStore");
       kvStore = kvStoreSupplier.get();
     }
+    if (lookupBuffer == null && kvStore instanceof AsyncKeyValueStore) {
+      lookupBuffer = new LookupBuffer<>(asAsync(kvStore), lookupBatchSize);
+    }
   }
 
   /** Beam @Setup can be applied only to void method */
@@ -84,13 +143,268 @@ public class TaxonomyTransform extends Transform<ExtendedRecord, TaxonRecord> {
     }
   }
 
+  /**
+   * Without prefetched matches and with an {@link AsyncKeyValueStore} records are buffered and
+   * species match requests of the buffer are resolved concurrently, see {@link LookupBuffer}
+   */
+  @Override
+  @ProcessElement
+  public void processElement(ProcessContext c) {
+    ExtendedRecord source = c.element();
+    if (prefetchView == null && lookupBuffer != null && !source.getCoreTerms().isEmpty()) {
+      SpeciesMatchRequest request = TaxonomyInterpreter.createMatchRequest(source);
+      if (lookupBuffer.add(TimestampedValue.of(source, c.timestamp()), request)) {
+        lookupBuffer.flush(
+            (v, store) -> convert(v.getValue(), null, store).ifPresent(tr -> output(c, tr)));
+      }
+      return;
+    }
+    Map<String, TaxonRecord> matches =
+        prefetchView == null ? prefetched : c.sideInput(prefetchView);
+    convert(source, matches, kvStore).ifPresent(tr -> output(c, tr));
+  }
+
+  /** Interpretation pipelines use the global window, buffered records keep their timestamps */
+  @FinishBundle
+  public void finishBundle(FinishBundleContext c) {
+    if (lookupBuffer != null) {
+      lookupBuffer.flush(
+          (v, store) ->
+              convert(v.getValue(), null, store)
+                  .ifPresent(
+                      tr -> {
+                        incCounter();
+                        c.output(tr, v.getTimestamp(), GlobalWindow.INSTANCE);
+                      }));
+    }
+  }
+
+  private void output(ProcessContext c, TaxonRecord tr) {
+    incCounter();
+    c.output(tr);
+  }
+
   @Override
   public Optional<TaxonRecord> convert(ExtendedRecord source) {
+    return convert(source, prefetched, kvStore);
+  }
+
+  private Optional<TaxonRecord> convert(
+      ExtendedRecord source,
+      Map<String, TaxonRecord> matches,
+      KeyValueStore<SpeciesMatchRequest, NameUsageMatch> store) {
     return Interpretation.from(source)
         .to(TaxonRecord.newBuilder().setCreated(Instant.now().toEpochMilli()).build())
         .when(er -> !er.getCoreTerms().isEmpty())
-        .via(TaxonomyInterpreter.taxonomyInterpreter(kvStore))
+        .via((er, tr) -> interpret(er, tr, matches, store))
         .skipWhen(tr -> tr.getId() == null)
         .getOfNullable();
   }
+
+  /** Copies a prefetched match into the record, or calls the species match service on a miss */
+  private static void interpret(
+      ExtendedRecord er,
+      TaxonRecord tr,
+      Map<String, TaxonRecord> matches,
+      KeyValueStore<SpeciesMatchRequest, NameUsageMatch> store) {
+    TaxonRecord match =
+        matches == null || matches.isEmpty()
+            ? null
+            : matches.get(SpeciesMatchKeys.encode(TaxonomyInterpreter.createMatchRequest(er)));
+    if (match == null) {
+      TaxonomyInterpreter.taxonomyInterpreter(store).accept(er, tr);
+      return;
+    }
+    Long created = tr.getCreated();
+    TaxonRecord copy = SpecificData.get().deepCopy(TaxonRecord.getClassSchema(), match);
+    copy.getSchema().getFields().forEach(f -> tr.put(f.pos(), copy.get(f.pos())));
+    tr.setId(er.getId());
+    tr.setCreated(created);
+  }
+
+  /**
+   * Java pipelines: resolves every distinct species match request of the records once, using the
+   * executor for parallel calls, later {@link #processElement(ExtendedRecord)} calls copy the
+   * prefetched results. Failed lookups are left out, records of those requests are looked up one
+   * by one.
+   */
+  public void prefetch(Collection<ExtendedRecord> records, BatchExecutor executor) {
+    if (kvStore == null) {
+      return;
+    }
+    Set<String> keys = new LinkedHashSet<>();
+    for (ExtendedRecord er : records) {
+      if (!er.getCoreTerms().isEmpty()) {
+        keys.add(SpeciesMatchKeys.encode(TaxonomyInterpreter.createMatchRequest(er)));
+      }
+    }
+    log.info(
+        "Prefetching {} distinct species matches for {} records, ratio {}",
+        keys.size(),
+        records.size(),
+        records.isEmpty() ? 0d : (double) keys.size() / records.size());
+
+    List<String> orderedKeys = new ArrayList<>(keys);
+    Map<String, TaxonRecord> result = new HashMap<>(orderedKeys.size());
+    Iterator<String> keyIterator = orderedKeys.iterator();
+    executor.map(
+        orderedKeys.iterator(),
+        key -> match(kvStore, key),
+        tr -> {
+          String key = keyIterator.next();
+          if (tr != null) {
+            result.put(key, tr);
+          }
+          if (counterFn != null) {
+            counterFn.accept(TAXON_DISTINCT_MATCH_REQUESTS_COUNT);
+          }
+        });
+    this.prefetched = result;
+  }
+
+  /**
+   * Beam pipelines: resolves every distinct species match request of the records once, the result
+   * must be passed back using {@link #setPrefetchView(PCollectionView)} before {@link #interpret()}
+   */
+  public PrefetchTransform prefetch() {
+    return new PrefetchTransform(kvStoreSupplier, lookupBatchSize);
+  }
+
+  /**
+   * Resolves one encoded request into a template record without id, null when the lookup fails,
+   * so a failure isn't copied to all records of the request as an empty match
+   */
+  private static TaxonRecord match(
+      KeyValueStore<SpeciesMatchRequest, NameUsageMatch> kvStore, String key) {
+    TaxonRecord tr = TaxonRecord.newBuilder().setCreated(0L).build();
+    try {
+      TaxonomyInterpreter.strictMatchInterpreter(kvStore)
+          .accept(SpeciesMatchKeys.decode(key), tr);
+    } catch (Exception ex) {
+      log.warn("Species match of {} failed, its records are looked up one by one", key, ex);
+      return null;
+    }
+    return tr;
+  }
+
+  /**
+   * Collects distinct species match keys and resolves them into a map side input, keys of failed
+   * lookups are left out
+   */
+  public static class PrefetchTransform
+      extends PTransform<PCollection<ExtendedRecord>, PCollectionView<Map<String, TaxonRecord>>> {
+
+    private final SerializableSupplier<KeyValueStore<SpeciesMatchRequest, NameUsageMatch>>
+        kvStoreSupplier;
+    private final int lookupBatchSize;
+
+    private PrefetchTransform(
+        SerializableSupplier<KeyValueStore<SpeciesMatchRequest, NameUsageMatch>> kvStoreSupplier,
+        int lookupBatchSize) {
+      this.kvStoreSupplier = kvStoreSupplier;
+      this.lookupBatchSize = lookupBatchSize;
+    }
+
+    @Override
+    public PCollectionView<Map<String, TaxonRecord>> expand(PCollection<ExtendedRecord> input) {
+      return input
+          .apply("Filter empty records", Filter.by(er -> !er.getCoreTerms().isEmpty()))
+          .apply(
+              "To species match keys",
+              MapElements.into(TypeDescriptors.strings())
+                  .via(
+                      (ExtendedRecord er) ->
+                          SpeciesMatchKeys.encode(TaxonomyInterpreter.createMatchRequest(er))))
+          .apply("Distinct species match keys", Distinct.create())
+          .apply("Match distinct keys", ParDo.of(new MatchFn(kvStoreSupplier, lookupBatchSize)))
+          .setCoder(KvCoder.of(StringUtf8Coder.of(), AvroCoder.of(TaxonRecord.class)))
+          .apply("To species match view", View.asMap());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static AsyncKeyValueStore<SpeciesMatchRequest, NameUsageMatch> asAsync(
+      KeyValueStore<SpeciesMatchRequest, NameUsageMatch> kvStore) {
+    return (AsyncKeyValueStore<SpeciesMatchRequest, NameUsageMatch>) kvStore;
+  }
+
+  /**
+   * Calls the species match service for every distinct key, keys are buffered and resolved
+   * concurrently when the store is an {@link AsyncKeyValueStore}
+   */
+  private static class MatchFn extends DoFn<String, KV<String, TaxonRecord>> {
+
+    private final Counter counter =
+        Metrics.counter(TaxonomyTransform.class, TAXON_DISTINCT_MATCH_REQUESTS_COUNT);
+    private final SerializableSupplier<KeyValueStore<SpeciesMatchRequest, NameUsageMatch>>
+        kvStoreSupplier;
+    private final int lookupBatchSize;
+    private KeyValueStore<SpeciesMatchRequest, NameUsageMatch> kvStore;
+    private transient LookupBuffer<TimestampedValue<String>, SpeciesMatchRequest, NameUsageMatch>
+        lookupBuffer;
+
+    private MatchFn(
+        SerializableSupplier<KeyValueStore<SpeciesMatchRequest, NameUsageMatch>> kvStoreSupplier,
+        int lookupBatchSize) {
+      this.kvStoreSupplier = kvStoreSupplier;
+      this.lookupBatchSize = lookupBatchSize;
+    }
+
+    @Setup
+    public void setup() {
+      if (kvStore == null && kvStoreSupplier != null) {
+        kvStore = kvStoreSupplier.get();
+      }
+      if (kvStore instanceof AsyncKeyValueStore) {
+        lookupBuffer = new LookupBuffer<>(asAsync(kvStore), lookupBatchSize);
+      }
+    }
+
+    @Teardown
+    public void tearDown() {
+      if (kvStore != null) {
+        try {
+          kvStore.close();
+        } catch (IOException ex) {
+          log.error("Error closing KV Store", ex);
+        }
+      }
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext c) {
+      String key = c.element();
+      if (kvStore == null) {
+        return;
+      }
+      counter.inc();
+      if (lookupBuffer == null) {
+        output(key, match(kvStore, key), c::output);
+      } else if (lookupBuffer.add(
+          TimestampedValue.of(key, c.timestamp()), SpeciesMatchKeys.decode(key))) {
+        lookupBuffer.flush(
+            (v, store) -> output(v.getValue(), match(store, v.getValue()), c::output));
+      }
+    }
+
+    @FinishBundle
+    public void finishBundle(FinishBundleContext c) {
+      if (lookupBuffer != null) {
+        lookupBuffer.flush(
+            (v, store) ->
+                output(
+                    v.getValue(),
+                    match(store, v.getValue()),
+                    kv -> c.output(kv, v.getTimestamp(), GlobalWindow.INSTANCE)));
+      }
+    }
+
+    /** Failed lookups aren't output, their records fall back to the per-record lookup */
+    private static void output(
+        String key, TaxonRecord tr, Consumer<KV<String, TaxonRecord>> outputFn) {
+      if (tr != null) {
+        outputFn.accept(KV.of(key, tr));
+      }
+    }
+  }
 }
@@ -0,0 +1,170 @@
+package org.gbif.pipelines.transforms.java;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.BATCHES_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.BATCH_QUEUE_FULL_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.BATCH_RECORDS_COUNT;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.pipelines.core.functions.SerializableConsumer;
+
+/**
+ * Java pipelines executor stage, reads a source in chunks of {@link #batchSize} elements and
+ * processes every chunk as one unit of work. The number of chunks in flight is bounded by {@link
+ * #parallelism}, the caller thread waits when the queue is full, so memory depends on the batch
+ * size, not on the size of the source.
+ *
+ * <p>Reports {@code batchRecordsCount}, {@code batchesCount} and {@code batchQueueFullCount}
+ * counters and logs throughput and max queue depth at the end of every run.
+ */
+@Slf4j
+public class BatchExecutor {
+
+  private static final int DEFAULT_BATCH_SIZE = 10_000;
+
+  private final ExecutorService executor;
+  private final int batchSize;
+  private final int parallelism;
+  private final SerializableConsumer<String> counterFn;
+
+  @Builder(buildMethodName = "create")
+  private BatchExecutor(
+      @NonNull ExecutorService executor,
+      Integer batchSize,
+      Integer parallelism,
+      SerializableConsumer<String> counterFn) {
+    this.executor = executor;
+    this.batchSize = batchSize == null || batchSize < 1 ? DEFAULT_BATCH_SIZE : batchSize;
+    this.parallelism =
+        parallelism == null || parallelism < 1
+            ? Runtime.getRuntime().availableProcessors()
+            : parallelism;
+    this.counterFn = counterFn;
+  }
+
+  /** Applies the function to all elements, results are passed to the sink in the source order */
+  public <T, R> void map(Iterator<T> source, Function<T, R> fn, Consumer<R> sink) {
+    Stats stats = new Stats();
+    Deque<CompletableFuture<List<R>>> inFlight = new ArrayDeque<>(parallelism);
+    Iterator<List<T>> batches = batches(source);
+    while (batches.hasNext()) {
+      List<T> batch = batches.next();
+      if (inFlight.size() >= parallelism) {
+        incMetrics(BATCH_QUEUE_FULL_COUNT);
+        drain(inFlight, sink);
+      }
+      inFlight.add(CompletableFuture.supplyAsync(() -> apply(batch, fn), executor));
+      stats.submitted(batch.size(), inFlight.size());
+    }
+    while (!inFlight.isEmpty()) {
+      drain(inFlight, sink);
+    }
+    stats.log();
+  }
+
+  /** Applies the consumer to all elements, the order of processing is not defined */
+  @SneakyThrows
+  public <T> void forEach(Iterator<T> source, Consumer<T> fn) {
+    Stats stats = new Stats();
+    Semaphore queue = new Semaphore(parallelism);
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    Iterator<List<T>> batches = batches(source);
+    while (batches.hasNext() && error.get() == null) {
+      List<T> batch = batches.next();
+      if (!queue.tryAcquire()) {
+        incMetrics(BATCH_QUEUE_FULL_COUNT);
+        queue.acquire();
+      }
+      CompletableFuture.runAsync(() -> batch.forEach(fn), executor)
+          .whenComplete(
+              (v, ex) -> {
+                if (ex != null) {
+                  error.compareAndSet(null, ex instanceof CompletionException ? ex.getCause() : ex);
+                }
+                incMetrics(BATCHES_COUNT);
+                queue.release();
+              });
+      stats.submitted(batch.size(), parallelism - queue.availablePermits());
+    }
+    queue.acquire(parallelism);
+    if (error.get() != null) {
+      throw error.get();
+    }
+    stats.log();
+  }
+
+  private <T, R> List<R> apply(List<T> batch, Function<T, R> fn) {
+    List<R> result = new ArrayList<>(batch.size());
+    batch.forEach(t -> result.add(fn.apply(t)));
+    incMetrics(BATCHES_COUNT);
+    return result;
+  }
+
+  @SneakyThrows
+  private <R> void drain(Deque<CompletableFuture<List<R>>> inFlight, Consumer<R> sink) {
+    inFlight.poll().get().forEach(sink);
+  }
+
+  /** Splits the source into lists of {@link #batchSize} elements */
+  private <T> Iterator<List<T>> batches(Iterator<T> source) {
+    return new Iterator<List<T>>() {
+      @Override
+      public boolean hasNext() {
+        return source.hasNext();
+      }
+
+      @Override
+      public List<T> next() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (source.hasNext() && batch.size() < batchSize) {
+          batch.add(source.next());
+          incMetrics(BATCH_RECORDS_COUNT);
+        }
+        return batch;
+      }
+    };
+  }
+
+  private void incMetrics(String metricName) {
+    Optional.ofNullable(counterFn).ifPresent(x -> x.accept(metricName));
+  }
+
+  /** Throughput and queue depth of one run */
+  private class Stats {
+
+    private final long start = System.currentTimeMillis();
+    private long records = 0;
+    private int maxQueueDepth = 0;
+
+    private void submitted(int size, int queueDepth) {
+      records += size;
+      maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+    }
+
+    private void log() {
+      long time = Math.max(System.currentTimeMillis() - start, 1L);
+      log.info(
+          "Processed {} records, {} records/s, batch size - {}, max queue depth - {}/{}",
+          records,
+          records * 1_000L / time,
+          batchSize,
+          maxQueueDepth,
+          parallelism);
+    }
+  }
+}
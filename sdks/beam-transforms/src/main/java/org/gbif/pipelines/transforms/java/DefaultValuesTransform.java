@@ -34,4 +34,11 @@ public class DefaultValuesTransform {
       source.forEach((key, value) -> transform.convert(value).ifPresent(v -> source.put(key, v)));
     }
   }
+
+  public ExtendedRecord replaceDefaultValues(ExtendedRecord source) {
+    if (transform.getTags().isEmpty()) {
+      return source;
+    }
+    return transform.convert(source).orElse(source);
+  }
 }
@@ -0,0 +1,80 @@
+package org.gbif.pipelines.transforms.java;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.DUPLICATE_GBIF_IDS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.IDENTICAL_GBIF_OBJECTS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.INVALID_GBIF_ID_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.UNIQUE_GBIF_IDS_COUNT;
+
+import java.io.Closeable;
+import java.util.Optional;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.pipelines.core.functions.SerializableConsumer;
+import org.gbif.pipelines.core.utils.HashConverter;
+import org.gbif.pipelines.core.utils.OffHeapLongMap;
+import org.gbif.pipelines.io.avro.BasicRecord;
+
+/**
+ * Streaming version of {@link UniqueGbifIdTransform}, instead of keeping {@link BasicRecord}s in
+ * maps it keeps GBIF id -> the first 64 bits of the SHA-1 of the winner record id in an off-heap
+ * index. All records must be passed to {@link #filter(BasicRecord)} before {@link
+ * #isValid(BasicRecord)} is called.
+ */
+@Slf4j
+@Builder(buildMethodName = "create")
+public class StreamingUniqueGbifIdTransform implements Closeable {
+
+  private final OffHeapLongMap gbifIdIndex = new OffHeapLongMap();
+
+  @Builder.Default private boolean skipTransform = false;
+
+  private SerializableConsumer<String> counterFn;
+
+  /** Process GBIF id duplicates, the record with the lowest SHA-1 of the id wins */
+  public synchronized void filter(BasicRecord br) {
+    if (skipTransform) {
+      return;
+    }
+    if (br.getGbifId() == null) {
+      incMetrics(INVALID_GBIF_ID_COUNT);
+      log.error("GBIF ID is null, occurrenceId - {}", br.getId());
+      return;
+    }
+    long hash = idHash(br.getId());
+    long saved = gbifIdIndex.get(br.getGbifId());
+    if (saved == OffHeapLongMap.NO_VALUE) {
+      incMetrics(UNIQUE_GBIF_IDS_COUNT);
+      gbifIdIndex.put(br.getGbifId(), hash);
+    } else {
+      if (Long.compareUnsigned(hash, saved) < 0) {
+        incMetrics(IDENTICAL_GBIF_OBJECTS_COUNT);
+        gbifIdIndex.put(br.getGbifId(), hash);
+      } else {
+        incMetrics(DUPLICATE_GBIF_IDS_COUNT);
+      }
+      log.error("GBIF ID collision, gbifId - {}, occurrenceId - {}", br.getGbifId(), br.getId());
+    }
+  }
+
+  /** Returns true if the record has a GBIF id and wins all collisions for the GBIF id */
+  public synchronized boolean isValid(BasicRecord br) {
+    if (skipTransform) {
+      return true;
+    }
+    return br.getGbifId() != null && gbifIdIndex.get(br.getGbifId()) == idHash(br.getId());
+  }
+
+  @Override
+  public void close() {
+    gbifIdIndex.close();
+  }
+
+  /** Unsigned order of the SHA-1 prefix is the same as the order of SHA-1 hex strings */
+  private static long idHash(String id) {
+    return Long.parseUnsignedLong(HashConverter.getSha1(id).substring(0, 16), 16);
+  }
+
+  private void incMetrics(String metricName) {
+    Optional.ofNullable(counterFn).ifPresent(x -> x.accept(metricName));
+  }
+}
@@ -0,0 +1,183 @@
+package org.gbif.pipelines.transforms.java;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.pipelines.core.functions.SerializableConsumer;
+import org.gbif.pipelines.core.utils.OffHeapLongMap;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.gbif.pipelines.transforms.converters.OccurrenceExtensionTransform;
+
+/**
+ * Streaming version of {@link org.gbif.pipelines.core.io.AvroReader#readUniqueRecords} and {@link
+ * org.gbif.pipelines.transforms.java.OccurrenceExtensionTransform}, records are never collected in
+ * memory, only 64-bit hashes of ids are kept in off-heap indexes.
+ *
+ * <p>The source is read once by {@link #index()} and then again by every {@link #iterator()},
+ * records are emitted in the same order every time:
+ *
+ * <pre>
+ *    1) Records with the same id and different content are skipped, only the first of identical
+ *    records is used
+ *    2) Occurrence extensions are converted into records, when several converted records have the
+ *    same id, the last one is used
+ * </pre>
+ */
+@Slf4j
+public class StreamingUniqueRecordsTransform implements Closeable {
+
+  private static final HashFunction HASH_FN = Hashing.murmur3_128();
+  private static final long CONFLICT = Long.MIN_VALUE + 1;
+
+  private final Supplier<? extends Iterator<ExtendedRecord>> sourceSupplier;
+  private final OccurrenceExtensionTransform indexConverter = new OccurrenceExtensionTransform();
+  private final OccurrenceExtensionTransform converter = new OccurrenceExtensionTransform();
+
+  // Raw record id hash -> content hash or CONFLICT
+  private final OffHeapLongMap contentIndex = new OffHeapLongMap();
+  // Raw record id hash -> position of the first record in the source
+  private final OffHeapLongMap positionIndex = new OffHeapLongMap();
+  // Converted record id hash -> sequence number of the last converted record
+  private final OffHeapLongMap sequenceIndex = new OffHeapLongMap();
+
+  @Builder(buildMethodName = "create")
+  private StreamingUniqueRecordsTransform(
+      @NonNull Supplier<? extends Iterator<ExtendedRecord>> sourceSupplier,
+      SerializableConsumer<String> counterFn) {
+    this.sourceSupplier = sourceSupplier;
+    if (counterFn != null) {
+      indexConverter.setCounterFn(counterFn);
+    }
+    converter.setCounterFn(v -> {});
+  }
+
+  /** Reads the source twice and builds indexes for duplicated ids */
+  public StreamingUniqueRecordsTransform index() {
+    Iterator<ExtendedRecord> source = sourceSupplier.get();
+    try {
+      long position = 0;
+      while (source.hasNext()) {
+        ExtendedRecord er = source.next();
+        long idHash = hash(er.getId());
+        long contentHash = contentHash(er);
+        long saved = contentIndex.get(idHash);
+        if (saved == OffHeapLongMap.NO_VALUE) {
+          contentIndex.put(idHash, contentHash);
+          positionIndex.put(idHash, position);
+        } else if (saved != CONFLICT && saved != contentHash) {
+          contentIndex.put(idHash, CONFLICT);
+          log.warn("occurrenceId = {}, duplicates were found", er.getId());
+        }
+        position++;
+      }
+    } finally {
+      close(source);
+    }
+
+    try (UniqueRecordIterator iterator = new UniqueRecordIterator(true)) {
+      while (iterator.hasNext()) {
+        iterator.next();
+      }
+    }
+    return this;
+  }
+
+  /** Number of unique records, available after {@link #index()} */
+  public int size() {
+    return sequenceIndex.size();
+  }
+
+  /** New pass over the source, the iterator must be closed */
+  public UniqueRecordIterator iterator() {
+    return new UniqueRecordIterator(false);
+  }
+
+  @Override
+  public void close() {
+    contentIndex.close();
+    positionIndex.close();
+    sequenceIndex.close();
+  }
+
+  private static long hash(String value) {
+    return value == null ? 0L : HASH_FN.hashString(value, StandardCharsets.UTF_8).asLong();
+  }
+
+  private static long contentHash(ExtendedRecord er) {
+    long hash = HASH_FN.hashString(er.toString(), StandardCharsets.UTF_8).asLong();
+    return hash == CONFLICT || hash == OffHeapLongMap.NO_VALUE ? hash + 2 : hash;
+  }
+
+  @SneakyThrows
+  private static void close(Iterator<?> iterator) {
+    if (iterator instanceof Closeable) {
+      ((Closeable) iterator).close();
+    }
+  }
+
+  /** Iterator over unique and converted records */
+  public class UniqueRecordIterator implements Iterator<ExtendedRecord>, Closeable {
+
+    private final boolean indexing;
+    private final Iterator<ExtendedRecord> source = sourceSupplier.get();
+    private final Deque<ExtendedRecord> buffer = new ArrayDeque<>();
+    private long position = 0;
+    private long sequence = 0;
+
+    private UniqueRecordIterator(boolean indexing) {
+      this.indexing = indexing;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (buffer.isEmpty() && source.hasNext()) {
+        fill(source.next(), position++);
+      }
+      return !buffer.isEmpty();
+    }
+
+    @Override
+    public ExtendedRecord next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return buffer.poll();
+    }
+
+    @Override
+    public void close() {
+      StreamingUniqueRecordsTransform.close(source);
+    }
+
+    private void fill(ExtendedRecord er, long pos) {
+      long idHash = hash(er.getId());
+      if (contentIndex.get(idHash) == CONFLICT || positionIndex.get(idHash) != pos) {
+        return;
+      }
+      OccurrenceExtensionTransform c = indexing ? indexConverter : converter;
+      c.convert(
+          er,
+          r -> {
+            if (r != null && r.getId() != null && !r.getId().isEmpty()) {
+              long seq = sequence++;
+              if (indexing) {
+                sequenceIndex.put(hash(r.getId()), seq);
+                buffer.add(r);
+              } else if (sequenceIndex.get(hash(r.getId())) == seq) {
+                buffer.add(r);
+              }
+            }
+          });
+    }
+  }
+}
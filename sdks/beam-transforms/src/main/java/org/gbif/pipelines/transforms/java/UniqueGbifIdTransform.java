@@ -7,7 +7,6 @@ import static org.gbif.pipelines.common.PipelinesVariables.Metrics.UNIQUE_GBIF_I
 
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -48,6 +47,10 @@ public class UniqueGbifIdTransform {
 
   @Builder.Default private boolean skipTransform = false;
 
+  private Integer batchSize;
+
+  private Integer parallelism;
+
   private SerializableConsumer<String> counterFn;
 
   public UniqueGbifIdTransform run() {
@@ -60,11 +63,13 @@ public class UniqueGbifIdTransform {
     Consumer<ExtendedRecord> interpretBrFn = filterByGbifId();
 
     // Run async
-    CompletableFuture<?>[] brFutures =
-        erMap.values().stream()
-            .map(v -> CompletableFuture.runAsync(() -> interpretBrFn.accept(v), executor))
-            .toArray(CompletableFuture[]::new);
-    CompletableFuture.allOf(brFutures).get();
+    BatchExecutor.builder()
+        .executor(executor)
+        .batchSize(batchSize)
+        .parallelism(parallelism)
+        .counterFn(counterFn)
+        .create()
+        .forEach(erMap.values().iterator(), interpretBrFn);
 
     return this;
   }
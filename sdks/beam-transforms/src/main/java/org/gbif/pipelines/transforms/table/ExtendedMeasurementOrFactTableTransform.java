@@ -6,6 +6,7 @@ import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretati
 import java.util.Set;
 import lombok.Builder;
 import org.apache.beam.sdk.values.TupleTag;
+import org.gbif.api.vocabulary.Extension;
 import org.gbif.pipelines.core.converters.ExtendedMeasurementOrFactTableConverter;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
@@ -24,6 +25,7 @@ public class ExtendedMeasurementOrFactTableTransform
     super(
         ExtendedMeasurementOrFactTable.class,
         EXTENDED_MEASUREMENT_OR_FACT_TABLE,
+        Extension.EXTENDED_MEASUREMENT_OR_FACT,
         ExtendedMeasurementOrFactTableTransform.class.getName(),
         EXTENDED_MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT,
         ExtendedMeasurementOrFactTableConverter::convert);
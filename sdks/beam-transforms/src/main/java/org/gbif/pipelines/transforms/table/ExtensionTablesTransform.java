@@ -0,0 +1,137 @@
+package org.gbif.pipelines.transforms.table;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.NonNull;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.beam.sdk.coders.AvroCoder;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.join.CoGbkResult;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionTuple;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.beam.sdk.values.TupleTagList;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+
+/**
+ * Converts joined records into all extension tables in one pass. Every record is visited once and
+ * only the extensions present in the {@link ExtendedRecord} are converted, a table record goes to
+ * the {@link TableTransform#getTag()} output of its table.
+ *
+ * <pre>{@code
+ * Usage example:
+ *
+ * ExtensionTablesTransform.builder()
+ *     .extendedRecordTag(verbatimTransform.getTag())
+ *     .basicRecordTag(basicTransform.getTag())
+ *     .tables(tableTransforms)
+ *     .build()
+ *     .write(tableCollection);
+ * }</pre>
+ */
+public class ExtensionTablesTransform {
+
+  private final TupleTag<Void> mainTag = new TupleTag<Void>() {};
+
+  @NonNull private final TupleTag<ExtendedRecord> extendedRecordTag;
+
+  @NonNull private final TupleTag<BasicRecord> basicRecordTag;
+
+  /** Tables of the interpretation types, other tables are skipped */
+  @NonNull private final List<TableTransform<?>> tables;
+
+  @Builder
+  public ExtensionTablesTransform(
+      TupleTag<ExtendedRecord> extendedRecordTag,
+      TupleTag<BasicRecord> basicRecordTag,
+      List<TableTransform<?>> tables) {
+    this.extendedRecordTag = extendedRecordTag;
+    this.basicRecordTag = basicRecordTag;
+    this.tables = tables.stream().filter(TableTransform::checkType).collect(Collectors.toList());
+  }
+
+  /** Converts records into tables, use {@link TableTransform#getTag()} to get a table output */
+  public PCollectionTuple convert(PCollection<KV<String, CoGbkResult>> pCollection) {
+    TupleTagList tags = TupleTagList.empty();
+    for (TableTransform<?> table : tables) {
+      tags = tags.and(table.getTag());
+    }
+
+    PCollectionTuple result =
+        pCollection.apply(
+            "Convert to tables",
+            ParDo.of(new EmitTablesFn(extendedRecordTag, basicRecordTag, tables))
+                .withOutputTags(mainTag, tags));
+
+    tables.forEach(table -> setCoder(result, table));
+    return result;
+  }
+
+  /** Converts records into tables and writes every table */
+  public void write(PCollection<KV<String, CoGbkResult>> pCollection) {
+    if (!tables.isEmpty()) {
+      PCollectionTuple result = convert(pCollection);
+      tables.forEach(table -> write(result, table));
+    }
+  }
+
+  private static <T extends SpecificRecordBase> void setCoder(
+      PCollectionTuple result, TableTransform<T> table) {
+    result.get(table.getTag()).setCoder(AvroCoder.of(table.getReturnClazz()));
+  }
+
+  private static <T extends SpecificRecordBase> void write(
+      PCollectionTuple result, TableTransform<T> table) {
+    result.get(table.getTag()).apply("Write " + table.getRecordType().name(), table.write());
+  }
+
+  private static class EmitTablesFn extends DoFn<KV<String, CoGbkResult>, Void> {
+
+    private final TupleTag<ExtendedRecord> extendedRecordTag;
+    private final TupleTag<BasicRecord> basicRecordTag;
+    private final List<TableTransform<?>> tables;
+
+    private EmitTablesFn(
+        TupleTag<ExtendedRecord> extendedRecordTag,
+        TupleTag<BasicRecord> basicRecordTag,
+        List<TableTransform<?>> tables) {
+      this.extendedRecordTag = extendedRecordTag;
+      this.basicRecordTag = basicRecordTag;
+      this.tables = tables;
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext c) {
+      CoGbkResult v = c.element().getValue();
+      String k = c.element().getKey();
+
+      ExtendedRecord er = v.getOnly(extendedRecordTag, null);
+      if (er == null || er.getExtensions() == null || er.getExtensions().isEmpty()) {
+        return;
+      }
+
+      BasicRecord br = null;
+      for (TableTransform<?> table : tables) {
+        List<Map<String, String>> rows =
+            er.getExtensions().get(table.getExtension().getRowType());
+        if (rows != null && !rows.isEmpty()) {
+          // Default basic record keeps the output of a single TableTransform
+          if (br == null) {
+            br = v.getOnly(basicRecordTag, BasicRecord.newBuilder().setId(k).build());
+          }
+          output(c, table, br, er);
+        }
+      }
+    }
+
+    private static <T extends SpecificRecordBase> void output(
+        ProcessContext c, TableTransform<T> table, BasicRecord br, ExtendedRecord er) {
+      table.convert(br, er).ifPresent(record -> c.output(table.getTag(), record));
+    }
+  }
+}
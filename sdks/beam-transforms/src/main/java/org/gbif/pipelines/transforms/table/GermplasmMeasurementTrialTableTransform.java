@@ -6,6 +6,7 @@ import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretati
 import java.util.Set;
 import lombok.Builder;
 import org.apache.beam.sdk.values.TupleTag;
+import org.gbif.api.vocabulary.Extension;
 import org.gbif.pipelines.core.converters.GermplasmMeasurementTrialTableConverter;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
@@ -24,6 +25,7 @@ public class GermplasmMeasurementTrialTableTransform
     super(
         GermplasmMeasurementTrialTable.class,
         GERMPLASM_MEASUREMENT_TRIAL_TABLE,
+        Extension.GERMPLASM_MEASUREMENT_TRIAL,
         GermplasmMeasurementTrialTableTransform.class.getName(),
         MEASUREMENT_TRIAL_TABLE_RECORDS_COUNT,
         GermplasmMeasurementTrialTableConverter::convert);
@@ -6,6 +6,7 @@ import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretati
 import java.util.Set;
 import lombok.Builder;
 import org.apache.beam.sdk.values.TupleTag;
+import org.gbif.api.vocabulary.Extension;
 import org.gbif.pipelines.core.converters.MeasurementOrFactTableConverter;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
@@ -23,6 +24,7 @@ public class MeasurementOrFactTableTransform extends TableTransform<MeasurementO
     super(
         MeasurementOrFactTable.class,
         MEASUREMENT_OR_FACT_TABLE,
+        Extension.MEASUREMENT_OR_FACT,
         MeasurementOrFactTableTransform.class.getName(),
         MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT,
         MeasurementOrFactTableConverter::convert);
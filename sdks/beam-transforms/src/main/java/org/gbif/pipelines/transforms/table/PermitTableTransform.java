@@ -6,6 +6,7 @@ import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretati
 import java.util.Set;
 import lombok.Builder;
 import org.apache.beam.sdk.values.TupleTag;
+import org.gbif.api.vocabulary.Extension;
 import org.gbif.pipelines.core.converters.PermitTableConverter;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
@@ -23,6 +24,7 @@ public class PermitTableTransform extends TableTransform<PermitTable> {
     super(
         PermitTable.class,
         PERMIT_TABLE,
+        Extension.PERMIT,
         PermitTableTransform.class.getName(),
         PERMIT_TABLE_RECORDS_COUNT,
         PermitTableConverter::convert);
@@ -6,6 +6,7 @@ import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretati
 import java.util.Set;
 import lombok.Builder;
 import org.apache.beam.sdk.values.TupleTag;
+import org.gbif.api.vocabulary.Extension;
 import org.gbif.pipelines.core.converters.PreservationTableConverter;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
@@ -23,6 +24,7 @@ public class PreservationTableTransform extends TableTransform<PreservationTable
     super(
         PreservationTable.class,
         PRESERVATION_TABLE,
+        Extension.PRESERVATION,
         PreservationTableTransform.class.getName(),
         PRESERVATION_TABLE_RECORDS_COUNT,
         PreservationTableConverter::convert);
@@ -1,5 +1,6 @@
 package org.gbif.pipelines.transforms.table;
 
+import static org.apache.beam.sdk.io.FileIO.Write.defaultNaming;
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
 
 import java.util.Optional;
@@ -8,16 +9,26 @@ import lombok.NonNull;
 import org.apache.avro.file.CodecFactory;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.beam.sdk.io.AvroIO;
+import org.apache.beam.sdk.io.FileIO;
+import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.fs.ResourceId;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.Count;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.transforms.ParDo.SingleOutput;
 import org.apache.beam.sdk.transforms.SerializableBiFunction;
+import org.apache.beam.sdk.transforms.View;
 import org.apache.beam.sdk.transforms.join.CoGbkResult;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TupleTag;
+import org.apache.beam.sdk.values.TypeDescriptors;
+import org.gbif.api.vocabulary.Extension;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.InterpretationType;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
@@ -29,8 +40,15 @@ public abstract class TableTransform<T extends SpecificRecordBase>
 
   private static final CodecFactory BASE_CODEC = CodecFactory.snappyCodec();
 
+  // Hive reads small files slowly, a shard is sized from the number of table records
+  private static final long RECORDS_PER_SHARD = 500_000L;
+
+  private final TupleTag<T> tag = new TupleTag<T>() {};
+
   @NonNull private final InterpretationType recordType;
 
+  @NonNull private final Extension extension;
+
   @NonNull private final Class<T> clazz;
 
   @NonNull private final SerializableBiFunction<BasicRecord, ExtendedRecord, Optional<T>> convertFn;
@@ -50,11 +68,13 @@ public abstract class TableTransform<T extends SpecificRecordBase>
   public TableTransform(
       Class<T> clazz,
       InterpretationType recordType,
+      Extension extension,
       String counterNamespace,
       String counterName,
       SerializableBiFunction<BasicRecord, ExtendedRecord, Optional<T>> convertFn) {
     this.clazz = clazz;
     this.recordType = recordType;
+    this.extension = extension;
     this.counter = Metrics.counter(counterNamespace, counterName);
     this.convertFn = convertFn;
   }
@@ -86,35 +106,49 @@ public abstract class TableTransform<T extends SpecificRecordBase>
 
   public Optional<PCollection<KV<String, CoGbkResult>>> check(
       PCollection<KV<String, CoGbkResult>> pCollection) {
-    return CheckTransforms.checkRecordType(types, recordType)
-        ? Optional.of(pCollection)
-        : Optional.empty();
+    return checkType() ? Optional.of(pCollection) : Optional.empty();
+  }
+
+  /** Checks if the table is in the list of interpretation types */
+  public boolean checkType() {
+    return CheckTransforms.checkRecordType(types, recordType);
   }
 
   public void write(PCollection<KV<String, CoGbkResult>> pCollection) {
-    if (CheckTransforms.checkRecordType(types, recordType)) {
+    if (checkType()) {
       pCollection
           .apply("Convert to " + recordType.name(), this.convert())
           .apply("Write " + recordType.name(), this.write());
     }
   }
 
-  public AvroIO.Write<T> write() {
-    AvroIO.Write<T> write =
-        AvroIO.write(clazz).to(path).withSuffix(AVRO_EXTENSION).withCodec(BASE_CODEC);
-
-    if (numShards == null || numShards <= 0) {
-      return write;
-    } else {
-      int shards = -Math.floorDiv(-numShards, 2);
-      return write.withNumShards(shards);
-    }
+  /**
+   * Writes table avro files, the number of shards is computed from the number of records, half of
+   * numShards is the upper limit if it is set
+   */
+  public FileIO.Write<Void, T> write() {
+    int maxShards =
+        numShards == null || numShards <= 0 ? Integer.MAX_VALUE : -Math.floorDiv(-numShards, 2);
+
+    ResourceId resourceId = FileSystems.matchNewResource(path, false);
+    return FileIO.<T>write()
+        .via(AvroIO.sink(clazz).withCodec(BASE_CODEC))
+        .to(resourceId.getCurrentDirectory().toString())
+        .withNaming(defaultNaming(resourceId.getFilename(), AVRO_EXTENSION))
+        .withSharding(new RecordCountSharding<>(maxShards));
   }
 
   public SingleOutput<KV<String, CoGbkResult>, T> convert() {
     return ParDo.of(this);
   }
 
+  /** Converts records into the table record and counts it */
+  public Optional<T> convert(BasicRecord br, ExtendedRecord er) {
+    Optional<T> table = convertFn.apply(br, er);
+    table.ifPresent(x -> counter.inc());
+    return table;
+  }
+
   @ProcessElement
   public void processElement(ProcessContext c) {
     CoGbkResult v = c.element().getValue();
@@ -124,12 +158,50 @@ public abstract class TableTransform<T extends SpecificRecordBase>
 
     BasicRecord br = v.getOnly(basicRecordTag, BasicRecord.newBuilder().setId(k).build());
 
-    convertFn
-        .apply(br, er)
-        .ifPresent(
-            record -> {
-              c.output(record);
-              counter.inc();
-            });
+    convert(br, er).ifPresent(c::output);
+  }
+
+  /** @return TupleTag of the table output of {@link ExtensionTablesTransform} */
+  public TupleTag<T> getTag() {
+    return tag;
+  }
+
+  public Class<T> getReturnClazz() {
+    return clazz;
+  }
+
+  public InterpretationType getRecordType() {
+    return recordType;
+  }
+
+  public Extension getExtension() {
+    return extension;
+  }
+
+  /** Number of shards of a table is the number of records divided by {@link #RECORDS_PER_SHARD} */
+  private static class RecordCountSharding<T>
+      extends PTransform<PCollection<T>, PCollectionView<Integer>> {
+
+    private final int maxShards;
+
+    private RecordCountSharding(int maxShards) {
+      this.maxShards = maxShards;
+    }
+
+    @Override
+    public PCollectionView<Integer> expand(PCollection<T> input) {
+      int max = maxShards;
+      return input
+          .apply("Count records", Count.globally())
+          .apply(
+              "Compute shards",
+              MapElements.into(TypeDescriptors.integers()).via(count -> shards(count, max)))
+          .apply("Shards as view", View.asSingleton());
+    }
+
+    private static int shards(long count, int maxShards) {
+      long shards = Math.max(1L, -Math.floorDiv(-count, RECORDS_PER_SHARD));
+      return (int) Math.min(maxShards, shards);
+    }
   }
 }
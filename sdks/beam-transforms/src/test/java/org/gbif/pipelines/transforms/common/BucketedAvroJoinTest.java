@@ -0,0 +1,150 @@
+package org.gbif.pipelines.transforms.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import org.apache.beam.sdk.Pipeline.PipelineExecutionException;
+import org.apache.beam.sdk.testing.NeedsRunner;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.beam.sdk.values.TypeDescriptors;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.gbif.pipelines.io.avro.TemporalRecord;
+import org.gbif.pipelines.transforms.core.BasicTransform;
+import org.gbif.pipelines.transforms.core.TemporalTransform;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+@Category(NeedsRunner.class)
+public class BucketedAvroJoinTest {
+
+  private static final int BUCKETS = 3;
+
+  @Rule public final transient TestPipeline writePipeline = TestPipeline.create();
+  @Rule public final transient TestPipeline joinPipeline = TestPipeline.create();
+
+  @Test
+  public void joinTest() {
+
+    // State
+    String path = getClass().getResource("/").getFile() + "bucketed/";
+    UnaryOperator<String> pathFn = t -> path + t + "/interpret-1";
+
+    BasicTransform basicTransform = BasicTransform.builder().create();
+    TemporalTransform temporalTransform = TemporalTransform.builder().create();
+
+    List<BasicRecord> basicRecords = new ArrayList<>();
+    for (int i = 9; i >= 0; i--) {
+      basicRecords.add(BasicRecord.newBuilder().setId("id" + i).setGbifId((long) i).build());
+    }
+    // Every second record and one record without a basic record
+    List<TemporalRecord> temporalRecords = new ArrayList<>();
+    for (String id : new String[] {"id8", "id0", "id6", "idX", "id2", "id4"}) {
+      temporalRecords.add(TemporalRecord.newBuilder().setId(id).setYear(2000).build());
+    }
+
+    writePipeline
+        .apply("Create basic", Create.of(basicRecords))
+        .apply("Write basic", basicTransform.write(pathFn, BUCKETS));
+    writePipeline
+        .apply("Create temporal", Create.of(temporalRecords))
+        .apply("Write temporal", temporalTransform.write(pathFn, BUCKETS));
+    writePipeline.run().waitUntilFinish();
+
+    // When
+    UnaryOperator<String> joinPathFn = t -> path + t + "/interpret-*";
+    TupleTag<BasicRecord> basicTag = basicTransform.getTag();
+    TupleTag<TemporalRecord> temporalTag = temporalTransform.getTag();
+
+    PCollection<String> result =
+        joinPipeline
+            .apply(
+                BucketedAvroJoin.create(BUCKETS)
+                    .and(basicTransform, joinPathFn)
+                    .and(temporalTransform, joinPathFn))
+            .apply(
+                MapElements.into(TypeDescriptors.strings())
+                    .via(
+                        kv -> {
+                          BasicRecord br = kv.getValue().getOnly(basicTag, null);
+                          TemporalRecord tr = kv.getValue().getOnly(temporalTag, null);
+                          return kv.getKey() + ":" + (br != null) + ":" + (tr != null);
+                        }));
+
+    // Should
+    PAssert.that(result)
+        .containsInAnyOrder(
+            Arrays.asList(
+                "id0:true:true",
+                "id1:true:false",
+                "id2:true:true",
+                "id3:true:false",
+                "id4:true:true",
+                "id5:true:false",
+                "id6:true:true",
+                "id7:true:false",
+                "id8:true:true",
+                "id9:true:false",
+                "idX:false:true"));
+    joinPipeline.run();
+  }
+
+  @Test
+  public void otherNumberOfBucketsTest() {
+
+    // State
+    String path = getClass().getResource("/").getFile() + "bucketed-other/";
+    UnaryOperator<String> pathFn = t -> path + t + "/interpret-1";
+
+    BasicTransform basicTransform = BasicTransform.builder().create();
+    TemporalTransform temporalTransform = TemporalTransform.builder().create();
+
+    BasicRecord br = BasicRecord.newBuilder().setId("id1").setGbifId(1L).build();
+    TemporalRecord tr = TemporalRecord.newBuilder().setId("id1").setYear(2000).build();
+
+    writePipeline
+        .apply("Create basic", Create.of(br))
+        .apply("Write basic", basicTransform.write(pathFn, BUCKETS));
+    writePipeline
+        .apply("Create temporal", Create.of(tr))
+        .apply("Write temporal", temporalTransform.write(pathFn, BUCKETS + 1));
+    writePipeline.run().waitUntilFinish();
+
+    // When
+    UnaryOperator<String> joinPathFn = t -> path + t + "/interpret-*";
+    joinPipeline.apply(
+        BucketedAvroJoin.create(BUCKETS)
+            .and(basicTransform, joinPathFn)
+            .and(temporalTransform, joinPathFn));
+
+    // Should
+    try {
+      joinPipeline.run();
+      Assert.fail("Temporal files have another number of buckets");
+    } catch (PipelineExecutionException ex) {
+      Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void bucketOfTest() {
+
+    // When
+    int bucket = BucketedAvroWrite.bucketOf("id1", 64);
+
+    // Should
+    Assert.assertEquals(bucket, BucketedAvroWrite.bucketOf("id1", 64));
+    Assert.assertTrue(bucket >= 0 && bucket < 64);
+    Assert.assertEquals("-bucket-00007-of-00064.avro", BucketedAvroWrite.bucketSuffix(7, 64));
+  }
+}
@@ -0,0 +1,61 @@
+package org.gbif.pipelines.transforms.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.pipelines.core.kvs.AsyncKeyValueStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LookupBufferTest {
+
+  @Test
+  public void flushTest() throws IOException {
+
+    // State
+    AtomicInteger calls = new AtomicInteger();
+    KeyValueStore<String, String> kvStore =
+        new KeyValueStore<String, String>() {
+          @Override
+          public String get(String key) {
+            calls.incrementAndGet();
+            return key.toUpperCase();
+          }
+
+          @Override
+          public void close() {
+            // NOP
+          }
+        };
+
+    List<String> result = new ArrayList<>();
+    List<Boolean> full = new ArrayList<>();
+
+    try (AsyncKeyValueStore<String, String> store =
+        AsyncKeyValueStore.<String, String>builder().kvStore(kvStore).create()) {
+      LookupBuffer<Integer, String, String> buffer = new LookupBuffer<>(store, 3);
+
+      // When
+      full.add(buffer.add(1, "a"));
+      full.add(buffer.add(2, "b"));
+      full.add(buffer.add(3, "a"));
+      buffer.flush((e, s) -> result.add(e + s.get(e % 2 == 0 ? "b" : "a")));
+      int callsOfFullBuffer = calls.get();
+
+      // The rest of a bundle
+      full.add(buffer.add(4, "c"));
+      Assert.assertFalse(buffer.isEmpty());
+      buffer.flush((e, s) -> result.add(e + s.get("c")));
+
+      // Should
+      Assert.assertEquals(Arrays.asList(false, false, true, false), full);
+      Assert.assertEquals(Arrays.asList("1A", "2B", "3A", "4C"), result);
+      Assert.assertEquals(2, callsOfFullBuffer);
+      Assert.assertEquals(3, calls.get());
+      Assert.assertTrue(buffer.isEmpty());
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package org.gbif.pipelines.transforms.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.beam.sdk.testing.NeedsRunner;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.TypeDescriptors;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.kvs.species.SpeciesMatchRequest;
+import org.gbif.pipelines.common.PipelinesVariables.Metrics;
+import org.gbif.pipelines.core.functions.SerializableSupplier;
+import org.gbif.pipelines.core.kvs.AsyncKeyValueStore;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.gbif.pipelines.io.avro.TaxonRecord;
+import org.gbif.pipelines.transforms.java.BatchExecutor;
+import org.gbif.rest.client.species.NameUsageMatch;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+public class TaxonomyTransformTest {
+
+  @Rule public final transient TestPipeline p = TestPipeline.create();
+
+  @Test
+  public void prefetchTest() {
+
+    // State
+    AtomicInteger calls = new AtomicInteger();
+    KeyValueStore<SpeciesMatchRequest, NameUsageMatch> kvStore =
+        new KeyValueTestStoreStub<SpeciesMatchRequest, NameUsageMatch>() {
+          @Override
+          public NameUsageMatch get(SpeciesMatchRequest key) {
+            calls.incrementAndGet();
+            return null;
+          }
+        };
+
+    Map<String, AtomicLong> metrics = new ConcurrentHashMap<>();
+    TaxonomyTransform transform =
+        TaxonomyTransform.builder()
+            .kvStoreSupplier(() -> kvStore)
+            .create()
+            .counterFn(n -> metrics.computeIfAbsent(n, k -> new AtomicLong()).incrementAndGet())
+            .init();
+
+    List<ExtendedRecord> records =
+        Arrays.asList(
+            create("1", "Puma concolor"), create("2", "Puma concolor"), create("3", "Abies"));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    // When
+    TaxonRecord expected = transform.processElement(records.get(1)).get();
+    calls.set(0);
+
+    transform.prefetch(
+        records, BatchExecutor.builder().executor(executor).batchSize(1).parallelism(2).create());
+    List<TaxonRecord> result =
+        Arrays.asList(
+            transform.processElement(records.get(0)).get(),
+            transform.processElement(records.get(1)).get(),
+            transform.processElement(records.get(2)).get());
+    executor.shutdown();
+
+    // Should
+    assertEquals(2, calls.get());
+    assertEquals(2L, metrics.get(Metrics.TAXON_DISTINCT_MATCH_REQUESTS_COUNT).get());
+    assertEquals("1", result.get(0).getId());
+    assertEquals("3", result.get(2).getId());
+
+    expected.setCreated(0L);
+    TaxonRecord actual = result.get(1);
+    actual.setCreated(0L);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void prefetchFailureTest() {
+
+    // State
+    Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    KeyValueStore<SpeciesMatchRequest, NameUsageMatch> kvStore =
+        new KeyValueTestStoreStub<SpeciesMatchRequest, NameUsageMatch>() {
+          @Override
+          public NameUsageMatch get(SpeciesMatchRequest key) {
+            String name = key.getScientificName();
+            calls.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+            if ("Abies".equals(name)) {
+              throw new IllegalStateException("Species match failed");
+            }
+            return null;
+          }
+        };
+
+    TaxonomyTransform transform =
+        TaxonomyTransform.builder().kvStoreSupplier(() -> kvStore).create().init();
+
+    List<ExtendedRecord> records =
+        Arrays.asList(
+            create("1", "Puma concolor"),
+            create("2", "Puma concolor"),
+            create("3", "Abies"),
+            create("4", "Abies"));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    // When
+    transform.prefetch(
+        records, BatchExecutor.builder().executor(executor).batchSize(1).parallelism(2).create());
+    executor.shutdown();
+
+    // Should
+    assertEquals(1, calls.get("Puma concolor").get());
+    assertEquals(1, calls.get("Abies").get());
+
+    // When
+    records.forEach(transform::processElement);
+
+    // Should, records of the failed name are looked up one by one
+    assertEquals(1, calls.get("Puma concolor").get());
+    assertEquals(3, calls.get("Abies").get());
+  }
+
+  @Test
+  @Category(NeedsRunner.class)
+  public void lookupBufferTest() {
+
+    // State
+    SerializableSupplier<KeyValueStore<SpeciesMatchRequest, NameUsageMatch>> supplier =
+        KeyValueTestStoreStub::new;
+    TaxonomyTransform transform =
+        TaxonomyTransform.builder()
+            .kvStoreSupplier(AsyncKeyValueStore.wrap(supplier, 2))
+            .lookupBatchSize(2)
+            .create();
+
+    List<ExtendedRecord> records =
+        Arrays.asList(
+            create("1", "Puma concolor"),
+            create("2", "Puma concolor"),
+            create("3", "Abies"),
+            create("4", "Abies"),
+            create("5", "Quercus"));
+
+    // When
+    PCollection<String> result =
+        p.apply(Create.of(records))
+            .apply(transform.interpret())
+            .apply(MapElements.into(TypeDescriptors.strings()).via(TaxonRecord::getId));
+
+    // Should, the last record of every bundle is flushed in FinishBundle
+    PAssert.that(result).containsInAnyOrder("1", "2", "3", "4", "5");
+    p.run();
+  }
+
+  private static ExtendedRecord create(String id, String scientificName) {
+    return ExtendedRecord.newBuilder()
+        .setId(id)
+        .setCoreTerms(
+            Collections.singletonMap(DwcTerm.scientificName.qualifiedName(), scientificName))
+        .build();
+  }
+}
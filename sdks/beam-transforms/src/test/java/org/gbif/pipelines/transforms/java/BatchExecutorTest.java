@@ -0,0 +1,80 @@
+package org.gbif.pipelines.transforms.java;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.BATCHES_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.BATCH_RECORDS_COUNT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchExecutorTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @Test
+  public void mapKeepsOrderTest() {
+    // State
+    List<Integer> input = IntStream.range(0, 1_000).boxed().collect(Collectors.toList());
+    List<Integer> result = new ArrayList<>();
+
+    // When
+    BatchExecutor.builder()
+        .executor(executor)
+        .batchSize(7)
+        .parallelism(3)
+        .create()
+        .map(input.iterator(), i -> i * 2, result::add);
+
+    // Should
+    Assert.assertEquals(input.stream().map(i -> i * 2).collect(Collectors.toList()), result);
+  }
+
+  @Test
+  public void forEachTest() {
+    // State
+    List<Integer> input = IntStream.range(0, 1_000).boxed().collect(Collectors.toList());
+    AtomicLong sum = new AtomicLong();
+    Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    // When
+    BatchExecutor.builder()
+        .executor(executor)
+        .batchSize(10)
+        .parallelism(2)
+        .counterFn(n -> counters.computeIfAbsent(n, x -> new AtomicLong()).incrementAndGet())
+        .create()
+        .forEach(input.iterator(), sum::addAndGet);
+
+    // Should
+    Assert.assertEquals(499_500L, sum.get());
+    Assert.assertEquals(1_000L, counters.get(BATCH_RECORDS_COUNT).get());
+    Assert.assertEquals(100L, counters.get(BATCHES_COUNT).get());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void forEachErrorTest() {
+    // State
+    List<Integer> input = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+    // When
+    BatchExecutor.builder()
+        .executor(executor)
+        .batchSize(10)
+        .create()
+        .forEach(
+            input.iterator(),
+            i -> {
+              if (i == 42) {
+                throw new IllegalStateException("Expected");
+              }
+            });
+  }
+}
@@ -0,0 +1,75 @@
+package org.gbif.pipelines.transforms.java;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StreamingUniqueGbifIdTransformTest {
+
+  @Test
+  public void skipFunctionTest() {
+    // State
+    List<BasicRecord> input = createBrList("1_1", "2_1", "3");
+
+    // When
+    StreamingUniqueGbifIdTransform transform =
+        StreamingUniqueGbifIdTransform.builder().skipTransform(true).create();
+    input.forEach(transform::filter);
+
+    // Should
+    input.forEach(br -> Assert.assertTrue(transform.isValid(br)));
+  }
+
+  @Test
+  public void allDuplicatesTest() {
+    // State
+    List<BasicRecord> input = createBrList("1_1", "2_1", "3_1", "4_1", "5_1", "6_1");
+
+    // When
+    StreamingUniqueGbifIdTransform transform = StreamingUniqueGbifIdTransform.builder().create();
+    input.forEach(transform::filter);
+
+    // Should
+    List<String> valid =
+        input.stream()
+            .filter(transform::isValid)
+            .map(BasicRecord::getId)
+            .collect(Collectors.toList());
+    Assert.assertEquals(1, valid.size());
+    Assert.assertEquals("4", valid.get(0));
+  }
+
+  @Test
+  public void mixedValuesTest() {
+    // State
+    List<BasicRecord> input = createBrList("1", "2_2", "3_3", "4_1", "5", "6_6");
+
+    // When
+    StreamingUniqueGbifIdTransform transform = StreamingUniqueGbifIdTransform.builder().create();
+    input.forEach(transform::filter);
+
+    // Should
+    List<String> valid =
+        input.stream()
+            .filter(transform::isValid)
+            .map(BasicRecord::getId)
+            .collect(Collectors.toList());
+    Assert.assertEquals(Arrays.asList("2", "3", "4", "6"), valid);
+  }
+
+  private List<BasicRecord> createBrList(String... idName) {
+    return Arrays.stream(idName)
+        .map(
+            x -> {
+              String[] array = x.split("_");
+              return BasicRecord.newBuilder()
+                  .setId(array[0])
+                  .setGbifId(array.length > 1 ? Long.valueOf(array[1]) : null)
+                  .build();
+            })
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,83 @@
+package org.gbif.pipelines.transforms.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StreamingUniqueRecordsTransformTest {
+
+  @Test
+  public void duplicatesTest() {
+    // State
+    List<ExtendedRecord> input =
+        Arrays.asList(
+            createEr("1", "a"),
+            createEr("2", "b"),
+            createEr("2", "b"),
+            createEr("3", "c"),
+            createEr("3", "d"),
+            createEr("4", "e"));
+
+    // When
+    List<ExtendedRecord> result = new ArrayList<>();
+    try (StreamingUniqueRecordsTransform transform =
+            StreamingUniqueRecordsTransform.builder().sourceSupplier(input::iterator).create();
+        StreamingUniqueRecordsTransform.UniqueRecordIterator iterator =
+            transform.index().iterator()) {
+      iterator.forEachRemaining(result::add);
+      Assert.assertEquals(3, transform.size());
+    }
+
+    // Should
+    Assert.assertEquals(Arrays.asList(input.get(0), input.get(1), input.get(5)), result);
+  }
+
+  @Test
+  public void occurrenceExtensionTest() {
+    // State
+    List<Map<String, String>> ext = new ArrayList<>();
+    ext.add(Collections.singletonMap(DwcTerm.occurrenceID.qualifiedName(), "value1"));
+    ext.add(Collections.singletonMap(DwcTerm.occurrenceID.qualifiedName(), "value2"));
+    ext.add(Collections.singletonMap(DwcTerm.occurrenceID.qualifiedName(), ""));
+    ExtendedRecord record =
+        ExtendedRecord.newBuilder()
+            .setId("777")
+            .setCoreRowType(DwcTerm.Event.qualifiedName())
+            .setCoreTerms(Collections.singletonMap("key1", "value1"))
+            .setExtensions(Collections.singletonMap(DwcTerm.Occurrence.qualifiedName(), ext))
+            .build();
+    List<ExtendedRecord> input = Arrays.asList(record, createEr("value1", "a"));
+
+    AtomicInteger counter = new AtomicInteger(0);
+
+    // When
+    List<String> result = new ArrayList<>();
+    try (StreamingUniqueRecordsTransform transform =
+            StreamingUniqueRecordsTransform.builder()
+                .sourceSupplier(input::iterator)
+                .counterFn(s -> counter.incrementAndGet())
+                .create();
+        StreamingUniqueRecordsTransform.UniqueRecordIterator iterator =
+            transform.index().iterator()) {
+      iterator.forEachRemaining(er -> result.add(er.getId()));
+    }
+
+    // Should
+    Assert.assertEquals(2, counter.get());
+    Assert.assertEquals(Arrays.asList("value2", "value1"), result);
+  }
+
+  private ExtendedRecord createEr(String id, String value) {
+    return ExtendedRecord.newBuilder()
+        .setId(id)
+        .setCoreTerms(Collections.singletonMap("KEY", value))
+        .build();
+  }
+}
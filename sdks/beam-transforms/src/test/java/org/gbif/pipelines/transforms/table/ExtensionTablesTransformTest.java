@@ -0,0 +1,126 @@
+package org.gbif.pipelines.transforms.table;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.beam.sdk.testing.NeedsRunner;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Count;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.join.CoGroupByKey;
+import org.apache.beam.sdk.transforms.join.KeyedPCollectionTuple;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionTuple;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.gbif.pipelines.io.avro.extension.dwc.MeasurementOrFactTable;
+import org.gbif.pipelines.transforms.core.BasicTransform;
+import org.gbif.pipelines.transforms.core.VerbatimTransform;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+@Category(NeedsRunner.class)
+public class ExtensionTablesTransformTest {
+
+  @Rule public final transient TestPipeline p = TestPipeline.create();
+
+  @Test
+  public void onePassTest() {
+
+    // State
+    Map<String, String> ext1 = new HashMap<>();
+    ext1.put(DwcTerm.measurementID.qualifiedName(), "Id1");
+    ext1.put(DwcTerm.measurementType.qualifiedName(), "Type1");
+
+    Map<String, String> ext2 = new HashMap<>();
+    ext2.put(DwcTerm.identificationID.qualifiedName(), "Id2");
+
+    ExtendedRecord er1 =
+        ExtendedRecord.newBuilder()
+            .setId("777")
+            .setExtensions(
+                Collections.singletonMap(
+                    Extension.MEASUREMENT_OR_FACT.getRowType(), Collections.singletonList(ext1)))
+            .build();
+    ExtendedRecord er2 =
+        ExtendedRecord.newBuilder()
+            .setId("888")
+            .setExtensions(
+                Collections.singletonMap(
+                    Extension.IDENTIFICATION.getRowType(), Collections.singletonList(ext2)))
+            .build();
+    ExtendedRecord er3 = ExtendedRecord.newBuilder().setId("999").build();
+
+    BasicRecord br1 = BasicRecord.newBuilder().setId("777").setGbifId(777L).build();
+    BasicRecord br2 = BasicRecord.newBuilder().setId("888").setGbifId(888L).build();
+    BasicRecord br3 = BasicRecord.newBuilder().setId("999").setGbifId(999L).build();
+
+    VerbatimTransform verbatimTransform = VerbatimTransform.create();
+    BasicTransform basicTransform = BasicTransform.builder().create();
+
+    MeasurementOrFactTableTransform mofTransform =
+        MeasurementOrFactTableTransform.builder()
+            .types(Collections.singleton("ALL"))
+            .path("target/tables/mof")
+            .build();
+    IdentificationTableTransform identificationTransform =
+        IdentificationTableTransform.builder()
+            .types(Collections.singleton("ALL"))
+            .path("target/tables/identification")
+            .build();
+    LoanTableTransform loanTransform =
+        LoanTableTransform.builder()
+            .types(Collections.singleton("ALL"))
+            .path("target/tables/loan")
+            .build();
+
+    ExtensionTablesTransform transform =
+        ExtensionTablesTransform.builder()
+            .extendedRecordTag(verbatimTransform.getTag())
+            .basicRecordTag(basicTransform.getTag())
+            .tables(Arrays.asList(mofTransform, identificationTransform, loanTransform))
+            .build();
+
+    // When
+    PCollection<KV<String, ExtendedRecord>> verbatimCollection =
+        p.apply("Create er", Create.of(er1, er2, er3)).apply("KV er", verbatimTransform.toKv());
+
+    PCollection<KV<String, BasicRecord>> basicCollection =
+        p.apply("Create br", Create.of(br1, br2, br3)).apply("KV br", basicTransform.toKv());
+
+    PCollectionTuple result =
+        transform.convert(
+            KeyedPCollectionTuple
+                // Core
+                .of(basicTransform.getTag(), basicCollection)
+                .and(verbatimTransform.getTag(), verbatimCollection)
+                // Apply
+                .apply("Grouping objects", CoGroupByKey.create()));
+
+    // Should
+    MeasurementOrFactTable expected =
+        MeasurementOrFactTable.newBuilder()
+            .setGbifid(777L)
+            .setVMeasurementid("Id1")
+            .setVMeasurementtype("Type1")
+            .setMeasurementid("Id1")
+            .setMeasurementtype("Type1")
+            .build();
+
+    PAssert.that(result.get(mofTransform.getTag())).containsInAnyOrder(expected);
+    PAssert.thatSingleton(
+            result.get(identificationTransform.getTag()).apply("Count", Count.globally()))
+        .isEqualTo(1L);
+    PAssert.that(result.get(loanTransform.getTag())).empty();
+    p.run();
+  }
+}
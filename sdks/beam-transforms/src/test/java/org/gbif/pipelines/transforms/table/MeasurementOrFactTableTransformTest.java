@@ -1,9 +1,14 @@
 package org.gbif.pipelines.transforms.table;
 
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.apache.beam.sdk.coders.AvroCoder;
 import org.apache.beam.sdk.testing.NeedsRunner;
 import org.apache.beam.sdk.testing.PAssert;
 import org.apache.beam.sdk.testing.TestPipeline;
@@ -139,4 +144,49 @@ public class MeasurementOrFactTableTransformTest {
     PAssert.that(result).containsInAnyOrder(expected);
     p.run();
   }
+
+  @Test
+  public void smallTableShardsTest() {
+
+    // State
+    String path = getClass().getResource("/").getFile() + "table-small/mof";
+    List<MeasurementOrFactTable> records = new ArrayList<>();
+    for (long i = 0; i < 10; i++) {
+      records.add(MeasurementOrFactTable.newBuilder().setGbifid(i).build());
+    }
+    MeasurementOrFactTableTransform transform =
+        MeasurementOrFactTableTransform.builder().path(path).numShards(10).build();
+
+    // When
+    p.apply("Create table", Create.of(records)).apply("Write table", transform.write());
+    p.run().waitUntilFinish();
+
+    // Should
+    assertEquals(1, tableFiles(path).length);
+  }
+
+  @Test
+  public void emptyTableShardsTest() {
+
+    // State
+    String path = getClass().getResource("/").getFile() + "table-empty/mof";
+    MeasurementOrFactTableTransform transform =
+        MeasurementOrFactTableTransform.builder().path(path).numShards(10).build();
+
+    // When
+    p.apply("Create table", Create.empty(AvroCoder.of(MeasurementOrFactTable.class)))
+        .apply("Write table", transform.write());
+    p.run().waitUntilFinish();
+
+    // Should
+    assertEquals(1, tableFiles(path).length);
+  }
+
+  private static File[] tableFiles(String path) {
+    File file = new File(path);
+    File[] files =
+        file.getParentFile()
+            .listFiles((dir, name) -> name.startsWith(file.getName()) && name.endsWith(".avro"));
+    return files == null ? new File[0] : files;
+  }
 }
@@ -14,4 +14,8 @@ public class ClusteringRelationshipConfig implements Serializable {
 
   private int relationshipTableSalt;
   private String relationshipTableName;
+  /** Load the gbifIds of the relationship table into memory instead of a scan per record */
+  private boolean bulkLoad;
+  /** Minutes before a loaded partition is read again, 0 to keep it */
+  private long bulkLoadRefreshMinutes;
 }
@@ -16,4 +16,12 @@ public class KeygenConfig implements Serializable {
   private String counterTable;
   private String lookupTable;
   private String zkConnectionString;
+  /** Records per batch call of the keygen service in beam interpretation, unset or 1 for none */
+  private Integer batchSize;
+  /**
+   * Preload the keys of the dataset with one scan when the keygen service is created, for
+   * re-crawls. The dataset is scanned once per JVM, all keygen services of the JVM share the
+   * cache, off-heap for large datasets, 32 to 64 bytes per lookup key.
+   */
+  private boolean preloadLookupKeys;
 }
@@ -28,4 +28,19 @@ public class KvConfig implements Serializable {
   private WsConfig api;
 
   private long cacheExpiryTimeInSeconds = 300L;
+
+  /** Local cache by rounded coordinates, used by geocode only */
+  private long localCacheSize = 0L;
+
+  /** Local file of the persistent cache, used by geocode only */
+  private String localCachePath;
+
+  /** Version of the layers, a new version starts a new persistent cache file */
+  private String localCacheVersion;
+
+  /** Time after which responses of the persistent cache are looked up again, 0 to never expire */
+  private long localCacheExpiryTimeInSeconds = 2_592_000L;
+
+  /** Number of decimal places to round coordinates for the local cache keys */
+  private int localCachePrecision = 5;
 }
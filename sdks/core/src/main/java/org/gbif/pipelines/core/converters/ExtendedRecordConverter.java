@@ -1,10 +1,10 @@
 package org.gbif.pipelines.core.converters;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.gbif.dwc.record.Record;
@@ -19,8 +19,8 @@ public class ExtendedRecordConverter {
 
   private static final String RECORD_ID_ERROR = "RECORD_ID_ERROR";
 
-  // Function that removes all the empty elements of a record
-  private static Map<String, String> convertToMap(Record record) {
+  /** Converts the terms of a record to a map of qualified names, skipping null values */
+  public static Map<String, String> convertToMap(Record record) {
     Map<String, String> map = new HashMap<>(record.terms().size() / 2);
     for (Term term : record.terms()) {
       String qn = term.qualifiedName();
@@ -39,15 +39,15 @@ public class ExtendedRecordConverter {
     ExtendedRecord.Builder builder = ExtendedRecord.newBuilder();
     Optional.ofNullable(core.rowType()).ifPresent(x -> builder.setCoreRowType(x.qualifiedName()));
     builder.setCoreTerms(convertToMap(core));
-    builder.setExtensions(
-        extensions.entrySet().stream()
-            .collect(
-                Collectors.toMap(
-                    entry -> entry.getKey().qualifiedName(),
-                    entry ->
-                        entry.getValue().stream()
-                            .map(ExtendedRecordConverter::convertToMap)
-                            .collect(Collectors.toList()))));
+    Map<String, List<Map<String, String>>> extensionsMap = new HashMap<>(extensions.size() * 2);
+    for (Map.Entry<Term, List<Record>> entry : extensions.entrySet()) {
+      List<Map<String, String>> rows = new ArrayList<>(entry.getValue().size());
+      for (Record row : entry.getValue()) {
+        rows.add(convertToMap(row));
+      }
+      extensionsMap.put(entry.getKey().qualifiedName(), rows);
+    }
+    builder.setExtensions(extensionsMap);
     builder.setId(getId(core, builder));
     return builder.build();
   }
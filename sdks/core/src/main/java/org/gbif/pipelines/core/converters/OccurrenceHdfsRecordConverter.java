@@ -1,18 +1,25 @@
 package org.gbif.pipelines.core.converters;
 
 import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.Schema;
 import org.apache.avro.specific.SpecificRecordBase;
-import org.apache.commons.beanutils.PropertyUtils;
 import org.gbif.api.vocabulary.License;
 import org.gbif.dwc.terms.DcTerm;
 import org.gbif.dwc.terms.DwcTerm;
@@ -48,6 +55,10 @@ public class OccurrenceHdfsRecordConverter {
 
   private static final TermFactory TERM_FACTORY = TermFactory.instance();
 
+  // Names of the known terms -> precomputed record fields, avoids term and schema lookups for every
+  // record. Built once, so arbitrary term names in the records can't grow it
+  private static final Map<String, TermMapping> TERM_MAPPINGS = createTermMappings();
+
   private final ExtendedRecord extendedRecord;
   private final BasicRecord basicRecord;
   private final LocationRecord locationRecord;
@@ -473,50 +484,6 @@ public class OccurrenceHdfsRecordConverter {
     }
   }
 
-  /**
-   * From a {@link Schema.Field} copies it value into a the {@link OccurrenceHdfsRecord} field using
-   * the recognized data type.
-   *
-   * @param occurrenceHdfsRecord target record
-   * @param avroField field to be copied
-   * @param fieldName {@link OccurrenceHdfsRecord} field/property name
-   * @param value field data/value
-   */
-  private static void setHdfsRecordField(
-      OccurrenceHdfsRecord occurrenceHdfsRecord,
-      Schema.Field avroField,
-      String fieldName,
-      String value) {
-    try {
-      Schema.Type fieldType = avroField.schema().getType();
-      if (Schema.Type.UNION == avroField.schema().getType()) {
-        fieldType = avroField.schema().getTypes().get(0).getType();
-      }
-      switch (fieldType) {
-        case INT:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Integer.valueOf(value));
-          break;
-        case LONG:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Long.valueOf(value));
-          break;
-        case BOOLEAN:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Boolean.valueOf(value));
-          break;
-        case DOUBLE:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Double.valueOf(value));
-          break;
-        case FLOAT:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Float.valueOf(value));
-          break;
-        default:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, value);
-          break;
-      }
-    } catch (Exception ex) {
-      log.error("Ignoring error setting field {}", avroField, ex);
-    }
-  }
-
   /** Copies the {@link ExtendedRecord} data into the {@link OccurrenceHdfsRecord}. */
   private void mapExtendedRecord(OccurrenceHdfsRecord occurrenceHdfsRecord) {
     if (extendedRecord == null) {
@@ -534,46 +501,33 @@ public class OccurrenceHdfsRecordConverter {
   }
 
   private void mapTerm(String k, String v, OccurrenceHdfsRecord occurrenceHdfsRecord) {
-    Term term = TERM_FACTORY.findTerm(k);
-
-    if (term == null) {
-      return;
+    TermMapping mapping = TERM_MAPPINGS.get(k);
+    if (mapping == null) {
+      // Unknown term names are resolved for every record and not cached
+      mapping = TermMapping.create(k);
     }
+    mapping.apply(occurrenceHdfsRecord, v);
+  }
 
-    if (TermUtils.verbatimTerms().contains(term)) {
-      Optional.ofNullable(verbatimSchemaField(term))
-          .ifPresent(
-              field -> {
-                String verbatimField =
-                    "V" + field.name().substring(2, 3).toUpperCase() + field.name().substring(3);
-                setHdfsRecordField(occurrenceHdfsRecord, field, verbatimField, v);
-              });
-    }
+  /**
+   * Precomputes the mappings of the verbatim and interpreted terms by qualified and simple name,
+   * simple names are resolved by the {@link TermFactory} the same as on the slow path.
+   */
+  private static Map<String, TermMapping> createTermMappings() {
+    Map<String, TermMapping> mappings = new HashMap<>();
+    Consumer<Term> put =
+        t -> {
+          mappings.computeIfAbsent(t.qualifiedName(), n -> TermMapping.create(t));
+          mappings.computeIfAbsent(t.simpleName(), TermMapping::create);
+        };
+    TermUtils.verbatimTerms().forEach(put);
+    TermUtils.interpretedTerms().forEach(put);
+    return Collections.unmodifiableMap(mappings);
+  }
 
-    if (!TermUtils.isInterpretedSourceTerm(term)) {
-      Optional.ofNullable(interpretedSchemaField(term))
-          .ifPresent(
-              field -> {
-                // Fields that were set by other mappers are ignored
-                if (Objects.isNull(occurrenceHdfsRecord.get(field.name()))) {
-                  String interpretedFieldname = field.name();
-                  if (DcTerm.abstract_ == term) {
-                    interpretedFieldname = "abstract$";
-                  } else if (DwcTerm.class_ == term) {
-                    interpretedFieldname = "class$";
-                  } else if (DwcTerm.group == term) {
-                    interpretedFieldname = "group";
-                  } else if (DwcTerm.order == term) {
-                    interpretedFieldname = "order";
-                  } else if (DcTerm.date == term) {
-                    interpretedFieldname = "date";
-                  } else if (DcTerm.format == term) {
-                    interpretedFieldname = "format";
-                  }
-                  setHdfsRecordField(occurrenceHdfsRecord, field, interpretedFieldname, v);
-                }
-              });
-    }
+  @VisibleForTesting
+  static boolean isTermMappingPrecomputed(String name) {
+    return TERM_MAPPINGS.containsKey(name);
   }
 
   /**
@@ -610,4 +564,96 @@ public class OccurrenceHdfsRecordConverter {
   private static Schema.Field interpretedSchemaField(Term term) {
     return OccurrenceHdfsRecord.SCHEMA$.getField(HiveColumns.columnFor(term));
   }
+
+  /**
+   * Verbatim and interpreted {@link OccurrenceHdfsRecord} fields of a core term, resolved once per
+   * known term instead of once per record.
+   */
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  private static class TermMapping {
+
+    private static final TermMapping EMPTY = new TermMapping(null, null);
+
+    private final FieldSetter verbatim;
+    private final FieldSetter interpreted;
+
+    private static TermMapping create(String name) {
+      Term term = TERM_FACTORY.findTerm(name);
+      return term == null ? EMPTY : create(term);
+    }
+
+    private static TermMapping create(Term term) {
+      FieldSetter verbatim = null;
+      if (TermUtils.verbatimTerms().contains(term)) {
+        verbatim = FieldSetter.create(verbatimSchemaField(term));
+      }
+      FieldSetter interpreted = null;
+      if (!TermUtils.isInterpretedSourceTerm(term)) {
+        interpreted = FieldSetter.create(interpretedSchemaField(term));
+      }
+      return new TermMapping(verbatim, interpreted);
+    }
+
+    private void apply(OccurrenceHdfsRecord occurrenceHdfsRecord, String value) {
+      if (verbatim != null) {
+        verbatim.set(occurrenceHdfsRecord, value);
+      }
+      // Fields that were set by other mappers are ignored
+      if (interpreted != null && Objects.isNull(occurrenceHdfsRecord.get(interpreted.pos))) {
+        interpreted.set(occurrenceHdfsRecord, value);
+      }
+    }
+  }
+
+  /**
+   * Copies a value into a {@link OccurrenceHdfsRecord} field by position using the recognized data
+   * type, the same as the generated setter.
+   */
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  private static class FieldSetter {
+
+    private final Schema.Field field;
+    private final int pos;
+    private final Function<String, Object> parser;
+
+    private static FieldSetter create(Schema.Field field) {
+      if (field == null) {
+        return null;
+      }
+      Schema.Type fieldType = field.schema().getType();
+      if (Schema.Type.UNION == fieldType) {
+        fieldType = field.schema().getTypes().get(0).getType();
+      }
+      Function<String, Object> parser;
+      switch (fieldType) {
+        case INT:
+          parser = Integer::valueOf;
+          break;
+        case LONG:
+          parser = Long::valueOf;
+          break;
+        case BOOLEAN:
+          parser = Boolean::valueOf;
+          break;
+        case DOUBLE:
+          parser = Double::valueOf;
+          break;
+        case FLOAT:
+          parser = Float::valueOf;
+          break;
+        default:
+          parser = v -> v;
+          break;
+      }
+      return new FieldSetter(field, field.pos(), parser);
+    }
+
+    private void set(OccurrenceHdfsRecord occurrenceHdfsRecord, String value) {
+      try {
+        occurrenceHdfsRecord.put(pos, parser.apply(value));
+      } catch (Exception ex) {
+        log.error("Ignoring error setting field {}", field, ex);
+      }
+    }
+  }
 }
@@ -14,7 +14,11 @@ import static org.gbif.pipelines.core.utils.ModelUtils.extractValue;
 
 import com.google.common.base.Strings;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -79,23 +83,7 @@ public class BasicInterpreter {
         return;
       }
 
-      Set<String> uniqueStrings = new HashSet<>(2);
-
-      // Adds occurrenceId
-      if (isOccurrenceIdValid) {
-        String occurrenceId = extractValue(er, DwcTerm.occurrenceID);
-        if (!Strings.isNullOrEmpty(occurrenceId)) {
-          uniqueStrings.add(occurrenceId);
-        }
-      }
-
-      // Adds triplet
-      if (isTripletValid) {
-        String ic = extractValue(er, DwcTerm.institutionCode);
-        String cc = extractValue(er, DwcTerm.collectionCode);
-        String cn = extractValue(er, DwcTerm.catalogNumber);
-        OccurrenceKeyBuilder.buildKey(ic, cc, cn).ifPresent(uniqueStrings::add);
-      }
+      Set<String> uniqueStrings = getUniqueStrings(er, isTripletValid, isOccurrenceIdValid);
 
       if (!uniqueStrings.isEmpty()) {
         try {
@@ -114,6 +102,104 @@ public class BasicInterpreter {
     };
   }
 
+  /**
+   * Generates or gets existing GBIF id, records with an id looked up by {@link #lookupGbifIds}
+   * don't call the keygen service
+   */
+  public static BiConsumer<ExtendedRecord, BasicRecord> interpretGbifId(
+      HBaseLockingKeyService keygenService,
+      boolean isTripletValid,
+      boolean isOccurrenceIdValid,
+      Map<String, Long> gbifIds) {
+    BiConsumer<ExtendedRecord, BasicRecord> fn =
+        interpretGbifId(keygenService, isTripletValid, isOccurrenceIdValid);
+    return (er, br) -> {
+      Long gbifId = gbifIds.get(er.getId());
+      if (gbifId != null) {
+        br.setGbifId(gbifId);
+      } else {
+        fn.accept(er, br);
+      }
+    };
+  }
+
+  /**
+   * Finds or generates GBIF ids of many records with one batch call of the keygen service for the
+   * finds and one for the missing ids.
+   *
+   * @return GBIF ids by record id, records without unique strings are absent and the map is empty
+   *     when the batch hits inconsistent keys, the records then get their ids one by one
+   */
+  public static Map<String, Long> lookupGbifIds(
+      HBaseLockingKeyService keygenService,
+      List<ExtendedRecord> records,
+      boolean isTripletValid,
+      boolean isOccurrenceIdValid) {
+    if (keygenService == null) {
+      return Collections.emptyMap();
+    }
+
+    List<String> ids = new ArrayList<>(records.size());
+    List<Set<String>> uniqueStringSets = new ArrayList<>(records.size());
+    for (ExtendedRecord er : records) {
+      Set<String> uniqueStrings = getUniqueStrings(er, isTripletValid, isOccurrenceIdValid);
+      if (!uniqueStrings.isEmpty()) {
+        ids.add(er.getId());
+        uniqueStringSets.add(uniqueStrings);
+      }
+    }
+
+    Map<String, Long> gbifIds = new HashMap<>(ids.size() * 2);
+    try {
+      List<KeyLookupResult> found = keygenService.findKeys(uniqueStringSets);
+
+      List<Integer> missing = new ArrayList<>();
+      for (int i = 0; i < found.size(); i++) {
+        if (found.get(i) == null) {
+          missing.add(i);
+        } else {
+          gbifIds.put(ids.get(i), found.get(i).getKey());
+        }
+      }
+
+      if (!missing.isEmpty()) {
+        List<Set<String>> missingSets = new ArrayList<>(missing.size());
+        missing.forEach(i -> missingSets.add(uniqueStringSets.get(i)));
+        List<KeyLookupResult> generated = keygenService.generateKeys(missingSets);
+        for (int i = 0; i < missing.size(); i++) {
+          gbifIds.put(ids.get(missing.get(i)), generated.get(i).getKey());
+        }
+      }
+    } catch (IllegalStateException ex) {
+      log.warn("Batch GBIF id lookup failed, records will be looked up one by one", ex);
+      return Collections.emptyMap();
+    }
+    return gbifIds;
+  }
+
+  /** Occurrence id and triplet of the record, if they are valid for the dataset */
+  private static Set<String> getUniqueStrings(
+      ExtendedRecord er, boolean isTripletValid, boolean isOccurrenceIdValid) {
+    Set<String> uniqueStrings = new HashSet<>(2);
+
+    // Adds occurrenceId
+    if (isOccurrenceIdValid) {
+      String occurrenceId = extractValue(er, DwcTerm.occurrenceID);
+      if (!Strings.isNullOrEmpty(occurrenceId)) {
+        uniqueStrings.add(occurrenceId);
+      }
+    }
+
+    // Adds triplet
+    if (isTripletValid) {
+      String ic = extractValue(er, DwcTerm.institutionCode);
+      String cc = extractValue(er, DwcTerm.collectionCode);
+      String cn = extractValue(er, DwcTerm.catalogNumber);
+      OccurrenceKeyBuilder.buildKey(ic, cc, cn).ifPresent(uniqueStrings::add);
+    }
+    return uniqueStrings;
+  }
+
   public static Consumer<BasicRecord> interpretIsClustered(ClusteringService clusteringService) {
     return br -> {
       if (clusteringService != null) {
@@ -73,73 +73,95 @@ public class TaxonomyInterpreter {
 
       ModelUtils.checkNullOrEmpty(er);
 
-      SpeciesMatchRequest matchRequest =
-          SpeciesMatchRequest.builder()
-              .withKingdom(extractValue(er, DwcTerm.kingdom))
-              .withPhylum(extractValue(er, DwcTerm.phylum))
-              .withClazz(extractValue(er, DwcTerm.class_))
-              .withOrder(extractValue(er, DwcTerm.order))
-              .withFamily(extractValue(er, DwcTerm.family))
-              .withGenus(extractValue(er, DwcTerm.genus))
-              .withScientificName(extractValue(er, DwcTerm.scientificName))
-              .withRank(extractValue(er, DwcTerm.taxonRank))
-              .withVerbatimRank(extractValue(er, DwcTerm.verbatimTaxonRank))
-              .withSpecificEpithet(extractValue(er, DwcTerm.specificEpithet))
-              .withInfraspecificEpithet(extractValue(er, DwcTerm.infraspecificEpithet))
-              .withScientificNameAuthorship(extractValue(er, DwcTerm.scientificNameAuthorship))
-              .withGenericName(extractValue(er, DwcTerm.genericName))
-              .build();
+      matchInterpreter(kvStore).accept(createMatchRequest(er), tr);
 
+      tr.setId(er.getId());
+    };
+  }
+
+  /**
+   * Interprets the species match of a request, the result doesn't depend on the record, so it can
+   * be computed once for all records with the same request
+   */
+  public static BiConsumer<SpeciesMatchRequest, TaxonRecord> matchInterpreter(
+      KeyValueStore<SpeciesMatchRequest, NameUsageMatch> kvStore) {
+    return (matchRequest, tr) -> {
       NameUsageMatch usageMatch = null;
       try {
         usageMatch = kvStore.get(matchRequest);
       } catch (Exception ex) {
         log.error(ex.getMessage(), ex);
       }
+      interpretMatch(matchRequest, usageMatch, tr);
+    };
+  }
+
+  /**
+   * Same as {@link #matchInterpreter(KeyValueStore)}, but a failed lookup is thrown instead of
+   * being interpreted as no match, so a result computed once for many records is never a failure
+   */
+  public static BiConsumer<SpeciesMatchRequest, TaxonRecord> strictMatchInterpreter(
+      KeyValueStore<SpeciesMatchRequest, NameUsageMatch> kvStore) {
+    return (matchRequest, tr) -> interpretMatch(matchRequest, kvStore.get(matchRequest), tr);
+  }
+
+  private static void interpretMatch(
+      SpeciesMatchRequest matchRequest, NameUsageMatch usageMatch, TaxonRecord tr) {
+    if (usageMatch == null || isEmpty(usageMatch) || checkFuzzy(usageMatch, matchRequest)) {
+      // "NO_MATCHING_RESULTS". This
+      // happens when we get an empty response from the WS
+      addIssue(tr, TAXON_MATCH_NONE);
+      tr.setUsage(INCERTAE_SEDIS);
+      tr.setClassification(Collections.singletonList(INCERTAE_SEDIS));
+    } else {
 
-      if (usageMatch == null || isEmpty(usageMatch) || checkFuzzy(usageMatch, matchRequest)) {
-        // "NO_MATCHING_RESULTS". This
-        // happens when we get an empty response from the WS
+      MatchType matchType = usageMatch.getDiagnostics().getMatchType();
+
+      if (MatchType.NONE == matchType) {
         addIssue(tr, TAXON_MATCH_NONE);
-        tr.setUsage(INCERTAE_SEDIS);
-        tr.setClassification(Collections.singletonList(INCERTAE_SEDIS));
-      } else {
-
-        MatchType matchType = usageMatch.getDiagnostics().getMatchType();
-
-        if (MatchType.NONE == matchType) {
-          addIssue(tr, TAXON_MATCH_NONE);
-        } else if (MatchType.FUZZY == matchType) {
-          addIssue(tr, TAXON_MATCH_FUZZY);
-        } else if (MatchType.HIGHERRANK == matchType) {
-          addIssue(tr, TAXON_MATCH_HIGHERRANK);
-        }
+      } else if (MatchType.FUZZY == matchType) {
+        addIssue(tr, TAXON_MATCH_FUZZY);
+      } else if (MatchType.HIGHERRANK == matchType) {
+        addIssue(tr, TAXON_MATCH_HIGHERRANK);
+      }
 
-        // parse name into pieces - we don't get them from the nub lookup
-        try {
-          if (Objects.nonNull(usageMatch.getUsage())) {
-            org.gbif.nameparser.api.ParsedName pn =
-                NAME_PARSER.parse(
-                    usageMatch.getUsage().getName(),
-                    NameParserGbifV1.fromGbif(usageMatch.getUsage().getRank()),
-                    null);
-            tr.setUsageParsedName(toParsedNameAvro(pn));
-          }
-        } catch (UnparsableNameException e) {
-          if (e.getType().isParsable()) {
-            log.warn(
-                "Fail to parse backbone {} name for occurrence {}: {}",
-                e.getType(),
-                er.getId(),
-                e.getName());
-          }
+      // parse name into pieces - we don't get them from the nub lookup
+      try {
+        if (Objects.nonNull(usageMatch.getUsage())) {
+          org.gbif.nameparser.api.ParsedName pn =
+              NAME_PARSER.parse(
+                  usageMatch.getUsage().getName(),
+                  NameParserGbifV1.fromGbif(usageMatch.getUsage().getRank()),
+                  null);
+          tr.setUsageParsedName(toParsedNameAvro(pn));
+        }
+      } catch (UnparsableNameException e) {
+        if (e.getType().isParsable()) {
+          log.warn("Fail to parse backbone {} name: {}", e.getType(), e.getName());
         }
-        // convert taxon record
-        TaxonRecordConverter.convert(usageMatch, tr);
       }
+      // convert taxon record
+      TaxonRecordConverter.convert(usageMatch, tr);
+    }
+  }
 
-      tr.setId(er.getId());
-    };
+  /** Creates a species match request from the taxonomic fields of the record */
+  public static SpeciesMatchRequest createMatchRequest(ExtendedRecord er) {
+    return SpeciesMatchRequest.builder()
+        .withKingdom(extractValue(er, DwcTerm.kingdom))
+        .withPhylum(extractValue(er, DwcTerm.phylum))
+        .withClazz(extractValue(er, DwcTerm.class_))
+        .withOrder(extractValue(er, DwcTerm.order))
+        .withFamily(extractValue(er, DwcTerm.family))
+        .withGenus(extractValue(er, DwcTerm.genus))
+        .withScientificName(extractValue(er, DwcTerm.scientificName))
+        .withRank(extractValue(er, DwcTerm.taxonRank))
+        .withVerbatimRank(extractValue(er, DwcTerm.verbatimTaxonRank))
+        .withSpecificEpithet(extractValue(er, DwcTerm.specificEpithet))
+        .withInfraspecificEpithet(extractValue(er, DwcTerm.infraspecificEpithet))
+        .withScientificNameAuthorship(extractValue(er, DwcTerm.scientificNameAuthorship))
+        .withGenericName(extractValue(er, DwcTerm.genericName))
+        .build();
   }
 
   /**
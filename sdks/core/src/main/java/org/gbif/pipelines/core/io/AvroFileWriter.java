@@ -0,0 +1,9 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.Closeable;
+
+/** Common interface of avro file writers used by java based pipelines */
+public interface AvroFileWriter<T> extends Closeable {
+
+  void append(T record);
+}
@@ -0,0 +1,117 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.gbif.pipelines.io.avro.Record;
+
+/**
+ * Avro format reader, merges files sorted by {@link Record#getId()} (see {@link
+ * SortedRunFileWriter}) into one stream in ascending id order, only the current avro block of every
+ * file is kept in memory.
+ *
+ * <p>Returns one record per id, the last one in the order of files and records, the same record
+ * {@link AvroReader#readRecords} keeps. Throws {@link IllegalStateException} if a file isn't sorted
+ */
+public class AvroMergeReader<T extends SpecificRecordBase & Record>
+    implements Iterator<T>, Closeable {
+
+  private final List<Run<T>> runs;
+  private final PriorityQueue<Run<T>> queue;
+
+  private T next;
+
+  AvroMergeReader(FileSystem fs, Class<T> clazz, List<Path> paths) {
+    Comparator<Run<T>> comparator =
+        Comparator.<Run<T>, String>comparing(r -> r.head.getId()).thenComparingInt(r -> r.index);
+    this.runs = new ArrayList<>(paths.size());
+    this.queue = new PriorityQueue<>(Math.max(1, paths.size()), comparator);
+    for (int i = 0; i < paths.size(); i++) {
+      Path path = paths.get(i);
+      Run<T> run =
+          new Run<>(i, path, new AvroStreamReader<>(fs, clazz, Collections.singletonList(path)));
+      runs.add(run);
+      if (run.advance()) {
+        queue.add(run);
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      next = poll();
+    }
+    return next != null;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    T result = next;
+    next = null;
+    return result;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (Run<T> run : runs) {
+      run.reader.close();
+    }
+    queue.clear();
+  }
+
+  /** Takes the smallest id from the heads of all files, later records with the same id win */
+  private T poll() {
+    T record = null;
+    while (!queue.isEmpty()
+        && (record == null || queue.peek().head.getId().equals(record.getId()))) {
+      Run<T> run = queue.poll();
+      record = run.head;
+      if (run.advance()) {
+        queue.add(run);
+      }
+    }
+    return record;
+  }
+
+  private static class Run<T extends SpecificRecordBase & Record> {
+
+    private final int index;
+    private final Path path;
+    private final AvroStreamReader<T> reader;
+    private T head;
+
+    private Run(int index, Path path, AvroStreamReader<T> reader) {
+      this.index = index;
+      this.path = path;
+      this.reader = reader;
+    }
+
+    /** Moves the head to the next record of the file, false if the file is finished */
+    private boolean advance() {
+      if (!reader.hasNext()) {
+        head = null;
+        return false;
+      }
+      T record = reader.next();
+      if (head != null && record.getId().compareTo(head.getId()) < 0) {
+        throw new IllegalStateException(
+            "Avro file " + path + " is not sorted by id, write it using sorted avro runs");
+      }
+      head = record;
+      return true;
+    }
+  }
+}
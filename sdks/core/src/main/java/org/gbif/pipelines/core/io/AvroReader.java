@@ -63,6 +63,36 @@ public class AvroReader {
     return readObjects(fs, clazz, paths);
   }
 
+  /**
+   * Read records one by one without keeping them in memory, the caller must close the returned
+   * reader
+   *
+   * @param clazz instance of {@link SpecificRecordBase}
+   * @param path sting path, a wildcard can be used in the file name, like /a/b/c*.avro to read
+   *     multiple files
+   */
+  public static <T extends SpecificRecordBase> AvroStreamReader<T> readStream(
+      String hdfsSiteConfig, String coreSiteConfig, Class<T> clazz, String path) {
+    FileSystem fs = FsUtils.getFileSystem(hdfsSiteConfig, coreSiteConfig, path);
+    List<Path> paths = parseWildcardPath(fs, path);
+    return new AvroStreamReader<>(fs, clazz, paths);
+  }
+
+  /**
+   * Merge files sorted by {@link Record#getId()} into one stream of distinct records in ascending
+   * id order without keeping them in memory, the caller must close the returned reader
+   *
+   * @param clazz instance of {@link Record}
+   * @param path sting path, a wildcard can be used in the file name, like /a/b/c*.avro to read
+   *     multiple files
+   */
+  public static <T extends SpecificRecordBase & Record> AvroMergeReader<T> readSortedStream(
+      String hdfsSiteConfig, String coreSiteConfig, Class<T> clazz, String path) {
+    FileSystem fs = FsUtils.getFileSystem(hdfsSiteConfig, coreSiteConfig, path);
+    List<Path> paths = parseWildcardPath(fs, path);
+    return new AvroMergeReader<>(fs, clazz, paths);
+  }
+
   /**
    * Read {@link Record#getId()} unique records
    *
@@ -0,0 +1,67 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import lombok.SneakyThrows;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.SeekableInput;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.hadoop.fs.AvroFSInput;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Avro format reader, iterates over records of one or several files block by block, only the
+ * current avro block is kept in memory
+ */
+public class AvroStreamReader<T extends SpecificRecordBase> implements Iterator<T>, Closeable {
+
+  private final FileSystem fs;
+  private final Class<T> clazz;
+  private final Iterator<Path> paths;
+
+  private DataFileReader<T> dataFileReader;
+
+  AvroStreamReader(FileSystem fs, Class<T> clazz, List<Path> paths) {
+    this.fs = fs;
+    this.clazz = clazz;
+    this.paths = paths.iterator();
+  }
+
+  @SneakyThrows
+  @Override
+  public boolean hasNext() {
+    while (dataFileReader == null || !dataFileReader.hasNext()) {
+      if (!paths.hasNext()) {
+        close();
+        return false;
+      }
+      close();
+      Path path = paths.next();
+      SeekableInput input = new AvroFSInput(fs.open(path), fs.getContentSummary(path).getLength());
+      dataFileReader = new DataFileReader<>(input, new SpecificDatumReader<>(clazz));
+    }
+    return true;
+  }
+
+  @SneakyThrows
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return dataFileReader.next();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (dataFileReader != null) {
+      dataFileReader.close();
+      dataFileReader = null;
+    }
+  }
+}
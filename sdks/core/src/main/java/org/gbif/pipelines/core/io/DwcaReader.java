@@ -41,13 +41,15 @@ public class DwcaReader implements Closeable {
     return new DwcaReader(DwcFiles.fromCompressed(Paths.get(source), Paths.get(workingDir)));
   }
 
+  /** Creates a DwcaReader of an already opened archive. */
+  public static DwcaReader fromArchive(Archive archive) {
+    return new DwcaReader(archive);
+  }
+
   /** Creates and DwcaReader using a StarRecord iterator. */
   private DwcaReader(Archive archive) {
 
-    archive.getCore().getHeader().stream()
-        .flatMap(Collection::stream)
-        .forEach(
-            x -> Objects.requireNonNull(x, "One of the terms is NULL, please check meta.xml file"));
+    requireCoreTerms(archive);
 
     if (archive.getExtensions().isEmpty()) {
       this.iterator = archive.getCore().iterator();
@@ -63,6 +65,14 @@ public class DwcaReader implements Closeable {
     }
   }
 
+  /** Checks that every term of the core header is known */
+  public static void requireCoreTerms(Archive archive) {
+    archive.getCore().getHeader().stream()
+        .flatMap(Collection::stream)
+        .forEach(
+            x -> Objects.requireNonNull(x, "One of the terms is NULL, please check meta.xml file"));
+  }
+
   /** Has the archive more records?. */
   public boolean hasNext() {
     return iterator.hasNext();
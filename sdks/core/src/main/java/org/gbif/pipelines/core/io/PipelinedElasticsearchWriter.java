@@ -0,0 +1,309 @@
+package org.gbif.pipelines.core.io;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_BACK_PRESSURE_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_BULK_REQUESTS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_INDEXED_DOCUMENTS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_RETRIED_DOCUMENTS_COUNT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHost;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+import org.gbif.pipelines.core.functions.SerializableConsumer;
+
+/**
+ * Pushes records into Elasticsearch using asynchronous bulk requests:
+ *
+ * <pre>
+ *    - at most maxInFlightBulks requests are sent at the same time, each one over its own
+ *    connection, a new request waits on a semaphore for a free slot
+ *    - documents rejected by a busy cluster (429) are retried with an exponential backoff, other
+ *    failed documents are counted and reported when all requests are finished
+ *    - the number of documents per request grows while requests are faster than the target latency
+ *    and shrinks when they are slower or rejected, between esMinBatchSize and esMaxBatchSize
+ * </pre>
+ */
+@Slf4j
+@Builder
+public class PipelinedElasticsearchWriter<T> {
+
+  private static final long LOG_INTERVAL_MS = 60_000L;
+
+  private final String[] esHosts;
+  private final Function<T, IndexRequest> indexRequestFn;
+  /** A streamed {@link Iterable}, unlike a {@link Collection}, is never written in sync mode */
+  private final Iterable<T> records;
+  private final long esMaxBatchSize;
+  private final long esMaxBatchSizeBytes;
+  @Builder.Default private final long esMinBatchSize = 100L;
+  @Builder.Default private final int maxInFlightBulks = 4;
+  @Builder.Default private final int syncModeThreshold = 0;
+  @Builder.Default private final long targetLatencyMs = 2_000L;
+  @Builder.Default private final int maxRetries = 5;
+  @Builder.Default private final long retryBackoffMs = 500L;
+  private final SerializableConsumer<String> counterFn;
+  /** Sends a bulk request asynchronously, by default a client of esHosts is used */
+  private final BiConsumer<BulkRequest, ActionListener<BulkResponse>> bulkFn;
+
+  @SneakyThrows
+  public void write() {
+    new Execution().run();
+  }
+
+  private boolean isSyncMode() {
+    return records instanceof Collection && syncModeThreshold > ((Collection<?>) records).size();
+  }
+
+  /** State of one {@link #write()} call */
+  private class Execution {
+
+    private final int inFlightLimit = isSyncMode() ? 1 : maxInFlightBulks;
+    private final Semaphore inFlight = new Semaphore(inFlightLimit);
+    private final DelayQueue<Retry> retries = new DelayQueue<>();
+    private final AtomicInteger batchSize = new AtomicInteger((int) esMaxBatchSize);
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicReference<Exception> error = new AtomicReference<>();
+    private final long startMs = System.currentTimeMillis();
+    private long lastLogMs = startMs;
+
+    private BiConsumer<BulkRequest, ActionListener<BulkResponse>> sendFn;
+
+    @SneakyThrows
+    private void run() {
+      if (bulkFn != null) {
+        sendFn = bulkFn;
+        sendAll();
+      } else {
+        HttpHost[] hosts = Arrays.stream(esHosts).map(HttpHost::create).toArray(HttpHost[]::new);
+        int connections = inFlightLimit * hosts.length;
+        try (RestHighLevelClient c =
+            new RestHighLevelClient(
+                RestClient.builder(hosts)
+                    .setHttpClientConfigCallback(
+                        b -> b.setMaxConnTotal(connections).setMaxConnPerRoute(inFlightLimit)))) {
+          sendFn = (request, listener) -> c.bulkAsync(request, RequestOptions.DEFAULT, listener);
+          sendAll();
+        }
+      }
+
+      logProgress(true);
+      if (failed.get() > 0) {
+        throw new ElasticsearchException(
+            "Failed to index " + failed.get() + " documents, see the log for the reasons");
+      }
+      log.info("Writing data to ES has been finished");
+    }
+
+    /** Sends all records and waits for all requests and retries */
+    private void sendAll() throws InterruptedException {
+      BulkRequest request = newBulkRequest();
+      for (T t : records) {
+        request.add(indexRequestFn.apply(t));
+        if (request.numberOfActions() >= batchSize.get()
+            || request.estimatedSizeInBytes() >= esMaxBatchSizeBytes) {
+          sendRetries();
+          send(request, 0);
+          request = newBulkRequest();
+        }
+      }
+      if (request.numberOfActions() > 0) {
+        send(request, 0);
+      }
+
+      // Wait for all requests and retries
+      log.info("Waiting for all bulk requests to finish...");
+      while (inFlight.availablePermits() < inFlightLimit || !retries.isEmpty()) {
+        checkError();
+        Retry retry = retries.poll(100L, TimeUnit.MILLISECONDS);
+        if (retry != null) {
+          send(retry.request, retry.attempt);
+        }
+      }
+      checkError();
+    }
+
+    /** Sends retries which waited long enough */
+    private void sendRetries() throws InterruptedException {
+      Retry retry;
+      while ((retry = retries.poll()) != null) {
+        send(retry.request, retry.attempt);
+      }
+    }
+
+    private void send(BulkRequest request, int attempt) throws InterruptedException {
+      checkError();
+      if (!inFlight.tryAcquire()) {
+        incMetric(ES_BACK_PRESSURE_COUNT);
+        inFlight.acquire();
+      }
+      incMetric(ES_BULK_REQUESTS_COUNT);
+      long start = System.nanoTime();
+      sendFn.accept(
+          request,
+          new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+              try {
+                handleResponse(request, response, attempt, System.nanoTime() - start);
+              } catch (RuntimeException ex) {
+                error.compareAndSet(null, ex);
+              } finally {
+                inFlight.release();
+              }
+            }
+
+            @Override
+            public void onFailure(Exception ex) {
+              try {
+                if (isRejected(ex)) {
+                  shrinkBatchSize();
+                  retry(request.requests(), attempt);
+                } else {
+                  log.error(ex.getMessage(), ex);
+                  error.compareAndSet(null, ex);
+                }
+              } finally {
+                inFlight.release();
+              }
+            }
+          });
+      logProgress(false);
+    }
+
+    private void handleResponse(
+        BulkRequest request, BulkResponse response, int attempt, long latencyNs) {
+      List<DocWriteRequest<?>> requests = request.requests();
+      List<DocWriteRequest<?>> rejected = new ArrayList<>();
+      for (BulkItemResponse item : response.getItems()) {
+        if (!item.isFailed()) {
+          indexed.incrementAndGet();
+          incMetric(ES_INDEXED_DOCUMENTS_COUNT);
+        } else if (item.status() == RestStatus.TOO_MANY_REQUESTS) {
+          rejected.add(requests.get(item.getItemId()));
+        } else {
+          failed.incrementAndGet();
+          log.error("Failed to index document {} - {}", item.getId(), item.getFailureMessage());
+        }
+      }
+
+      if (!rejected.isEmpty()) {
+        shrinkBatchSize();
+        retry(rejected, attempt);
+      } else {
+        adaptBatchSize(TimeUnit.NANOSECONDS.toMillis(latencyNs));
+      }
+    }
+
+    private void retry(List<DocWriteRequest<?>> requests, int attempt) {
+      if (attempt >= maxRetries) {
+        failed.addAndGet(requests.size());
+        log.error("Giving up on {} rejected documents after {} retries", requests.size(), attempt);
+        return;
+      }
+      BulkRequest request = newBulkRequest();
+      requests.forEach(request::add);
+      long delayMs = retryBackoffMs << attempt;
+      for (int i = 0; i < requests.size(); i++) {
+        incMetric(ES_RETRIED_DOCUMENTS_COUNT);
+      }
+      log.warn("Retry {} rejected documents in {}ms", requests.size(), delayMs);
+      // Added before the permit is released, so the writer can't finish with pending retries
+      retries.add(new Retry(request, attempt + 1, System.nanoTime() + delayMs * 1_000_000L));
+    }
+
+    /** Additive increase while requests are faster than the target latency */
+    private void adaptBatchSize(long latencyMs) {
+      if (latencyMs < targetLatencyMs) {
+        batchSize.updateAndGet(s -> (int) Math.min(esMaxBatchSize, s + Math.max(1, s / 10)));
+      } else {
+        shrinkBatchSize();
+      }
+    }
+
+    /** Multiplicative decrease when requests are slow or rejected */
+    private void shrinkBatchSize() {
+      batchSize.updateAndGet(s -> (int) Math.max(esMinBatchSize, s / 2));
+    }
+
+    private boolean isRejected(Exception ex) {
+      return ex instanceof ElasticsearchException
+          && ((ElasticsearchException) ex).status() == RestStatus.TOO_MANY_REQUESTS;
+    }
+
+    private void checkError() {
+      Exception ex = error.get();
+      if (ex != null) {
+        throw new ElasticsearchException(ex.getMessage(), ex);
+      }
+    }
+
+    /** Logs once per {@link #LOG_INTERVAL_MS}, the final state is always logged */
+    private void logProgress(boolean force) {
+      long now = System.currentTimeMillis();
+      if (force || now - lastLogMs >= LOG_INTERVAL_MS) {
+        lastLogMs = now;
+        long seconds = Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(now - startMs));
+        log.info(
+            "Indexed {} docs, {} docs/s, {} bulks in flight, batch size {}, {} retries pending",
+            indexed.get(),
+            indexed.get() / seconds,
+            inFlightLimit - inFlight.availablePermits(),
+            batchSize.get(),
+            retries.size());
+      }
+    }
+
+    private BulkRequest newBulkRequest() {
+      return new BulkRequest().timeout(TimeValue.timeValueMinutes(5L));
+    }
+
+    private void incMetric(String name) {
+      Optional.ofNullable(counterFn).ifPresent(fn -> fn.accept(name));
+    }
+  }
+
+  @AllArgsConstructor
+  private static class Retry implements Delayed {
+    private final BulkRequest request;
+    private final int attempt;
+    private final long readyNs;
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(readyNs - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+  }
+}
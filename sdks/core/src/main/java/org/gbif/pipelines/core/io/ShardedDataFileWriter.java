@@ -0,0 +1,78 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+/**
+ * Avro writer without a shared lock, every thread appends records into its own {@link
+ * DataFileWriter}, so serialization and block compression run on all writing threads. Produces one
+ * part file per writing thread, the stream for a part is created by {@link #outputStreamFn} using
+ * the part number, all parts can be read using a wildcard path.
+ *
+ * <p>{@link #append(Object)} must not be called after or during {@link #close()}
+ */
+@Slf4j
+@Builder
+public class ShardedDataFileWriter<T> implements AvroFileWriter<T> {
+
+  @NonNull private final Schema schema;
+  @NonNull private final String codec;
+  @NonNull private final IntFunction<OutputStream> outputStreamFn;
+  private final Integer syncInterval;
+
+  private final Map<Thread, DataFileWriter<T>> shards = new ConcurrentHashMap<>();
+  private final AtomicInteger shardCounter = new AtomicInteger(0);
+
+  @SneakyThrows
+  @Override
+  public void append(T record) {
+    DataFileWriter<T> writer = shards.get(Thread.currentThread());
+    if (writer == null) {
+      writer = shards.computeIfAbsent(Thread.currentThread(), t -> createShard());
+    }
+    writer.append(record);
+  }
+
+  /** Number of created part files */
+  public int getNumberOfShards() {
+    return shardCounter.get();
+  }
+
+  /** Closes all parts, creates one empty part if nothing was written */
+  @Override
+  public void close() throws IOException {
+    if (shards.isEmpty()) {
+      createShard().close();
+    }
+    for (DataFileWriter<T> writer : shards.values()) {
+      writer.close();
+    }
+    log.debug("Closed {} avro parts", shardCounter.get());
+    shards.clear();
+  }
+
+  @SneakyThrows
+  private DataFileWriter<T> createShard() {
+    int shard = shardCounter.getAndIncrement();
+    DataFileWriter<T> writer = new DataFileWriter<>(new SpecificDatumWriter<>(schema));
+    writer.setCodec(CodecFactory.fromString(codec));
+    if (syncInterval != null) {
+      writer.setSyncInterval(syncInterval);
+    }
+    writer.create(schema, new BufferedOutputStream(outputStreamFn.apply(shard)));
+    return writer;
+  }
+}
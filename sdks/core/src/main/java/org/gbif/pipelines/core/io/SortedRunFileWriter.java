@@ -0,0 +1,94 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.gbif.pipelines.io.avro.Record;
+
+/**
+ * Avro writer which buffers up to {@link #runSize} records, sorts them by {@link Record#getId()}
+ * and writes them as one run file, the stream for a run is created by {@link #outputStreamFn}
+ * using the run number. All runs of a record type can be joined by id with a streaming merge, see
+ * {@link AvroMergeReader}.
+ *
+ * <p>A full run is moved out of the buffer and written by the appending thread while other threads
+ * fill the next run, so a writer holds up to one run per writing thread plus the run being filled.
+ *
+ * <p>{@link #append(Object)} must not be called after or during {@link #close()}
+ */
+@Slf4j
+@Builder
+public class SortedRunFileWriter<T extends Record> implements AvroFileWriter<T> {
+
+  private static final Comparator<Record> ID_COMPARATOR = Comparator.comparing(Record::getId);
+
+  @NonNull private final Schema schema;
+  @NonNull private final String codec;
+  @NonNull private final IntFunction<OutputStream> outputStreamFn;
+  private final Integer syncInterval;
+  private final int runSize;
+
+  private final AtomicInteger runCounter = new AtomicInteger(0);
+  private final List<T> buffer = new ArrayList<>();
+
+  @Override
+  public void append(T record) {
+    List<T> run = null;
+    synchronized (this) {
+      buffer.add(record);
+      if (buffer.size() >= runSize) {
+        run = new ArrayList<>(buffer);
+        buffer.clear();
+      }
+    }
+    // Sorts and writes a full run without blocking other appending threads
+    if (run != null) {
+      writeRun(run);
+    }
+  }
+
+  /** Number of created run files */
+  public int getNumberOfRuns() {
+    return runCounter.get();
+  }
+
+  /** Writes the last run, creates one empty run if nothing was written */
+  @Override
+  public synchronized void close() throws IOException {
+    if (!buffer.isEmpty() || runCounter.get() == 0) {
+      writeRun(buffer);
+      buffer.clear();
+    }
+    log.debug("Closed {} sorted avro runs", runCounter.get());
+  }
+
+  @SneakyThrows
+  private void writeRun(List<T> run) {
+    // List.sort is stable, records with the same id keep the order they were appended in
+    run.sort(ID_COMPARATOR);
+    int number = runCounter.getAndIncrement();
+    try (DataFileWriter<T> writer = new DataFileWriter<>(new SpecificDatumWriter<>(schema))) {
+      writer.setCodec(CodecFactory.fromString(codec));
+      if (syncInterval != null) {
+        writer.setSyncInterval(syncInterval);
+      }
+      writer.create(schema, new BufferedOutputStream(outputStreamFn.apply(number)));
+      for (T record : run) {
+        writer.append(record);
+      }
+    }
+  }
+}
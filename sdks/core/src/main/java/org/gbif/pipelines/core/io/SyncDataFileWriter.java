@@ -1,23 +1,30 @@
 package org.gbif.pipelines.core.io;
 
-import java.io.Closeable;
 import java.io.IOException;
 import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
+import org.apache.avro.file.DataFileStream;
 import org.apache.avro.file.DataFileWriter;
 
 /** Sync class for avro DataFileWriter, created to avoid an issue during file writing */
 @AllArgsConstructor
-public class SyncDataFileWriter<T> implements Closeable {
+public class SyncDataFileWriter<T> implements AvroFileWriter<T> {
 
   private final DataFileWriter<T> dataFileWriter;
 
   /** Synchronized append method, helps avoid the ArrayIndexOutOfBoundsException */
   @SneakyThrows
+  @Override
   public synchronized void append(T record) {
     dataFileWriter.append(record);
   }
 
+  /** Synchronized copy of another avro file blocks, see {@link DataFileWriter#appendAllFrom} */
+  @SneakyThrows
+  public synchronized void appendAllFrom(DataFileStream<T> otherFile, boolean recompress) {
+    dataFileWriter.appendAllFrom(otherFile, recompress);
+  }
+
   @Override
   public void close() throws IOException {
     dataFileWriter.close();
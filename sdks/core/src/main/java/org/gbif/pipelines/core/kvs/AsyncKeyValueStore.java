@@ -0,0 +1,188 @@
+package org.gbif.pipelines.core.kvs;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.pipelines.core.functions.SerializableSupplier;
+
+/**
+ * Non-blocking adapter for a blocking {@link KeyValueStore}:
+ *
+ * <pre>
+ *    - lookups run on a pool of maxConcurrency threads, so the store sends at most
+ *    maxConcurrency requests to the service at the same time
+ *    - concurrent lookups of the same key share one call to the service, the key is coalesced
+ *    until the call is finished
+ *    - {@link #getAll(Collection)} resolves a micro-batch of keys, every distinct key once
+ * </pre>
+ *
+ * <p>Stores of a {@link #wrap} supplier are one instance per JVM, so the pool and the keys in
+ * flight are shared by all DoFns of a worker, and the bound and the coalescing apply to the worker.
+ *
+ * <p>{@link #get(Object)} blocks, so the adapter can replace the wrapped store anywhere.
+ */
+@Slf4j
+public class AsyncKeyValueStore<K, V> implements KeyValueStore<K, V> {
+
+  private static final int DEFAULT_MAX_CONCURRENCY = 8;
+  private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+  // Stores of wrap suppliers by supplier id
+  private static final Map<String, AsyncKeyValueStore<?, ?>> SHARED = new HashMap<>();
+
+  private final KeyValueStore<K, V> kvStore;
+  private final ExecutorService executor;
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong calls = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  // Set for stores of wrap suppliers, guarded by SHARED
+  private String sharedId;
+  private int users;
+
+  @Builder(buildMethodName = "create")
+  private AsyncKeyValueStore(@NonNull KeyValueStore<K, V> kvStore, Integer maxConcurrency) {
+    this.kvStore = kvStore;
+    int threads =
+        maxConcurrency == null || maxConcurrency < 1 ? DEFAULT_MAX_CONCURRENCY : maxConcurrency;
+    String prefix = "async-kv-store-" + POOL_COUNTER.incrementAndGet() + "-";
+    AtomicInteger threadCounter = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads,
+            r -> {
+              Thread t = new Thread(r, prefix + threadCounter.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+  }
+
+  /**
+   * Wraps the store of the supplier, all copies of the returned supplier in a JVM return the same
+   * async store, the wrapped store is created by the first call. The store is closed when every
+   * user has closed it.
+   */
+  public static <K, V> SerializableSupplier<KeyValueStore<K, V>> wrap(
+      SerializableSupplier<KeyValueStore<K, V>> supplier, int maxConcurrency) {
+    if (supplier == null) {
+      return null;
+    }
+    String id = UUID.randomUUID().toString();
+    return () -> getShared(id, supplier, maxConcurrency);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> AsyncKeyValueStore<K, V> getShared(
+      String id, SerializableSupplier<KeyValueStore<K, V>> supplier, int maxConcurrency) {
+    synchronized (SHARED) {
+      AsyncKeyValueStore<K, V> store = (AsyncKeyValueStore<K, V>) SHARED.get(id);
+      if (store == null) {
+        KeyValueStore<K, V> kvStore = supplier.get();
+        if (kvStore == null) {
+          return null;
+        }
+        store =
+            AsyncKeyValueStore.<K, V>builder()
+                .kvStore(kvStore)
+                .maxConcurrency(maxConcurrency)
+                .create();
+        store.sharedId = id;
+        SHARED.put(id, store);
+      }
+      store.users++;
+      return store;
+    }
+  }
+
+  /** Looks the key up in the background, joins a call in flight for the same key */
+  public CompletableFuture<V> getAsync(K key) {
+    if (key == null) {
+      return CompletableFuture.supplyAsync(() -> kvStore.get(null), executor);
+    }
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      coalesced.incrementAndGet();
+      return existing;
+    }
+    calls.incrementAndGet();
+    try {
+      executor.execute(
+          () -> {
+            try {
+              future.complete(kvStore.get(key));
+            } catch (Exception ex) {
+              future.completeExceptionally(ex);
+            } finally {
+              inFlight.remove(key, future);
+            }
+          });
+    } catch (RuntimeException ex) {
+      inFlight.remove(key, future);
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
+  /**
+   * Resolves all keys concurrently and waits for the results, failed lookups are logged and left
+   * out, so they can be told apart from keys without a value
+   */
+  public Map<K, V> getAll(Collection<K> keys) {
+    Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+    for (K key : keys) {
+      futures.computeIfAbsent(key, this::getAsync);
+    }
+    Map<K, V> result = new HashMap<>(futures.size());
+    futures.forEach(
+        (key, future) -> {
+          try {
+            result.put(key, future.join());
+          } catch (CompletionException ex) {
+            log.error(ex.getMessage(), ex.getCause());
+          }
+        });
+    return result;
+  }
+
+  @Override
+  public V get(K key) {
+    try {
+      return getAsync(key).join();
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      throw cause instanceof RuntimeException
+          ? (RuntimeException) cause
+          : new IllegalStateException(cause);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (sharedId != null) {
+      synchronized (SHARED) {
+        // Closed already or still used by another DoFn
+        if (users == 0 || --users > 0) {
+          return;
+        }
+        SHARED.remove(sharedId);
+      }
+    }
+    log.info("Async KV store made {} calls, {} lookups coalesced", calls.get(), coalesced.get());
+    executor.shutdown();
+    kvStore.close();
+  }
+}
@@ -0,0 +1,230 @@
+package org.gbif.pipelines.core.parsers.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Secondary index over the candidates of one hash key bucket, it finds the pairs that can pass at
+ * least one rule of {@link OccurrenceRelationships#generate}, all other pairs are pruned without
+ * comparison:
+ *
+ * <pre>
+ *    1) Typification and same specimen pairs - the same scientific name and a type status on both
+ *    records, or the same taxon key and holotype status
+ *    2) Pairs of the same species sharing a normalised identifier, using identifier inverted lists
+ *    3) Pairs of the same species with coordinates within 2km, using candidates sorted by latitude
+ * </pre>
+ *
+ * Every rule of {@link OccurrenceRelationships#generate} requires one of these conditions.
+ *
+ * <p>A cross-species index, used for the typified bucket of a {@link #split}, only finds pairs of
+ * the first kind whose species keys differ, the pairs of the same species are found in the species
+ * buckets.
+ */
+public class CandidatePairIndex<T extends OccurrenceFeatures> {
+
+  // Haversine distance is never less than the latitude distance, 2km in degrees
+  private static final double MAX_LATITUDE_DELTA =
+      Math.toDegrees(2d / Haversine.APPROX_EARTH_RADIUS_KM) + 1e-9;
+  private static final Set<String> ID_OMIT_SET =
+      new HashSet<>(OccurrenceRelationships.newIdOmitList());
+
+  private final List<T> candidates;
+  private final boolean crossSpecies;
+  private final long[] pairs;
+
+  @Getter private final long pairsPruned;
+
+  private CandidatePairIndex(List<T> candidates, boolean crossSpecies) {
+    this.candidates = candidates;
+    this.crossSpecies = crossSpecies;
+    Set<Long> found = new HashSet<>();
+
+    // 1) Typification and same specimen
+    for (List<Integer> group : groupBy(this::typificationKey).values()) {
+      addAllPairs(found, group);
+    }
+    for (List<Integer> group : groupBy(this::holotypeKey).values()) {
+      addAllPairs(found, group);
+    }
+
+    if (!crossSpecies) {
+      for (List<Integer> species : groupBy(OccurrenceFeatures::getSpeciesKey).values()) {
+        if (species.size() > 1) {
+          // 2) Identifier inverted lists
+          for (List<Integer> group : identifierIndex(species).values()) {
+            addAllPairs(found, group);
+          }
+          // 3) Latitude sorted window
+          addCoordinatePairs(found, species);
+        }
+      }
+    }
+
+    this.pairs = found.stream().mapToLong(Long::longValue).sorted().toArray();
+    long n = candidates.size();
+    this.pairsPruned = n * (n - 1) / 2 - pairs.length;
+  }
+
+  public static <T extends OccurrenceFeatures> CandidatePairIndex<T> create(List<T> candidates) {
+    return new CandidatePairIndex<>(candidates, false);
+  }
+
+  /** Same as {@link #create(List)}, a cross-species index finds only pairs of different species */
+  public static <T extends OccurrenceFeatures> CandidatePairIndex<T> create(
+      List<T> candidates, boolean crossSpecies) {
+    return new CandidatePairIndex<>(candidates, crossSpecies);
+  }
+
+  /**
+   * Splits an oversized bucket into buckets of the same species and a cross-species bucket of
+   * typified records, pairs from different buckets can't pass any rule except typification. Pairs
+   * of the typified bucket must be found by a cross-species index, so every pair is found in one
+   * bucket only. The typified bucket is left out when all its records are of the same species.
+   */
+  public static <T extends OccurrenceFeatures> List<Bucket<T>> split(List<T> candidates) {
+    Map<String, List<T>> buckets = new LinkedHashMap<>();
+    List<T> typified = new ArrayList<>();
+    Set<String> typifiedSpecies = new HashSet<>();
+    for (T candidate : candidates) {
+      if (candidate.getTypeStatus() != null) {
+        typified.add(candidate);
+        typifiedSpecies.add(candidate.getSpeciesKey());
+      }
+      if (candidate.getSpeciesKey() != null) {
+        buckets.computeIfAbsent(candidate.getSpeciesKey(), k -> new ArrayList<>()).add(candidate);
+      }
+    }
+    List<Bucket<T>> result = new ArrayList<>();
+    buckets.values().stream()
+        .filter(b -> b.size() > 1)
+        .forEach(b -> result.add(new Bucket<>(b, false)));
+    // Records without a species key are only in the typified bucket
+    boolean sameSpecies = typifiedSpecies.size() == 1 && !typifiedSpecies.contains(null);
+    if (typified.size() > 1 && !sameSpecies) {
+      result.add(new Bucket<>(typified, true));
+    }
+    return result;
+  }
+
+  /** Calls the consumer for every pair which wasn't pruned, in the order of candidates */
+  public void forEachPair(BiConsumer<T, T> consumer) {
+    forEachPairIndex((i, j) -> consumer.accept(candidates.get(i), candidates.get(j)));
+  }
+
+  /** Same as {@link #forEachPair} using positions in the list of candidates */
+  public void forEachPairIndex(PairConsumer consumer) {
+    for (long pair : pairs) {
+      consumer.accept((int) (pair >>> 32), (int) pair);
+    }
+  }
+
+  public long getPairsCompared() {
+    return pairs.length;
+  }
+
+  private String typificationKey(T o) {
+    return o.getTypeStatus() == null ? null : o.getScientificName();
+  }
+
+  private String holotypeKey(T o) {
+    if (o.getTaxonKey() != null
+        && o.getTypeStatus() != null
+        && o.getTypeStatus().equalsIgnoreCase("HOLOTYPE")) {
+      return o.getTaxonKey() + "|" + o.getTypeStatus();
+    }
+    return null;
+  }
+
+  private Map<String, List<Integer>> groupBy(Function<T, String> keyFn) {
+    Map<String, List<Integer>> groups = new HashMap<>();
+    for (int i = 0; i < candidates.size(); i++) {
+      String key = keyFn.apply(candidates.get(i));
+      if (key != null) {
+        groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+      }
+    }
+    return groups;
+  }
+
+  private Map<String, List<Integer>> identifierIndex(List<Integer> group) {
+    Map<String, List<Integer>> index = new HashMap<>();
+    for (int i : group) {
+      Set<String> ids = new HashSet<>();
+      for (String id : candidates.get(i).listIdentifiers()) {
+        String normalized = OccurrenceRelationships.normalizeID(id);
+        if (!ID_OMIT_SET.contains(normalized)) {
+          ids.add(normalized);
+        }
+      }
+      ids.forEach(id -> index.computeIfAbsent(id, k -> new ArrayList<>()).add(i));
+    }
+    return index;
+  }
+
+  private void addCoordinatePairs(Set<Long> found, List<Integer> group) {
+    Integer[] sorted =
+        group.stream()
+            .filter(
+                i ->
+                    candidates.get(i).getDecimalLatitude() != null
+                        && candidates.get(i).getDecimalLongitude() != null)
+            .toArray(Integer[]::new);
+    Arrays.sort(sorted, Comparator.comparingDouble(i -> candidates.get(i).getDecimalLatitude()));
+    for (int a = 0; a < sorted.length; a++) {
+      double latitude = candidates.get(sorted[a]).getDecimalLatitude();
+      for (int b = a + 1; b < sorted.length; b++) {
+        if (candidates.get(sorted[b]).getDecimalLatitude() - latitude > MAX_LATITUDE_DELTA) {
+          break;
+        }
+        found.add(pair(sorted[a], sorted[b]));
+      }
+    }
+  }
+
+  private void addAllPairs(Set<Long> found, List<Integer> group) {
+    for (int a = 0; a < group.size(); a++) {
+      for (int b = a + 1; b < group.size(); b++) {
+        if (!crossSpecies || !sameSpecies(group.get(a), group.get(b))) {
+          found.add(pair(group.get(a), group.get(b)));
+        }
+      }
+    }
+  }
+
+  private boolean sameSpecies(int i, int j) {
+    String speciesKey = candidates.get(i).getSpeciesKey();
+    return speciesKey != null && speciesKey.equals(candidates.get(j).getSpeciesKey());
+  }
+
+  /** Candidates of a split bucket, the pairs of a cross-species bucket have different species */
+  @Getter
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  public static class Bucket<T> {
+    private final List<T> candidates;
+    private final boolean crossSpecies;
+  }
+
+  /** Consumer of candidate positions, the first position is always the smaller one */
+  @FunctionalInterface
+  public interface PairConsumer {
+    void accept(int i, int j);
+  }
+
+  /** Packs a pair of positions into a long, the smaller position first */
+  private static long pair(int i, int j) {
+    return i < j ? ((long) i << 32) | j : ((long) j << 32) | i;
+  }
+}
@@ -0,0 +1,149 @@
+package org.gbif.pipelines.core.parsers.clustering;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.gbif.pipelines.core.config.model.ClusteringRelationshipConfig;
+
+/**
+ * In-memory gbifIds of the relationship table, one {@link CompactLongSet} per salt partition. A
+ * partition is read with a single key only scan the first time one of its ids is looked up, so a
+ * worker holds only the partitions of the ids it sees. Row keys of the table are
+ * salt:gbifId:otherGbifId.
+ *
+ * <p>When a refresh interval is configured, a partition older than it is read again by the next
+ * lookup of it, while lookups from other threads keep using the previous version.
+ */
+@Slf4j
+public class ClusteredIdsIndex {
+
+  private static final byte[] FAMILY = Bytes.toBytes("o");
+  private static final int SCAN_CACHING = 10_000;
+
+  private final Connection connection;
+  private final ClusteringRelationshipConfig config;
+  private final long refreshMillis;
+  private final AtomicReferenceArray<CompactLongSet> partitions;
+  private final AtomicLongArray loadedAt;
+  private final AtomicIntegerArray refreshing;
+  private final Object[] locks;
+
+  private ClusteredIdsIndex(Connection connection, ClusteringRelationshipConfig config) {
+    int salt = config.getRelationshipTableSalt();
+    this.connection = connection;
+    this.config = config;
+    this.refreshMillis = TimeUnit.MINUTES.toMillis(config.getBulkLoadRefreshMinutes());
+    this.partitions = new AtomicReferenceArray<>(salt);
+    this.loadedAt = new AtomicLongArray(salt);
+    this.refreshing = new AtomicIntegerArray(salt);
+    this.locks = new Object[salt];
+    Arrays.setAll(locks, i -> new Object());
+  }
+
+  public static ClusteredIdsIndex create(
+      Connection connection, ClusteringRelationshipConfig config) {
+    return new ClusteredIdsIndex(connection, config);
+  }
+
+  public boolean contains(long gbifId) {
+    int salt = ClusteringService.getSalt(gbifId, config.getRelationshipTableSalt());
+    CompactLongSet partition = partitions.get(salt);
+    if (partition == null) {
+      partition = load(salt);
+    } else if (isExpired(salt)) {
+      refresh(salt);
+      partition = partitions.get(salt);
+    }
+    return partition.contains(gbifId);
+  }
+
+  /**
+   * Reads the partition again and swaps it in. Only one thread reads a partition at a time, the
+   * others keep using the previous version until the new one is published.
+   */
+  void refresh(int salt) {
+    if (refreshing.compareAndSet(salt, 0, 1)) {
+      try {
+        CompactLongSet partition = read(salt);
+        loadedAt.set(salt, System.currentTimeMillis());
+        partitions.set(salt, partition);
+      } finally {
+        refreshing.set(salt, 0);
+      }
+    }
+  }
+
+  private boolean isExpired(int salt) {
+    return refreshMillis > 0 && System.currentTimeMillis() - loadedAt.get(salt) > refreshMillis;
+  }
+
+  /** The first load of a partition blocks lookups of it, there is no previous version to use */
+  private CompactLongSet load(int salt) {
+    synchronized (locks[salt]) {
+      // Another thread could have loaded the partition
+      CompactLongSet partition = partitions.get(salt);
+      if (partition == null) {
+        partition = read(salt);
+        loadedAt.set(salt, System.currentTimeMillis());
+        partitions.set(salt, partition);
+      }
+      return partition;
+    }
+  }
+
+  @SneakyThrows
+  private CompactLongSet read(int salt) {
+    Scan scan = new Scan();
+    scan.addFamily(FAMILY);
+    scan.setCaching(SCAN_CACHING);
+    scan.setCacheBlocks(false);
+    scan.setFilter(new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+    scan.setRowPrefixFilter(Bytes.toBytes(salt + ":"));
+
+    long[] ids = new long[1_024];
+    int size = 0;
+    try (Table table = connection.getTable(TableName.valueOf(config.getRelationshipTableName()));
+        ResultScanner scanner = table.getScanner(scan)) {
+      for (Result result : scanner) {
+        long id = parseGbifId(result.getRow());
+        if (id >= 0) {
+          if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+          }
+          ids[size++] = id;
+        }
+      }
+    }
+
+    CompactLongSet partition = CompactLongSet.create(ids, size);
+    log.info("Loaded {} clustered gbifIds of relationship partition {}", partition.getSize(), salt);
+    return partition;
+  }
+
+  /** The digits after the salt of the row key, or -1 if the key has no gbifId */
+  static long parseGbifId(byte[] row) {
+    int i = 0;
+    while (i < row.length && row[i] != ':') {
+      i++;
+    }
+    long id = -1;
+    for (i++; i < row.length && row[i] >= '0' && row[i] <= '9'; i++) {
+      id = (id < 0 ? 0 : id * 10) + (row[i] - '0');
+    }
+    return id;
+  }
+}
@@ -1,6 +1,7 @@
 package org.gbif.pipelines.core.parsers.clustering;
 
 import java.io.Serializable;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import org.apache.hadoop.hbase.TableName;
@@ -8,23 +9,43 @@ import org.apache.hadoop.hbase.client.*;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.gbif.pipelines.core.config.model.ClusteringRelationshipConfig;
 
-@AllArgsConstructor(staticName = "create")
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class ClusteringService implements Serializable {
 
   private final Connection connection;
   private final ClusteringRelationshipConfig config;
+  private final ClusteredIdsIndex index;
+
+  /** Scans the relationship table for every gbifId */
+  public static ClusteringService create(
+      Connection connection, ClusteringRelationshipConfig config) {
+    return new ClusteringService(connection, config, null);
+  }
+
+  /** Looks up gbifIds in memory, see {@link ClusteredIdsIndex} */
+  public static ClusteringService createBulk(
+      Connection connection, ClusteringRelationshipConfig config) {
+    return new ClusteringService(connection, config, ClusteredIdsIndex.create(connection, config));
+  }
 
   @SneakyThrows
   public boolean isClustered(Long gbifId) {
+    if (index != null) {
+      return index.contains(gbifId);
+    }
     try (Table table = connection.getTable(TableName.valueOf(config.getRelationshipTableName()))) {
       Scan scan = new Scan();
       scan.setBatch(1);
       scan.addFamily(Bytes.toBytes("o"));
-      int salt = Math.abs(gbifId.toString().hashCode()) % config.getRelationshipTableSalt();
+      int salt = getSalt(gbifId, config.getRelationshipTableSalt());
       scan.setRowPrefixFilter(Bytes.toBytes(salt + ":" + gbifId));
       ResultScanner s = table.getScanner(scan);
       Result row = s.next();
       return row != null;
     }
   }
+
+  static int getSalt(long gbifId, int saltCount) {
+    return Math.abs(Long.toString(gbifId).hashCode()) % saltCount;
+  }
 }
@@ -0,0 +1,90 @@
+package org.gbif.pipelines.core.parsers.clustering;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable sorted set of positive longs. Values are stored in blocks of 64, the first value of
+ * every block in an array for the binary search and the others as variable length deltas, which
+ * for dense ids such as gbifIds takes 1-2 bytes per value instead of 8.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CompactLongSet {
+
+  private static final int BLOCK_SIZE = 64;
+
+  private final long[] blockFirsts;
+  private final int[] blockOffsets;
+  private final byte[] deltas;
+  @Getter private final int size;
+
+  /** Creates the set from the first length values of the array, in any order and with duplicates */
+  public static CompactLongSet create(long[] values, int length) {
+    long[] sorted = Arrays.copyOf(values, length);
+    Arrays.sort(sorted);
+
+    int size = 0;
+    for (int i = 0; i < length; i++) {
+      if (size == 0 || sorted[i] != sorted[size - 1]) {
+        sorted[size++] = sorted[i];
+      }
+    }
+
+    int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    long[] blockFirsts = new long[blocks];
+    int[] blockOffsets = new int[blocks];
+    ByteArrayOutputStream deltas = new ByteArrayOutputStream(size);
+    for (int i = 0; i < size; i++) {
+      if (i % BLOCK_SIZE == 0) {
+        blockFirsts[i / BLOCK_SIZE] = sorted[i];
+        blockOffsets[i / BLOCK_SIZE] = deltas.size();
+      } else {
+        writeVarLong(deltas, sorted[i] - sorted[i - 1]);
+      }
+    }
+    return new CompactLongSet(blockFirsts, blockOffsets, deltas.toByteArray(), size);
+  }
+
+  public boolean contains(long value) {
+    int block = Arrays.binarySearch(blockFirsts, value);
+    if (block >= 0) {
+      return true;
+    }
+    // The block before the insertion point
+    block = -block - 2;
+    if (block < 0) {
+      return false;
+    }
+
+    int end = block + 1 < blockOffsets.length ? blockOffsets[block + 1] : deltas.length;
+    long current = blockFirsts[block];
+    int position = blockOffsets[block];
+    while (position < end) {
+      long delta = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = deltas[position++];
+        delta |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+
+      current += delta;
+      if (current >= value) {
+        return current == value;
+      }
+    }
+    return false;
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+}
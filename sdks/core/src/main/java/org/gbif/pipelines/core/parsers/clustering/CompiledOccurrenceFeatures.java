@@ -0,0 +1,149 @@
+package org.gbif.pipelines.core.parsers.clustering;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * Features of an occurrence prepared once for {@link OccurrenceRelationships#generate}, so
+ * comparing a record with many others doesn't normalise identifiers, parse dates or convert
+ * coordinates for every pair:
+ *
+ * <pre>
+ *    - normalised identifiers as sorted 64-bit hashes, omitted identifiers removed
+ *    - the date as an epoch day, when year, month and day form a valid date
+ *    - the cosine of the latitude for the haversine distance
+ *    - a bitmask of the facts of the record (present fields, holotype)
+ * </pre>
+ */
+public class CompiledOccurrenceFeatures<T extends OccurrenceFeatures> {
+
+  // Facts of a single record
+  static final int HAS_LATITUDE = 1;
+  static final int HAS_LONGITUDE = 1 << 1;
+  static final int HAS_YEAR_MONTH_DAY = 1 << 2;
+  static final int HAS_VALID_DATE = 1 << 3;
+  static final int HAS_ANY_DATE = 1 << 4;
+  static final int HAS_EVENT_DATE = 1 << 5;
+  static final int HAS_TYPE_STATUS = 1 << 6;
+  static final int HOLOTYPE = 1 << 7;
+  static final int HAS_COUNTRY = 1 << 8;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+  private static final Set<String> ID_OMIT_SET =
+      new HashSet<>(OccurrenceRelationships.newIdOmitList());
+
+  @Getter private final T source;
+
+  final int facts;
+  final String speciesKey;
+  final String taxonKey;
+  final String scientificName;
+  final String typeStatus;
+  final String recordedBy;
+  final String countryCode;
+  final String eventDate;
+  final int year;
+  final int month;
+  final int day;
+  final LocalDate date;
+  final long epochDay;
+  final double latitude;
+  final double longitude;
+  final double cosLatitude;
+  final long[] identifierHashes;
+
+  private CompiledOccurrenceFeatures(T source) {
+    this.source = source;
+    this.speciesKey = source.getSpeciesKey();
+    this.taxonKey = source.getTaxonKey();
+    this.scientificName = source.getScientificName();
+    this.typeStatus = source.getTypeStatus();
+    this.recordedBy = source.getRecordedBy();
+    this.countryCode = source.getCountryCode();
+    this.eventDate = source.getEventDate();
+
+    int f = 0;
+
+    Double lat = source.getDecimalLatitude();
+    Double lng = source.getDecimalLongitude();
+    this.latitude = lat == null ? 0d : lat;
+    this.longitude = lng == null ? 0d : lng;
+    this.cosLatitude = Math.cos(Math.toRadians(latitude));
+    f |= lat == null ? 0 : HAS_LATITUDE;
+    f |= lng == null ? 0 : HAS_LONGITUDE;
+
+    Integer y = source.getYear();
+    Integer m = source.getMonth();
+    Integer d = source.getDay();
+    this.year = y == null ? 0 : y;
+    this.month = m == null ? 0 : m;
+    this.day = d == null ? 0 : d;
+    f |= y == null && m == null && d == null && eventDate == null ? 0 : HAS_ANY_DATE;
+    f |= eventDate == null ? 0 : HAS_EVENT_DATE;
+
+    LocalDate localDate = null;
+    if (y != null && m != null && d != null) {
+      f |= HAS_YEAR_MONTH_DAY;
+      try {
+        localDate = LocalDate.of(year, month, day);
+        f |= HAS_VALID_DATE;
+      } catch (DateTimeException ex) {
+        // Not a date, records can't be approximately the same date
+      }
+    }
+    this.date = localDate;
+    this.epochDay = localDate == null ? 0L : localDate.toEpochDay();
+
+    f |= typeStatus == null ? 0 : HAS_TYPE_STATUS;
+    f |= typeStatus != null && typeStatus.equalsIgnoreCase("HOLOTYPE") ? HOLOTYPE : 0;
+    f |= countryCode == null ? 0 : HAS_COUNTRY;
+
+    List<String> identifiers = source.listIdentifiers();
+    long[] hashes = new long[identifiers.size()];
+    int size = 0;
+    for (String id : identifiers) {
+      String normalized = OccurrenceRelationships.normalizeID(id);
+      if (!ID_OMIT_SET.contains(normalized)) {
+        hashes[size++] = HASH_FUNCTION.hashString(normalized, StandardCharsets.UTF_8).asLong();
+      }
+    }
+    Arrays.sort(hashes, 0, size);
+    this.identifierHashes = Arrays.copyOf(hashes, size);
+
+    this.facts = f;
+  }
+
+  public static <T extends OccurrenceFeatures> CompiledOccurrenceFeatures<T> compile(T source) {
+    return new CompiledOccurrenceFeatures<>(source);
+  }
+
+  boolean has(int fact) {
+    return (facts & fact) == fact;
+  }
+
+  /** @return true if both records share a normalised identifier */
+  boolean identifiersOverlap(CompiledOccurrenceFeatures<?> other) {
+    long[] h1 = identifierHashes;
+    long[] h2 = other.identifierHashes;
+    int i = 0;
+    int j = 0;
+    while (i < h1.length && j < h2.length) {
+      if (h1[i] == h2[j]) {
+        return true;
+      } else if (h1[i] < h2[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return false;
+  }
+}
@@ -9,17 +9,31 @@ import lombok.NoArgsConstructor;
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class Haversine {
-  private static final int APPROX_EARTH_RADIUS_KM = 6371;
+  static final int APPROX_EARTH_RADIUS_KM = 6371;
 
   public static double distance(double startLat, double startLong, double endLat, double endLong) {
+    return distance(
+        startLat,
+        startLong,
+        Math.cos(Math.toRadians(startLat)),
+        endLat,
+        endLong,
+        Math.cos(Math.toRadians(endLat)));
+  }
+
+  /** Same as {@link #distance(double, double, double, double)} with the cosines of latitudes */
+  public static double distance(
+      double startLat,
+      double startLong,
+      double cosStartLat,
+      double endLat,
+      double endLong,
+      double cosEndLat) {
 
     double dLat = Math.toRadians((endLat - startLat));
     double dLong = Math.toRadians((endLong - startLong));
 
-    startLat = Math.toRadians(startLat);
-    endLat = Math.toRadians(endLat);
-
-    double a = haversin(dLat) + Math.cos(startLat) * Math.cos(endLat) * haversin(dLong);
+    double a = haversin(dLat) + cosStartLat * cosEndLat * haversin(dLong);
     double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
 
     return APPROX_EARTH_RADIUS_KM * c;
@@ -4,7 +4,6 @@ import static org.gbif.pipelines.core.parsers.clustering.RelationshipAssertion.F
 import static org.gbif.pipelines.core.parsers.clustering.RelationshipAssertion.FeatureAssertion.IDENTIFIERS_OVERLAP;
 
 import com.google.common.annotations.VisibleForTesting;
-import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -22,48 +21,73 @@ public class OccurrenceRelationships {
   // A list of IDs that are excluded for comparison
   private static final List<String> idOmitList = newIdOmitList();
 
-  /** Will either generate an assertion with justification or return null. */
+  // Haversine distance is never less than the latitude distance, 2km in degrees
+  private static final double MAX_LATITUDE_DELTA =
+      Math.toDegrees(2d / Haversine.APPROX_EARTH_RADIUS_KM) + 1e-9;
+
+  // fact combinations that are of interest as assertions
+  private static final int[] PASS_CONDITIONS = {
+    mask(SAME_ACCEPTED_SPECIES, SAME_COORDINATES, SAME_DATE),
+    mask(SAME_ACCEPTED_SPECIES, WITHIN_200m, SAME_DATE), // accommodate 3 decimal place roundings
+    mask(SAME_ACCEPTED_SPECIES, SAME_COORDINATES, NON_CONFLICTING_DATE, IDENTIFIERS_OVERLAP),
+    mask(SAME_ACCEPTED_SPECIES, WITHIN_200m, NON_CONFLICTING_DATE, IDENTIFIERS_OVERLAP),
+    mask(SAME_ACCEPTED_SPECIES, WITHIN_2Km, SAME_DATE, IDENTIFIERS_OVERLAP),
+    mask(SAME_ACCEPTED_SPECIES, WITHIN_2Km, NON_CONFLICTING_DATE, IDENTIFIERS_OVERLAP),
+    mask(SAME_ACCEPTED_SPECIES, NON_CONFLICTING_COORDINATES, SAME_DATE, IDENTIFIERS_OVERLAP),
+    mask(SAME_ACCEPTED_SPECIES, SAME_COORDINATES, APPROXIMATE_DATE, SAME_RECORDER_NAME),
+    mask(SAME_ACCEPTED_SPECIES, WITHIN_2Km, APPROXIMATE_DATE, SAME_RECORDER_NAME),
+  };
+
+  // always exclude things on different location or date
+  private static final int EXCLUDE_CONDITIONS = mask(DIFFERENT_DATE, DIFFERENT_COUNTRY);
+
+  // typification events and duplicate specimens are always of interest
+  private static final int SHORT_CIRCUIT_CONDITIONS = mask(SAME_SPECIMEN, TYPIFICATION_RELATION);
+
+  /**
+   * Will either generate an assertion with justification or return null.
+   *
+   * <p>Both records are compiled on every call, this is meant for tests and one-off comparisons.
+   * When a record is compared with many others, compile each record once with {@link
+   * CompiledOccurrenceFeatures#compile} and use {@link #generate(CompiledOccurrenceFeatures,
+   * CompiledOccurrenceFeatures)}.
+   */
   public static <T extends OccurrenceFeatures> RelationshipAssertion<T> generate(T o1, T o2) {
+    return generate(
+        CompiledOccurrenceFeatures.compile(o1), CompiledOccurrenceFeatures.compile(o2));
+  }
 
-    RelationshipAssertion<T> assertion = new RelationshipAssertion<>(o1, o2);
+  /**
+   * Same as {@link #generate(OccurrenceFeatures, OccurrenceFeatures)} using features compiled
+   * once per record, facts are collected into a bitmask and rules are matched as bitmask checks.
+   */
+  public static <T extends OccurrenceFeatures> RelationshipAssertion<T> generate(
+      CompiledOccurrenceFeatures<T> o1, CompiledOccurrenceFeatures<T> o2) {
 
     // a rule based approach which could port to e.g. easy-rules if this approach is to grow
 
+    // facts required by every rule
+    int facts = compareTaxa(o1, o2) | assertSameSpecimen(o1, o2) | assertTypification(o1, o2);
+    if (facts == 0) {
+      return null;
+    }
+
     // generate "facts"
-    compareTaxa(o1, o2, assertion);
-    compareIdentifiers(o1, o2, assertion);
-    compareDates(o1, o2, assertion);
-    compareCollectors(o1, o2, assertion);
-    compareCoordinates(o1, o2, assertion);
-    compareCountry(o1, o2, assertion);
-    assertSameSpecimen(o1, o2, assertion);
-    assertTypification(o1, o2, assertion);
-
-    // short circuit: typification events and duplicate specimens are always of interest
-    if (assertion.justificationContains(SAME_SPECIMEN)
-        || assertion.justificationContains(TYPIFICATION_RELATION)) {
-      return assertion;
+    facts |= compareIdentifiers(o1, o2);
+    facts |= compareDates(o1, o2);
+    facts |= compareCollectors(o1, o2);
+    facts |= compareCoordinates(o1, o2);
+    facts |= compareCountry(o1, o2);
+
+    if ((facts & SHORT_CIRCUIT_CONDITIONS) != 0) {
+      return toAssertion(o1, o2, facts);
     }
 
-    // fact combinations that are of interest as assertions
-    FeatureAssertion[][] passConditions = {
-      {SAME_ACCEPTED_SPECIES, SAME_COORDINATES, SAME_DATE},
-      {SAME_ACCEPTED_SPECIES, WITHIN_200m, SAME_DATE}, // accommodate 3 decimal place roundings
-      {SAME_ACCEPTED_SPECIES, SAME_COORDINATES, NON_CONFLICTING_DATE, IDENTIFIERS_OVERLAP},
-      {SAME_ACCEPTED_SPECIES, WITHIN_200m, NON_CONFLICTING_DATE, IDENTIFIERS_OVERLAP},
-      {SAME_ACCEPTED_SPECIES, WITHIN_2Km, SAME_DATE, IDENTIFIERS_OVERLAP},
-      {SAME_ACCEPTED_SPECIES, WITHIN_2Km, NON_CONFLICTING_DATE, IDENTIFIERS_OVERLAP},
-      {SAME_ACCEPTED_SPECIES, NON_CONFLICTING_COORDINATES, SAME_DATE, IDENTIFIERS_OVERLAP},
-      {SAME_ACCEPTED_SPECIES, SAME_COORDINATES, APPROXIMATE_DATE, SAME_RECORDER_NAME},
-      {SAME_ACCEPTED_SPECIES, WITHIN_2Km, APPROXIMATE_DATE, SAME_RECORDER_NAME},
-    };
-
-    // always exclude things on different location or date
-    if (assertion.justificationDoesNotContain(DIFFERENT_DATE, DIFFERENT_COUNTRY)) {
+    if ((facts & EXCLUDE_CONDITIONS) == 0) {
       // for any ruleset that matches we generate the assertion
-      for (FeatureAssertion[] conditions : passConditions) {
-        if (assertion.justificationContainsAll(conditions)) {
-          return assertion;
+      for (int conditions : PASS_CONDITIONS) {
+        if ((facts & conditions) == conditions) {
+          return toAssertion(o1, o2, facts);
         }
       }
     }
@@ -71,140 +95,169 @@ public class OccurrenceRelationships {
     return null;
   }
 
+  private static int mask(FeatureAssertion... assertions) {
+    int mask = 0;
+    for (FeatureAssertion assertion : assertions) {
+      mask |= 1 << assertion.ordinal();
+    }
+    return mask;
+  }
+
+  private static <T extends OccurrenceFeatures> RelationshipAssertion<T> toAssertion(
+      CompiledOccurrenceFeatures<T> o1, CompiledOccurrenceFeatures<T> o2, int facts) {
+    RelationshipAssertion<T> assertion =
+        new RelationshipAssertion<>(o1.getSource(), o2.getSource());
+    for (FeatureAssertion fa : FeatureAssertion.values()) {
+      if ((facts & (1 << fa.ordinal())) != 0) {
+        assertion.collect(fa);
+      }
+    }
+    return assertion;
+  }
+
   /**
    * A specimen is the same if it is the holotype of the same species. Other cases may be added, but
    * difficult to be 100% sure.
    */
-  private static <T extends OccurrenceFeatures> void assertSameSpecimen(
-      OccurrenceFeatures o1, OccurrenceFeatures o2, RelationshipAssertion<T> assertion) {
-    if (equalsAndNotNull(o1.getTaxonKey(), o2.getTaxonKey())
-        && equalsAndNotNull(o1.getTypeStatus(), o2.getTypeStatus())
-        && o1.getTypeStatus().equalsIgnoreCase("HOLOTYPE")) {
-      assertion.collect(SAME_SPECIMEN);
+  private static int assertSameSpecimen(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
+    if (o1.has(CompiledOccurrenceFeatures.HOLOTYPE)
+        && equalsAndNotNull(o1.taxonKey, o2.taxonKey)
+        && equalsAndNotNull(o1.typeStatus, o2.typeStatus)) {
+      return mask(SAME_SPECIMEN);
     }
+    return 0;
   }
 
-  private static <T extends OccurrenceFeatures> void assertTypification(
-      OccurrenceFeatures o1, OccurrenceFeatures o2, RelationshipAssertion<T> assertion) {
-    if (equalsAndNotNull(o1.getScientificName(), o2.getScientificName())
-        && presentOnBoth(o1.getTypeStatus(), o2.getTypeStatus())) {
-      assertion.collect(TYPIFICATION_RELATION);
+  private static int assertTypification(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
+    if (o1.has(CompiledOccurrenceFeatures.HAS_TYPE_STATUS)
+        && o2.has(CompiledOccurrenceFeatures.HAS_TYPE_STATUS)
+        && equalsAndNotNull(o1.scientificName, o2.scientificName)) {
+      return mask(TYPIFICATION_RELATION);
     }
+    return 0;
   }
 
-  private static <T extends OccurrenceFeatures> void compareTaxa(
-      OccurrenceFeatures o1, OccurrenceFeatures o2, RelationshipAssertion<T> assertion) {
-    if (equalsAndNotNull(o1.getSpeciesKey(), o2.getSpeciesKey())) {
-      assertion.collect(SAME_ACCEPTED_SPECIES);
-    }
+  private static int compareTaxa(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
+    return equalsAndNotNull(o1.speciesKey, o2.speciesKey) ? mask(SAME_ACCEPTED_SPECIES) : 0;
   }
 
-  private static <T extends OccurrenceFeatures> void compareDates(
-      OccurrenceFeatures o1, OccurrenceFeatures o2, RelationshipAssertion<T> assertion) {
+  private static int compareIdentifiers(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
+    return o1.identifiersOverlap(o2) ? mask(IDENTIFIERS_OVERLAP) : 0;
+  }
+
+  private static int compareDates(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
 
     // verbosely written with readability in mind
-    if (equalsAndNotNull(o1.getYear(), o2.getYear())
-        && equalsAndNotNull(o1.getMonth(), o2.getMonth())
-        && equalsAndNotNull(o1.getDay(), o2.getDay())) {
-      assertion.collect(SAME_DATE);
+    if (o1.has(CompiledOccurrenceFeatures.HAS_YEAR_MONTH_DAY)
+        && o2.has(CompiledOccurrenceFeatures.HAS_YEAR_MONTH_DAY)
+        && o1.year == o2.year
+        && o1.month == o2.month
+        && o1.day == o2.day) {
+      return mask(SAME_DATE);
 
-    } else if (equalsAndNotNull(o1.getEventDate(), o2.getEventDate())) {
-      assertion.collect(SAME_DATE);
+    } else if (equalsAndNotNull(o1.eventDate, o2.eventDate)) {
+      return mask(SAME_DATE);
 
     } else if (withinDays(o1, o2)) {
       // accommodate records 1 day apart for e.g. start and end day of an overnight trap, or a
       // timezone issue
-      assertion.collect(APPROXIMATE_DATE);
-
-    } else if (presentAndNotEquals(o1.getEventDate(), o2.getEventDate())) {
-      assertion.collect(DIFFERENT_DATE);
-
-    } else if (allNull(
-        o1.getEventDate(),
-        o1.getDay(),
-        o1.getMonth(),
-        o1.getYear(),
-        o2.getEventDate(),
-        o2.getDay(),
-        o2.getMonth(),
-        o2.getYear())) {
+      return mask(APPROXIMATE_DATE);
+
+    } else if (presentAndNotEquals(o1.eventDate, o2.eventDate)) {
+      return mask(DIFFERENT_DATE);
+
+    } else if (!o1.has(CompiledOccurrenceFeatures.HAS_ANY_DATE)
+        && !o2.has(CompiledOccurrenceFeatures.HAS_ANY_DATE)) {
       // no date on either record
-      assertion.collect(NON_CONFLICTING_DATE);
+      return mask(NON_CONFLICTING_DATE);
 
-    } else if (presentOnOneOnly(o1.getEventDate(), o2.getEventDate())) {
+    } else if (presentOnOneOnly(o1.eventDate, o2.eventDate)) {
       // only one has a date (note that an eventDate is always materialised for a D/M/Y)
-      assertion.collect(NON_CONFLICTING_DATE);
+      return mask(NON_CONFLICTING_DATE);
     }
+    return 0;
   }
 
   /**
    * @return true if o1 and o2 are collected with threshold days (e.g. 12/3/2020 and 13/3/2020 are 1
    *     day apart)
    */
-  private static boolean withinDays(OccurrenceFeatures o1, OccurrenceFeatures o2) {
-    if (o1.getYear() != null
-        && o1.getMonth() != null
-        && o1.getDay() != null
-        && o2.getYear() != null
-        && o2.getMonth() != null
-        && o2.getDay() != null) {
-      LocalDate d1 = LocalDate.of(o1.getYear(), o1.getMonth(), o1.getDay());
-      LocalDate d2 = LocalDate.of(o2.getYear(), o2.getMonth(), o2.getDay());
-      int daysApart = Math.abs(d1.until(d2).getDays());
+  private static boolean withinDays(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
+    if (o1.has(CompiledOccurrenceFeatures.HAS_VALID_DATE)
+        && o2.has(CompiledOccurrenceFeatures.HAS_VALID_DATE)) {
+      if (Math.abs(o1.epochDay - o2.epochDay) <= THRESHOLD_IN_DAYS) {
+        return true;
+      }
+      // the days part of the period, e.g. dates a month and a day apart are within threshold
+      int daysApart = Math.abs(o1.date.until(o2.date).getDays());
       return daysApart <= THRESHOLD_IN_DAYS;
     }
     return false;
   }
 
-  private static <T extends OccurrenceFeatures> void compareCollectors(
-      OccurrenceFeatures o1, OccurrenceFeatures o2, RelationshipAssertion<T> assertion) {
-    if (equalsAndNotNull(o1.getRecordedBy(), o2.getRecordedBy())) {
-      // this could be improved with parsing and similarity checks
-      assertion.collect(SAME_RECORDER_NAME);
-    }
+  private static int compareCollectors(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
+    // this could be improved with parsing and similarity checks
+    return equalsAndNotNull(o1.recordedBy, o2.recordedBy) ? mask(SAME_RECORDER_NAME) : 0;
   }
 
-  private static <T extends OccurrenceFeatures> void compareCoordinates(
-      OccurrenceFeatures o1, OccurrenceFeatures o2, RelationshipAssertion<T> assertion) {
-    if (equalsAndNotNull(o1.getDecimalLatitude(), o2.getDecimalLatitude())
-        && equalsAndNotNull(o1.getDecimalLongitude(), o2.getDecimalLongitude())) {
-      assertion.collect(SAME_COORDINATES);
-    } else if (allNull(
-            o1.getDecimalLatitude(),
-            o1.getDecimalLongitude(),
-            o2.getDecimalLatitude(),
-            o2.getDecimalLongitude())
-        || (presentOnOneOnly(o1.getDecimalLatitude(), o2.getDecimalLatitude())
-            && presentOnOneOnly(o1.getDecimalLongitude(), o2.getDecimalLongitude()))) {
-      // all null or null on one side
-      assertion.collect(NON_CONFLICTING_COORDINATES);
-    } else if (presentOnBoth(o1.getDecimalLatitude(), o2.getDecimalLatitude())
-        && presentOnBoth(o1.getDecimalLongitude(), o2.getDecimalLongitude())) {
-      double distance =
-          Haversine.distance(
-              o1.getDecimalLatitude(),
-              o1.getDecimalLongitude(),
-              o2.getDecimalLatitude(),
-              o2.getDecimalLongitude());
+  private static int compareCoordinates(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
+    int both = CompiledOccurrenceFeatures.HAS_LATITUDE | CompiledOccurrenceFeatures.HAS_LONGITUDE;
+    int coordinates1 = o1.facts & both;
+    int coordinates2 = o2.facts & both;
+
+    if (coordinates1 == both && coordinates2 == both) {
+      // the same as Double.equals
+      if (Double.doubleToLongBits(o1.latitude) == Double.doubleToLongBits(o2.latitude)
+          && Double.doubleToLongBits(o1.longitude) == Double.doubleToLongBits(o2.longitude)) {
+        return mask(SAME_COORDINATES);
+      }
+      if (Math.abs(o1.latitude - o2.latitude) > MAX_LATITUDE_DELTA) {
+        return 0;
+      }
+      double distance = distance(o1, o2);
 
+      int facts = 0;
       if (distance <= 0.200) {
-        assertion.collect(WITHIN_200m); // 157m is 3 decimal places
+        facts |= mask(WITHIN_200m); // 157m is 3 decimal places
       }
       if (distance <= 2.00) {
-        assertion.collect(WITHIN_2Km); // 1569m is worst 3 decimal places
+        facts |= mask(WITHIN_2Km); // 1569m is worst 3 decimal places
       }
+      return facts;
+    }
+
+    // all null or null on one side
+    if ((coordinates1 == 0 && coordinates2 == 0) || (coordinates1 ^ coordinates2) == both) {
+      return mask(NON_CONFLICTING_COORDINATES);
     }
+    return 0;
   }
 
-  private static <T extends OccurrenceFeatures> void compareCountry(
-      OccurrenceFeatures o1, OccurrenceFeatures o2, RelationshipAssertion<T> assertion) {
-    if (equalsAndNotNull(o1.getCountryCode(), o2.getCountryCode())) {
-      assertion.collect(SAME_COUNTRY);
-    } else if (presentOnOneOnly(o1.getCountryCode(), o2.getCountryCode())) {
-      assertion.collect(NON_CONFLICTING_COUNTRY);
-    } else if (presentAndNotEquals(o1.getCountryCode(), o2.getCountryCode())) {
-      assertion.collect(DIFFERENT_COUNTRY);
+  /** {@link Haversine#distance} using the cosine of latitudes computed once per record */
+  private static double distance(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
+    return Haversine.distance(
+        o1.latitude, o1.longitude, o1.cosLatitude, o2.latitude, o2.longitude, o2.cosLatitude);
+  }
+
+  private static int compareCountry(
+      CompiledOccurrenceFeatures<?> o1, CompiledOccurrenceFeatures<?> o2) {
+    if (equalsAndNotNull(o1.countryCode, o2.countryCode)) {
+      return mask(SAME_COUNTRY);
+    } else if (presentOnOneOnly(o1.countryCode, o2.countryCode)) {
+      return mask(NON_CONFLICTING_COUNTRY);
+    } else if (presentAndNotEquals(o1.countryCode, o2.countryCode)) {
+      return mask(DIFFERENT_COUNTRY);
     }
+    return 0;
   }
 
   @VisibleForTesting
@@ -1,5 +1,8 @@
 package org.gbif.pipelines.core.parsers.location;
 
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_BITMAP_HIT_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_BITMAP_MISS_COUNT;
+
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.Serializable;
@@ -7,7 +10,9 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.gbif.kvs.KeyValueStore;
 import org.gbif.kvs.geocode.LatLng;
+import org.gbif.pipelines.core.functions.SerializableConsumer;
 import org.gbif.pipelines.core.parsers.location.cache.GeocodeBitmapCache;
+import org.gbif.pipelines.core.parsers.location.cache.TieredGeocodeCache;
 import org.gbif.rest.client.geocode.GeocodeResponse;
 
 @Slf4j
@@ -17,17 +22,38 @@ public class GeocodeKvStore implements KeyValueStore<LatLng, GeocodeResponse>, S
 
   private final KeyValueStore<LatLng, GeocodeResponse> kvStore;
   private final GeocodeBitmapCache bitmapCache;
+  private final TieredGeocodeCache tieredCache;
+  private final SerializableConsumer<String> counterFn;
 
   private GeocodeKvStore(
       @NonNull KeyValueStore<LatLng, GeocodeResponse> kvStore,
       BufferedImage image,
       String kvStoreType,
-      boolean missEqualsFail) {
+      boolean missEqualsFail,
+      TieredGeocodeCache tieredCache,
+      SerializableConsumer<String> counterFn) {
     this.kvStore = kvStore;
+    this.tieredCache = tieredCache;
+    this.counterFn = counterFn;
     this.bitmapCache =
         image == null
             ? null
-            : GeocodeBitmapCache.create(image, kvStore::get, kvStoreType, missEqualsFail);
+            : GeocodeBitmapCache.create(image, this::load, kvStoreType, missEqualsFail);
+  }
+
+  private GeocodeKvStore(GeocodeKvStore store, SerializableConsumer<String> counterFn) {
+    this.kvStore = store.kvStore;
+    this.tieredCache = store.tieredCache;
+    this.bitmapCache = store.bitmapCache;
+    this.counterFn = counterFn;
+  }
+
+  private GeocodeKvStore(
+      @NonNull KeyValueStore<LatLng, GeocodeResponse> kvStore,
+      BufferedImage image,
+      String kvStoreType,
+      boolean missEqualsFail) {
+    this(kvStore, image, kvStoreType, missEqualsFail, null, null);
   }
 
   public static GeocodeKvStore create(
@@ -52,6 +78,27 @@ public class GeocodeKvStore implements KeyValueStore<LatLng, GeocodeResponse>, S
     return new GeocodeKvStore(kvStore, null, kvStoreType, missEqualsFail);
   }
 
+  /**
+   * Bitmap, then {@link TieredGeocodeCache} tiers and the KV store, tiers report hit and miss
+   * counters using the counter function
+   */
+  public static GeocodeKvStore create(
+      KeyValueStore<LatLng, GeocodeResponse> kvStore,
+      BufferedImage image,
+      TieredGeocodeCache tieredCache,
+      SerializableConsumer<String> counterFn) {
+    return new GeocodeKvStore(
+        kvStore, image, GeocodeBitmapCache.DEFAULT_KV_STORE, true, tieredCache, counterFn);
+  }
+
+  /**
+   * A store sharing the KV store and caches of this one, reporting metrics using the counter
+   * function. Closing it closes the shared KV store and caches.
+   */
+  public GeocodeKvStore withCounterFn(SerializableConsumer<String> counterFn) {
+    return new GeocodeKvStore(this, counterFn);
+  }
+
   /** Simple get candidates by point. */
   @Override
   public GeocodeResponse get(LatLng latLng) {
@@ -66,14 +113,37 @@ public class GeocodeKvStore implements KeyValueStore<LatLng, GeocodeResponse>, S
     if (locations == null
         || locations.getLocations() == null
         || locations.getLocations().isEmpty()) {
-      locations = kvStore.get(latLng);
+      incMetrics(bitmapCache == null ? null : GEOCODE_BITMAP_MISS_COUNT);
+      locations = load(latLng, counterFn);
+    } else {
+      incMetrics(GEOCODE_BITMAP_HIT_COUNT);
     }
 
     return locations;
   }
 
+  /** Loads colours of the bitmap, once per colour, without metrics */
+  private GeocodeResponse load(LatLng latLng) {
+    return load(latLng, null);
+  }
+
+  private GeocodeResponse load(LatLng latLng, SerializableConsumer<String> counterFn) {
+    return tieredCache == null
+        ? kvStore.get(latLng)
+        : tieredCache.get(latLng, kvStore::get, counterFn);
+  }
+
+  private void incMetrics(String metricName) {
+    if (counterFn != null && metricName != null) {
+      counterFn.accept(metricName);
+    }
+  }
+
   @Override
   public void close() {
+    if (tieredCache != null) {
+      tieredCache.close();
+    }
     if (kvStore != null) {
       try {
         kvStore.close();
@@ -1,47 +1,80 @@
 package org.gbif.pipelines.core.parsers.location.cache;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.awt.image.BufferedImage;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.NonNull;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.gbif.kvs.geocode.LatLng;
 import org.gbif.rest.client.geocode.GeocodeResponse;
 import org.gbif.rest.client.geocode.Location;
 
-/** A cache which uses a bitmap to cache coordinate lookups. */
+/**
+ * A cache which uses a bitmap to cache coordinate lookups.
+ *
+ * <p>The image is decoded once into an array of colour indexes, one per pixel, and responses are
+ * kept in an array by colour index, so a lookup of a known colour doesn't allocate. Indexes are
+ * chars, two bytes per pixel, so the map can have up to 65536 colours: the 7200x3600 world map
+ * takes about 52MB, half of the decoded int pixels.
+ *
+ * <p>The decoded indexes of an image are shared by all caches of the JVM created from the same
+ * image instance, only the responses by colour are kept per cache.
+ */
 @Slf4j
 public class GeocodeBitmapCache {
 
+  // Decoded images by image instance, released when the image is no longer used
+  private static final Map<BufferedImage, Bitmap> BITMAPS =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
   private final Function<LatLng, GeocodeResponse> loadFn;
 
   // World map image lookup
-  private final BufferedImage img;
   private static final int BORDER = 0x000000;
   private static final int NOTHING = 0xFFFFFF;
   private final int imgWidth;
   private final int imgHeight;
-  private final Map<Integer, GeocodeResponse> colourKey = new ConcurrentHashMap<>();
+  private static final int MAX_COLOURS = Character.MAX_VALUE + 1;
+  // Pixel (y * width + x) -> colour index
+  private final char[] pixels;
+  // Colour index -> RGB colour
+  private final int[] colours;
+  // Colour index -> response, null until the colour is looked up the first time
+  private final AtomicReferenceArray<GeocodeResponse> colourKey;
   public static final String DEFAULT_KV_STORE = "COUNTRY";
   private String kvStoreType;
   private boolean missEqualsFail = true;
 
-  @SneakyThrows
   private GeocodeBitmapCache(
       BufferedImage img,
       Function<LatLng, GeocodeResponse> loadFn,
       String kvStoreType,
       boolean missEqualsFail) {
     this.loadFn = loadFn;
-    this.img = img;
-    this.imgHeight = img != null ? img.getHeight() : -1;
-    this.imgWidth = img != null ? img.getWidth() : -1;
     this.kvStoreType = kvStoreType;
     this.missEqualsFail = missEqualsFail;
+
+    Bitmap bitmap = BITMAPS.computeIfAbsent(img, i -> Bitmap.decode(i, kvStoreType));
+    this.imgHeight = bitmap.height;
+    this.imgWidth = bitmap.width;
+    this.pixels = bitmap.pixels;
+    this.colours = bitmap.colours;
+    this.colourKey = new AtomicReferenceArray<>(colours.length);
+
+    GeocodeResponse nothing = new GeocodeResponse(Collections.emptyList());
+    for (int i = 0; i < colours.length; i++) {
+      if (colours[i] == NOTHING) {
+        colourKey.set(i, nothing);
+      }
+    }
   }
 
   public static GeocodeBitmapCache create(
@@ -72,35 +105,36 @@ public class GeocodeBitmapCache {
     int x = (int) Math.round((lng + 180d) / 360d * (imgWidth - 1));
     int y = imgHeight - 1 - (int) Math.round((lat + 90d) / 180d * (imgHeight - 1));
 
-    int colour = img.getRGB(x, y) & 0x00FFFFFF; // Ignore possible transparency.
-
-    String hex = String.format("#%06x", colour);
-    log.debug(
-        "[{}] LatLong {},{} has pixel {},{} with colour {}", kvStoreType, lat, lng, x, y, hex);
+    int index = pixels[y * imgWidth + x];
 
-    switch (colour) {
-      case BORDER:
-        return null;
+    if (log.isDebugEnabled()) {
+      log.debug(
+          "[{}] LatLong {},{} has pixel {},{} with colour {}",
+          kvStoreType,
+          lat,
+          lng,
+          x,
+          y,
+          hex(colours[index]));
+    }
 
-      case NOTHING:
-        return new GeocodeResponse(Collections.emptyList());
+    if (colours[index] == BORDER) {
+      return null;
+    }
 
-      default:
-        return getDefaultGeocodeResponse(lat, lng, x, y, colour, hex);
+    GeocodeResponse locations = colourKey.get(index);
+    if (locations != null) {
+      return locations;
     }
+    return getDefaultGeocodeResponse(lat, lng, x, y, index);
   }
 
   private GeocodeResponse getDefaultGeocodeResponse(
-      double lat, double lng, int x, int y, int colour, String hex) {
+      double lat, double lng, int x, int y, int index) {
 
-    GeocodeResponse locations;
-    if (colourKey.containsKey(colour)) {
-      locations = colourKey.get(colour);
-      log.debug("[{}] Known colour {} (LL {},{}; pixel {},{})", kvStoreType, hex, lat, lng, x, y);
-      return locations;
-    }
-
-    locations = loadFn.apply(LatLng.builder().withLatitude(lat).withLongitude(lng).build());
+    String hex = hex(colours[index]);
+    GeocodeResponse locations =
+        loadFn.apply(LatLng.builder().withLatitude(lat).withLongitude(lng).build());
     // Don't store this if there aren't any locations.
     if (locations.getLocations().isEmpty()) {
       if (missEqualsFail) {
@@ -122,23 +156,72 @@ public class GeocodeBitmapCache {
             x,
             y);
       }
-      colourKey.put(colour, locations);
+      colourKey.set(index, locations);
     } else {
-      log.debug(
-          "[{}] New colour {} (LL {},{}; pixel {},{}); remembering as {}",
-          kvStoreType,
-          hex,
-          lat,
-          lng,
-          x,
-          y,
-          joinLocations(locations));
-      colourKey.put(colour, locations);
+      if (log.isDebugEnabled()) {
+        log.debug(
+            "[{}] New colour {} (LL {},{}; pixel {},{}); remembering as {}",
+            kvStoreType,
+            hex,
+            lat,
+            lng,
+            x,
+            y,
+            joinLocations(locations));
+      }
+      colourKey.set(index, locations);
     }
 
     return locations;
   }
 
+  @VisibleForTesting
+  char[] getPixels() {
+    return pixels;
+  }
+
+  private static String hex(int colour) {
+    return String.format("#%06x", colour);
+  }
+
+  /** Colour indexes of the pixels of an image, read only after decoding */
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  private static class Bitmap {
+    private final int width;
+    private final int height;
+    private final char[] pixels;
+    private final int[] colours;
+
+    private static Bitmap decode(BufferedImage img, String kvStoreType) {
+      int width = img.getWidth();
+      int height = img.getHeight();
+      char[] pixels = new char[width * height];
+      Map<Integer, Integer> indexes = new HashMap<>();
+      // Decoded a row at a time, the whole image as ints would take twice the size of the indexes
+      int[] row = new int[width];
+      for (int y = 0; y < height; y++) {
+        img.getRGB(0, y, width, 1, row, 0, width);
+        for (int x = 0; x < width; x++) {
+          int colour = row[x] & 0x00FFFFFF; // Ignore possible transparency.
+          Integer index = indexes.get(colour);
+          if (index == null) {
+            index = indexes.size();
+            if (index == MAX_COLOURS) {
+              throw new IllegalArgumentException(
+                  "Bitmap has more than " + MAX_COLOURS + " colours: " + kvStoreType);
+            }
+            indexes.put(colour, index);
+          }
+          pixels[y * width + x] = (char) index.intValue();
+        }
+      }
+      int[] colours = new int[indexes.size()];
+      indexes.forEach((colour, index) -> colours[index] = colour);
+      log.info("[{}] Bitmap {}x{} has {} colours", kvStoreType, width, height, colours.length);
+      return new Bitmap(width, height, pixels, colours);
+    }
+  }
+
   private String joinLocations(GeocodeResponse loc) {
     return loc.getLocations().stream()
         .map(Location::getId)
@@ -0,0 +1,24 @@
+package org.gbif.pipelines.core.parsers.location.cache;
+
+import java.io.Closeable;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+
+/** One level of {@link TieredGeocodeCache}, keyed by rounded coordinates */
+public interface GeocodeCacheTier extends Closeable {
+
+  /** @return the cached response or null */
+  GeocodeResponse get(long key);
+
+  void put(long key, GeocodeResponse response);
+
+  /** Metric name for the number of hits */
+  String getHitMetricName();
+
+  /** Metric name for the number of misses */
+  String getMissMetricName();
+
+  @Override
+  default void close() {
+    // Nothing to release by default
+  }
+}
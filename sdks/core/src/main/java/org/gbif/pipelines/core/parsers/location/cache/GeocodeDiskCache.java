@@ -0,0 +1,162 @@
+package org.gbif.pipelines.core.parsers.location.cache;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_DISK_HIT_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_DISK_MISS_COUNT;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.mapdb.DB;
+import org.mapdb.DBException;
+import org.mapdb.DBMaker;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+
+/**
+ * Persistent tier backed by a memory-mapped mapdb file (http://www.mapdb.org/), responses are
+ * stored as JSON and survive between runs.
+ *
+ * <pre>
+ *    - the file name carries a hash of the fingerprint, e.g. the geocode layers version, so a new
+ *    version of the layers starts with a new file instead of reusing stale responses
+ *    - responses are stored with the time they were cached and are looked up again when they are
+ *    older than the expiry time
+ *    - the file can be used by one process at a time, so {@link #create} returns one shared
+ *    instance per file in the JVM and the file is closed when the last user closes it. A file
+ *    locked by another process isn't opened, the caller goes on with the other tiers
+ * </pre>
+ */
+@Slf4j
+public class GeocodeDiskCache implements GeocodeCacheTier {
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  // Open caches by canonical path
+  private static final Map<String, GeocodeDiskCache> INSTANCES = new HashMap<>();
+
+  private final String path;
+  private final long expiryTimeInMillis;
+  private final DB db;
+  private final HTreeMap<Long, byte[]> map;
+  private int users;
+
+  private GeocodeDiskCache(String path, long expiryTimeInMillis) {
+    this.path = path;
+    this.expiryTimeInMillis = expiryTimeInMillis;
+    File file = new File(path);
+    if (file.getParentFile() != null) {
+      file.getParentFile().mkdirs();
+    }
+    // The fileChannelEnable is used only when mmap is not supported (mapdb does it internally)
+    this.db =
+        DBMaker.fileDB(file)
+            .fileMmapEnableIfSupported()
+            .cleanerHackEnable()
+            .fileChannelEnable()
+            .closeOnJvmShutdown()
+            .make();
+    this.map = db.hashMap("geocode", Serializer.LONG, Serializer.BYTE_ARRAY).createOrOpen();
+    log.info("Geocode disk cache {} has {} responses", path, map.size());
+  }
+
+  /** Opens a cache without fingerprint and expiry, see {@link #create(String, String, long)} */
+  public static Optional<GeocodeDiskCache> create(@NonNull String path) {
+    return create(path, null, 0L);
+  }
+
+  /**
+   * Opens the file or returns the instance already using it, every instance needs one close
+   *
+   * @param path path of the file, a hash of the fingerprint is appended to it
+   * @param fingerprint version of the cached data, null or empty to use the path as is
+   * @param expiryTimeInMillis age of the responses which are looked up again, 0 to never expire
+   * @return the cache, empty when the file is locked by another process
+   */
+  @SneakyThrows
+  public static Optional<GeocodeDiskCache> create(
+      @NonNull String path, String fingerprint, long expiryTimeInMillis) {
+    String canonicalPath = new File(fingerprintPath(path, fingerprint)).getCanonicalPath();
+    synchronized (INSTANCES) {
+      GeocodeDiskCache cache = INSTANCES.get(canonicalPath);
+      if (cache == null) {
+        try {
+          cache = new GeocodeDiskCache(canonicalPath, expiryTimeInMillis);
+        } catch (DBException.FileLocked | OverlappingFileLockException ex) {
+          log.warn("Geocode disk cache {} is locked, the disk tier is skipped", canonicalPath);
+          return Optional.empty();
+        }
+        INSTANCES.put(canonicalPath, cache);
+      }
+      cache.users++;
+      return Optional.of(cache);
+    }
+  }
+
+  static String fingerprintPath(String path, String fingerprint) {
+    if (fingerprint == null || fingerprint.isEmpty()) {
+      return path;
+    }
+    return path + "-" + Hashing.murmur3_32().hashString(fingerprint, StandardCharsets.UTF_8);
+  }
+
+  @SneakyThrows
+  @Override
+  public GeocodeResponse get(long key) {
+    byte[] value = map.get(key);
+    if (value == null) {
+      return null;
+    }
+    long cachedAt = ByteBuffer.wrap(value).getLong();
+    if (expiryTimeInMillis > 0 && System.currentTimeMillis() - cachedAt > expiryTimeInMillis) {
+      map.remove(key);
+      return null;
+    }
+    return MAPPER.readValue(value, Long.BYTES, value.length - Long.BYTES, GeocodeResponse.class);
+  }
+
+  @SneakyThrows
+  @Override
+  public void put(long key, GeocodeResponse response) {
+    byte[] json = MAPPER.writeValueAsBytes(response);
+    byte[] value =
+        ByteBuffer.allocate(Long.BYTES + json.length)
+            .putLong(System.currentTimeMillis())
+            .put(json)
+            .array();
+    map.put(key, value);
+  }
+
+  @Override
+  public String getHitMetricName() {
+    return GEOCODE_DISK_HIT_COUNT;
+  }
+
+  @Override
+  public String getMissMetricName() {
+    return GEOCODE_DISK_MISS_COUNT;
+  }
+
+  @Override
+  public void close() {
+    synchronized (INSTANCES) {
+      if (users > 0 && --users == 0) {
+        INSTANCES.remove(path);
+        if (!db.isClosed()) {
+          db.close();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package org.gbif.pipelines.core.parsers.location.cache;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_MEMORY_HIT_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_MEMORY_MISS_COUNT;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+
+/** Size bounded on-heap tier, the least recently used responses are evicted first */
+public class GeocodeMemoryCache implements GeocodeCacheTier {
+
+  private final Cache<Long, GeocodeResponse> cache;
+
+  private GeocodeMemoryCache(long maxSize) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+            .build();
+  }
+
+  public static GeocodeMemoryCache create(long maxSize) {
+    return new GeocodeMemoryCache(maxSize);
+  }
+
+  @Override
+  public GeocodeResponse get(long key) {
+    return cache.getIfPresent(key);
+  }
+
+  @Override
+  public void put(long key, GeocodeResponse response) {
+    cache.put(key, response);
+  }
+
+  @Override
+  public String getHitMetricName() {
+    return GEOCODE_MEMORY_HIT_COUNT;
+  }
+
+  @Override
+  public String getMissMetricName() {
+    return GEOCODE_MEMORY_MISS_COUNT;
+  }
+
+  @Override
+  public void close() {
+    cache.invalidateAll();
+  }
+}
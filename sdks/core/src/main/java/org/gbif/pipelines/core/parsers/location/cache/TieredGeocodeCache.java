@@ -0,0 +1,96 @@
+package org.gbif.pipelines.core.parsers.location.cache;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.Builder;
+import lombok.Singular;
+import org.gbif.kvs.geocode.LatLng;
+import org.gbif.pipelines.core.functions.SerializableConsumer;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+
+/**
+ * Chain of {@link GeocodeCacheTier}s in front of the geocode service, keyed by coordinates rounded
+ * to {@link #precision} decimal places. Tiers are checked in order, a hit is copied into all
+ * previous tiers and a loaded response is put into all tiers. Empty responses are kept by no tier,
+ * they can be caused by a service failure.
+ *
+ * <p>Every tier reports hit and miss counters through the counter function of the call, so one
+ * cache can be shared by callers with different counters.
+ */
+public class TieredGeocodeCache implements Closeable {
+
+  private static final int MAX_PRECISION = 7;
+
+  private final List<GeocodeCacheTier> tiers;
+  private final long scale;
+  private final long lngRange;
+
+  @Builder(buildMethodName = "create")
+  private TieredGeocodeCache(@Singular List<GeocodeCacheTier> tiers, Integer precision) {
+    int p = precision == null ? 5 : precision;
+    if (p < 0 || p > MAX_PRECISION) {
+      throw new IllegalArgumentException("Precision must be between 0 and " + MAX_PRECISION);
+    }
+    this.tiers = tiers;
+    this.scale = (long) Math.pow(10, p);
+    this.lngRange = 360L * scale + 1L;
+  }
+
+  /** Returns the cached response or loads it using the function */
+  public GeocodeResponse get(LatLng latLng, Function<LatLng, GeocodeResponse> loadFn) {
+    return get(latLng, loadFn, null);
+  }
+
+  /**
+   * Returns the cached response or loads it using the function, hits and misses of every tier are
+   * reported using the counter function, if it is set
+   */
+  public GeocodeResponse get(
+      LatLng latLng,
+      Function<LatLng, GeocodeResponse> loadFn,
+      SerializableConsumer<String> counterFn) {
+    long key = toKey(latLng);
+    for (int i = 0; i < tiers.size(); i++) {
+      GeocodeCacheTier tier = tiers.get(i);
+      GeocodeResponse response = tier.get(key);
+      if (response != null) {
+        incMetrics(counterFn, tier.getHitMetricName());
+        for (int j = 0; j < i; j++) {
+          put(tiers.get(j), key, response);
+        }
+        return response;
+      }
+      incMetrics(counterFn, tier.getMissMetricName());
+    }
+
+    GeocodeResponse response = loadFn.apply(latLng);
+    tiers.forEach(tier -> put(tier, key, response));
+    return response;
+  }
+
+  /** Packs rounded latitude and longitude into one long */
+  long toKey(LatLng latLng) {
+    long lat = Math.round((latLng.getLatitude() + 90d) * scale);
+    long lng = Math.round((latLng.getLongitude() + 180d) * scale);
+    return lat * lngRange + lng;
+  }
+
+  @Override
+  public void close() {
+    tiers.forEach(GeocodeCacheTier::close);
+  }
+
+  private static void put(GeocodeCacheTier tier, long key, GeocodeResponse response) {
+    if (response != null
+        && response.getLocations() != null
+        && !response.getLocations().isEmpty()) {
+      tier.put(key, response);
+    }
+  }
+
+  private static void incMetrics(SerializableConsumer<String> counterFn, String metricName) {
+    Optional.ofNullable(counterFn).ifPresent(x -> x.accept(metricName));
+  }
+}
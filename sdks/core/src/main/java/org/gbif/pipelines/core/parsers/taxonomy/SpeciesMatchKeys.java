@@ -0,0 +1,66 @@
+package org.gbif.pipelines.core.parsers.taxonomy;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.gbif.kvs.species.SpeciesMatchRequest;
+
+/**
+ * Encodes a {@link SpeciesMatchRequest} into a string and back, records with the same taxonomic
+ * fields have the same key, so the key can be used to deduplicate species match lookups and as a
+ * key of a Beam side input.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SpeciesMatchKeys {
+
+  private static final String SEPARATOR = "\u0001";
+  private static final String NULL = "\u0002";
+  private static final int FIELDS = 13;
+
+  public static String encode(SpeciesMatchRequest request) {
+    return Arrays.stream(
+            new String[] {
+              request.getKingdom(),
+              request.getPhylum(),
+              request.getClazz(),
+              request.getOrder(),
+              request.getFamily(),
+              request.getGenus(),
+              request.getScientificName(),
+              request.getRank(),
+              request.getVerbatimRank(),
+              request.getSpecificEpithet(),
+              request.getInfraspecificEpithet(),
+              request.getScientificNameAuthorship(),
+              request.getGenericName()
+            })
+        .map(v -> v == null ? NULL : v)
+        .collect(Collectors.joining(SEPARATOR));
+  }
+
+  public static SpeciesMatchRequest decode(String key) {
+    String[] v = key.split(SEPARATOR, -1);
+    if (v.length != FIELDS) {
+      throw new IllegalArgumentException("Species match key must have " + FIELDS + " fields");
+    }
+    for (int i = 0; i < v.length; i++) {
+      v[i] = NULL.equals(v[i]) ? null : v[i];
+    }
+    return SpeciesMatchRequest.builder()
+        .withKingdom(v[0])
+        .withPhylum(v[1])
+        .withClazz(v[2])
+        .withOrder(v[3])
+        .withFamily(v[4])
+        .withGenus(v[5])
+        .withScientificName(v[6])
+        .withRank(v[7])
+        .withVerbatimRank(v[8])
+        .withSpecificEpithet(v[9])
+        .withInfraspecificEpithet(v[10])
+        .withScientificNameAuthorship(v[11])
+        .withGenericName(v[12])
+        .build();
+  }
+}
@@ -0,0 +1,58 @@
+package org.gbif.pipelines.core.parsers.temporal;
+
+import static org.gbif.common.parsers.core.ParseResult.CONFIDENCE.DEFINITE;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAccessor;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.gbif.common.parsers.core.ParseResult;
+
+/**
+ * Fast path for the most common date format, a strict yyyy-MM-dd string is parsed without regular
+ * expressions and intermediate objects. Returns null for anything else, including valid dates in
+ * other formats, so the caller can fall back to the full parser.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class IsoDateParser {
+
+  private static final int[] DAYS_IN_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+  /** @return parse result or null if the value is not a strict and valid yyyy-MM-dd date */
+  static ParseResult<TemporalAccessor> parse(String value) {
+    if (value == null
+        || value.length() != 10
+        || value.charAt(4) != '-'
+        || value.charAt(7) != '-'
+        || value.charAt(0) == '0') {
+      return null;
+    }
+    int year = digits(value, 0, 4);
+    int month = digits(value, 5, 7);
+    int day = digits(value, 8, 10);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > DAYS_IN_MONTH[month - 1]) {
+      return null;
+    }
+    if (month == 2 && day == 29 && !isLeapYear(year)) {
+      return null;
+    }
+    return ParseResult.success(DEFINITE, LocalDate.of(year, month, day));
+  }
+
+  /** @return the number or -1 if any char is not an ASCII digit */
+  private static int digits(String value, int from, int to) {
+    int result = 0;
+    for (int i = from; i < to; i++) {
+      int d = value.charAt(i) - '0';
+      if (d < 0 || d > 9) {
+        return -1;
+      }
+      result = result * 10 + d;
+    }
+    return result;
+  }
+
+  private static boolean isLeapYear(int year) {
+    return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+  }
+}
@@ -4,12 +4,20 @@ import static org.gbif.common.parsers.core.ParseResult.CONFIDENCE.DEFINITE;
 import static org.gbif.common.parsers.core.ParseResult.CONFIDENCE.PROBABLE;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Range;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.gbif.api.vocabulary.OccurrenceIssue;
@@ -26,9 +34,15 @@ public class TemporalParser implements Serializable {
   private static final long serialVersionUID = -8845127337324812802L;
 
   private static final LocalDate MIN_LOCAL_DATE = LocalDate.of(1600, 1, 1);
+  private static final long CACHE_SIZE = 10_000L;
+
+  private static volatile ValidRange validRange = new ValidRange(0L, null);
 
   private final org.gbif.common.parsers.date.TemporalParser temporalParser;
 
+  // Raw values repeat within a dataset, the cache is created again after deserialization
+  private transient volatile Cache<List<String>, ParseResult<TemporalAccessor>> cache;
+
   private TemporalParser(List<DateComponentOrdering> orderings) {
     if (orderings != null && !orderings.isEmpty()) {
       DateComponentOrdering[] array = orderings.toArray(new DateComponentOrdering[0]);
@@ -80,9 +94,9 @@ public class TemporalParser implements Serializable {
     ParseResult.CONFIDENCE confidence;
 
     ParseResult<TemporalAccessor> parsedYMDResult =
-        atomizedDateProvided ? temporalParser.parse(year, month, day) : ParseResult.fail();
+        atomizedDateProvided ? parse(year, month, day) : ParseResult.fail();
     ParseResult<TemporalAccessor> parsedDateResult =
-        dateStringProvided ? temporalParser.parse(dateString) : ParseResult.fail();
+        dateStringProvided ? parse(dateString) : ParseResult.fail();
     TemporalAccessor parsedYmdTa = parsedYMDResult.getPayload();
     TemporalAccessor parsedDateTa = parsedDateResult.getPayload();
 
@@ -159,7 +173,7 @@ public class TemporalParser implements Serializable {
       String dateString, Range<LocalDate> likelyRange, OccurrenceIssue unlikelyIssue) {
     if (!Strings.isNullOrEmpty(dateString)) {
       OccurrenceParseResult<TemporalAccessor> result =
-          new OccurrenceParseResult<>(temporalParser.parse(dateString));
+          new OccurrenceParseResult<>(parse(dateString));
       // check year makes sense
       if (result.isSuccessful() && !isValidDate(result.getPayload(), likelyRange)) {
         log.debug("Unlikely date parsed, ignore [{}].", dateString);
@@ -170,6 +184,44 @@ public class TemporalParser implements Serializable {
     return OccurrenceParseResult.fail();
   }
 
+  /** Parses a date string, strict yyyy-MM-dd strings skip the generic parser */
+  private ParseResult<TemporalAccessor> parse(String dateString) {
+    ParseResult<TemporalAccessor> result = IsoDateParser.parse(dateString);
+    if (result != null) {
+      return result;
+    }
+    return cached(Collections.singletonList(dateString), () -> temporalParser.parse(dateString));
+  }
+
+  private ParseResult<TemporalAccessor> parse(String year, String month, String day) {
+    return cached(Arrays.asList(year, month, day), () -> temporalParser.parse(year, month, day));
+  }
+
+  /** Parse results are immutable, so the same instance can be shared by all records */
+  @SneakyThrows
+  private ParseResult<TemporalAccessor> cached(
+      List<String> key, Callable<ParseResult<TemporalAccessor>> parseFn) {
+    Cache<List<String>, ParseResult<TemporalAccessor>> c = cache;
+    if (c == null) {
+      synchronized (this) {
+        c = cache;
+        if (c == null) {
+          c =
+              CacheBuilder.newBuilder()
+                  .maximumSize(CACHE_SIZE)
+                  .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                  .build();
+          cache = c;
+        }
+      }
+    }
+    try {
+      return c.get(key, parseFn);
+    } catch (ExecutionException | UncheckedExecutionException ex) {
+      throw ex.getCause();
+    }
+  }
+
   /**
    * Check if a date express as TemporalAccessor falls between the predefined range. Lower bound
    * defined by {@link #MIN_LOCAL_DATE} and upper bound by current date + 1 day
@@ -177,8 +229,20 @@ public class TemporalParser implements Serializable {
    * @return valid or not according to the predefined range.
    */
   protected static boolean isValidDate(TemporalAccessor temporalAccessor) {
-    LocalDate upperBound = LocalDate.now().plusDays(1);
-    return isValidDate(temporalAccessor, Range.closed(MIN_LOCAL_DATE, upperBound));
+    return isValidDate(temporalAccessor, getValidRange());
+  }
+
+  /** The range is computed once per day instead of calling {@link LocalDate#now()} per record */
+  private static Range<LocalDate> getValidRange() {
+    ValidRange vr = validRange;
+    if (System.currentTimeMillis() >= vr.expiresMs) {
+      LocalDate today = LocalDate.now();
+      long expiresMs =
+          today.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+      vr = new ValidRange(expiresMs, Range.closed(MIN_LOCAL_DATE, today.plusDays(1)));
+      validRange = vr;
+    }
+    return vr.range;
   }
 
   /** Check if a date express as TemporalAccessor falls between the provided range. */
@@ -209,4 +273,10 @@ public class TemporalParser implements Serializable {
 
     return likelyRange.contains(LocalDate.of(year, month, day));
   }
+
+  @AllArgsConstructor
+  private static class ValidRange {
+    private final long expiresMs;
+    private final Range<LocalDate> range;
+  }
 }
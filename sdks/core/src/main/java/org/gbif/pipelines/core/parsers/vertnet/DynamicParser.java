@@ -1,6 +1,7 @@
 package org.gbif.pipelines.core.parsers.vertnet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -10,6 +11,12 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import lombok.Builder;
 
+/**
+ * Tries a list of regex patterns in order and returns the first key/value/units result. Every
+ * pattern needs a number for its value and most of them need a key from the key map, so one pass
+ * over the input checks for a digit and for any key using {@link KeywordMatcher}, and only
+ * patterns which can produce a result are run.
+ */
 class DynamicParser {
 
   public static final String KEY_GROUP = "key";
@@ -22,9 +29,14 @@ class DynamicParser {
   public static final String UNITS_1_GROUP = "units1";
   public static final String UNITS_2_GROUP = "units2";
 
+  private static final String[] KEY_GROUPS = {KEY_GROUP};
+  private static final String[] VALUE_GROUPS = {VALUE_GROUP, VALUE_1_GROUP, VALUE_2_GROUP};
+  private static final String[] UNITS_GROUPS = {UNITS_GROUP, UNITS_1_GROUP, UNITS_2_GROUP};
+
   private final List<PatternDefault> patternList;
   private final Pattern unitsFromKey;
   private final Map<String, String> keyMap;
+  private final KeywordMatcher keyMatcher;
   private final String fieldName;
 
   private DynamicParser(
@@ -35,6 +47,7 @@ class DynamicParser {
     this.patternList = patternList;
     this.unitsFromKey = unitsFromKey;
     this.keyMap = keyMap;
+    this.keyMatcher = KeywordMatcher.create(keyMap.keySet());
     this.fieldName = fieldName;
   }
 
@@ -43,19 +56,32 @@ class DynamicParser {
   }
 
   protected Optional<DynamicProperty> parse(String source) {
+    return parse(source, true);
+  }
+
+  /** @param prefilter skip patterns which can't produce a result for the source */
+  Optional<DynamicProperty> parse(String source, boolean prefilter) {
     if (source == null || source.isEmpty()) {
       return Optional.empty();
     }
 
     try {
+      String lowerCase = source.toLowerCase();
+      boolean hasDigit = !prefilter || hasDigit(lowerCase);
+      boolean hasKey = !prefilter || keyMatcher.containsAny(lowerCase);
+
       for (PatternDefault p : patternList) {
 
-        Matcher matcher = p.pattern.matcher(source.toLowerCase());
+        if ((p.requiresDigit && !hasDigit) || (p.requiresKey && !hasKey)) {
+          continue;
+        }
+
+        Matcher matcher = p.pattern.matcher(lowerCase);
 
         if (matcher.find()) {
-          String key = getGroup(matcher, p.defaultKey, KEY_GROUP);
-          String value = getGroup(matcher, null, VALUE_GROUP, VALUE_1_GROUP, VALUE_2_GROUP);
-          String units = getGroup(matcher, p.defaulType, UNITS_GROUP, UNITS_1_GROUP, UNITS_2_GROUP);
+          String key = getGroup(matcher, p.defaultKey, p.keyGroups);
+          String value = getGroup(matcher, null, p.valueGroups);
+          String units = getGroup(matcher, p.defaulType, p.unitsGroups);
           if (key != null && units == null) {
             Matcher km = unitsFromKey.matcher(key);
             units = km.find() ? km.group() : null;
@@ -80,21 +106,57 @@ class DynamicParser {
     return Optional.empty();
   }
 
-  private String getGroup(Matcher matcher, String value, String... group) {
+  private static boolean hasDigit(String source) {
+    for (int i = 0; i < source.length(); i++) {
+      char c = source.charAt(i);
+      if (c >= '0' && c <= '9') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** @param groups only groups defined by the pattern, resolved when the parser is built */
+  private static String getGroup(Matcher matcher, String value, String[] groups) {
     String result = null;
-    for (String g : group) {
-      if (matcher.pattern().pattern().contains("<" + g + ">")) {
-        String s = matcher.group(g);
-        if (result == null) {
-          result = s;
-        } else {
-          result = String.join(", ", result, s);
-        }
+    for (String g : groups) {
+      String s = matcher.group(g);
+      if (result == null) {
+        result = s;
+      } else {
+        result = String.join(", ", result, s);
       }
     }
     return result == null ? value : result;
   }
 
+  /** @return groups defined by the pattern, in the same order */
+  private static String[] definedGroups(String pattern, String[] groups) {
+    return Arrays.stream(groups)
+        .filter(g -> pattern.contains("<" + g + ">"))
+        .toArray(String[]::new);
+  }
+
+  /**
+   * A value is made of numbers only when every value group of the pattern is a number or a range,
+   * both templates need at least one digit
+   */
+  private static boolean requiresDigit(String pattern) {
+    String[] valueGroups = definedGroups(pattern, VALUE_GROUPS);
+    if (valueGroups.length == 0) {
+      return false;
+    }
+    for (String g : valueGroups) {
+      String group = "(?<" + g + ">";
+      int idx = pattern.indexOf(group);
+      String content = pattern.substring(idx + group.length());
+      if (!content.startsWith("(?&number))") && !content.startsWith("(?&range))")) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   static class DynamicParserBuilder {
     private final List<PatternDefault> patternList = new ArrayList<>();
     private final Map<String, String> mainTemplateMap = new LinkedHashMap<>();
@@ -156,6 +218,10 @@ class DynamicParser {
       }
 
       for (PatternDefault p : patternList) {
+        // A pattern without a default key returns a result only for a key from the key map
+        p.requiresKey = p.defaultKey == null;
+        p.requiresDigit = requiresDigit(p.stringPattern);
+
         String result = p.stringPattern;
         for (Map.Entry<String, String> entry : mainTemplateMap.entrySet()) {
           result = result.replace(entry.getKey(), entry.getValue());
@@ -164,6 +230,9 @@ class DynamicParser {
           result = result.replace(entry.getKey(), entry.getValue());
         }
         p.pattern = Pattern.compile(result);
+        p.keyGroups = definedGroups(result, KEY_GROUPS);
+        p.valueGroups = definedGroups(result, VALUE_GROUPS);
+        p.unitsGroups = definedGroups(result, UNITS_GROUPS);
         p.stringPattern = null;
       }
     }
@@ -180,5 +249,10 @@ class DynamicParser {
     private String stringPattern;
     private final String defaultKey;
     private final String defaulType;
+    private String[] keyGroups;
+    private String[] valueGroups;
+    private String[] unitsGroups;
+    private boolean requiresKey;
+    private boolean requiresDigit;
   }
 }
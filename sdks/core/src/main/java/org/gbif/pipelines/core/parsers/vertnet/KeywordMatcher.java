@@ -0,0 +1,121 @@
+package org.gbif.pipelines.core.parsers.vertnet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton, finds if a text contains any of the keywords in one pass over the text.
+ * The automaton is compiled into a transition table over the characters used by the keywords, any
+ * other character moves back to the root state.
+ */
+class KeywordMatcher {
+
+  private static final int ASCII = 128;
+
+  // Alphabet index of an ASCII char, 0 means the char is not used by keywords
+  private final int[] asciiIndex = new int[ASCII];
+  // Sorted non-ASCII chars used by keywords, index in the alphabet is the position + nonAsciiBase
+  private final char[] nonAscii;
+  private final int nonAsciiBase;
+  private final int[][] transitions;
+  private final boolean[] terminal;
+
+  private KeywordMatcher(Collection<String> keywords) {
+    TreeSet<Character> chars = new TreeSet<>();
+    keywords.forEach(k -> k.chars().forEach(c -> chars.add((char) c)));
+
+    int alphabet = 1;
+    List<Character> other = new ArrayList<>();
+    for (char c : chars) {
+      if (c < ASCII) {
+        asciiIndex[c] = alphabet++;
+      } else {
+        other.add(c);
+      }
+    }
+    this.nonAsciiBase = alphabet;
+    this.nonAscii = new char[other.size()];
+    for (int i = 0; i < other.size(); i++) {
+      nonAscii[i] = other.get(i);
+    }
+    alphabet += other.size();
+
+    // Trie
+    List<int[]> trie = new ArrayList<>();
+    List<Boolean> ends = new ArrayList<>();
+    trie.add(new int[alphabet]);
+    ends.add(false);
+    for (String keyword : keywords) {
+      int state = 0;
+      for (int i = 0; i < keyword.length(); i++) {
+        int c = index(keyword.charAt(i));
+        if (trie.get(state)[c] == 0) {
+          trie.get(state)[c] = trie.size();
+          trie.add(new int[alphabet]);
+          ends.add(false);
+        }
+        state = trie.get(state)[c];
+      }
+      ends.set(state, true);
+    }
+
+    // Failure links resolved into a full transition table, breadth first
+    this.transitions = trie.toArray(new int[0][]);
+    this.terminal = new boolean[transitions.length];
+    int[] fail = new int[transitions.length];
+    Deque<Integer> queue = new ArrayDeque<>();
+    terminal[0] = ends.get(0);
+    for (int c = 1; c < alphabet; c++) {
+      int next = transitions[0][c];
+      if (next != 0) {
+        queue.add(next);
+        terminal[next] = ends.get(next);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      for (int c = 1; c < alphabet; c++) {
+        int next = transitions[state][c];
+        if (next == 0) {
+          transitions[state][c] = transitions[fail[state]][c];
+        } else {
+          fail[next] = transitions[fail[state]][c];
+          terminal[next] = ends.get(next) || terminal[fail[next]];
+          queue.add(next);
+        }
+      }
+    }
+  }
+
+  static KeywordMatcher create(Collection<String> keywords) {
+    return new KeywordMatcher(keywords);
+  }
+
+  /** @return true if the text contains at least one keyword */
+  boolean containsAny(CharSequence text) {
+    if (terminal[0]) {
+      return true;
+    }
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      state = transitions[state][index(text.charAt(i))];
+      if (terminal[state]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int index(char c) {
+    if (c < ASCII) {
+      return asciiIndex[c];
+    }
+    int i = Arrays.binarySearch(nonAscii, c);
+    return i < 0 ? 0 : nonAsciiBase + i;
+  }
+}
@@ -21,7 +21,7 @@ public class LengthParser {
   private static final String SHORTHAND = "_shorthand_";
   private static final String ENGLISH = "_english_";
 
-  private static final DynamicParser PARSER =
+  static final DynamicParser PARSER =
       DynamicParser.builder()
           .parserName(Parser.LENGTH)
 
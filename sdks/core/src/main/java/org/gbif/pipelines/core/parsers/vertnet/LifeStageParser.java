@@ -15,7 +15,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class LifeStageParser {
 
-  private static final Pattern EXCLUDE_PATTERN = Pattern.compile("determin");
+  private static final String EXCLUDE_TOKEN = "determin";
   private static final Pattern LIFE_STAGE_KEY_VALUE_DELIMITED =
       Pattern.compile(
           "\\b(?<key>(?:life\\s*stage(?:\\s*remarks)?|age(?:\\s*class)?))\\W+(?<value>[\\w?./\\-]+(?:\\s+[\\w?./\\-]+){0,4})\\s*(?:[:;,\"]|$)");
@@ -46,12 +46,12 @@ public class LifeStageParser {
     }
 
     try {
-      Matcher exclude = EXCLUDE_PATTERN.matcher(source.toLowerCase());
-      if (exclude.find()) {
+      String lowerCase = source.toLowerCase();
+      if (lowerCase.contains(EXCLUDE_TOKEN)) {
         return Optional.empty();
       }
       for (Pattern p : PATTERNS) {
-        Matcher matcher = p.matcher(source.toLowerCase());
+        Matcher matcher = p.matcher(lowerCase);
         if (matcher.find()) {
           return Optional.ofNullable(matcher.group("value"));
         }
@@ -21,7 +21,7 @@ public class MassParser {
 
   @VisibleForTesting protected static final String TOTAL_WEIGHT = "total weight";
 
-  private static final DynamicParser PARSER =
+  static final DynamicParser PARSER =
       DynamicParser.builder()
           .parserName(Parser.MASS)
 
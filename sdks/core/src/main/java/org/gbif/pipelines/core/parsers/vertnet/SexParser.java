@@ -31,8 +31,9 @@ public class SexParser {
     }
 
     try {
+      String lowerCase = source.toLowerCase();
       for (Pattern p : PATTERNS) {
-        Matcher matcher = p.matcher(source.toLowerCase());
+        Matcher matcher = p.matcher(lowerCase);
         String result = matcher.find() ? matcher.group("value") : null;
         if (result != null) {
           while (matcher.find()) {
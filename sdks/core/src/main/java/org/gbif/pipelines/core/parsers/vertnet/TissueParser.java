@@ -1,8 +1,6 @@
 package org.gbif.pipelines.core.parsers.vertnet;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -12,8 +10,8 @@ import lombok.NoArgsConstructor;
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class TissueParser {
-  private static final Set<String> TISSUE_TOKENS =
-      new HashSet<>(
+  private static final KeywordMatcher TISSUE_TOKENS =
+      KeywordMatcher.create(
           Arrays.asList(
               "+t",
               "tiss",
@@ -47,6 +45,6 @@ public class TissueParser {
     if (source == null || source.isEmpty()) {
       return false;
     }
-    return TISSUE_TOKENS.stream().anyMatch(source::contains);
+    return TISSUE_TOKENS.containsAny(source);
   }
 }
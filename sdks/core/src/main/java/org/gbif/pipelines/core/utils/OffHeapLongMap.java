@@ -0,0 +1,176 @@
+package org.gbif.pipelines.core.utils;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Primitive long to long open addressing hash map, keys and values are stored in direct buffers
+ * outside of the java heap. Used by java based pipelines to keep per record indexes, like ids or
+ * GBIF ids, without boxing and without growing the heap with the dataset size.
+ *
+ * <p>Slots are addressed by long indexes and a table growing above {@link #SEGMENT_SLOTS} slots is
+ * split into segments of that many slots, so the size isn't limited by the size of a single
+ * buffer.
+ *
+ * <p>The class is not thread-safe, {@link Long#MIN_VALUE} is reserved and can't be used as a value
+ */
+public class OffHeapLongMap implements Closeable {
+
+  /** Returned by {@link #get(long)} when the key is absent */
+  public static final long NO_VALUE = Long.MIN_VALUE;
+
+  private static final int ENTRY_SIZE = 2;
+  // 8M slots of two longs, 128MB per segment
+  private static final int SEGMENT_SLOTS = 1 << 23;
+  private static final long EMPTY_KEY = 0L;
+
+  private final int segmentSlots;
+  private final int segmentShift;
+
+  private LongBuffer[] segments;
+  private long capacity;
+  private long size;
+
+  // Zero key is used as the empty slot marker and stored separately
+  private long zeroKeyValue = NO_VALUE;
+
+  public OffHeapLongMap() {
+    this(1 << 16);
+  }
+
+  public OffHeapLongMap(int expectedSize) {
+    this(expectedSize, SEGMENT_SLOTS);
+  }
+
+  @VisibleForTesting
+  OffHeapLongMap(long expectedSize, int segmentSlots) {
+    if (Integer.bitCount(segmentSlots) != 1) {
+      throw new IllegalArgumentException("Segment slots must be a power of two: " + segmentSlots);
+    }
+    this.segmentSlots = segmentSlots;
+    this.segmentShift = Integer.numberOfTrailingZeros(segmentSlots);
+    allocate(Long.highestOneBit(Math.max(expectedSize, 16) * 4 - 1));
+  }
+
+  /** Returns the value for the key or {@link #NO_VALUE} if the key is absent */
+  public long get(long key) {
+    if (key == EMPTY_KEY) {
+      return zeroKeyValue;
+    }
+    long slot = slot(key);
+    while (true) {
+      LongBuffer segment = segment(slot);
+      int offset = offset(slot);
+      long k = segment.get(offset);
+      if (k == key) {
+        return segment.get(offset + 1);
+      }
+      if (k == EMPTY_KEY) {
+        return NO_VALUE;
+      }
+      slot = (slot + 1) & (capacity - 1);
+    }
+  }
+
+  public boolean containsKey(long key) {
+    return get(key) != NO_VALUE;
+  }
+
+  /** Puts the value and returns the previous one or {@link #NO_VALUE} */
+  public long put(long key, long value) {
+    if (value == NO_VALUE) {
+      throw new IllegalArgumentException("Long.MIN_VALUE is reserved and can't be used as a value");
+    }
+    if (key == EMPTY_KEY) {
+      long previous = zeroKeyValue;
+      zeroKeyValue = value;
+      if (previous == NO_VALUE) {
+        size++;
+      }
+      return previous;
+    }
+    if ((size + 1) * 2 > capacity) {
+      grow();
+    }
+    long slot = slot(key);
+    while (true) {
+      LongBuffer segment = segment(slot);
+      int offset = offset(slot);
+      long k = segment.get(offset);
+      if (k == key) {
+        long previous = segment.get(offset + 1);
+        segment.put(offset + 1, value);
+        return previous;
+      }
+      if (k == EMPTY_KEY) {
+        segment.put(offset, key);
+        segment.put(offset + 1, value);
+        size++;
+        return NO_VALUE;
+      }
+      slot = (slot + 1) & (capacity - 1);
+    }
+  }
+
+  public long size() {
+    return size;
+  }
+
+  @VisibleForTesting
+  int segmentCount() {
+    return segments.length;
+  }
+
+  /** Drops the references to the direct buffers, the memory is released with the buffer objects */
+  @Override
+  public void close() {
+    segments = null;
+    capacity = 0;
+    size = 0;
+    zeroKeyValue = NO_VALUE;
+  }
+
+  private void allocate(long newCapacity) {
+    capacity = newCapacity;
+    int slots = (int) Math.min(newCapacity, segmentSlots);
+    segments = new LongBuffer[(int) (newCapacity / slots)];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = ByteBuffer.allocateDirect(slots * ENTRY_SIZE * Long.BYTES).asLongBuffer();
+    }
+  }
+
+  private void grow() {
+    LongBuffer[] oldSegments = segments;
+    allocate(capacity * 2);
+    for (LongBuffer old : oldSegments) {
+      for (int i = 0; i < old.capacity(); i += ENTRY_SIZE) {
+        long k = old.get(i);
+        if (k != EMPTY_KEY) {
+          long slot = slot(k);
+          while (segment(slot).get(offset(slot)) != EMPTY_KEY) {
+            slot = (slot + 1) & (capacity - 1);
+          }
+          LongBuffer segment = segment(slot);
+          int offset = offset(slot);
+          segment.put(offset, k);
+          segment.put(offset + 1, old.get(i + 1));
+        }
+      }
+    }
+  }
+
+  private long slot(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (h ^ (h >>> 32)) & (capacity - 1);
+  }
+
+  private LongBuffer segment(long slot) {
+    return segments[(int) (slot >>> segmentShift)];
+  }
+
+  private int offset(long slot) {
+    return (int) (slot & (segmentSlots - 1)) * ENTRY_SIZE;
+  }
+}
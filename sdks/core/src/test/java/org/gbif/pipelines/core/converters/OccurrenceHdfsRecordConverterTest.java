@@ -746,4 +746,36 @@ public class OccurrenceHdfsRecordConverterTest {
     Assert.assertTrue(
         hdfsRecord.getIssue().contains(OccurrenceIssue.INSTITUTION_COLLECTION_MISMATCH.name()));
   }
+
+  @Test
+  public void unmappedAndUnknownTermsTest() {
+    // State
+    String unmapped = DwcTerm.Occurrence.qualifiedName();
+    String unknown = "http://example.org/terms/unknownTerm";
+
+    Map<String, String> coreTerms = new HashMap<>();
+    coreTerms.put(DwcTerm.catalogNumber.qualifiedName(), "CN1");
+    coreTerms.put(unmapped, "unmappedValue");
+    coreTerms.put(unknown, "unknownValue");
+    ExtendedRecord extendedRecord =
+        ExtendedRecord.newBuilder().setId("1").setCoreTerms(coreTerms).build();
+
+    // When
+    OccurrenceHdfsRecord hdfsRecord =
+        OccurrenceHdfsRecordConverter.builder().extendedRecord(extendedRecord).build().convert();
+
+    // Should
+    Assert.assertEquals("CN1", hdfsRecord.getCatalognumber());
+    Assert.assertEquals("CN1", hdfsRecord.getVCatalognumber());
+    Assert.assertFalse(hdfsRecord.toString().contains("unmappedValue"));
+    Assert.assertFalse(hdfsRecord.toString().contains("unknownValue"));
+    Assert.assertTrue(
+        OccurrenceHdfsRecordConverter.isTermMappingPrecomputed(
+            DwcTerm.catalogNumber.qualifiedName()));
+    Assert.assertTrue(
+        OccurrenceHdfsRecordConverter.isTermMappingPrecomputed(
+            DwcTerm.catalogNumber.simpleName()));
+    Assert.assertFalse(OccurrenceHdfsRecordConverter.isTermMappingPrecomputed(unmapped));
+    Assert.assertFalse(OccurrenceHdfsRecordConverter.isTermMappingPrecomputed(unknown));
+  }
 }
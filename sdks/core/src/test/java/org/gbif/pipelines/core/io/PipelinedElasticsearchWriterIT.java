@@ -0,0 +1,150 @@
+package org.gbif.pipelines.core.io;
+
+import static org.elasticsearch.common.xcontent.XContentType.JSON;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_BULK_REQUESTS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_INDEXED_DOCUMENTS_COUNT;
+import static org.gbif.pipelines.estools.common.SettingsType.INDEXING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.index.IndexRequest;
+import org.gbif.pipelines.estools.model.IndexParams;
+import org.gbif.pipelines.estools.service.EsService;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class PipelinedElasticsearchWriterIT {
+
+  // files for testing
+  private static final Path MAPPINGS_PATH = Paths.get("mappings/simple-mapping.json");
+  private static final Path WRONG_MAPPINGS_PATH = Paths.get("mappings/wrong-mapping.json");
+
+  /** {@link ClassRule} requires this field to be public. */
+  @ClassRule public static final EsServer ES_SERVER = new EsServer();
+
+  private final Map<String, AtomicLong> metrics = new ConcurrentHashMap<>();
+
+  @Before
+  public void cleanIndexes() {
+    EsService.deleteAllIndexes(ES_SERVER.getEsClient());
+  }
+
+  @Test
+  public void oneThousandRecordsSyncTest() {
+    // State
+    String idxName = "pipelined-one-thousand-record-sync-test";
+    List<BasicRecord> basicRecordList = generateBrList(999);
+    createIndex(idxName, MAPPINGS_PATH);
+
+    // When
+    write(idxName, basicRecordList, Integer.MAX_VALUE);
+
+    EsService.refreshIndex(ES_SERVER.getEsClient(), idxName);
+
+    // Should
+    assertEquals(
+        basicRecordList.size(), EsService.countIndexDocuments(ES_SERVER.getEsClient(), idxName));
+    assertEquals(basicRecordList.size(), metrics.get(ES_INDEXED_DOCUMENTS_COUNT).get());
+  }
+
+  @Test
+  public void oneThousandRecordsAsyncTest() {
+    // State
+    String idxName = "pipelined-one-thousand-record-async-test";
+    List<BasicRecord> basicRecordList = generateBrList(999);
+    createIndex(idxName, MAPPINGS_PATH);
+
+    // When
+    write(idxName, basicRecordList, 0);
+
+    EsService.refreshIndex(ES_SERVER.getEsClient(), idxName);
+
+    // Should
+    assertEquals(
+        basicRecordList.size(), EsService.countIndexDocuments(ES_SERVER.getEsClient(), idxName));
+    assertEquals(basicRecordList.size(), metrics.get(ES_INDEXED_DOCUMENTS_COUNT).get());
+    assertTrue(metrics.get(ES_BULK_REQUESTS_COUNT).get() >= 10);
+  }
+
+  @Test
+  public void zeroRecordsAsyncTest() {
+    // State
+    String idxName = "pipelined-zero-record-async-test";
+    List<BasicRecord> basicRecordList = Collections.emptyList();
+    createIndex(idxName, MAPPINGS_PATH);
+
+    // When
+    write(idxName, basicRecordList, 0);
+
+    EsService.refreshIndex(ES_SERVER.getEsClient(), idxName);
+
+    // Should
+    assertTrue(EsService.existsIndex(ES_SERVER.getEsClient(), idxName));
+    assertEquals(0L, EsService.countIndexDocuments(ES_SERVER.getEsClient(), idxName));
+  }
+
+  @Test(expected = ElasticsearchException.class)
+  public void wrongMappingTest() {
+    // State
+    String idxName = "pipelined-wrong-mapping-test";
+    List<BasicRecord> basicRecordList = generateBrList(0);
+    createIndex(idxName, WRONG_MAPPINGS_PATH);
+
+    // When
+    write(idxName, basicRecordList, 0);
+  }
+
+  private void write(String idxName, List<BasicRecord> records, int syncModeThreshold) {
+    PipelinedElasticsearchWriter.<BasicRecord>builder()
+        .esHosts(ES_SERVER.getEsConfig().getRawHosts())
+        .esMaxBatchSize(100L)
+        .esMinBatchSize(10L)
+        .esMaxBatchSizeBytes(250_000L)
+        .maxInFlightBulks(3)
+        .syncModeThreshold(syncModeThreshold)
+        .indexRequestFn(createIndexRequestFn(idxName))
+        .records(records)
+        .counterFn(name -> metrics.computeIfAbsent(name, n -> new AtomicLong()).incrementAndGet())
+        .build()
+        .write();
+  }
+
+  private static List<BasicRecord> generateBrList(int count) {
+    return IntStream.rangeClosed(0, count)
+        .boxed()
+        .map(x -> BasicRecord.newBuilder().setId(Integer.toString(x)).build())
+        .collect(Collectors.toList());
+  }
+
+  private static Function<BasicRecord, IndexRequest> createIndexRequestFn(String idxName) {
+    return br -> {
+      String k = br.getId();
+      String dummyJson = "{\"test\": \"text\"}";
+      return new IndexRequest(idxName).id(k).source(dummyJson, JSON);
+    };
+  }
+
+  /** Utility method to create an index. */
+  private static void createIndex(String idxName, Path mappingPath) {
+    EsService.createIndex(
+        ES_SERVER.getEsClient(),
+        IndexParams.builder()
+            .indexName(idxName)
+            .settingsType(INDEXING)
+            .pathMappings(mappingPath)
+            .build());
+  }
+}
@@ -0,0 +1,113 @@
+package org.gbif.pipelines.core.io;
+
+import static org.elasticsearch.common.xcontent.XContentType.JSON;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_INDEXED_DOCUMENTS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.ES_RETRIED_DOCUMENTS_COUNT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Test;
+
+public class PipelinedElasticsearchWriterTest {
+
+  private final Map<String, AtomicLong> metrics = new ConcurrentHashMap<>();
+  private final List<Integer> bulkSizes = new ArrayList<>();
+
+  @Test
+  public void rejectedItemsTest() {
+    // State, the cluster rejects every document of the first bulk request
+    BiConsumer<BulkRequest, ActionListener<BulkResponse>> bulkFn =
+        (request, listener) -> {
+          bulkSizes.add(request.numberOfActions());
+          RestStatus status = bulkSizes.size() == 1 ? RestStatus.TOO_MANY_REQUESTS : null;
+          listener.onResponse(response(request, status));
+        };
+
+    // When
+    write(300, bulkFn, 5);
+
+    // Should, the batch size is halved by the rejection and grows by a tenth after every success
+    assertEquals(Arrays.asList(100, 100, 50, 60, 66, 24), bulkSizes);
+    assertEquals(100L, metrics.get(ES_RETRIED_DOCUMENTS_COUNT).get());
+    assertEquals(300L, metrics.get(ES_INDEXED_DOCUMENTS_COUNT).get());
+  }
+
+  @Test
+  public void rejectedRequestsTest() {
+    // State, the cluster rejects every bulk request
+    BiConsumer<BulkRequest, ActionListener<BulkResponse>> bulkFn =
+        (request, listener) -> {
+          bulkSizes.add(request.numberOfActions());
+          listener.onFailure(
+              new ElasticsearchStatusException("Rejected", RestStatus.TOO_MANY_REQUESTS));
+        };
+
+    // When
+    try {
+      write(10, bulkFn, 2);
+      fail("Rejected documents must fail the writer after the last retry");
+    } catch (ElasticsearchException ex) {
+      // Should
+      assertTrue(ex.getMessage().startsWith("Failed to index 10 documents"));
+    }
+
+    // Should
+    assertEquals(Arrays.asList(10, 10, 10), bulkSizes);
+    assertEquals(20L, metrics.get(ES_RETRIED_DOCUMENTS_COUNT).get());
+  }
+
+  private void write(
+      int count, BiConsumer<BulkRequest, ActionListener<BulkResponse>> bulkFn, int maxRetries) {
+    List<String> records =
+        IntStream.range(0, count).mapToObj(Integer::toString).collect(Collectors.toList());
+    PipelinedElasticsearchWriter.<String>builder()
+        .esMaxBatchSize(100L)
+        .esMinBatchSize(10L)
+        .esMaxBatchSizeBytes(Long.MAX_VALUE)
+        .maxRetries(maxRetries)
+        .retryBackoffMs(0L)
+        .indexRequestFn(id -> new IndexRequest("idx").id(id).source("{}", JSON))
+        .records(records)
+        .counterFn(name -> metrics.computeIfAbsent(name, n -> new AtomicLong()).incrementAndGet())
+        .bulkFn(bulkFn)
+        .build()
+        .write();
+  }
+
+  /** Every item of the response fails with the status, succeeds if the status is null */
+  private static BulkResponse response(BulkRequest request, RestStatus status) {
+    BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+    for (int i = 0; i < items.length; i++) {
+      String id = ((IndexRequest) request.requests().get(i)).id();
+      items[i] =
+          status == null
+              ? new BulkItemResponse(i, OpType.INDEX, (DocWriteResponse) null)
+              : new BulkItemResponse(
+                  i,
+                  OpType.INDEX,
+                  new BulkItemResponse.Failure(
+                      "idx", "_doc", id, new ElasticsearchException("Rejected"), status));
+    }
+    return new BulkResponse(items, 1L);
+  }
+}
@@ -0,0 +1,90 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.gbif.pipelines.core.utils.FsUtils;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShardedDataFileWriterTest {
+
+  private static final String PATH = "target/sharded/verbatim";
+
+  private final FileSystem fs = FsUtils.createParentDirectories(null, null, new Path(PATH));
+
+  @Test
+  public void multiThreadedWriteTest() throws Exception {
+
+    // State
+    int threads = 4;
+    int records = 1_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    // When
+    ShardedDataFileWriter<ExtendedRecord> writer = createWriter();
+    try {
+      for (int i = 0; i < records; i++) {
+        String id = String.valueOf(i);
+        executor.execute(() -> writer.append(ExtendedRecord.newBuilder().setId(id).build()));
+      }
+      executor.shutdown();
+      Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    } finally {
+      writer.close();
+    }
+
+    // Should
+    Map<String, ExtendedRecord> result =
+        AvroReader.readRecords("", "", ExtendedRecord.class, PATH + "-*.avro");
+    Assert.assertEquals(records, result.size());
+    Assert.assertTrue(writer.getNumberOfShards() >= 1);
+    Assert.assertTrue(writer.getNumberOfShards() <= threads);
+
+    // Post
+    deleteShards(writer.getNumberOfShards());
+  }
+
+  @Test
+  public void emptyWriteTest() throws IOException {
+
+    // When
+    ShardedDataFileWriter<ExtendedRecord> writer = createWriter();
+    writer.close();
+
+    // Should
+    Assert.assertEquals(1, writer.getNumberOfShards());
+    Assert.assertTrue(Files.exists(Paths.get(PATH + "-0.avro")));
+
+    // Post
+    deleteShards(writer.getNumberOfShards());
+  }
+
+  private ShardedDataFileWriter<ExtendedRecord> createWriter() {
+    return ShardedDataFileWriter.<ExtendedRecord>builder()
+        .schema(ExtendedRecord.getClassSchema())
+        .codec("snappy")
+        .outputStreamFn(this::create)
+        .build();
+  }
+
+  @SneakyThrows
+  private OutputStream create(int shard) {
+    return fs.create(new Path(PATH + "-" + shard + ".avro"));
+  }
+
+  private void deleteShards(int shards) throws IOException {
+    for (int i = 0; i < shards; i++) {
+      Files.deleteIfExists(Paths.get(PATH + "-" + i + ".avro"));
+    }
+  }
+}
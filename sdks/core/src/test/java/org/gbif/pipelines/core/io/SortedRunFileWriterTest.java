@@ -0,0 +1,123 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.SneakyThrows;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.gbif.pipelines.core.utils.FsUtils;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SortedRunFileWriterTest {
+
+  private static final String PATH = "target/sorted/verbatim";
+
+  private final FileSystem fs = FsUtils.createParentDirectories(null, null, new Path(PATH));
+
+  @Test
+  public void mergeRunsTest() throws Exception {
+
+    // State
+    int records = 1_000;
+
+    // When
+    SortedRunFileWriter<ExtendedRecord> writer = createWriter();
+    try {
+      for (int i = records - 1; i >= 0; i--) {
+        writer.append(ExtendedRecord.newBuilder().setId(String.valueOf(i)).build());
+      }
+      // Duplicate id in another run
+      writer.append(ExtendedRecord.newBuilder().setId("500").setCoreRowType("last").build());
+    } finally {
+      writer.close();
+    }
+
+    List<ExtendedRecord> result = new ArrayList<>();
+    try (AvroMergeReader<ExtendedRecord> reader =
+        AvroReader.readSortedStream("", "", ExtendedRecord.class, PATH + "-*.avro")) {
+      reader.forEachRemaining(result::add);
+    }
+
+    // Should
+    Map<String, ExtendedRecord> expected =
+        AvroReader.readRecords("", "", ExtendedRecord.class, PATH + "-*.avro");
+    Assert.assertEquals(11, writer.getNumberOfRuns());
+    Assert.assertEquals(records, result.size());
+    for (int i = 1; i < result.size(); i++) {
+      Assert.assertTrue(result.get(i - 1).getId().compareTo(result.get(i).getId()) < 0);
+    }
+    result.forEach(er -> Assert.assertEquals(expected.get(er.getId()), er));
+
+    // Post
+    deleteRuns(writer.getNumberOfRuns());
+  }
+
+  @Test
+  public void emptyWriteTest() throws IOException {
+
+    // When
+    SortedRunFileWriter<ExtendedRecord> writer = createWriter();
+    writer.close();
+
+    // Should
+    Assert.assertEquals(1, writer.getNumberOfRuns());
+    Assert.assertTrue(Files.exists(Paths.get(PATH + "-0.avro")));
+
+    // Post
+    deleteRuns(writer.getNumberOfRuns());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void notSortedTest() throws IOException {
+
+    // State
+    ShardedDataFileWriter<ExtendedRecord> writer =
+        ShardedDataFileWriter.<ExtendedRecord>builder()
+            .schema(ExtendedRecord.getClassSchema())
+            .codec("snappy")
+            .outputStreamFn(this::create)
+            .build();
+    try {
+      writer.append(ExtendedRecord.newBuilder().setId("2").build());
+      writer.append(ExtendedRecord.newBuilder().setId("1").build());
+    } finally {
+      writer.close();
+    }
+
+    // When
+    try (AvroMergeReader<ExtendedRecord> reader =
+        AvroReader.readSortedStream("", "", ExtendedRecord.class, PATH + "-*.avro")) {
+      reader.forEachRemaining(er -> {});
+    } finally {
+      // Post
+      deleteRuns(writer.getNumberOfShards());
+    }
+  }
+
+  private SortedRunFileWriter<ExtendedRecord> createWriter() {
+    return SortedRunFileWriter.<ExtendedRecord>builder()
+        .schema(ExtendedRecord.getClassSchema())
+        .codec("snappy")
+        .runSize(100)
+        .outputStreamFn(this::create)
+        .build();
+  }
+
+  @SneakyThrows
+  private OutputStream create(int run) {
+    return fs.create(new Path(PATH + "-" + run + ".avro"));
+  }
+
+  private void deleteRuns(int runs) throws IOException {
+    for (int i = 0; i < runs; i++) {
+      Files.deleteIfExists(Paths.get(PATH + "-" + i + ".avro"));
+    }
+  }
+}
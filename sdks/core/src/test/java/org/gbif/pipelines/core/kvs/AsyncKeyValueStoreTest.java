@@ -0,0 +1,141 @@
+package org.gbif.pipelines.core.kvs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.pipelines.core.functions.SerializableSupplier;
+import org.junit.Test;
+
+public class AsyncKeyValueStoreTest {
+
+  @Test
+  @SneakyThrows
+  public void coalesceTest() {
+
+    // State
+    CountDownLatch latch = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    KeyValueStore<String, String> kvStore =
+        new KeyValueStore<String, String>() {
+          @Override
+          @SneakyThrows
+          public String get(String key) {
+            calls.incrementAndGet();
+            latch.await();
+            return key.toUpperCase();
+          }
+
+          @Override
+          public void close() {
+            // NOP
+          }
+        };
+
+    try (AsyncKeyValueStore<String, String> store =
+        AsyncKeyValueStore.<String, String>builder().kvStore(kvStore).maxConcurrency(2).create()) {
+
+      // When
+      CompletableFuture<String> first = store.getAsync("a");
+      CompletableFuture<String> second = store.getAsync("a");
+      latch.countDown();
+
+      // Should
+      assertSame(first, second);
+      assertEquals("A", first.get());
+      assertEquals(1, calls.get());
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  public void getAllTest() {
+
+    // State
+    AtomicInteger calls = new AtomicInteger();
+    KeyValueStore<String, String> kvStore =
+        new KeyValueStore<String, String>() {
+          @Override
+          public String get(String key) {
+            calls.incrementAndGet();
+            if ("fail".equals(key)) {
+              throw new IllegalArgumentException("Lookup failed");
+            }
+            return key.toUpperCase();
+          }
+
+          @Override
+          public void close() {
+            // NOP
+          }
+        };
+
+    try (AsyncKeyValueStore<String, String> store =
+        AsyncKeyValueStore.<String, String>builder().kvStore(kvStore).create()) {
+
+      // When
+      Map<String, String> result = store.getAll(Arrays.asList("a", "b", "a", "fail", "b"));
+
+      // Should
+      assertEquals(2, result.size());
+      assertEquals("A", result.get("a"));
+      assertEquals("B", result.get("b"));
+      assertFalse(result.containsKey("fail"));
+      assertEquals(3, calls.get());
+      assertEquals("B", store.get("b"));
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  public void wrapTest() {
+
+    // State
+    AtomicInteger stores = new AtomicInteger();
+    AtomicInteger calls = new AtomicInteger();
+    SerializableSupplier<KeyValueStore<String, String>> supplier =
+        () -> {
+          stores.incrementAndGet();
+          return new KeyValueStore<String, String>() {
+            @Override
+            public String get(String key) {
+              calls.incrementAndGet();
+              return key.toUpperCase();
+            }
+
+            @Override
+            public void close() {
+              // NOP
+            }
+          };
+        };
+    SerializableSupplier<KeyValueStore<String, String>> wrapped =
+        AsyncKeyValueStore.wrap(supplier, 2);
+
+    // When
+    KeyValueStore<String, String> first = wrapped.get();
+    KeyValueStore<String, String> second = wrapped.get();
+    first.close();
+    String value = second.get("a");
+    second.close();
+    KeyValueStore<String, String> third = wrapped.get();
+
+    // Should
+    assertSame(first, second);
+    assertEquals("A", value);
+    assertEquals(1, calls.get());
+    assertNotSame(second, third);
+    assertEquals(2, stores.get());
+
+    // Post
+    third.close();
+  }
+}
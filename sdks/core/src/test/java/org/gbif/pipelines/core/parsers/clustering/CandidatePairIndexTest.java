@@ -0,0 +1,199 @@
+package org.gbif.pipelines.core.parsers.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class CandidatePairIndexTest {
+
+  @Test
+  public void sameAssertionsAsAllPairsTest() {
+
+    // State
+    Random random = new Random(7);
+    List<OccurrenceFeatures> candidates = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      candidates.add(random(random, i));
+    }
+
+    // When
+    Set<String> expected = new HashSet<>();
+    for (int i = 0; i < candidates.size(); i++) {
+      for (int j = i + 1; j < candidates.size(); j++) {
+        collect(expected, candidates.get(i), candidates.get(j));
+      }
+    }
+    Set<String> result = new HashSet<>();
+    CandidatePairIndex<OccurrenceFeatures> index = CandidatePairIndex.create(candidates);
+    index.forEachPair((o1, o2) -> collect(result, o1, o2));
+
+    // Should
+    assertEquals(expected, result);
+    assertTrue(index.getPairsPruned() > 0);
+    assertEquals(300L * 299 / 2, index.getPairsCompared() + index.getPairsPruned());
+  }
+
+  @Test
+  public void pairsTest() {
+
+    // State
+    List<OccurrenceFeatures> candidates =
+        Arrays.asList(
+            OccurrenceFeaturesPojo.builder()
+                .id("1")
+                .speciesKey("1")
+                .decimalLatitude(44.0d)
+                .decimalLongitude(44.0d)
+                .build(),
+            OccurrenceFeaturesPojo.builder()
+                .id("2")
+                .speciesKey("1")
+                .decimalLatitude(44.01d)
+                .decimalLongitude(44.0d)
+                .build(),
+            OccurrenceFeaturesPojo.builder()
+                .id("3")
+                .speciesKey("1")
+                .decimalLatitude(10.0d)
+                .decimalLongitude(44.0d)
+                .build(),
+            OccurrenceFeaturesPojo.builder()
+                .id("4")
+                .speciesKey("2")
+                .decimalLatitude(44.0d)
+                .decimalLongitude(44.0d)
+                .build(),
+            OccurrenceFeaturesPojo.builder()
+                .id("5")
+                .speciesKey("2")
+                .catalogNumber("A-1")
+                .build(),
+            OccurrenceFeaturesPojo.builder()
+                .id("6")
+                .speciesKey("2")
+                .catalogNumber("a1")
+                .build());
+
+    // When
+    List<String> result = new ArrayList<>();
+    CandidatePairIndex<OccurrenceFeatures> index = CandidatePairIndex.create(candidates);
+    index.forEachPair((o1, o2) -> result.add(o1.getId() + "-" + o2.getId()));
+
+    // Should
+    assertEquals(Arrays.asList("1-2", "5-6"), result);
+    assertEquals(2, index.getPairsCompared());
+    assertEquals(13, index.getPairsPruned());
+  }
+
+  @Test
+  public void splitTest() {
+
+    // State
+    List<OccurrenceFeatures> candidates =
+        Arrays.asList(
+            OccurrenceFeaturesPojo.builder().id("1").speciesKey("1").build(),
+            OccurrenceFeaturesPojo.builder().id("2").speciesKey("1").typeStatus("HOLOTYPE").build(),
+            OccurrenceFeaturesPojo.builder().id("3").speciesKey("2").build(),
+            OccurrenceFeaturesPojo.builder().id("4").typeStatus("PARATYPE").build(),
+            OccurrenceFeaturesPojo.builder().id("5").build());
+
+    // When
+    List<CandidatePairIndex.Bucket<OccurrenceFeatures>> result =
+        CandidatePairIndex.split(candidates);
+
+    // Should
+    assertEquals(2, result.size());
+    assertEquals(
+        Arrays.asList(candidates.get(0), candidates.get(1)), result.get(0).getCandidates());
+    assertFalse(result.get(0).isCrossSpecies());
+    assertEquals(
+        Arrays.asList(candidates.get(1), candidates.get(3)), result.get(1).getCandidates());
+    assertTrue(result.get(1).isCrossSpecies());
+  }
+
+  @Test
+  public void splitSameSpeciesTypifiedTest() {
+
+    // State
+    List<OccurrenceFeatures> candidates =
+        Arrays.asList(
+            OccurrenceFeaturesPojo.builder().id("1").speciesKey("1").typeStatus("HOLOTYPE").build(),
+            OccurrenceFeaturesPojo.builder().id("2").speciesKey("1").typeStatus("PARATYPE").build(),
+            OccurrenceFeaturesPojo.builder().id("3").speciesKey("1").build());
+
+    // When
+    List<CandidatePairIndex.Bucket<OccurrenceFeatures>> result =
+        CandidatePairIndex.split(candidates);
+
+    // Should
+    assertEquals(1, result.size());
+    assertEquals(candidates, result.get(0).getCandidates());
+  }
+
+  @Test
+  public void splitTwoSpeciesTypifiedTest() {
+
+    // State
+    List<OccurrenceFeatures> candidates =
+        Arrays.asList(
+            typified("1", "1", "HOLOTYPE"),
+            typified("2", "1", "PARATYPE"),
+            typified("3", "2", "PARATYPE"),
+            typified("4", "2", null));
+
+    // When
+    List<String> result = new ArrayList<>();
+    for (CandidatePairIndex.Bucket<OccurrenceFeatures> bucket :
+        CandidatePairIndex.split(candidates)) {
+      CandidatePairIndex.create(bucket.getCandidates(), bucket.isCrossSpecies())
+          .forEachPair((o1, o2) -> result.add(o1.getId() + "-" + o2.getId()));
+    }
+
+    // Should, every pair is produced once
+    assertEquals(Arrays.asList("1-2", "1-3", "2-3"), result);
+  }
+
+  private static void collect(Set<String> result, OccurrenceFeatures o1, OccurrenceFeatures o2) {
+    RelationshipAssertion<OccurrenceFeatures> assertion = OccurrenceRelationships.generate(o1, o2);
+    if (assertion != null) {
+      result.add(o1.getId() + "-" + o2.getId() + ":" + assertion.getJustificationAsDelimited());
+    }
+  }
+
+  private static OccurrenceFeatures typified(String id, String speciesKey, String typeStatus) {
+    return OccurrenceFeaturesPojo.builder()
+        .id(id)
+        .speciesKey(speciesKey)
+        .scientificName("Puma concolor")
+        .typeStatus(typeStatus)
+        .build();
+  }
+
+  private static OccurrenceFeatures random(Random random, int id) {
+    String[] typeStatuses = {null, null, null, "HOLOTYPE", "PARATYPE"};
+    String[] catalogNumbers = {null, "A-1", "a1", "B2", "NA", "--"};
+    return OccurrenceFeaturesPojo.builder()
+        .id(String.valueOf(id))
+        .datasetKey(String.valueOf(random.nextInt(3)))
+        .speciesKey(random.nextInt(4) == 0 ? null : String.valueOf(random.nextInt(3)))
+        .taxonKey(String.valueOf(random.nextInt(3)))
+        .scientificName("Name " + random.nextInt(3))
+        .typeStatus(typeStatuses[random.nextInt(typeStatuses.length)])
+        .decimalLatitude(random.nextInt(5) == 0 ? null : 44d + random.nextDouble() * 0.2d)
+        .decimalLongitude(44d + random.nextDouble() * 0.2d)
+        .catalogNumber(catalogNumbers[random.nextInt(catalogNumbers.length)])
+        .year(2000 + random.nextInt(2))
+        .month(1 + random.nextInt(2))
+        .day(1 + random.nextInt(3))
+        .countryCode(random.nextBoolean() ? "DK" : "SE")
+        .build();
+  }
+}
@@ -0,0 +1,19 @@
+package org.gbif.pipelines.core.parsers.clustering;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+public class ClusteredIdsIndexTest {
+
+  @Test
+  public void parseGbifIdTest() {
+
+    // Should
+    assertEquals(1234L, ClusteredIdsIndex.parseGbifId(Bytes.toBytes("7:1234:5678")));
+    assertEquals(1234L, ClusteredIdsIndex.parseGbifId(Bytes.toBytes("17:1234")));
+    assertEquals(-1L, ClusteredIdsIndex.parseGbifId(Bytes.toBytes("17:")));
+    assertEquals(-1L, ClusteredIdsIndex.parseGbifId(Bytes.toBytes("17")));
+  }
+}
@@ -0,0 +1,53 @@
+package org.gbif.pipelines.core.parsers.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class CompactLongSetTest {
+
+  @Test
+  public void sameAsHashSetTest() {
+
+    // State
+    Random random = new Random(11);
+    long[] values = new long[10_000];
+    Set<Long> expected = new HashSet<>();
+    for (int i = 0; i < values.length; i++) {
+      // Dense ids with duplicates and a few large gaps
+      values[i] =
+          i % 1_000 == 0 ? random.nextInt() & 0x7FFFFFFFL : 1_000_000L + random.nextInt(50_000);
+      expected.add(values[i]);
+    }
+
+    // When
+    CompactLongSet set = CompactLongSet.create(values, values.length);
+
+    // Should
+    assertEquals(expected.size(), set.getSize());
+    for (long value = 999_000L; value < 1_051_000L; value++) {
+      assertEquals(expected.contains(value), set.contains(value));
+    }
+    for (long value : values) {
+      assertTrue(set.contains(value));
+    }
+    assertFalse(set.contains(-1L));
+    assertFalse(set.contains(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void emptyTest() {
+
+    // When
+    CompactLongSet set = CompactLongSet.create(new long[] {5L}, 0);
+
+    // Should
+    assertEquals(0, set.getSize());
+    assertFalse(set.contains(5L));
+  }
+}
@@ -279,6 +279,66 @@ public class OccurrenceRelationshipsTest {
     assertFalse(runCompareIdentifier("s.n.", "S/N").justificationContains(IDENTIFIERS_OVERLAP));
   }
 
+  @Test
+  public void testCompiledIdentifiers() {
+    assertTrue(runCompiledIdentifier("A1234", "A::_-*1234"));
+    assertFalse(runCompiledIdentifier("A1234", "AA:1234"));
+    assertFalse(runCompiledIdentifier(null, "A1234"));
+    assertFalse(runCompiledIdentifier("--", "--"));
+    assertFalse(runCompiledIdentifier("s.n.", "S/N"));
+  }
+
+  @Test
+  public void testCompiledFeatures() {
+    // State
+    OccurrenceFeatures o1 =
+        OccurrenceFeaturesPojo.builder()
+            .id("o1")
+            .speciesKey("1")
+            .decimalLatitude(44.0d)
+            .decimalLongitude(44.0d)
+            .recordedBy("Tim")
+            .year(2020)
+            .month(2)
+            .day(29)
+            .build();
+
+    OccurrenceFeatures o2 =
+        OccurrenceFeaturesPojo.builder()
+            .id("o2")
+            .speciesKey("1")
+            .decimalLatitude(44.001d)
+            .decimalLongitude(44.001d)
+            .recordedBy("Tim")
+            .year(2020)
+            .month(3)
+            .day(1)
+            .build();
+
+    // When
+    CompiledOccurrenceFeatures<OccurrenceFeatures> c1 = CompiledOccurrenceFeatures.compile(o1);
+    CompiledOccurrenceFeatures<OccurrenceFeatures> c2 = CompiledOccurrenceFeatures.compile(o2);
+    RelationshipAssertion<OccurrenceFeatures> assertion = OccurrenceRelationships.generate(c1, c2);
+
+    // Should
+    assertNotNull(assertion);
+    assertSame(o1, assertion.getOcc1());
+    assertSame(o2, assertion.getOcc2());
+    assertEquals(
+        "SAME_ACCEPTED_SPECIES,APPROXIMATE_DATE,WITHIN_200m,WITHIN_2Km,SAME_RECORDER_NAME",
+        assertion.getJustificationAsDelimited());
+    assertEquals(
+        assertion.getJustificationAsDelimited(),
+        OccurrenceRelationships.generate(o1, o2).getJustificationAsDelimited());
+  }
+
+  private boolean runCompiledIdentifier(String id1, String id2) {
+    OccurrenceFeatures o1 = OccurrenceFeaturesPojo.builder().catalogNumber(id1).build();
+    OccurrenceFeatures o2 = OccurrenceFeaturesPojo.builder().catalogNumber(id2).build();
+    return CompiledOccurrenceFeatures.compile(o1)
+        .identifiersOverlap(CompiledOccurrenceFeatures.compile(o2));
+  }
+
   /** Generates assertions for the comparison of two identifiers only. */
   private RelationshipAssertion<OccurrenceFeatures> runCompareIdentifier(String id1, String id2) {
     OccurrenceFeatures o1 = OccurrenceFeaturesPojo.builder().catalogNumber(id1).build();
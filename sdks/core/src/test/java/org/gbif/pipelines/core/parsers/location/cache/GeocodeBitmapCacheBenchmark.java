@@ -0,0 +1,94 @@
+package org.gbif.pipelines.core.parsers.location.cache;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.gbif.kvs.geocode.LatLng;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Per-lookup cost of {@link GeocodeBitmapCache#getFromBitmap(LatLng)} for known colours, run using
+ * the main method or the JMH runner with the "-prof gc" option to see allocations per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeocodeBitmapCacheBenchmark {
+
+  private static final int POINTS = 1 << 16;
+
+  private GeocodeBitmapCache cache;
+  private LatLng[] points;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    cache =
+        GeocodeBitmapCache.create(
+            createImage(3600, 1800),
+            latLng -> {
+              Location location = new Location();
+              location.setId(String.valueOf(latLng.getLongitude()));
+              return new GeocodeResponse(Collections.singletonList(location));
+            });
+    Random random = new Random(42);
+    points = new LatLng[POINTS];
+    for (int i = 0; i < POINTS; i++) {
+      double lat = random.nextDouble() * 180d - 90d;
+      double lng = random.nextDouble() * 360d - 180d;
+      points[i] = LatLng.builder().withLatitude(lat).withLongitude(lng).build();
+      cache.getFromBitmap(points[i]);
+    }
+  }
+
+  @Benchmark
+  public GeocodeResponse getFromBitmap() {
+    next = (next + 1) & (POINTS - 1);
+    return cache.getFromBitmap(points[next]);
+  }
+
+  /**
+   * Image of vertical stripes, one colour per degree of longitude, the first column is a border and
+   * the last column is nothing
+   */
+  static BufferedImage createImage(int width, int height) {
+    BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    for (int x = 0; x < width; x++) {
+      int colour = 0x010101 * (1 + x * 360 / width % 250);
+      if (x == 0) {
+        colour = 0x000000;
+      } else if (x == width - 1) {
+        colour = 0xFFFFFF;
+      }
+      for (int y = 0; y < height; y++) {
+        img.setRGB(x, y, colour);
+      }
+    }
+    return img;
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(GeocodeBitmapCacheBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,68 @@
+package org.gbif.pipelines.core.parsers.location.cache;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.gbif.kvs.geocode.LatLng;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GeocodeBitmapCacheTest {
+
+  @Test
+  public void colourLookupTest() {
+    // State
+    AtomicInteger loads = new AtomicInteger();
+    GeocodeBitmapCache cache =
+        GeocodeBitmapCache.create(
+            GeocodeBitmapCacheBenchmark.createImage(360, 180),
+            latLng -> {
+              loads.incrementAndGet();
+              Location location = new Location();
+              location.setId(String.valueOf(latLng.getLongitude()));
+              return new GeocodeResponse(Collections.singletonList(location));
+            });
+
+    // When
+    GeocodeResponse first = cache.getFromBitmap(latLng(10d, 10d));
+    GeocodeResponse second = cache.getFromBitmap(latLng(20d, 10d));
+    GeocodeResponse nothing = cache.getFromBitmap(latLng(10d, 180d));
+    GeocodeResponse border = cache.getFromBitmap(latLng(10d, -180d));
+
+    // Should
+    Assert.assertEquals(1, loads.get());
+    Assert.assertSame(first, second);
+    Assert.assertEquals("10.0", first.getLocations().get(0).getId());
+    Assert.assertTrue(nothing.getLocations().isEmpty());
+    Assert.assertNull(border);
+  }
+
+  @Test
+  public void sharedImageTest() {
+    // State
+    BufferedImage image = GeocodeBitmapCacheBenchmark.createImage(360, 180);
+    GeocodeBitmapCache first = GeocodeBitmapCache.create(image, latLng -> response("first"));
+    GeocodeBitmapCache second = GeocodeBitmapCache.create(image, latLng -> response("second"));
+
+    // When
+    GeocodeResponse firstResponse = first.getFromBitmap(latLng(10d, 10d));
+    GeocodeResponse secondResponse = second.getFromBitmap(latLng(10d, 10d));
+
+    // Should
+    Assert.assertSame(first.getPixels(), second.getPixels());
+    Assert.assertEquals("first", firstResponse.getLocations().get(0).getId());
+    Assert.assertEquals("second", secondResponse.getLocations().get(0).getId());
+  }
+
+  private static GeocodeResponse response(String id) {
+    Location location = new Location();
+    location.setId(id);
+    return new GeocodeResponse(Collections.singletonList(location));
+  }
+
+  private static LatLng latLng(double lat, double lng) {
+    return LatLng.builder().withLatitude(lat).withLongitude(lng).build();
+  }
+}
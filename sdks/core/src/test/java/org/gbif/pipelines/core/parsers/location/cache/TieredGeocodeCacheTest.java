@@ -0,0 +1,198 @@
+package org.gbif.pipelines.core.parsers.location.cache;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_DISK_HIT_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_DISK_MISS_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_MEMORY_HIT_COUNT;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GEOCODE_MEMORY_MISS_COUNT;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.gbif.kvs.geocode.LatLng;
+import org.gbif.pipelines.core.functions.SerializableConsumer;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+
+public class TieredGeocodeCacheTest {
+
+  private static final String DISK_PATH = "target/geocode-cache/geocode.db";
+
+  private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+  private final AtomicInteger loads = new AtomicInteger();
+  private final SerializableConsumer<String> counterFn =
+      name -> counters.computeIfAbsent(name, n -> new AtomicLong()).incrementAndGet();
+
+  private final Function<LatLng, GeocodeResponse> loadFn =
+      latLng -> {
+        loads.incrementAndGet();
+        Location location = new Location();
+        location.setId("DNK");
+        return new GeocodeResponse(Collections.singletonList(location));
+      };
+
+  @Test
+  public void tiersTest() throws IOException {
+    // State
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+
+    // When
+    try (TieredGeocodeCache cache = createCache()) {
+      cache.get(latLng(55.123451d, 12.123451d), loadFn, counterFn);
+      cache.get(latLng(55.123449d, 12.123449d), loadFn, counterFn);
+      cache.get(latLng(55.2d, 12.2d), loadFn, counterFn);
+    }
+    GeocodeResponse persisted;
+    try (TieredGeocodeCache cache = createCache()) {
+      persisted = cache.get(latLng(55.2d, 12.2d), loadFn, counterFn);
+    }
+
+    // Should
+    Assert.assertEquals(2, loads.get());
+    Assert.assertEquals("DNK", persisted.getLocations().get(0).getId());
+    Assert.assertEquals(1L, counters.get(GEOCODE_MEMORY_HIT_COUNT).get());
+    Assert.assertEquals(3L, counters.get(GEOCODE_MEMORY_MISS_COUNT).get());
+    Assert.assertEquals(1L, counters.get(GEOCODE_DISK_HIT_COUNT).get());
+    Assert.assertEquals(2L, counters.get(GEOCODE_DISK_MISS_COUNT).get());
+
+    // Post
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+  }
+
+  @Test
+  public void emptyResponseIsNotCachedTest() throws IOException {
+    // State
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+    GeocodeMemoryCache memory = GeocodeMemoryCache.create(100);
+    GeocodeDiskCache disk = GeocodeDiskCache.create(DISK_PATH).get();
+    TieredGeocodeCache cache = TieredGeocodeCache.builder().tier(memory).tier(disk).create();
+
+    // When
+    cache.get(latLng(1d, 1d), latLng -> new GeocodeResponse(Collections.emptyList()));
+    GeocodeResponse reloaded = cache.get(latLng(1d, 1d), loadFn);
+
+    // Should
+    Assert.assertEquals(1, loads.get());
+    Assert.assertEquals("DNK", reloaded.getLocations().get(0).getId());
+
+    // Post
+    cache.close();
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+  }
+
+  @Test
+  public void sharedDiskCacheTest() throws IOException {
+    // State
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+    GeocodeDiskCache first = GeocodeDiskCache.create(DISK_PATH).get();
+    GeocodeDiskCache second =
+        GeocodeDiskCache.create("target/geocode-cache/../geocode-cache/geocode.db").get();
+
+    // When
+    first.put(1L, loadFn.apply(latLng(1d, 1d)));
+    first.close();
+
+    // Should
+    Assert.assertSame(first, second);
+    Assert.assertEquals("DNK", second.get(1L).getLocations().get(0).getId());
+
+    // Post
+    second.close();
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+  }
+
+  @Test
+  public void fingerprintTest() throws IOException {
+    // State
+    String firstPath = GeocodeDiskCache.fingerprintPath(DISK_PATH, "v1");
+    String secondPath = GeocodeDiskCache.fingerprintPath(DISK_PATH, "v2");
+    Files.deleteIfExists(Paths.get(firstPath));
+    Files.deleteIfExists(Paths.get(secondPath));
+
+    // When
+    GeocodeDiskCache first = GeocodeDiskCache.create(DISK_PATH, "v1", 0L).get();
+    first.put(1L, loadFn.apply(latLng(1d, 1d)));
+    first.close();
+    GeocodeDiskCache second = GeocodeDiskCache.create(DISK_PATH, "v2", 0L).get();
+    GeocodeResponse response = second.get(1L);
+    second.close();
+
+    // Should
+    Assert.assertNotEquals(firstPath, secondPath);
+    Assert.assertNull(response);
+
+    // Post
+    Files.deleteIfExists(Paths.get(firstPath));
+    Files.deleteIfExists(Paths.get(secondPath));
+  }
+
+  @Test
+  public void expiryTest() throws Exception {
+    // State
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+    GeocodeDiskCache disk = GeocodeDiskCache.create(DISK_PATH, null, 1L).get();
+
+    // When
+    disk.put(1L, loadFn.apply(latLng(1d, 1d)));
+    Thread.sleep(10L);
+
+    // Should
+    Assert.assertNull(disk.get(1L));
+
+    // Post
+    disk.close();
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+  }
+
+  @Test
+  public void lockedFileTest() throws IOException {
+    // State
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+    DB other = DBMaker.fileDB(new File(DISK_PATH)).fileMmapEnableIfSupported().make();
+
+    // When
+    Optional<GeocodeDiskCache> disk = GeocodeDiskCache.create(DISK_PATH);
+
+    // Should
+    Assert.assertFalse(disk.isPresent());
+
+    // Post
+    other.close();
+    Files.deleteIfExists(Paths.get(DISK_PATH));
+  }
+
+  @Test
+  public void keyTest() {
+    // State
+    TieredGeocodeCache cache = TieredGeocodeCache.builder().precision(0).create();
+
+    // Should
+    Assert.assertEquals(0L, cache.toKey(latLng(-90d, -180d)));
+    Assert.assertEquals(360L, cache.toKey(latLng(-90d, 180d)));
+    Assert.assertEquals(361L, cache.toKey(latLng(-89d, -180d)));
+    Assert.assertEquals(cache.toKey(latLng(10.4d, 10.4d)), cache.toKey(latLng(9.6d, 9.6d)));
+  }
+
+  private TieredGeocodeCache createCache() {
+    return TieredGeocodeCache.builder()
+        .tier(GeocodeMemoryCache.create(100))
+        .tier(GeocodeDiskCache.create(DISK_PATH).get())
+        .precision(5)
+        .create();
+  }
+
+  private static LatLng latLng(double lat, double lng) {
+    return LatLng.builder().withLatitude(lat).withLongitude(lng).build();
+  }
+}
@@ -0,0 +1,106 @@
+package org.gbif.pipelines.core.parsers.temporal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.gbif.common.parsers.core.OccurrenceParseResult;
+import org.gbif.common.parsers.core.ParseResult;
+import org.gbif.common.parsers.date.DateParsers;
+import org.junit.Test;
+
+public class IsoDateParserTest {
+
+  @Test
+  public void fastPathTest() {
+    assertNotNull(IsoDateParser.parse("2020-01-15"));
+    assertNotNull(IsoDateParser.parse("2020-02-29"));
+    assertNull(IsoDateParser.parse("2019-02-29"));
+    assertNull(IsoDateParser.parse("1900-02-29"));
+    assertNull(IsoDateParser.parse("2020-13-01"));
+    assertNull(IsoDateParser.parse("2020-04-31"));
+    assertNull(IsoDateParser.parse("2020-1-15"));
+    assertNull(IsoDateParser.parse(" 2020-01-15"));
+    assertNull(IsoDateParser.parse("2020/01/15"));
+    assertNull(IsoDateParser.parse("0999-01-15"));
+    assertNull(IsoDateParser.parse("2020-01-15T10:00"));
+    assertNull(IsoDateParser.parse(null));
+  }
+
+  @Test
+  public void sameResultAsFullParserTest() {
+
+    // State
+    org.gbif.common.parsers.date.TemporalParser fullParser = DateParsers.defaultTemporalParser();
+    List<String> values = new ArrayList<>();
+    Random random = new Random(13);
+    for (int i = 0; i < 20_000; i++) {
+      values.add(
+          String.format(
+              "%04d-%02d-%02d",
+              1000 + random.nextInt(9000), 1 + random.nextInt(12), 1 + random.nextInt(31)));
+    }
+    values.addAll(Arrays.asList("2000-02-29", "1900-02-28", "2400-02-29", "9999-12-31"));
+
+    for (String value : values) {
+      // When
+      ParseResult<TemporalAccessor> fast = IsoDateParser.parse(value);
+      ParseResult<TemporalAccessor> full = fullParser.parse(value);
+
+      // Should
+      if (fast != null) {
+        assertEquals(value, full.getStatus(), fast.getStatus());
+        assertEquals(value, full.getConfidence(), fast.getConfidence());
+        assertEquals(value, full.getPayload(), fast.getPayload());
+        assertEquals(value, alternatives(full), alternatives(fast));
+      }
+    }
+  }
+
+  @Test
+  public void cachedTemporalParserTest() {
+
+    // State
+    TemporalParser temporalParser = TemporalParser.create();
+    List<String[]> values =
+        Arrays.asList(
+            new String[] {"2005", "1", "1", "2005-01-01"},
+            new String[] {"2005", "1", "2", "2005-01-05"},
+            new String[] {null, null, null, "2005-01"},
+            new String[] {null, null, null, "5/4/2014"},
+            new String[] {"2014", "4", "5", "5/4/2014"},
+            new String[] {"1599", null, null, null},
+            new String[] {null, null, null, "1996-01-26T01:00Z"});
+
+    for (String[] v : values) {
+      // When
+      OccurrenceParseResult<TemporalAccessor> first =
+          temporalParser.parseRecordedDate(v[0], v[1], v[2], v[3]);
+      OccurrenceParseResult<TemporalAccessor> second =
+          temporalParser.parseRecordedDate(v[0], v[1], v[2], v[3]);
+      OccurrenceParseResult<TemporalAccessor> uncached =
+          TemporalParser.create().parseRecordedDate(v[0], v[1], v[2], v[3]);
+
+      // Should
+      assertEquals(uncached.getStatus(), first.getStatus());
+      assertEquals(uncached.getPayload(), first.getPayload());
+      assertEquals(uncached.getIssues(), first.getIssues());
+      assertEquals(first.getStatus(), second.getStatus());
+      assertEquals(first.getPayload(), second.getPayload());
+      assertEquals(first.getIssues(), second.getIssues());
+    }
+  }
+
+  /** Null and empty alternatives are handled the same way by {@link TemporalParser} */
+  private static Object alternatives(ParseResult<TemporalAccessor> result) {
+    return result.getAlternativePayloads() == null
+        ? Collections.emptySet()
+        : result.getAlternativePayloads();
+  }
+}
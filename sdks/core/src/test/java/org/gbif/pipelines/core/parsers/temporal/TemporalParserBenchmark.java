@@ -0,0 +1,118 @@
+package org.gbif.pipelines.core.parsers.temporal;
+
+import com.google.common.collect.Range;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAccessor;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.common.parsers.core.OccurrenceParseResult;
+import org.gbif.common.parsers.core.ParseResult;
+import org.gbif.common.parsers.date.DateParsers;
+import org.gbif.common.parsers.date.TemporalAccessorUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Per-record cost of {@link TemporalParser#parseRecordedDate} with the ISO fast path and the parse
+ * cache compared to the same method without them, run using the main method or the JMH runner with
+ * the "-prof gc" option to see allocations per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemporalParserBenchmark {
+
+  private static final int VALUES = 1 << 12;
+  private static final LocalDate MIN_LOCAL_DATE = LocalDate.of(1600, 1, 1);
+
+  private final TemporalParser temporalParser = TemporalParser.create();
+  private final org.gbif.common.parsers.date.TemporalParser fullParser =
+      DateParsers.defaultTemporalParser();
+  private String[] isoDates;
+  private String[] otherDates;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    isoDates = new String[VALUES];
+    otherDates = new String[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      int year = 1900 + random.nextInt(120);
+      int month = 1 + random.nextInt(12);
+      int day = 1 + random.nextInt(28);
+      isoDates[i] = String.format("%04d-%02d-%02d", year, month, day);
+      // Repeated values in another format, served by the cache
+      otherDates[i] = String.format("%d/%d/%d", day, month, 1900 + random.nextInt(4));
+    }
+  }
+
+  @Benchmark
+  public OccurrenceParseResult<TemporalAccessor> isoFastPath() {
+    next = (next + 1) & (VALUES - 1);
+    return temporalParser.parseRecordedDate(isoDates[next]);
+  }
+
+  @Benchmark
+  public OccurrenceParseResult<TemporalAccessor> isoBaseline() {
+    next = (next + 1) & (VALUES - 1);
+    return baselineParseRecordedDate(isoDates[next]);
+  }
+
+  @Benchmark
+  public OccurrenceParseResult<TemporalAccessor> otherCached() {
+    next = (next + 1) & (VALUES - 1);
+    return temporalParser.parseRecordedDate(otherDates[next]);
+  }
+
+  @Benchmark
+  public OccurrenceParseResult<TemporalAccessor> otherBaseline() {
+    next = (next + 1) & (VALUES - 1);
+    return baselineParseRecordedDate(otherDates[next]);
+  }
+
+  /**
+   * {@link TemporalParser#parseRecordedDate(String)} as it was before the fast path and the cache,
+   * every value goes through the generic parser and the valid range is computed per record
+   */
+  private OccurrenceParseResult<TemporalAccessor> baselineParseRecordedDate(String dateString) {
+    ParseResult<TemporalAccessor> parsedDateResult = fullParser.parse(dateString);
+    TemporalAccessor parsedDateTa = parsedDateResult.getPayload();
+    TemporalAccessor parsedTemporalAccessor =
+        TemporalAccessorUtils.bestResolution(null, parsedDateTa).orElse(null);
+
+    Set<OccurrenceIssue> issues = EnumSet.noneOf(OccurrenceIssue.class);
+    Range<LocalDate> validRange = Range.closed(MIN_LOCAL_DATE, LocalDate.now().plusDays(1));
+    if (!TemporalParser.isValidDate(parsedTemporalAccessor, validRange)) {
+      issues.add(
+          parsedTemporalAccessor == null
+              ? OccurrenceIssue.RECORDED_DATE_INVALID
+              : OccurrenceIssue.RECORDED_DATE_UNLIKELY);
+      return OccurrenceParseResult.fail(issues);
+    }
+    return OccurrenceParseResult.success(
+        parsedDateResult.getConfidence(), parsedTemporalAccessor, issues);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder().include(TemporalParserBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,69 @@
+package org.gbif.pipelines.core.parsers.vertnet;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Per-value cost of the length and mass parsers with and without the pattern prefilter over the
+ * dynamicProperties samples of the parser tests, run using the main method or the JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicParserBenchmark {
+
+  private String[] samples;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    List<String> list = DynamicPropertiesSamples.get();
+    samples = list.toArray(new String[0]);
+  }
+
+  @Benchmark
+  public Optional<DynamicProperty> lengthPrefilter() {
+    return LengthParser.PARSER.parse(nextSample(), true);
+  }
+
+  @Benchmark
+  public Optional<DynamicProperty> lengthAllPatterns() {
+    return LengthParser.PARSER.parse(nextSample(), false);
+  }
+
+  @Benchmark
+  public Optional<DynamicProperty> massPrefilter() {
+    return MassParser.PARSER.parse(nextSample(), true);
+  }
+
+  @Benchmark
+  public Optional<DynamicProperty> massAllPatterns() {
+    return MassParser.PARSER.parse(nextSample(), false);
+  }
+
+  private String nextSample() {
+    next = next + 1 == samples.length ? 0 : next + 1;
+    return samples[next];
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(DynamicParserBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,34 @@
+package org.gbif.pipelines.core.parsers.vertnet;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+
+public class DynamicParserTest {
+
+  @Test
+  public void prefilterTest() {
+    // State
+    List<String> samples = DynamicPropertiesSamples.get();
+
+    for (String sample : samples) {
+      // When
+      String lengthAll = toString(LengthParser.PARSER.parse(sample, false));
+      String lengthFiltered = toString(LengthParser.PARSER.parse(sample, true));
+      String massAll = toString(MassParser.PARSER.parse(sample, false));
+      String massFiltered = toString(MassParser.PARSER.parse(sample, true));
+
+      // Should
+      assertEquals(sample, lengthAll, lengthFiltered);
+      assertEquals(sample, massAll, massFiltered);
+    }
+  }
+
+  private static String toString(Optional<DynamicProperty> property) {
+    return property
+        .map(p -> p.getField() + "|" + p.getKey() + "|" + p.getValue() + "|" + p.getType())
+        .orElse(null);
+  }
+}
@@ -0,0 +1,27 @@
+package org.gbif.pipelines.core.parsers.vertnet;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+
+/** dynamicProperties values used by the VertNet parser tests, one value per line */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class DynamicPropertiesSamples {
+
+  @SneakyThrows
+  static List<String> get() {
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(
+                DynamicPropertiesSamples.class.getResourceAsStream(
+                    "/vertnet/dynamic-properties.txt"),
+                StandardCharsets.UTF_8))) {
+      return reader.lines().collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package org.gbif.pipelines.core.parsers.vertnet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class KeywordMatcherTest {
+
+  @Test
+  public void containsAnyTest() {
+    // State
+    KeywordMatcher matcher =
+        KeywordMatcher.create(Arrays.asList("he", "she", "his", "hers", "ñu"));
+
+    // Should
+    assertTrue(matcher.containsAny("ushers"));
+    assertTrue(matcher.containsAny("this"));
+    assertTrue(matcher.containsAny("a ñu"));
+    assertFalse(matcher.containsAny("hi s"));
+    assertFalse(matcher.containsAny("nu"));
+    assertFalse(matcher.containsAny(""));
+  }
+
+  @Test
+  public void emptyKeywordTest() {
+    assertTrue(KeywordMatcher.create(Collections.singletonList("")).containsAny("a"));
+    assertFalse(KeywordMatcher.create(Collections.emptyList()).containsAny("a"));
+  }
+
+  @Test
+  public void sameAsContainsTest() {
+    // State
+    List<String> keywords = Arrays.asList("s.l", "sl", "svl.", "tl_", "total length", "aab");
+    KeywordMatcher matcher = KeywordMatcher.create(keywords);
+    List<String> texts =
+        Arrays.asList("s.l.", "s l", "svl", "svl.", "total  length", "tl", "tl_", "aaab", "aab");
+
+    for (String text : texts) {
+      // When
+      boolean expected = keywords.stream().anyMatch(text::contains);
+
+      // Should
+      assertEquals(text, expected, matcher.containsAny(text));
+    }
+  }
+}
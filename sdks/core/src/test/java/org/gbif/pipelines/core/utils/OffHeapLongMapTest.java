@@ -0,0 +1,71 @@
+package org.gbif.pipelines.core.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapLongMapTest {
+
+  @Test
+  public void putGetTest() {
+    // State
+    OffHeapLongMap map = new OffHeapLongMap(4);
+
+    // When
+    long first = map.put(1L, 10L);
+    long second = map.put(1L, 11L);
+    map.put(-5L, 50L);
+    map.put(0L, 0L);
+
+    // Should
+    Assert.assertEquals(OffHeapLongMap.NO_VALUE, first);
+    Assert.assertEquals(10L, second);
+    Assert.assertEquals(11L, map.get(1L));
+    Assert.assertEquals(50L, map.get(-5L));
+    Assert.assertEquals(0L, map.get(0L));
+    Assert.assertEquals(OffHeapLongMap.NO_VALUE, map.get(2L));
+    Assert.assertEquals(3, map.size());
+  }
+
+  @Test
+  public void growTest() {
+    // State
+    OffHeapLongMap map = new OffHeapLongMap(16);
+
+    // When
+    for (long i = 1; i <= 100_000; i++) {
+      map.put(i * 31, i);
+    }
+
+    // Should
+    Assert.assertEquals(100_000, map.size());
+    for (long i = 1; i <= 100_000; i++) {
+      Assert.assertEquals(i, map.get(i * 31));
+    }
+    Assert.assertFalse(map.containsKey(17L));
+  }
+
+  @Test
+  public void segmentsTest() {
+    // State
+    OffHeapLongMap map = new OffHeapLongMap(16, 64);
+
+    // When
+    for (long i = 1; i <= 10_000; i++) {
+      map.put(i * 31, i);
+    }
+
+    // Should
+    Assert.assertTrue(map.segmentCount() > 1);
+    Assert.assertEquals(10_000, map.size());
+    for (long i = 1; i <= 10_000; i++) {
+      Assert.assertEquals(i, map.get(i * 31));
+    }
+    Assert.assertFalse(map.containsKey(17L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void reservedValueTest() {
+    // When
+    new OffHeapLongMap().put(1L, OffHeapLongMap.NO_VALUE);
+  }
+}
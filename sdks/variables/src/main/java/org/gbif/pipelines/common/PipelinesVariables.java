@@ -225,6 +225,22 @@ public class PipelinesVariables {
     public static final String OCCURRENCE_EXT_COUNT = "occurrenceExtCount";
     public static final String HASH_ID_COUNT = "hashIdCount";
     public static final String INVALID_GBIF_ID_COUNT = "invalidGbifIdCount";
+    // Java pipelines executor
+    public static final String BATCH_RECORDS_COUNT = "batchRecordsCount";
+    public static final String BATCHES_COUNT = "batchesCount";
+    public static final String BATCH_QUEUE_FULL_COUNT = "batchQueueFullCount";
+    // Geocode cache tiers
+    public static final String GEOCODE_BITMAP_HIT_COUNT = "geocodeBitmapHitCount";
+    public static final String GEOCODE_BITMAP_MISS_COUNT = "geocodeBitmapMissCount";
+    public static final String GEOCODE_MEMORY_HIT_COUNT = "geocodeMemoryHitCount";
+    public static final String GEOCODE_MEMORY_MISS_COUNT = "geocodeMemoryMissCount";
+    public static final String GEOCODE_DISK_HIT_COUNT = "geocodeDiskHitCount";
+    public static final String GEOCODE_DISK_MISS_COUNT = "geocodeDiskMissCount";
+    // Elasticsearch bulk writer
+    public static final String ES_INDEXED_DOCUMENTS_COUNT = "esIndexedDocumentsCount";
+    public static final String ES_BULK_REQUESTS_COUNT = "esBulkRequestsCount";
+    public static final String ES_RETRIED_DOCUMENTS_COUNT = "esRetriedDocumentsCount";
+    public static final String ES_BACK_PRESSURE_COUNT = "esBackPressureCount";
     // Core types
     public static final String METADATA_RECORDS_COUNT = "metadataRecordsCount";
     public static final String DEFAULT_VALUES_RECORDS_COUNT = "defaultValuesRecordsCount";
@@ -232,6 +248,8 @@ public class PipelinesVariables {
     public static final String TEMPORAL_RECORDS_COUNT = "temporalRecordsCount";
     public static final String LOCATION_RECORDS_COUNT = "locationRecordsCount";
     public static final String TAXON_RECORDS_COUNT = "taxonRecordsCount";
+    public static final String TAXON_DISTINCT_MATCH_REQUESTS_COUNT =
+        "taxonDistinctMatchRequestsCount";
     public static final String GRSCICOLL_RECORDS_COUNT = "grscicollRecordsCount";
     public static final String VERBATIM_RECORDS_COUNT = "verbatimRecordsCount";
     // Event core types
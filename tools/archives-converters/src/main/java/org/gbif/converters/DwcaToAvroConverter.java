@@ -4,18 +4,36 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.DataFileWriter;
+import org.gbif.converters.converter.AvroShards;
 import org.gbif.converters.converter.ConverterToVerbatim;
+import org.gbif.converters.converter.DwcaExtensionIndex;
+import org.gbif.dwc.Archive;
+import org.gbif.dwc.DwcFiles;
+import org.gbif.dwc.record.Record;
 import org.gbif.pipelines.core.converters.ExtendedRecordConverter;
 import org.gbif.pipelines.core.io.DwcaReader;
 import org.gbif.pipelines.core.io.SyncDataFileWriter;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.gbif.utils.file.ClosableIterator;
 import org.gbif.utils.file.spreadsheet.CsvSpreadsheetConsumer;
 import org.gbif.utils.file.spreadsheet.ExcelXmlConverter;
 
@@ -25,6 +43,19 @@ import org.gbif.utils.file.spreadsheet.ExcelXmlConverter;
 @Builder
 public class DwcaToAvroConverter extends ConverterToVerbatim {
 
+  private static final int BATCH_SIZE = 1_000;
+
+  private int parallelism;
+
+  /**
+   * @param parallelism number of threads converting archives with extensions, the extensions are
+   *     indexed by core id instead of sorting the archive when it is greater than 1
+   */
+  public DwcaToAvroConverter parallelism(int parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+
   public static void main(String... args) {
     if (args.length < 2) {
       throw new IllegalArgumentException("You must specify input and output paths");
@@ -58,7 +89,7 @@ public class DwcaToAvroConverter extends ConverterToVerbatim {
             .orElse(inputPath)
             .toString();
 
-    DwcaReader reader;
+    Archive archive;
     if (inputPath.toString().endsWith(".zip") || inputPath.toString().endsWith(".dwca")) {
       String tmp;
       if (Files.isDirectory(inputPath)) {
@@ -66,13 +97,19 @@ public class DwcaToAvroConverter extends ConverterToVerbatim {
       } else {
         tmp = inputPath.getParent().resolve("tmp").toString();
       }
-      reader = DwcaReader.fromCompressed(realPath, tmp);
+      archive = DwcFiles.fromCompressed(Paths.get(realPath), Paths.get(tmp));
     } else {
-      reader = DwcaReader.fromLocation(realPath);
+      archive = DwcFiles.fromLocation(Paths.get(realPath));
     }
 
     log.info("Exporting the DwC Archive to Avro started {}", realPath);
 
+    if (parallelism > 1 && !archive.getExtensions().isEmpty()) {
+      return convertIndexed(archive, dataFileWriter);
+    }
+
+    DwcaReader reader = DwcaReader.fromArchive(archive);
+
     // Read all records
     while (reader.advance()) {
       ExtendedRecord record = reader.getCurrent();
@@ -85,6 +122,105 @@ public class DwcaToAvroConverter extends ConverterToVerbatim {
     return reader.getRecordsReturned();
   }
 
+  /**
+   * Reads the core file once and joins the extensions using {@link DwcaExtensionIndex}. Core
+   * records are handed to the workers in batches, the workers add the extensions and write their
+   * own {@link AvroShards} shard.
+   */
+  @SneakyThrows
+  private long convertIndexed(Archive archive, SyncDataFileWriter<ExtendedRecord> dataFileWriter) {
+    DwcaReader.requireCoreTerms(archive);
+
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    BlockingQueue<List<CoreRecord>> queue = new ArrayBlockingQueue<>(parallelism * 2);
+    AtomicReference<Exception> failure = new AtomicReference<>();
+
+    try (DwcaExtensionIndex index = DwcaExtensionIndex.create(archive);
+        AvroShards shards = AvroShards.create(parallelism, getCodecFactory(), getSyncInterval());
+        ClosableIterator<Record> iterator = archive.getCore().iterator()) {
+
+      try {
+        List<Future<?>> futures = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+          int shard = i;
+          futures.add(executor.submit(() -> writeShard(queue, index, shards, shard, failure)));
+        }
+
+        long recordsReturned = 0;
+        List<CoreRecord> batch = new ArrayList<>(BATCH_SIZE);
+        while (iterator.hasNext()) {
+          Record core = iterator.next();
+          recordsReturned++;
+          if (recordsReturned % 100_000 == 0) {
+            log.info("Read [{}] records", recordsReturned);
+          }
+          ExtendedRecord record = ExtendedRecordConverter.from(core, Collections.emptyMap());
+          if (!record.getId().equals(ExtendedRecordConverter.getRecordIdError())) {
+            batch.add(new CoreRecord(core.id(), record));
+          }
+          if (batch.size() == BATCH_SIZE) {
+            queue.put(batch);
+            batch = new ArrayList<>(BATCH_SIZE);
+          }
+        }
+        if (!batch.isEmpty()) {
+          queue.put(batch);
+        }
+        // an empty batch stops a worker
+        for (int i = 0; i < parallelism; i++) {
+          queue.put(Collections.emptyList());
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        if (failure.get() != null) {
+          throw failure.get();
+        }
+
+        shards.appendTo(dataFileWriter);
+
+        log.info("Closing DwC-A reader having read [{}] records", recordsReturned);
+        return recordsReturned;
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  /** Keeps draining the queue after a failure, so the reader never blocks on a full queue */
+  private static void writeShard(
+      BlockingQueue<List<CoreRecord>> queue,
+      DwcaExtensionIndex index,
+      AvroShards shards,
+      int shard,
+      AtomicReference<Exception> failure) {
+    DataFileWriter<ExtendedRecord> writer = null;
+    try {
+      List<CoreRecord> batch;
+      while (!(batch = queue.take()).isEmpty()) {
+        if (failure.get() != null) {
+          continue;
+        }
+        try {
+          if (writer == null) {
+            writer = shards.createWriter(shard);
+          }
+          for (CoreRecord core : batch) {
+            core.record.setExtensions(index.get(core.id));
+            writer.append(core.record);
+          }
+        } catch (Exception ex) {
+          failure.compareAndSet(null, ex);
+        }
+      }
+      if (writer != null) {
+        writer.close();
+      }
+    } catch (Exception ex) {
+      failure.compareAndSet(null, ex);
+    }
+  }
+
   @SneakyThrows
   private Optional<Path> normalizeSpreadsheetPath(java.nio.file.Path path) {
     try (Stream<Path> list = Files.list(path)) {
@@ -108,4 +244,10 @@ public class DwcaToAvroConverter extends ConverterToVerbatim {
     }
     return converted;
   }
+
+  @AllArgsConstructor
+  private static class CoreRecord {
+    private final String id;
+    private final ExtendedRecord record;
+  }
 }
@@ -3,6 +3,8 @@ package org.gbif.converters;
 import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.gbif.converters.converter.ConverterToVerbatim;
@@ -16,16 +18,23 @@ import org.gbif.pipelines.io.avro.ExtendedRecord;
 public class XmlToAvroConverter extends ConverterToVerbatim {
 
   private ExecutorService executor = Executors.newWorkStealingPool();
+  private int parallelism = Runtime.getRuntime().availableProcessors();
 
-  /** @param executor to use provided ExecutorService */
+  /** @param executor to use provided ExecutorService, one avro shard is written per its thread */
   public XmlToAvroConverter executor(ExecutorService executor) {
     this.executor = executor;
+    if (executor instanceof ThreadPoolExecutor) {
+      this.parallelism = ((ThreadPoolExecutor) executor).getMaximumPoolSize();
+    } else if (executor instanceof ForkJoinPool) {
+      this.parallelism = ((ForkJoinPool) executor).getParallelism();
+    }
     return this;
   }
 
   /** @param xmlReaderParallelism number of threads for reader */
   public XmlToAvroConverter xmlReaderParallelism(int xmlReaderParallelism) {
     this.executor = Executors.newFixedThreadPool(xmlReaderParallelism);
+    this.parallelism = xmlReaderParallelism;
     return this;
   }
 
@@ -48,6 +57,8 @@ public class XmlToAvroConverter extends ConverterToVerbatim {
    */
   @Override
   public long convert(Path inputPath, SyncDataFileWriter<ExtendedRecord> dataFileWriter) {
-    return ExtendedRecordConverter.create(executor).toAvro(inputPath.toString(), dataFileWriter);
+    return ExtendedRecordConverter.create(
+            executor, parallelism, getCodecFactory(), getSyncInterval())
+        .toAvro(inputPath.toString(), dataFileWriter);
   }
 }
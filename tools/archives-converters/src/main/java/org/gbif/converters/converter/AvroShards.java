@@ -0,0 +1,95 @@
+package org.gbif.converters.converter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.gbif.pipelines.core.io.SyncDataFileWriter;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+
+/**
+ * Local avro files written by parallel workers, one per worker, and concatenated block by block
+ * into the output file at the end. When the shards use the output codec the blocks are copied
+ * without decompressing, so serialization and compression happen on the workers.
+ */
+@Slf4j
+public class AvroShards implements Closeable {
+
+  private static final String SHARDS_PREFIX = "avro-shards-";
+
+  private final Path dir;
+  private final List<File> files;
+  private final CodecFactory codecFactory;
+  private final int syncInterval;
+
+  private AvroShards(Path dir, int count, CodecFactory codecFactory, int syncInterval) {
+    this.dir = dir;
+    this.codecFactory = codecFactory;
+    this.syncInterval = syncInterval;
+    this.files = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      files.add(dir.resolve("shard-" + i + ".avro").toFile());
+    }
+  }
+
+  /**
+   * @param count number of shards, usually the number of workers
+   * @param codecFactory codec of the shards, use the output file codec to copy blocks as they are
+   * @param syncInterval approximate size of the shard blocks
+   */
+  public static AvroShards create(int count, CodecFactory codecFactory, int syncInterval)
+      throws IOException {
+    Path dir = Files.createTempDirectory(SHARDS_PREFIX);
+    return new AvroShards(dir, Math.max(1, count), codecFactory, syncInterval);
+  }
+
+  public int size() {
+    return files.size();
+  }
+
+  /** Creates the writer of the shard, must be called once per shard and closed by the caller */
+  public DataFileWriter<ExtendedRecord> createWriter(int shard) throws IOException {
+    return new DataFileWriter<>(new SpecificDatumWriter<>(ExtendedRecord.class))
+        .setCodec(codecFactory)
+        .setSyncInterval(syncInterval)
+        .create(ExtendedRecord.getClassSchema(), files.get(shard));
+  }
+
+  /** Appends all closed shards in order, shards without a writer are skipped */
+  public void appendTo(SyncDataFileWriter<ExtendedRecord> writer) throws IOException {
+    for (File shard : files) {
+      if (!shard.exists()) {
+        continue;
+      }
+      try (InputStream is = new FileInputStream(shard);
+          DataFileStream<ExtendedRecord> stream =
+              new DataFileStream<>(is, new SpecificDatumReader<>(ExtendedRecord.class))) {
+        writer.appendAllFrom(stream, false);
+      }
+    }
+  }
+
+  /** Deletes the shards */
+  @Override
+  public void close() {
+    for (File shard : files) {
+      if (shard.exists() && !shard.delete()) {
+        log.warn("Can't delete avro shard {}", shard);
+      }
+    }
+    if (!dir.toFile().delete()) {
+      log.warn("Can't delete avro shards directory {}", dir);
+    }
+  }
+}
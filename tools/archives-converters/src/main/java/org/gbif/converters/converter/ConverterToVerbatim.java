@@ -8,6 +8,8 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.Objects;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.file.CodecFactory;
 import org.apache.hadoop.fs.FileSystem;
@@ -22,7 +24,10 @@ public abstract class ConverterToVerbatim {
 
   private String hdfsSiteConfig;
   private String coreSiteConfig;
+  @Getter(AccessLevel.PROTECTED)
   private int syncInterval = 2 * 1024 * 1024;
+
+  @Getter(AccessLevel.PROTECTED)
   private CodecFactory codecFactory = CodecFactory.snappyCodec();
 
   private java.nio.file.Path inputPath;
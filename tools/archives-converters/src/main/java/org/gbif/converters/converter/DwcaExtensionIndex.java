@@ -0,0 +1,240 @@
+package org.gbif.converters.converter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.dwc.Archive;
+import org.gbif.dwc.ArchiveFile;
+import org.gbif.dwc.record.Record;
+import org.gbif.pipelines.core.converters.ExtendedRecordConverter;
+import org.gbif.utils.file.ClosableIterator;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+
+/**
+ * Extension rows of a DwC archive indexed by core id, an alternative to the star record iterator
+ * which sorts every core and extension file before joining them.
+ *
+ * <p>Every extension is read once in file order. The converted rows are appended to a local data
+ * file and their offsets are kept per core id in a memory-mapped mapdb map, so neither the rows
+ * nor the index live on the heap. Consecutive rows of the same core id, the usual layout, are
+ * stored with a single map update. Lookups use positional reads and are safe from many threads.
+ */
+@Slf4j
+public class DwcaExtensionIndex implements Closeable {
+
+  private static final String INDEX_PREFIX = "dwca-extensions-";
+
+  private final Path dir;
+  private final DB db;
+  private final List<ExtensionFile> files = new ArrayList<>();
+
+  private DwcaExtensionIndex(Path dir) {
+    this.dir = dir;
+    // The fileChannelEnable is used only when mmap is not supported (mapdb does it internally),
+    // cleanerHackEnable is a workaround for a JVM bug
+    // (https://jankotek.gitbooks.io/mapdb/content/performance/)
+    this.db =
+        DBMaker.tempFileDB()
+            .fileMmapEnableIfSupported()
+            .cleanerHackEnable()
+            .fileChannelEnable()
+            .make();
+  }
+
+  /** Reads and indexes all extensions of the archive */
+  @SneakyThrows
+  public static DwcaExtensionIndex create(Archive archive) {
+    DwcaExtensionIndex index = new DwcaExtensionIndex(Files.createTempDirectory(INDEX_PREFIX));
+    try {
+      for (ArchiveFile extension : archive.getExtensions()) {
+        index.add(extension);
+      }
+    } catch (Exception ex) {
+      index.close();
+      throw ex;
+    }
+    return index;
+  }
+
+  /**
+   * Same shape as the extensions of {@link ExtendedRecordConverter#from}, every extension is
+   * present and has an empty list when the core record has no rows in it.
+   */
+  public Map<String, List<Map<String, String>>> get(String coreId) {
+    Map<String, List<Map<String, String>>> extensions = new HashMap<>(files.size() * 2);
+    for (ExtensionFile file : files) {
+      long[] offsets = coreId == null ? null : file.offsets.get(coreId);
+      List<Map<String, String>> rows = new ArrayList<>(offsets == null ? 0 : offsets.length);
+      if (offsets != null) {
+        for (long offset : offsets) {
+          rows.add(read(file.channel, offset));
+        }
+      }
+      extensions.put(file.rowType, rows);
+    }
+    return extensions;
+  }
+
+  private void add(ArchiveFile extension) throws Exception {
+    String rowType = extension.getRowType().qualifiedName();
+    Path dataPath = dir.resolve(files.size() + ".bin");
+    HTreeMap<String, long[]> offsets =
+        db.hashMap(rowType)
+            .keySerializer(Serializer.STRING)
+            .valueSerializer(Serializer.LONG_ARRAY)
+            .create();
+
+    long rowsCount = 0;
+    try (DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataPath)));
+        ClosableIterator<Record> iterator = extension.iterator()) {
+
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      DataOutputStream bufferOut = new DataOutputStream(buffer);
+      long offset = 0;
+      String currentId = null;
+      long[] pending = new long[16];
+      int pendingSize = 0;
+
+      while (iterator.hasNext()) {
+        Record record = iterator.next();
+        String coreId = record.id();
+        if (coreId == null) {
+          continue;
+        }
+        if (!coreId.equals(currentId)) {
+          flush(offsets, currentId, pending, pendingSize);
+          currentId = coreId;
+          pendingSize = 0;
+        }
+        if (pendingSize == pending.length) {
+          pending = Arrays.copyOf(pending, pendingSize * 2);
+        }
+        pending[pendingSize++] = offset;
+
+        buffer.reset();
+        write(bufferOut, ExtendedRecordConverter.convertToMap(record));
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+        offset += Integer.BYTES + buffer.size();
+        rowsCount++;
+      }
+      flush(offsets, currentId, pending, pendingSize);
+    }
+
+    files.add(
+        new ExtensionFile(rowType, FileChannel.open(dataPath, StandardOpenOption.READ), offsets));
+    log.info("Indexed [{}] rows of extension {}", rowsCount, rowType);
+  }
+
+  /** Appends the offsets of a run of rows to the ones already indexed for the core id */
+  private static void flush(
+      HTreeMap<String, long[]> offsets, String coreId, long[] pending, int size) {
+    if (coreId == null || size == 0) {
+      return;
+    }
+    long[] existing = offsets.get(coreId);
+    if (existing == null) {
+      offsets.put(coreId, Arrays.copyOf(pending, size));
+    } else {
+      long[] merged = Arrays.copyOf(existing, existing.length + size);
+      System.arraycopy(pending, 0, merged, existing.length, size);
+      offsets.put(coreId, merged);
+    }
+  }
+
+  private static void write(DataOutputStream out, Map<String, String> row) throws IOException {
+    out.writeInt(row.size());
+    for (Map.Entry<String, String> entry : row.entrySet()) {
+      writeString(out, entry.getKey());
+      writeString(out, entry.getValue());
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @SneakyThrows
+  private static Map<String, String> read(FileChannel channel, long offset) {
+    ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+    readFully(channel, length, offset);
+    ByteBuffer body = ByteBuffer.allocate(length.getInt(0));
+    readFully(channel, body, offset + Integer.BYTES);
+    body.flip();
+
+    int size = body.getInt();
+    Map<String, String> row = new HashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      row.put(readString(body), readString(body));
+    }
+    return row;
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long offset)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of extension data at " + offset);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    for (ExtensionFile file : files) {
+      try {
+        file.channel.close();
+      } catch (IOException ex) {
+        log.warn("Can't close extension data file of {}", file.rowType, ex);
+      }
+    }
+    if (!db.isClosed()) {
+      db.close();
+    }
+    try (Stream<Path> paths = Files.list(dir)) {
+      for (Path path : (Iterable<Path>) paths::iterator) {
+        Files.deleteIfExists(path);
+      }
+      Files.deleteIfExists(dir);
+    } catch (IOException ex) {
+      log.warn("Can't delete extension index directory {}", dir, ex);
+    }
+  }
+
+  @AllArgsConstructor
+  private static class ExtensionFile {
+    private final String rowType;
+    private final FileChannel channel;
+    private final HTreeMap<String, long[]> offsets;
+  }
+}
@@ -2,13 +2,21 @@ package org.gbif.converters.parser.xml;
 
 import com.google.common.base.Strings;
 import java.io.File;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.gbif.converters.converter.AvroShards;
 import org.gbif.converters.parser.xml.parsing.extendedrecord.ConverterTask;
 import org.gbif.converters.parser.xml.parsing.extendedrecord.ExecutorPoolFactory;
 import org.gbif.converters.parser.xml.parsing.extendedrecord.ParserFileUtils;
@@ -17,19 +25,44 @@ import org.gbif.converters.utils.XmlFilesReader;
 import org.gbif.pipelines.core.io.SyncDataFileWriter;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 
-/** Parsing xml response files or tar.xz archive and convert to ExtendedRecord avro file */
+/**
+ * Parsing xml response files or tar.xz archive and convert to ExtendedRecord avro file.
+ *
+ * <p>Every worker takes the next file from a shared queue, largest files first, and writes its
+ * records to a local avro shard, so parsing, serialization and compression run on all workers.
+ * The shards are concatenated block by block into the output file at the end.
+ */
 @Slf4j
-@AllArgsConstructor(staticName = "create")
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class ExtendedRecordConverter {
 
   private final Executor executor;
+  private final int parallelism;
+  private final CodecFactory codecFactory;
+  private final int syncInterval;
 
-  private ExtendedRecordConverter(int parallelism) {
-    this.executor = ExecutorPoolFactory.getInstance(parallelism);
+  public static ExtendedRecordConverter create(int parallelism) {
+    return create(ExecutorPoolFactory.getInstance(parallelism), parallelism);
   }
 
-  public static ExtendedRecordConverter create(int parallelism) {
-    return new ExtendedRecordConverter(parallelism);
+  public static ExtendedRecordConverter create(Executor executor, int parallelism) {
+    return create(
+        executor,
+        parallelism,
+        CodecFactory.snappyCodec(),
+        DataFileConstants.DEFAULT_SYNC_INTERVAL);
+  }
+
+  /**
+   * @param executor runs the workers
+   * @param parallelism number of workers and avro shards
+   * @param codecFactory codec of the shards, use the output file codec to copy blocks as they are
+   * @param syncInterval approximate size of the shard blocks
+   */
+  public static ExtendedRecordConverter create(
+      Executor executor, int parallelism, CodecFactory codecFactory, int syncInterval) {
+    return new ExtendedRecordConverter(
+        executor, Math.max(1, parallelism), codecFactory, syncInterval);
   }
 
   /** @param inputPath path to directory with response files or a tar.xz archive */
@@ -40,23 +73,32 @@ public class ExtendedRecordConverter {
 
     File inputFile = ParserFileUtils.uncompressAndGetInputFile(inputPath);
 
-    try (UniquenessValidator validator = UniquenessValidator.getNewInstance()) {
-      List<File> files = XmlFilesReader.getInputFiles(inputFile);
+    try (UniquenessValidator validator = UniquenessValidator.getNewInstance(parallelism)) {
+      List<File> files =
+          XmlFilesReader.getInputFiles(inputFile).stream()
+              .sorted(Comparator.comparingLong(File::length).reversed())
+              .collect(Collectors.toList());
+      Queue<File> queue = new ConcurrentLinkedQueue<>(files);
+
+      int workers = Math.max(1, Math.min(parallelism, files.size()));
+      try (AvroShards shards = AvroShards.create(workers, codecFactory, syncInterval)) {
 
-      AtomicLong counter = new AtomicLong(0);
+        AtomicLong counter = new AtomicLong(0);
 
-      Function<File, ConverterTask> taskFn = f -> new ConverterTask(f, writer, validator, counter);
+        // Run async process - take files from the queue, convert to ExtendedRecord, write shards
+        CompletableFuture<?>[] futures =
+            IntStream.range(0, workers)
+                .mapToObj(i -> new ConverterTask(queue, shards, i, validator, counter))
+                .map(task -> CompletableFuture.runAsync(task, executor))
+                .toArray(CompletableFuture[]::new);
 
-      // Run async process - read a file, convert to ExtendedRecord and write to Avro
-      CompletableFuture<?>[] futures =
-          files.stream()
-              .map(file -> CompletableFuture.runAsync(taskFn.apply(file), executor))
-              .toArray(CompletableFuture[]::new);
+        // Wait all threads
+        CompletableFuture.allOf(futures).get();
 
-      // Wait all threads
-      CompletableFuture.allOf(futures).get();
+        shards.appendTo(writer);
 
-      return counter.get();
+        return counter.get();
+      }
 
     } catch (Exception ex) {
       log.error(ex.getMessage(), ex);
@@ -27,11 +27,13 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.TransformerException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.digester.Digester;
@@ -42,6 +44,7 @@ import org.gbif.converters.parser.xml.constants.ExtractionSimpleXPaths;
 import org.gbif.converters.parser.xml.model.RawOccurrenceRecord;
 import org.gbif.converters.parser.xml.parsing.RawXmlOccurrence;
 import org.gbif.converters.parser.xml.parsing.response.file.ParsedSearchResponse;
+import org.gbif.converters.parser.xml.parsing.xml.StaxOccurrenceParser;
 import org.gbif.converters.parser.xml.parsing.xml.XmlFragmentParser;
 import org.gbif.converters.parser.xml.util.XmlSanitizingReader;
 import org.gbif.utils.file.CharsetDetection;
@@ -114,6 +117,24 @@ public class OccurrenceParser {
     }
   }
 
+  /**
+   * Streams the records of an uncompressed ABCD 2.06 or DwC 2009 xml file to the consumer in a
+   * single pass, see {@link StaxOccurrenceParser}.
+   *
+   * @param file xml response file
+   * @param consumer receives the parsed records
+   * @return false if the file uses another schema, nothing is consumed and the caller should use
+   *     {@link #parseFile(File)} instead
+   * @throws ParsingException if there were any problems during parsing the file
+   */
+  public boolean parseFile(File file, Consumer<RawOccurrenceRecord> consumer) {
+    try (InputStream inputStream = new FileInputStream(file)) {
+      return StaxOccurrenceParser.parse(inputStream, consumer);
+    } catch (IOException | XMLStreamException ex) {
+      throw new ParsingException("Parsing failed", ex);
+    }
+  }
+
   private ParsedSearchResponse read(File gzipFile, Charset charset) {
     ParsedSearchResponse responseBody = null;
     log.debug("Trying charset [{}]", charset);
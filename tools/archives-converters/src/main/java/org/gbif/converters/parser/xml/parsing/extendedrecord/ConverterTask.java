@@ -1,47 +1,86 @@
 package org.gbif.converters.parser.xml.parsing.extendedrecord;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Queue;
 import java.util.concurrent.atomic.AtomicLong;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.DataFileWriter;
+import org.gbif.converters.converter.AvroShards;
 import org.gbif.converters.parser.xml.OccurrenceParser;
 import org.gbif.converters.parser.xml.model.RawOccurrenceRecord;
 import org.gbif.converters.parser.xml.parsing.validators.UniquenessValidator;
 import org.gbif.converters.parser.xml.parsing.xml.XmlFragmentParser;
-import org.gbif.pipelines.core.io.SyncDataFileWriter;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 
 /**
- * The task for CompletableFuture which reads a xml response file, parses and converts to
- * ExtendedRecord avro file
+ * The worker task for CompletableFuture which takes xml response files from the shared queue until
+ * it is empty, parses and converts them to ExtendedRecord and appends its own avro shard file. The
+ * shard is created with the first record only, a worker without records leaves no file behind.
+ *
+ * <p>Records are appended while a file is parsed. A file which fails to parse fails the conversion,
+ * and the shards with the records of that file are deleted without being appended to the output.
  */
 @Slf4j
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class ConverterTask implements Runnable {
 
-  private final File inputFile;
-  private final SyncDataFileWriter<ExtendedRecord> dataFileWriter;
+  private final Queue<File> inputFiles;
+  private final AvroShards shards;
+  private final int shard;
   private final UniquenessValidator validator;
   private final AtomicLong counter;
 
-  /**
-   * Converts list of {@link org.gbif.converters.parser.xml.parsing.RawXmlOccurrence} into list of
-   * {@link RawOccurrenceRecord} and appends AVRO file
-   */
+  private DataFileWriter<ExtendedRecord> shardWriter;
+
+  @SneakyThrows
   @Override
   public void run() {
-    new OccurrenceParser()
-        .parseFile(inputFile).stream()
-            .map(XmlFragmentParser::parseRecord)
-            .flatMap(Collection::stream)
-            .map(ExtendedRecordConverter::from)
-            .filter(er -> validator.isUnique(er.getId()))
-            .filter(er -> !er.getId().equals(ExtendedRecordConverter.getRecordIdError()))
-            .forEach(
-                er -> {
-                  dataFileWriter.append(er);
-                  counter.incrementAndGet();
-                });
+    try {
+      File inputFile;
+      while ((inputFile = inputFiles.poll()) != null) {
+        convert(inputFile);
+      }
+    } finally {
+      if (shardWriter != null) {
+        shardWriter.close();
+      }
+    }
+  }
+
+  /**
+   * Streams ABCD 2.06 and DwC 2009 files in a single pass, other schemas are converted from the
+   * list of {@link org.gbif.converters.parser.xml.parsing.RawXmlOccurrence}. Every {@link
+   * RawOccurrenceRecord} is converted and appended to the shard
+   */
+  private void convert(File inputFile) {
+    log.debug("Converting file {}", inputFile);
+    OccurrenceParser parser = new OccurrenceParser();
+    if (!parser.parseFile(inputFile, this::append)) {
+      parser.parseFile(inputFile).stream()
+          .map(XmlFragmentParser::parseRecord)
+          .flatMap(Collection::stream)
+          .forEach(this::append);
+    }
+  }
+
+  @SneakyThrows
+  private void append(RawOccurrenceRecord rawRecord) {
+    ExtendedRecord er = ExtendedRecordConverter.from(rawRecord);
+    if (validator.isUnique(er.getId())
+        && !er.getId().equals(ExtendedRecordConverter.getRecordIdError())) {
+      getShardWriter().append(er);
+      counter.incrementAndGet();
+    }
+  }
+
+  private DataFileWriter<ExtendedRecord> getShardWriter() throws IOException {
+    if (shardWriter == null) {
+      shardWriter = shards.createWriter(shard);
+    }
+    return shardWriter;
   }
 }
@@ -1,20 +1,26 @@
 package org.gbif.converters.parser.xml.parsing.validators;
 
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
-import org.mapdb.DB;
-import org.mapdb.DBMaker;
-import org.mapdb.HTreeMap;
-import org.mapdb.Serializer;
+import org.gbif.pipelines.core.utils.OffHeapLongMap;
 
 /**
- * Validates the uniqueness of the String IDs passed using a map backed by a temp file. It uses the
- * mapdb library to implement the map (http://www.mapdb.org/).
+ * Validates the uniqueness of the String IDs passed using sets of ID hashes stored outside of the
+ * java heap in {@link OffHeapLongMap}s.
+ *
+ * <p>IDs are hashed with 128 bit murmur3, the low 64 bits are the keys of the map and the high 64
+ * bits are the values checked when the keys are equal. The IDs themselves aren't stored, two
+ * different IDs with the same 128 bit hash are reported as duplicates, the chance of that is below
+ * 10^-20 for 100M IDs. An ID with the same low 64 bits as a stored one is reported as unique.
+ *
+ * <p>The hashes are partitioned over several stripes, each one with its own lock, so concurrent
+ * converter threads only contend when their IDs fall into the same stripe.
  *
  * <p>This class is intended to be used per process that needs this validation, so a new instance
- * has to be created each time. At the moment of creating the instance, a {@link DB} backed by a
- * temp file is created.
+ * has to be created each time.
  *
  * <p>Keep in mind that {@link UniquenessValidator#close()} has to be called when finishing the
  * validation in order to release the resources used. Also notice that the class implements the
@@ -22,55 +28,79 @@ import org.mapdb.Serializer;
  */
 public class UniquenessValidator implements AutoCloseable {
 
-  private final DB dbDisk;
-  private final HTreeMap.KeySet<String> setOnDisk;
+  private static final HashFunction HASH_FN = Hashing.murmur3_128();
 
-  private UniquenessValidator() {
+  private final OffHeapLongMap[] stripes;
 
-    // create database in disk.
-    // The fileChannelEnable is set to be used only when mmap is not supported (mapdb does it
-    // internally).
-    // cleanerHackEnable is a workaround for a JVM bug
-    // (https://jankotek.gitbooks.io/mapdb/content/performance/).
-    dbDisk =
-        DBMaker.tempFileDB()
-            .fileMmapEnableIfSupported()
-            .cleanerHackEnable()
-            .fileChannelEnable()
-            .make();
-
-    // prefix name to create the map
-    long time = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+  private UniquenessValidator(int stripesCount) {
+    stripes = new OffHeapLongMap[stripesCount];
+    for (int i = 0; i < stripesCount; i++) {
+      stripes[i] = new OffHeapLongMap();
+    }
+  }
 
-    // map to store the values
-    setOnDisk = dbDisk.hashSet(time + "-disk").serializer(Serializer.STRING).createOrOpen();
+  /**
+   * Creates a new instance with a stripe per available processor.
+   *
+   * @return {@link UniquenessValidator}
+   */
+  public static UniquenessValidator getNewInstance() {
+    return getNewInstance(Runtime.getRuntime().availableProcessors());
   }
 
   /**
    * Creates a new instance.
    *
+   * @param stripesCount number of independent partitions of the IDs, use the number of threads
+   *     calling {@link #isUnique(String)}
    * @return {@link UniquenessValidator}
    */
-  public static UniquenessValidator getNewInstance() {
-    return new UniquenessValidator();
+  public static UniquenessValidator getNewInstance(int stripesCount) {
+    return new UniquenessValidator(Math.max(1, stripesCount));
   }
 
   /**
-   * Validates that the ID received is unique in the map that backs this class.
+   * Validates that the ID received is unique in the sets that back this class.
    *
    * @param id ID to validate. This parameter is required and cannot be null.
    * @return true if the ID is unique, false otherwise
    */
   public boolean isUnique(String id) {
     Objects.requireNonNull(id, "ID is required");
-    // this set returns false when a value is inserted
-    return setOnDisk.add(id);
+    HashCode hashCode = HASH_FN.hashString(id, StandardCharsets.UTF_8);
+    byte[] bytes = hashCode.asBytes();
+    long key = hashCode.asLong();
+    long check = toLong(bytes, Long.BYTES);
+    // NO_VALUE is reserved by the map
+    check = check == OffHeapLongMap.NO_VALUE ? check + 1 : check;
+
+    OffHeapLongMap stripe = stripes[(int) Long.remainderUnsigned(check, stripes.length)];
+    synchronized (stripe) {
+      long saved = stripe.get(key);
+      if (saved == OffHeapLongMap.NO_VALUE) {
+        stripe.put(key, check);
+        return true;
+      }
+      // Same low 64 bits of different IDs, the second ID isn't stored
+      return saved != check;
+    }
+  }
+
+  /** Little endian long of the bytes at the offset, the same order as {@link HashCode#asLong()} */
+  private static long toLong(byte[] bytes, int offset) {
+    long value = 0L;
+    for (int i = Long.BYTES - 1; i >= 0; i--) {
+      value = (value << 8) | (bytes[offset + i] & 0xFFL);
+    }
+    return value;
   }
 
   @Override
   public void close() {
-    if (!dbDisk.isClosed()) {
-      dbDisk.close();
+    for (OffHeapLongMap stripe : stripes) {
+      synchronized (stripe) {
+        stripe.close();
+      }
     }
   }
 }
@@ -0,0 +1,211 @@
+package org.gbif.converters.parser.xml.parsing.xml;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.digester.Digester;
+import org.gbif.api.vocabulary.OccurrenceSchemaType;
+import org.gbif.converters.parser.xml.model.RawOccurrenceRecord;
+import org.gbif.converters.parser.xml.parsing.response.file.ResponseSchemaDetector;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Single pass parser for ABCD 2.06 and DwC 2009 responses. Instead of serializing every record
+ * element to a string and parsing it again with a new {@link Digester} (see {@link
+ * org.gbif.converters.parser.xml.OccurrenceParser} and {@link XmlFragmentParser}), the events of
+ * each record are read with StAX and replayed into one {@link Digester} configured with the same
+ * rule set, and each record is passed on as soon as it is parsed, so only the events of the current
+ * record are held in memory.
+ *
+ * <p>Records are replayed the way the fragment parser sees them: by local name and without
+ * namespaces. The schema is detected once from the first record with the {@link
+ * ResponseSchemaDetector}, records before a successful detection are dropped.
+ *
+ * <p>The response is rejected, for the fragment parser to take over, before the first record is
+ * consumed. A response that fails to parse later throws after some records were consumed, the
+ * caller discards the output of the failed response.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class StaxOccurrenceParser {
+
+  private static final Set<OccurrenceSchemaType> SUPPORTED_SCHEMAS =
+      EnumSet.of(OccurrenceSchemaType.ABCD_2_0_6, OccurrenceSchemaType.DWC_2009);
+  private static final Set<String> RECORD_ELEMENTS =
+      new HashSet<>(Arrays.asList("Unit", "SimpleDarwinRecord"));
+  private static final Set<String> UNSUPPORTED_ELEMENTS =
+      new HashSet<>(Arrays.asList("OriginalSource", "DarwinRecord"));
+
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  /**
+   * Parses the stream and passes every record to the consumer.
+   *
+   * @param is response stream, the encoding is taken from the xml declaration
+   * @param consumer receives the parsed records in document order, as they are parsed
+   * @return false if the response is not ABCD 2.06 or DwC 2009 or no record element was detected,
+   *     nothing is consumed in that case and the caller should use the fragment based parsing
+   *     instead
+   */
+  public static boolean parse(InputStream is, Consumer<RawOccurrenceRecord> consumer)
+      throws XMLStreamException {
+    XMLEventReader reader = FACTORY.createXMLEventReader(is);
+    try {
+      ResponseSchemaDetector schemaDetector = new ResponseSchemaDetector();
+      OccurrenceSchemaType schemaType = null;
+      Digester digester = null;
+      long consumed = 0;
+
+      while (reader.hasNext()) {
+        XMLEvent event = reader.nextEvent();
+        if (!event.isStartElement()) {
+          continue;
+        }
+
+        String name = event.asStartElement().getName().getLocalPart();
+        if (UNSUPPORTED_ELEMENTS.contains(name)) {
+          if (consumed == 0) {
+            log.debug("Element [{}] is not supported by the streaming parser", name);
+            return false;
+          }
+          log.warn("Skipping element [{}] found after the first record", name);
+          readRecord(reader, event);
+          continue;
+        }
+        if (!RECORD_ELEMENTS.contains(name)) {
+          continue;
+        }
+
+        List<XMLEvent> events = readRecord(reader, event);
+
+        if (schemaType == null) {
+          schemaType = schemaDetector.detectSchema(toTags(events));
+          if (schemaType == null) {
+            continue;
+          }
+          if (!SUPPORTED_SCHEMAS.contains(schemaType)) {
+            log.debug("Schema [{}] is not supported by the streaming parser", schemaType);
+            return false;
+          }
+          digester = createDigester(schemaType);
+        }
+
+        for (RawOccurrenceRecord record : parseRecord(digester, events)) {
+          consumer.accept(record);
+          consumed++;
+        }
+      }
+
+      // DwC 1.0, DwC 1.4 and MANIS records are not detected, the fragment parser handles them
+      if (schemaType == null) {
+        log.debug("Schema is not detected by the streaming parser");
+        return false;
+      }
+      return true;
+    } finally {
+      reader.close();
+    }
+  }
+
+  /** Reads events until the end of the element started by the given event */
+  private static List<XMLEvent> readRecord(XMLEventReader reader, XMLEvent start)
+      throws XMLStreamException {
+    List<XMLEvent> events = new ArrayList<>();
+    events.add(start);
+    int depth = 1;
+    while (depth > 0) {
+      XMLEvent event = reader.nextEvent();
+      if (event.isStartElement()) {
+        depth++;
+      } else if (event.isEndElement()) {
+        depth--;
+      }
+      events.add(event);
+    }
+    return events;
+  }
+
+  /** Mimics the serialized fragment, enough for {@link ResponseSchemaDetector} string checks */
+  private static String toTags(List<XMLEvent> events) {
+    StringBuilder sb = new StringBuilder();
+    for (XMLEvent event : events) {
+      if (event.isStartElement()) {
+        sb.append('<').append(event.asStartElement().getName().getLocalPart()).append(' ');
+      }
+    }
+    return sb.toString();
+  }
+
+  private static Digester createDigester(OccurrenceSchemaType schemaType) {
+    Digester digester = new Digester();
+    digester.setNamespaceAware(true);
+    digester.setValidating(false);
+    digester.addRuleSet(XmlFragmentParser.getRuleSet(schemaType));
+    return digester;
+  }
+
+  /** Replays the record events into the digester, same as parsing the serialized fragment */
+  private static List<RawOccurrenceRecord> parseRecord(Digester digester, List<XMLEvent> events) {
+    RawOccurrenceRecordBuilder builder = new RawOccurrenceRecordBuilder();
+    try {
+      digester.push(builder);
+      digester.startDocument();
+      for (XMLEvent event : events) {
+        if (event.isStartElement()) {
+          StartElement element = event.asStartElement();
+          String name = element.getName().getLocalPart();
+          digester.startElement("", name, name, toAttributes(element));
+        } else if (event.isEndElement()) {
+          String name = event.asEndElement().getName().getLocalPart();
+          digester.endElement("", name, name);
+        } else if (event.isCharacters()) {
+          char[] chars = event.asCharacters().getData().toCharArray();
+          digester.characters(chars, 0, chars.length);
+        }
+      }
+      digester.endDocument();
+    } catch (SAXException e) {
+      log.warn("SAXException parsing xml record", e);
+      digester.clear();
+      return Collections.emptyList();
+    }
+
+    builder.resolvePriorities();
+    return XmlFragmentParser.forceIdentifiers(builder.generateRawOccurrenceRecords());
+  }
+
+  private static AttributesImpl toAttributes(StartElement element) {
+    AttributesImpl attributes = new AttributesImpl();
+    Iterator<?> iterator = element.getAttributes();
+    while (iterator.hasNext()) {
+      Attribute attribute = (Attribute) iterator.next();
+      String name = attribute.getName().getLocalPart();
+      attributes.addAttribute("", name, name, "CDATA", attribute.getValue());
+    }
+    return attributes;
+  }
+
+  private static XMLInputFactory createFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+}
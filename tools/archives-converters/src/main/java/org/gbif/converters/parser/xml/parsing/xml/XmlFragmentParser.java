@@ -71,6 +71,11 @@ public class XmlFragmentParser {
     }
   }
 
+  /** Rule set for the schema, shared with {@link StaxOccurrenceParser} */
+  static RuleSet getRuleSet(OccurrenceSchemaType schemaType) {
+    return RULE_SETS.get(schemaType);
+  }
+
   public static List<RawOccurrenceRecord> parseRecord(RawXmlOccurrence xmlRecord) {
     return parseRecord(xmlRecord.getXml(), xmlRecord.getSchemaType());
   }
@@ -231,7 +236,7 @@ public class XmlFragmentParser {
   }
 
   /** Filters the records by discarding the ones without ID. */
-  private static List<RawOccurrenceRecord> forceIdentifiers(List<RawOccurrenceRecord> records) {
+  static List<RawOccurrenceRecord> forceIdentifiers(List<RawOccurrenceRecord> records) {
     if (records == null) {
       return Collections.emptyList();
     }
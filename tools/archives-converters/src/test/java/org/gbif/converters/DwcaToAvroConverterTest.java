@@ -3,6 +3,8 @@ package org.gbif.converters;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.specific.SpecificDatumReader;
@@ -43,6 +45,32 @@ public class DwcaToAvroConverterTest {
     Files.deleteIfExists(verbatim.toPath());
   }
 
+  @Test
+  public void parallelConverterTest() throws IOException {
+
+    // State
+    String inpPath = getClass().getResource("/dwca/plants_dwca").getFile();
+    String sequentialPath = inpPath + "/sequential.avro";
+    String parallelPath = inpPath + "/parallel.avro";
+
+    // When
+    DwcaToAvroConverter.create().inputPath(inpPath).outputPath(sequentialPath).convert();
+    DwcaToAvroConverter.create()
+        .parallelism(4)
+        .inputPath(inpPath)
+        .outputPath(parallelPath)
+        .convert();
+
+    // Should
+    Map<String, ExtendedRecord> expected = readById(new File(sequentialPath));
+    Map<String, ExtendedRecord> result = readById(new File(parallelPath));
+    Assert.assertEquals(307, expected.size());
+    Assert.assertEquals(expected, result);
+
+    Files.deleteIfExists(new File(sequentialPath).toPath());
+    Files.deleteIfExists(new File(parallelPath).toPath());
+  }
+
   @Test
   public void csvConverterTest() throws Exception {
 
@@ -133,4 +161,17 @@ public class DwcaToAvroConverterTest {
 
     Files.deleteIfExists(verbatim.toPath());
   }
+
+  private static Map<String, ExtendedRecord> readById(File verbatim) throws IOException {
+    Map<String, ExtendedRecord> records = new HashMap<>();
+    DatumReader<ExtendedRecord> datumReader = new SpecificDatumReader<>(ExtendedRecord.class);
+    try (DataFileReader<ExtendedRecord> dataFileReader =
+        new DataFileReader<>(verbatim, datumReader)) {
+      while (dataFileReader.hasNext()) {
+        ExtendedRecord record = dataFileReader.next();
+        records.put(record.getId(), record);
+      }
+    }
+    return records;
+  }
 }
@@ -1,10 +1,16 @@
 package org.gbif.converters.parser.xml;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
 import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.io.DatumReader;
@@ -158,6 +164,81 @@ public class ExtendedRecordConverterTest {
     Files.deleteIfExists(verbatim.toPath());
   }
 
+  @Test
+  public void shardsMergedTest() throws Exception {
+    // State
+    String inputPath = getTestInputPath() + "61";
+
+    // When
+    long count;
+    try (OutputStream output = new FileOutputStream(getTestOutPath());
+        SyncDataFileWriter<ExtendedRecord> dataFileWrite = createWriter(output)) {
+      count =
+          ExtendedRecordConverter.create(ForkJoinPool.commonPool(), 4, codec, 16_000)
+              .toAvro(inputPath, dataFileWrite);
+    }
+
+    // Should
+    File verbatim = new File(getTestOutPath());
+    Set<String> ids = new HashSet<>();
+    DatumReader<ExtendedRecord> datumReader = new SpecificDatumReader<>(ExtendedRecord.class);
+    try (DataFileReader<ExtendedRecord> dataFileReader =
+        new DataFileReader<>(verbatim, datumReader)) {
+      while (dataFileReader.hasNext()) {
+        Assert.assertTrue(ids.add(dataFileReader.next().getId()));
+      }
+    }
+    Assert.assertTrue(count > 0);
+    Assert.assertEquals(count, ids.size());
+
+    Files.deleteIfExists(verbatim.toPath());
+  }
+
+  @Test
+  public void recordElementSchemaTest() throws Exception {
+    // State
+    String[] files = {
+      "/responses/dwc10/dwc10_all_simple_fields.gz",
+      "/responses/dwc_manis/dwc_manis_all_simple_fields.gz"
+    };
+    Path inputDir = Files.createTempDirectory("record-element-responses");
+    for (String file : files) {
+      File response = new File(getClass().getResource(file).getFile());
+      Path xml = inputDir.resolve(response.getName().replace(".gz", ".xml"));
+      try (InputStream is = new GZIPInputStream(new FileInputStream(response))) {
+        Files.copy(is, xml);
+      }
+    }
+
+    // When
+    long count;
+    try (OutputStream output = new FileOutputStream(getTestOutPath());
+        SyncDataFileWriter<ExtendedRecord> dataFileWrite = createWriter(output)) {
+      count = ExtendedRecordConverter.create(number).toAvro(inputDir.toString(), dataFileWrite);
+    }
+
+    // Should
+    File verbatim = new File(getTestOutPath());
+    long records = 0;
+    DatumReader<ExtendedRecord> datumReader = new SpecificDatumReader<>(ExtendedRecord.class);
+    try (DataFileReader<ExtendedRecord> dataFileReader =
+        new DataFileReader<>(verbatim, datumReader)) {
+      while (dataFileReader.hasNext()) {
+        dataFileReader.next();
+        records++;
+      }
+    }
+    Assert.assertEquals(2L, count);
+    Assert.assertEquals(2L, records);
+
+    // Post
+    Files.deleteIfExists(verbatim.toPath());
+    for (String file : files) {
+      Files.deleteIfExists(inputDir.resolve(new File(file).getName().replace(".gz", ".xml")));
+    }
+    Files.deleteIfExists(inputDir);
+  }
+
   private SyncDataFileWriter<ExtendedRecord> createWriter(OutputStream output) throws Exception {
     return SyncDataFileWriterBuilder.builder()
         .schema(ExtendedRecord.getClassSchema())
@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -65,6 +66,23 @@ public class UniquenessValidatorTest {
     }
   }
 
+  @Test
+  public void givenConcurrentDuplicatesWhenMappedThenOnlyOneUnique() {
+    int n = 10_000;
+
+    try (UniquenessValidator validator = UniquenessValidator.getNewInstance(4)) {
+      // every id is checked twice from different threads
+      long uniques =
+          IntStream.range(0, n * 2)
+              .parallel()
+              .mapToObj(i -> String.valueOf(i % n))
+              .filter(validator::isUnique)
+              .count();
+
+      Assert.assertEquals(n, uniques);
+    }
+  }
+
   @Test
   public void givenNullIdWhenMappedThenExceptionThrown() {
     thrown.expect(NullPointerException.class);
@@ -0,0 +1,141 @@
+package org.gbif.converters.parser.xml.parsing.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import javax.xml.stream.XMLStreamException;
+import lombok.SneakyThrows;
+import org.gbif.converters.parser.xml.model.RawOccurrenceRecord;
+import org.gbif.converters.parser.xml.parsing.extendedrecord.ExtendedRecordConverter;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.junit.Test;
+
+public class StaxOccurrenceParserTest extends ParserTestCase {
+
+  @Test
+  public void sameAsFragmentParserTest() {
+    // State
+    String[] files = {
+      "/responses/abcd206/abcd206_all_simple_fields.gz",
+      "/responses/abcd206/abcd206_idtype.gz",
+      "/responses/abcd206/abcd206_id_latin.gz",
+      "/responses/abcd206/abcd206_images.gz",
+      "/responses/abcd206/abcd206_links.gz",
+      "/responses/abcd206/abcd206_multi_ids_no_preferred.gz",
+      "/responses/abcd206/abcd206_multi_ids_preferred_false.gz",
+      "/responses/abcd206/abcd206_typification.gz",
+      "/responses/dwc2009/dwc2009_simple_fields.gz"
+    };
+
+    for (String file : files) {
+      File response = new File(getClass().getResource(file).getFile());
+
+      // When
+      List<ExtendedRecord> expected =
+          occurrenceParser.parseResponseFileToRawXml(response).stream()
+              .map(XmlFragmentParser::parseRecord)
+              .flatMap(Collection::stream)
+              .map(ExtendedRecordConverter::from)
+              .collect(Collectors.toList());
+
+      List<RawOccurrenceRecord> records = new ArrayList<>();
+      boolean supported = parse(response, records);
+
+      // Should
+      assertTrue(file, supported);
+      assertFalse(file, records.isEmpty());
+      assertEquals(
+          file,
+          expected,
+          records.stream().map(ExtendedRecordConverter::from).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void unsupportedSchemaTest() {
+    // State
+    File response =
+        new File(getClass().getResource("/responses/dwc14/dwc14_all_simple_fields.gz").getFile());
+    List<RawOccurrenceRecord> records = new ArrayList<>();
+
+    // When
+    boolean supported = parse(response, records);
+
+    // Should
+    assertFalse(supported);
+    assertTrue(records.isEmpty());
+  }
+
+  @Test
+  public void recordElementSchemaTest() {
+    // State
+    String[] files = {
+      "/responses/dwc10/dwc10_all_simple_fields.gz",
+      "/responses/dwc_manis/dwc_manis_all_simple_fields.gz"
+    };
+
+    for (String file : files) {
+      File response = new File(getClass().getResource(file).getFile());
+      List<RawOccurrenceRecord> records = new ArrayList<>();
+
+      // When
+      boolean supported = parse(response, records);
+      long fragmentRecords =
+          occurrenceParser.parseResponseFileToRawXml(response).stream()
+              .map(XmlFragmentParser::parseRecord)
+              .mapToLong(Collection::size)
+              .sum();
+
+      // Should
+      assertFalse(file, supported);
+      assertTrue(file, records.isEmpty());
+      assertEquals(file, 1L, fragmentRecords);
+    }
+  }
+
+  @Test
+  public void streamingTest() throws Exception {
+    // State
+    File response =
+        new File(getClass().getResource("/responses/dwc2009/dwc2009_simple_fields.gz").getFile());
+    byte[] xml;
+    try (InputStream is = new GZIPInputStream(new FileInputStream(response))) {
+      xml = ByteStreams.toByteArray(is);
+    }
+    // Cut the response after the first record
+    String content = new String(xml, StandardCharsets.UTF_8);
+    int end = content.indexOf("</SimpleDarwinRecord>") + "</SimpleDarwinRecord>".length();
+    byte[] broken = (content.substring(0, end) + "<broken").getBytes(StandardCharsets.UTF_8);
+
+    List<RawOccurrenceRecord> records = new ArrayList<>();
+
+    // When
+    try {
+      StaxOccurrenceParser.parse(new ByteArrayInputStream(broken), records::add);
+      fail("Broken response must not be parsed");
+    } catch (XMLStreamException ex) {
+      // Should, the first record is consumed before the broken part is read
+      assertEquals(1, records.size());
+    }
+  }
+
+  @SneakyThrows
+  private static boolean parse(File gzipFile, List<RawOccurrenceRecord> records) {
+    try (InputStream is = new GZIPInputStream(new FileInputStream(gzipFile))) {
+      return StaxOccurrenceParser.parse(is, records::add);
+    }
+  }
+}